@@ -41,9 +41,12 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.slf4j.Logger;
 
 import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.ServerOptions;
 import com.baidu.hugegraph.core.GraphManager;
 import com.baidu.hugegraph.schema.SchemaManager;
 import com.baidu.hugegraph.server.RestServer;
+import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
@@ -174,6 +177,53 @@ public class GraphsAPI extends API {
         return ImmutableMap.of("restoring", g.restoring());
     }
 
+    @PUT
+    @Path("{name}/checkpoint")
+    @Consumes(APPLICATION_JSON)
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    @RolesAllowed("admin")
+    public Object checkpoint(@Context HugeConfig conf,
+                             @Context GraphManager manager,
+                             @PathParam("name") String name,
+                             JsonCheckpoint jsonCheckpoint) {
+        LOG.debug("Create checkpoint '{}' of graph '{}'",
+                  jsonCheckpoint, name);
+
+        E.checkArgument(jsonCheckpoint != null &&
+                        jsonCheckpoint.path != null &&
+                        !jsonCheckpoint.path.isEmpty(),
+                        "The checkpoint path can't be null or empty");
+        String path = checkpointPath(conf, jsonCheckpoint.path);
+
+        HugeGraph g = graph(manager, name);
+        g.createCheckpoint(path);
+        return ImmutableMap.of("checkpoint", path);
+    }
+
+    private static String checkpointPath(HugeConfig conf, String path) {
+        // The checkpoint can only be created under the configured directory
+        E.checkArgument(!new File(path).isAbsolute(),
+                        "The checkpoint path can't be absolute: '%s'", path);
+        for (String part : path.split("[/\\\\]")) {
+            E.checkArgument(!part.equals(".."),
+                            "The checkpoint path can't contain '..': '%s'",
+                            path);
+        }
+        String dir = conf.get(ServerOptions.CHECKPOINT_DIR);
+        return new File(dir, path).getPath();
+    }
+
+    private static class JsonCheckpoint {
+
+        @JsonProperty("path")
+        public String path;
+
+        @Override
+        public String toString() {
+            return String.format("JsonCheckpoint{path=%s}", this.path);
+        }
+    }
+
     private static class JsonRestoring {
 
         @JsonProperty("restoring")
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.api;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.security.RolesAllowed;
+import javax.inject.Singleton;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.tinkerpop.gremlin.server.util.MetricManager;
+
+import com.codahale.metrics.Counting;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+
+@Path("metrics")
+@Singleton
+public class MetricsAPI extends API {
+
+    @GET
+    @Produces(APPLICATION_JSON_WITH_CHARSET)
+    @RolesAllowed("admin")
+    @SuppressWarnings("rawtypes")
+    public Object all() {
+        MetricRegistry registry = MetricManager.INSTANCE.getRegistry();
+
+        Map<String, Object> gauges = new TreeMap<>();
+        for (Map.Entry<String, Gauge> e : registry.getGauges().entrySet()) {
+            gauges.put(e.getKey(), e.getValue().getValue());
+        }
+        return ImmutableMap.of("gauges", gauges,
+                               "counters", counts(registry.getCounters()),
+                               "meters", counts(registry.getMeters()),
+                               "timers", counts(registry.getTimers()),
+                               "histograms", counts(registry.getHistograms()));
+    }
+
+    private static Map<String, Long> counts(
+                                     Map<String, ? extends Counting> metrics) {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, ? extends Counting> e : metrics.entrySet()) {
+            counts.put(e.getKey(), e.getValue().getCount());
+        }
+        return counts;
+    }
+}
@@ -37,6 +37,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.Direction;
@@ -204,15 +205,17 @@ public class EdgeAPI extends BatchAPI {
     @GET
     @Compress
     @Produces(APPLICATION_JSON_WITH_CHARSET)
-    public String list(@Context GraphManager manager,
-                       @PathParam("graph") String graph,
-                       @QueryParam("vertex_id") String vertexId,
-                       @QueryParam("direction") String direction,
-                       @QueryParam("label") String label,
-                       @QueryParam("properties") String properties,
-                       @QueryParam("offset") @DefaultValue("0") long offset,
-                       @QueryParam("page") String page,
-                       @QueryParam("limit") @DefaultValue("100") long limit) {
+    public StreamingOutput list(@Context GraphManager manager,
+                                @PathParam("graph") String graph,
+                                @QueryParam("vertex_id") String vertexId,
+                                @QueryParam("direction") String direction,
+                                @QueryParam("label") String label,
+                                @QueryParam("properties") String properties,
+                                @QueryParam("offset")
+                                @DefaultValue("0") long offset,
+                                @QueryParam("page") String page,
+                                @QueryParam("limit")
+                                @DefaultValue("100") long limit) {
         LOG.debug("Graph [{}] query edges by vertex: {}, direction: {}, " +
                   "label: {}, properties: {}, offset: {}, page: {}, limit: {}",
                   vertexId, direction, label, properties, offset, page, limit);
@@ -255,7 +258,12 @@ public class EdgeAPI extends BatchAPI {
             traversal = traversal.has("~page", page).limit(limit);
         }
 
-        return manager.serializer(g).writeEdges(traversal, page != null);
+        // Execute the query before responding, errors get a proper status
+        traversal.hasNext();
+        // The rest elements are fetched while writing the response
+        GraphTraversal<?, Edge> edges = traversal;
+        return out -> manager.serializer(g).writeEdges(out, edges,
+                                                       page != null);
     }
 
     @GET
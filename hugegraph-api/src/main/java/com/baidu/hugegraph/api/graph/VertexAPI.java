@@ -37,6 +37,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.structure.T;
@@ -158,13 +159,15 @@ public class VertexAPI extends BatchAPI {
     @GET
     @Compress
     @Produces(APPLICATION_JSON_WITH_CHARSET)
-    public String list(@Context GraphManager manager,
-                       @PathParam("graph") String graph,
-                       @QueryParam("label") String label,
-                       @QueryParam("properties") String properties,
-                       @QueryParam("offset") @DefaultValue("0") long offset,
-                       @QueryParam("page") String page,
-                       @QueryParam("limit") @DefaultValue("100") long limit) {
+    public StreamingOutput list(@Context GraphManager manager,
+                                @PathParam("graph") String graph,
+                                @QueryParam("label") String label,
+                                @QueryParam("properties") String properties,
+                                @QueryParam("offset")
+                                @DefaultValue("0") long offset,
+                                @QueryParam("page") String page,
+                                @QueryParam("limit")
+                                @DefaultValue("100") long limit) {
         LOG.debug("Graph [{}] query vertices by label: {}, properties: {}, " +
                   "offset: {}, page: {}, limit: {}",
                   graph, label, properties, offset, page, limit);
@@ -193,7 +196,12 @@ public class VertexAPI extends BatchAPI {
             traversal = traversal.has("~page", page).limit(limit);
         }
 
-        return manager.serializer(g).writeVertices(traversal, page != null);
+        // Execute the query before responding, errors get a proper status
+        traversal.hasNext();
+        // The rest elements are fetched while writing the response
+        GraphTraversal<Vertex, Vertex> vertices = traversal;
+        return out -> manager.serializer(g).writeVertices(out, vertices,
+                                                          page != null);
     }
 
     @GET
@@ -121,6 +121,8 @@ public class IndexLabelAPI extends API {
         public IndexType indexType;
         @JsonProperty("fields")
         public String[] fields;
+        @JsonProperty("buckets")
+        public Integer buckets;
         @JsonProperty("check_exist")
         public Boolean checkExist;
 
@@ -149,6 +151,9 @@ public class IndexLabelAPI extends API {
             if (this.fields != null) {
                 builder.by(this.fields);
             }
+            if (this.buckets != null) {
+                builder.buckets(this.buckets);
+            }
             if (this.checkExist != null) {
                 builder.checkExist(this.checkExist);
             }
@@ -158,9 +163,10 @@ public class IndexLabelAPI extends API {
         @Override
         public String toString() {
             return String.format("JsonIndexLabel{name=%s, baseType=%s," +
-                                 "baseValue=%s, indexType=%s, fields=%s}",
+                                 "baseValue=%s, indexType=%s, fields=%s, " +
+                                 "buckets=%s}",
                                  this.name, this.baseType, this.baseValue,
-                                 this.indexType, this.fields);
+                                 this.indexType, this.fields, this.buckets);
         }
     }
 }
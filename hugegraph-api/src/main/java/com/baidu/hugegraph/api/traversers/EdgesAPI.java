@@ -29,6 +29,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.slf4j.Logger;
@@ -55,9 +56,9 @@ public class EdgesAPI extends API {
     @GET
     @Compress
     @Produces(APPLICATION_JSON_WITH_CHARSET)
-    public String list(@Context GraphManager manager,
-                       @PathParam("graph") String graph,
-                       @QueryParam("ids") List<String> stringIds) {
+    public StreamingOutput list(@Context GraphManager manager,
+                                @PathParam("graph") String graph,
+                                @QueryParam("ids") List<String> stringIds) {
         LOG.debug("Graph [{}] get edges by ids: {}", graph, stringIds);
 
         E.checkArgument(stringIds != null && !stringIds.isEmpty(),
@@ -71,7 +72,9 @@ public class EdgesAPI extends API {
         HugeGraph g = graph(manager, graph);
 
         Iterator<Edge> edges = g.edges(ids);
-        return manager.serializer(g).writeEdges(edges, false);
+        // Execute the query before responding, errors get a proper status
+        edges.hasNext();
+        return out -> manager.serializer(g).writeEdges(out, edges, false);
     }
 
     @GET
@@ -94,10 +97,10 @@ public class EdgesAPI extends API {
     @Path("scan")
     @Compress
     @Produces(APPLICATION_JSON_WITH_CHARSET)
-    public String scan(@Context GraphManager manager,
-                       @PathParam("graph") String graph,
-                       @QueryParam("start") String start,
-                       @QueryParam("end") String end) {
+    public StreamingOutput scan(@Context GraphManager manager,
+                                @PathParam("graph") String graph,
+                                @QueryParam("start") String start,
+                                @QueryParam("end") String end) {
         LOG.debug("Graph [{}] query edges by shard(start: {}, end: {}) ",
                   graph, start, end);
 
@@ -107,6 +110,8 @@ public class EdgesAPI extends API {
         query.scan(start, end);
         Iterator<Edge> edges = g.edges(query);
 
-        return manager.serializer(g).writeEdges(edges, false);
+        // Execute the query before responding, errors get a proper status
+        edges.hasNext();
+        return out -> manager.serializer(g).writeEdges(out, edges, false);
     }
 }
@@ -40,6 +40,7 @@ import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.core.GraphManager;
 import com.baidu.hugegraph.server.RestServer;
 import com.baidu.hugegraph.traversal.optimize.HugeTraverser;
+import com.baidu.hugegraph.traversal.optimize.TraversalExecutor;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.util.Log;
 
@@ -58,19 +59,23 @@ public class KneighborAPI extends API {
                       @QueryParam("label") String edgeLabel,
                       @QueryParam("depth") int depth,
                       @QueryParam("degree") @DefaultValue("-1") long degree,
-                      @QueryParam("limit") @DefaultValue("-1") long limit) {
+                      @QueryParam("limit") @DefaultValue("-1") long limit,
+                      @QueryParam("parallel")
+                      @DefaultValue("false") boolean parallel) {
         LOG.debug("Graph [{}] get k-neighbor from '{}' with " +
                   "direction '{}', edge label '{}', depth '{}', " +
-                  "degree '{}' and limit '{}'",
+                  "degree '{}', limit '{}' and parallel '{}'",
                   graph, sourceV, direction, edgeLabel, depth,
-                  degree, limit);
+                  degree, limit, parallel);
 
         Id source = VertexAPI.checkAndParseVertexId(sourceV);
         Directions dir = Directions.convert(EdgeAPI.parseDirection(direction));
 
         HugeGraph g = graph(manager, graph);
 
-        HugeTraverser traverser = new HugeTraverser(g);
+        TraversalExecutor executor = parallel ?
+                                     manager.traversalExecutor() : null;
+        HugeTraverser traverser = new HugeTraverser(g, executor);
         Set<Id> ids = traverser.kneighbor(source, dir, edgeLabel, depth,
                                           degree, limit);
         return manager.serializer(g).writeIds("vertices", ids);
@@ -40,6 +40,7 @@ import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.core.GraphManager;
 import com.baidu.hugegraph.server.RestServer;
 import com.baidu.hugegraph.traversal.optimize.HugeTraverser;
+import com.baidu.hugegraph.traversal.optimize.TraversalExecutor;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.util.Log;
 
@@ -61,19 +62,23 @@ public class KoutAPI extends API {
                       @DefaultValue("true")  boolean nearest,
                       @QueryParam("degree") @DefaultValue("-1") long degree,
                       @QueryParam("capacity") @DefaultValue("-1") long capacity,
-                      @QueryParam("limit") @DefaultValue("-1") long limit) {
+                      @QueryParam("limit") @DefaultValue("-1") long limit,
+                      @QueryParam("parallel")
+                      @DefaultValue("false") boolean parallel) {
         LOG.debug("Graph [{}] get k-out from '{}' with " +
                   "direction '{}', edge label '{}', depth '{}', nearest '{}'," +
-                  " degree '{}', capacity '{}' and limit '{}'",
+                  " degree '{}', capacity '{}', limit '{}' and parallel '{}'",
                   graph, source, direction, edgeLabel, depth, nearest,
-                  degree, capacity, limit);
+                  degree, capacity, limit, parallel);
 
         Id sourceId = VertexAPI.checkAndParseVertexId(source);
         Directions dir = Directions.convert(EdgeAPI.parseDirection(direction));
 
         HugeGraph g = graph(manager, graph);
 
-        HugeTraverser traverser = new HugeTraverser(g);
+        TraversalExecutor executor = parallel ?
+                                     manager.traversalExecutor() : null;
+        HugeTraverser traverser = new HugeTraverser(g, executor);
         Set<Id> ids = traverser.kout(sourceId, dir, edgeLabel, depth,
                                      nearest, degree, capacity, limit);
         return manager.serializer(g).writeIds("vertices", ids);
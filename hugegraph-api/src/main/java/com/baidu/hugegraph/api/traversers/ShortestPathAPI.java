@@ -40,6 +40,7 @@ import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.core.GraphManager;
 import com.baidu.hugegraph.server.RestServer;
 import com.baidu.hugegraph.traversal.optimize.HugeTraverser;
+import com.baidu.hugegraph.traversal.optimize.TraversalExecutor;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.util.Log;
 
@@ -60,12 +61,14 @@ public class ShortestPathAPI extends API {
                       @QueryParam("max_depth") int maxDepth,
                       @QueryParam("degree") @DefaultValue("-1") long degree,
                       @QueryParam("capacity")
-                      @DefaultValue("-1") long capacity) {
+                      @DefaultValue("-1") long capacity,
+                      @QueryParam("parallel")
+                      @DefaultValue("false") boolean parallel) {
         LOG.debug("Graph [{}] get shortest path from '{}', to '{}' with " +
                   "direction {}, edge label {}, max depth '{}', " +
-                  "degree '{}' and capacity '{}'",
+                  "degree '{}', capacity '{}' and parallel '{}'",
                   graph, source, target, direction, edgeLabel, maxDepth,
-                  degree, capacity);
+                  degree, capacity, parallel);
 
         Id sourceId = VertexAPI.checkAndParseVertexId(source);
         Id targetId = VertexAPI.checkAndParseVertexId(target);
@@ -73,7 +76,9 @@ public class ShortestPathAPI extends API {
 
         HugeGraph g = graph(manager, graph);
 
-        HugeTraverser traverser = new HugeTraverser(g);
+        TraversalExecutor executor = parallel ?
+                                     manager.traversalExecutor() : null;
+        HugeTraverser traverser = new HugeTraverser(g, executor);
         List<Id> path = traverser.shortestPath(sourceId, targetId, dir,
                                                edgeLabel, maxDepth,
                                                degree, capacity);
@@ -98,6 +98,25 @@ public class ServerOptions extends OptionHolder {
                     nonNegativeInt(),
                     0);
 
+    public static final ConfigOption<Integer> TRAVERSER_WORKERS =
+            new ConfigOption<>(
+                    "traverser.workers",
+                    "The number of threads for parallel traversal, " +
+                    "if the value is 0, the actual value will be set to " +
+                    "the number of available processors.",
+                    nonNegativeInt(),
+                    0
+            );
+
+    public static final ConfigOption<String> CHECKPOINT_DIR =
+            new ConfigOption<>(
+                    "checkpoint.dir",
+                    "The directory to store checkpoints of graphs, the " +
+                    "path of a checkpoint request is resolved under it.",
+                    disallowEmpty(),
+                    "./checkpoints"
+            );
+
     public static final ConfigOption<Boolean> ALLOW_TRACE =
             new ConfigOption<>(
                     "exception.allow_trace",
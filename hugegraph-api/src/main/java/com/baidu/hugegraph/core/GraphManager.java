@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.tinkerpop.gremlin.server.util.MetricManager;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.io.IoCore;
@@ -33,13 +34,18 @@ import org.slf4j.Logger;
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.auth.HugeGraphAuthProxy;
 import com.baidu.hugegraph.auth.StandardAuthenticator;
+import com.baidu.hugegraph.backend.cache.CachedGraphTransaction;
+import com.baidu.hugegraph.backend.cache.EdgeCacheIndex.Reason;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.config.ServerOptions;
 import com.baidu.hugegraph.exception.NotSupportException;
 import com.baidu.hugegraph.serializer.JsonSerializer;
 import com.baidu.hugegraph.serializer.Serializer;
 import com.baidu.hugegraph.server.RestServer;
+import com.baidu.hugegraph.traversal.optimize.TraversalExecutor;
 import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 
 public final class GraphManager {
 
@@ -47,11 +53,18 @@ public final class GraphManager {
 
     private final Map<String, Graph> graphs;
     private final StandardAuthenticator authenticator;
+    private final TraversalExecutor traversalExecutor;
 
     public GraphManager(HugeConfig conf) {
         this.graphs = new ConcurrentHashMap<>();
         this.authenticator = new StandardAuthenticator(conf);
 
+        int workers = conf.get(ServerOptions.TRAVERSER_WORKERS);
+        if (workers == 0) {
+            workers = Runtime.getRuntime().availableProcessors();
+        }
+        this.traversalExecutor = new TraversalExecutor(workers);
+
         this.loadGraphs(conf.getMap(ServerOptions.GRAPHS));
     }
 
@@ -60,6 +73,7 @@ public final class GraphManager {
             try {
                 final Graph newGraph = GraphFactory.open(conf.getValue());
                 this.graphs.put(conf.getKey(), newGraph);
+                this.registerMetrics(conf.getKey(), newGraph);
                 LOG.info("Graph '{}' was successfully configured via '{}'",
                          conf.getKey(), conf.getValue());
             } catch (RuntimeException e) {
@@ -69,6 +83,29 @@ public final class GraphManager {
         });
     }
 
+    /**
+     * Publish the metrics of a graph through the metrics registry of
+     * gremlin server, which are also exposed by the metrics api
+     */
+    private void registerMetrics(String name, Graph graph) {
+        if (!(graph instanceof HugeGraph)) {
+            return;
+        }
+        HugeGraph hugegraph = (HugeGraph) graph;
+        MetricRegistry registry = MetricManager.INSTANCE.getRegistry();
+        for (Reason reason : Reason.values()) {
+            String key = reason.name().toLowerCase();
+            String metric = MetricRegistry.name(CachedGraphTransaction.class,
+                                                name, "edges-evictions", key);
+            // Replace the metric of the graph loaded before if exists
+            registry.remove(metric);
+            registry.register(metric, (Gauge<Long>) () -> {
+                return CachedGraphTransaction.edgesCacheEvictions(hugegraph)
+                                             .getOrDefault(key, 0L);
+            });
+        }
+    }
+
     public Map<String, Graph> graphs() {
         return this.graphs;
     }
@@ -87,6 +124,14 @@ public final class GraphManager {
         throw new NotSupportException("graph instance of %s", graph.getClass());
     }
 
+    public TraversalExecutor traversalExecutor() {
+        return this.traversalExecutor;
+    }
+
+    public void close() {
+        this.traversalExecutor.close();
+    }
+
     public Serializer serializer(Graph g) {
         // TODO: cache Serializer
         return new JsonSerializer(g.io(IoCore.graphson()).writer()
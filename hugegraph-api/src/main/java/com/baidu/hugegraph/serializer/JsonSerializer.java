@@ -20,6 +20,7 @@
 package com.baidu.hugegraph.serializer;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -34,13 +35,16 @@ import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 
 import com.baidu.hugegraph.HugeException;
 import com.baidu.hugegraph.api.API;
+import com.baidu.hugegraph.api.filter.ExceptionFilter;
 import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.iterator.MapperIterator;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.schema.PropertyKey;
 import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.traversal.optimize.HugeTraverser;
 import com.baidu.hugegraph.traversal.optimize.TraversalUtil;
+import com.baidu.hugegraph.traversal.optimize.WeightedShortestPathTraverser.WeightedPath;
 import com.baidu.hugegraph.type.Shard;
 
 public class JsonSerializer implements Serializer {
@@ -75,23 +79,35 @@ public class JsonSerializer implements Serializer {
         }
     }
 
-    private String writeList(String label, Iterator<?> itor, boolean paging) {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream(LBUF_SIZE)) {
+    private void writeList(OutputStream out, String label, Iterator<?> itor,
+                           boolean paging, boolean flush) {
+        boolean inList = false;
+        try {
             out.write("{".getBytes(API.CHARSET));
 
             out.write(String.format("\"%s\": [", label).getBytes(API.CHARSET));
+            inList = true;
 
             // Write data
+            ByteArrayOutputStream element = new ByteArrayOutputStream(BUF_SIZE);
             boolean first = true;
             while (itor.hasNext()) {
+                // Serialize into buffer first to never write a partial one
+                element.reset();
+                this.writer.writeObject(element, itor.next());
                 if (!first) {
                     out.write(",".getBytes(API.CHARSET));
                 } else {
                     first = false;
                 }
-                this.writer.writeObject(out, itor.next());
+                element.writeTo(out);
+                if (flush) {
+                    // Send each element to client as soon as it's written
+                    out.flush();
+                }
             }
             out.write("]".getBytes(API.CHARSET));
+            inList = false;
 
             // Write page
             if (paging) {
@@ -101,10 +117,17 @@ public class JsonSerializer implements Serializer {
             }
 
             out.write("}".getBytes(API.CHARSET));
-            return out.toString(API.CHARSET);
-        } catch (HugeException e) {
-            throw e;
+            out.flush();
         } catch (Exception e) {
+            /*
+             * The status code has been sent if the response is streamed,
+             * so end the json with an error marker to let client know it
+             * is not complete, then abort the response by rethrowing
+             */
+            writeError(out, e, inList);
+            if (e instanceof HugeException) {
+                throw (HugeException) e;
+            }
             throw new HugeException("Failed to serialize %s", e, label);
         } finally {
             try {
@@ -115,6 +138,19 @@ public class JsonSerializer implements Serializer {
         }
     }
 
+    private static void writeError(OutputStream out, Exception e,
+                                   boolean inList) {
+        String error = String.format("%s,\"error\": %s}", inList ? "]" : "",
+                                     ExceptionFilter.formatException(e));
+        try {
+            out.write(error.getBytes(API.CHARSET));
+            out.flush();
+        } catch (Exception suppressed) {
+            // The client may have gone, just keep the original exception
+            e.addSuppressed(suppressed);
+        }
+    }
+
     @Override
     public String writePropertyKey(PropertyKey propertyKey) {
         return writeObject(propertyKey);
@@ -161,8 +197,9 @@ public class JsonSerializer implements Serializer {
     }
 
     @Override
-    public String writeVertices(Iterator<Vertex> vertices, boolean paging) {
-        return writeList("vertices", vertices, paging);
+    public void writeVertices(OutputStream out, Iterator<Vertex> vertices,
+                              boolean paging) {
+        this.writeList(out, "vertices", vertices, paging, false);
     }
 
     @Override
@@ -171,8 +208,9 @@ public class JsonSerializer implements Serializer {
     }
 
     @Override
-    public String writeEdges(Iterator<Edge> edges, boolean paging) {
-        return writeList("edges", edges, paging);
+    public void writeEdges(OutputStream out, Iterator<Edge> edges,
+                           boolean paging) {
+        this.writeList(out, "edges", edges, paging, false);
     }
 
     @Override
@@ -194,6 +232,23 @@ public class JsonSerializer implements Serializer {
         return writeList(name, pathList);
     }
 
+    @Override
+    public String writeWeightedPaths(String name,
+                                     Collection<WeightedPath> paths) {
+        List<Map<String, Object>> pathList = new ArrayList<>(paths.size());
+        for (WeightedPath path : paths) {
+            pathList.add(path.toMap());
+        }
+        return writeList(name, pathList);
+    }
+
+    @Override
+    public void writeWeightedPaths(OutputStream out, String name,
+                                   Iterator<WeightedPath> paths) {
+        this.writeList(out, name, new MapperIterator<>(paths, p -> p.toMap()),
+                       false, true);
+    }
+
     @Override
     public String writeShards(List<Shard> shards) {
         return this.writeList("shards", shards);
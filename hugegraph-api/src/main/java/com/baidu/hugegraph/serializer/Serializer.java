@@ -19,6 +19,7 @@
 
 package com.baidu.hugegraph.serializer;
 
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -32,6 +33,7 @@ import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.schema.PropertyKey;
 import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.traversal.optimize.HugeTraverser;
+import com.baidu.hugegraph.traversal.optimize.WeightedShortestPathTraverser.WeightedPath;
 import com.baidu.hugegraph.type.Shard;
 
 public interface Serializer {
@@ -54,16 +56,24 @@ public interface Serializer {
 
     public String writeVertex(Vertex v);
 
-    public String writeVertices(Iterator<Vertex> vertices, boolean paging);
+    public void writeVertices(OutputStream out, Iterator<Vertex> vertices,
+                              boolean paging);
 
     public String writeEdge(Edge e);
 
-    public String writeEdges(Iterator<Edge> edges, boolean paging);
+    public void writeEdges(OutputStream out, Iterator<Edge> edges,
+                           boolean paging);
 
     public String writeIds(String name, Collection<Id> ids);
 
     public String writePaths(String name, Collection<HugeTraverser.Path> paths,
                              boolean withCrossPoint);
 
+    public String writeWeightedPaths(String name,
+                                     Collection<WeightedPath> paths);
+
+    public void writeWeightedPaths(OutputStream out, String name,
+                                   Iterator<WeightedPath> paths);
+
     public String writeShards(List<Shard> shards);
 }
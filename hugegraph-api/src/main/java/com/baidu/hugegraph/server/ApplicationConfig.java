@@ -89,10 +89,17 @@ public class ApplicationConfig extends ResourceConfig {
             register(new ApplicationEventListener() {
                 private final ApplicationEvent.Type EVENT_INITED =
                               ApplicationEvent.Type.INITIALIZATION_FINISHED;
+                private final ApplicationEvent.Type EVENT_DESTROYED =
+                              ApplicationEvent.Type.DESTROY_FINISHED;
                 @Override
                 public void onEvent(ApplicationEvent event) {
                     if (event.getType() == this.EVENT_INITED) {
                         GraphManagerFactory.this.manager = new GraphManager(conf);
+                    } else if (event.getType() == this.EVENT_DESTROYED) {
+                        GraphManager manager = GraphManagerFactory.this.manager;
+                        if (manager != null) {
+                            manager.close();
+                        }
                     }
                 }
 
@@ -101,4 +101,14 @@ public class CassandraFeatures implements BackendFeatures {
     public boolean supportsNumberType() {
         return true;
     }
+
+    @Override
+    public boolean supportsIndexBuckets() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsCheckpoint() {
+        return false;
+    }
 }
@@ -25,6 +25,7 @@ import static com.baidu.hugegraph.config.OptionChecker.rangeInt;
 
 import com.baidu.hugegraph.config.ConfigOption;
 import com.baidu.hugegraph.config.OptionHolder;
+import com.baidu.hugegraph.util.Bytes;
 
 public class CassandraOptions extends OptionHolder {
 
@@ -111,4 +112,60 @@ public class CassandraOptions extends OptionHolder {
                     allowValues("none", "snappy", "lz4"),
                     "none"
             );
+
+    public static final ConfigOption<Integer> CASSANDRA_QUERY_CONCURRENCY =
+            new ConfigOption<>(
+                    "cassandra.query_concurrency",
+                    "The max number of selects of a query executed " +
+                    "concurrently, like the selects of ids in batches, " +
+                    "1 means executing them one by one.",
+                    rangeInt(1, 1024),
+                    16
+            );
+
+    public static final ConfigOption<Boolean> CASSANDRA_PARALLEL_SCAN =
+            new ConfigOption<>(
+                    "cassandra.parallel_scan",
+                    "Whether to split a full scan of vertices or edges into " +
+                    "token-range shards and read them concurrently, the " +
+                    "concurrency is limited by cassandra.query_concurrency.",
+                    disallowEmpty(),
+                    false
+            );
+
+    public static final ConfigOption<Long> CASSANDRA_SCAN_SPLIT_SIZE =
+            new ConfigOption<>(
+                    "cassandra.scan_split_size",
+                    "The expected size(bytes) of a shard in parallel scan.",
+                    rangeInt(Bytes.MB, Long.MAX_VALUE),
+                    64L * Bytes.MB
+            );
+
+    public static final ConfigOption<String> CASSANDRA_COMMIT_MODE =
+            new ConfigOption<>(
+                    "cassandra.commit_mode",
+                    "The way to commit the mutations of a transaction: " +
+                    "logged/unlogged, 'logged' means a logged batch, and " +
+                    "'unlogged' means unlogged batches of each partition " +
+                    "executed concurrently, which is faster but not atomic.",
+                    allowValues("logged", "unlogged"),
+                    "logged"
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_BATCH_SIZE =
+            new ConfigOption<>(
+                    "cassandra.unlogged_batch_size",
+                    "The max number of statements in an unlogged batch.",
+                    rangeInt(1, 65535),
+                    20
+            );
+
+    public static final ConfigOption<Integer> CASSANDRA_COMMIT_CONCURRENCY =
+            new ConfigOption<>(
+                    "cassandra.commit_concurrency",
+                    "The max number of in-flight batches when committing " +
+                    "in unlogged mode.",
+                    rangeInt(1, 1024),
+                    64
+            );
 }
@@ -25,14 +25,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.serializer.TableSerializer;
 import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.backend.store.TableBackendEntry;
+import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.schema.SchemaElement;
 import com.baidu.hugegraph.structure.HugeElement;
+import com.baidu.hugegraph.structure.HugeIndex;
 import com.baidu.hugegraph.structure.HugeProperty;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.HugeKeys;
@@ -61,6 +64,41 @@ public class CassandraSerializer extends TableSerializer {
         return (CassandraBackendEntry) backendEntry;
     }
 
+    @Override
+    public BackendEntry writeIndex(HugeIndex index) {
+        BackendEntry entry = super.writeIndex(index);
+        if (index.type() == HugeType.SECONDARY_INDEX &&
+            !index.elementIds().isEmpty()) {
+            // The bucket is part of the partition key of secondary index
+            ((TableBackendEntry) entry).column(HugeKeys.BUCKET,
+                                               index.bucket());
+        }
+        return entry;
+    }
+
+    @Override
+    public BackendEntry writeIndexLabel(IndexLabel indexLabel) {
+        BackendEntry entry = super.writeIndexLabel(indexLabel);
+        ((TableBackendEntry) entry).column(HugeKeys.BUCKETS,
+                                           indexLabel.buckets());
+        return entry;
+    }
+
+    @Override
+    public IndexLabel readIndexLabel(HugeGraph graph,
+                                     BackendEntry backendEntry) {
+        IndexLabel indexLabel = super.readIndexLabel(graph, backendEntry);
+        if (indexLabel != null) {
+            TableBackendEntry entry = this.convertEntry(backendEntry);
+            Number buckets = entry.column(HugeKeys.BUCKETS);
+            // The index labels created before bucketing have no buckets
+            if (buckets != null) {
+                indexLabel.buckets(buckets.intValue());
+            }
+        }
+        return indexLabel;
+    }
+
     @Override
     protected Set<String> parseIndexElemIds(TableBackendEntry entry) {
         return ImmutableSet.of(entry.column(HugeKeys.ELEMENT_IDS));
@@ -19,9 +19,15 @@
 
 package com.baidu.hugegraph.backend.store.cassandra;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.store.BackendSessionPool;
@@ -30,13 +36,20 @@ import com.baidu.hugegraph.util.E;
 import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Cluster.Builder;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.Configuration;
 import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ProtocolOptions.Compression;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.SocketOptions;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.DriverException;
 import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.google.common.util.concurrent.MoreExecutors;
 
 public class CassandraSessionPool extends BackendSessionPool {
 
@@ -45,9 +58,20 @@ public class CassandraSessionPool extends BackendSessionPool {
     private Cluster cluster;
     private String keyspace;
 
+    // The prepared statements of the cluster, keyed by cql
+    private final Map<String, PreparedStatement> preparedStatements;
+
+    private int queryConcurrency;
+    private boolean parallelScan;
+    private long scanSplitSize;
+    private boolean unlogged;
+    private int batchSize;
+    private int concurrency;
+
     public CassandraSessionPool(String keyspace) {
         this.cluster = null;
         this.keyspace = keyspace;
+        this.preparedStatements = new ConcurrentHashMap<>();
     }
 
     public synchronized void open(HugeConfig config) {
@@ -86,7 +110,24 @@ public class CassandraSessionPool extends BackendSessionPool {
         String compression = config.get(CassandraOptions.CASSANDRA_COMPRESSION);
         builder.withCompression(Compression.valueOf(compression.toUpperCase()));
 
+        // Query options
+        this.queryConcurrency = config.get(
+                                CassandraOptions.CASSANDRA_QUERY_CONCURRENCY);
+        this.parallelScan = config.get(
+                            CassandraOptions.CASSANDRA_PARALLEL_SCAN);
+        this.scanSplitSize = config.get(
+                             CassandraOptions.CASSANDRA_SCAN_SPLIT_SIZE);
+
+        // Commit options
+        String mode = config.get(CassandraOptions.CASSANDRA_COMMIT_MODE);
+        this.unlogged = mode.equals("unlogged");
+        this.batchSize = config.get(CassandraOptions.CASSANDRA_BATCH_SIZE);
+        this.concurrency = config.get(
+                           CassandraOptions.CASSANDRA_COMMIT_CONCURRENCY);
+
         this.cluster = builder.build();
+        // The statements prepared by the old cluster can't be used any more
+        this.preparedStatements.clear();
     }
 
     public final synchronized boolean opened() {
@@ -117,6 +158,18 @@ public class CassandraSessionPool extends BackendSessionPool {
         }
     }
 
+    private static DriverException waitFor(ResultSetFuture future,
+                                           DriverException failure) {
+        try {
+            future.getUninterruptibly();
+        } catch (DriverException e) {
+            if (failure == null) {
+                return e;
+            }
+        }
+        return failure;
+    }
+
     public final void checkClusterConnected() {
         E.checkState(this.cluster != null,
                      "Cassandra cluster has not been initialized");
@@ -161,12 +214,79 @@ public class CassandraSessionPool extends BackendSessionPool {
 
         @Override
         public ResultSet commit() {
+            if (unlogged) {
+                this.commitUnlogged();
+                return null;
+            }
             ResultSet rs = this.session.execute(this.batch);
             // Clear batch if execute() successfully (retained if failed)
             this.batch.clear();
             return rs;
         }
 
+        /**
+         * Commit the statements by unlogged batches, the statements of the
+         * same partition are put into the same batches, and the batches are
+         * executed concurrently with at most `concurrency` in flight.
+         * All the batches share one timestamp like a logged batch does.
+         */
+        public void commitUnlogged() {
+            Configuration conf = cluster().getConfiguration();
+            ProtocolVersion version = conf.getProtocolOptions()
+                                          .getProtocolVersion();
+            CodecRegistry registry = conf.getCodecRegistry();
+
+            // Group the statements by partition key
+            Map<Object, List<Statement>> partitions = new LinkedHashMap<>();
+            for (Statement statement : this.batch.getStatements()) {
+                Object key = statement.getRoutingKey(version, registry);
+                if (key == null) {
+                    // Unknown partition, like a statement not prepared
+                    key = new Object();
+                }
+                List<Statement> statements = partitions.get(key);
+                if (statements == null) {
+                    statements = new ArrayList<>();
+                    partitions.put(key, statements);
+                }
+                statements.add(statement);
+            }
+
+            long timestamp = conf.getPolicies().getTimestampGenerator()
+                                 .next();
+            Deque<ResultSetFuture> futures = new ArrayDeque<>(concurrency);
+            DriverException failure = null;
+            for (List<Statement> statements : partitions.values()) {
+                for (int i = 0, n = statements.size(); i < n; i += batchSize) {
+                    Statement batch = this.unloggedBatch(statements.subList(
+                                      i, Math.min(i + batchSize, n)));
+                    batch.setDefaultTimestamp(timestamp);
+                    if (futures.size() >= concurrency) {
+                        failure = waitFor(futures.poll(), failure);
+                    }
+                    futures.add(this.session.executeAsync(batch));
+                }
+            }
+            while (!futures.isEmpty()) {
+                failure = waitFor(futures.poll(), failure);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            // Clear batch if execute() successfully (retained if failed)
+            this.batch.clear();
+        }
+
+        private Statement unloggedBatch(List<Statement> statements) {
+            if (statements.size() == 1) {
+                return statements.get(0);
+            }
+            BatchStatement batch = new BatchStatement(
+                                   BatchStatement.Type.UNLOGGED);
+            return batch.addAll(statements);
+        }
+
         public void commitAsync() {
             Collection<Statement> statements = this.batch.getStatements();
 
@@ -196,6 +316,36 @@ public class CassandraSessionPool extends BackendSessionPool {
             return this.execute(statement);
         }
 
+        /**
+         * Execute a select asynchronously, the future will be completed
+         * in the thread of the driver when the first page arrives
+         */
+        public CompletableFuture<ResultSet> queryAsync(Statement statement) {
+            assert !this.hasChanges();
+            CompletableFuture<ResultSet> future = new CompletableFuture<>();
+            ResultSetFuture results = this.session.executeAsync(statement);
+            results.addListener(() -> {
+                try {
+                    future.complete(results.getUninterruptibly());
+                } catch (DriverException e) {
+                    future.completeExceptionally(e);
+                }
+            }, MoreExecutors.directExecutor());
+            return future;
+        }
+
+        public int queryConcurrency() {
+            return queryConcurrency;
+        }
+
+        public boolean parallelScan() {
+            return parallelScan;
+        }
+
+        public long scanSplitSize() {
+            return scanSplitSize;
+        }
+
         public ResultSet execute(Statement statement) {
             return this.session.execute(statement);
         }
@@ -208,6 +358,24 @@ public class CassandraSessionPool extends BackendSessionPool {
             return this.session.execute(statement, args);
         }
 
+        /**
+         * Prepare a statement with bind markers, the prepared statements
+         * are cached by cql and shared by all sessions of the pool
+         */
+        public PreparedStatement prepare(RegularStatement statement) {
+            String cql = statement.getQueryString();
+            PreparedStatement prepared = preparedStatements.get(cql);
+            if (prepared == null) {
+                prepared = this.session.prepare(statement);
+                PreparedStatement old = preparedStatements.putIfAbsent(cql,
+                                                                  prepared);
+                if (old != null) {
+                    prepared = old;
+                }
+            }
+            return prepared;
+        }
+
         public void open() {
             this.session = cluster().connect(keyspace());
         }
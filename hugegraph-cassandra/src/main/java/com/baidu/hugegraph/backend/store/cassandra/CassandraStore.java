@@ -230,6 +230,12 @@ public abstract class CassandraStore implements BackendStore {
         return table.metadata(this.sessions.session(), meta, args);
     }
 
+    @Override
+    public void createCheckpoint(String dir) {
+        throw new UnsupportedOperationException(
+                  "CassandraStore.createCheckpoint()");
+    }
+
     @Override
     public BackendFeatures features() {
         return FEATURES;
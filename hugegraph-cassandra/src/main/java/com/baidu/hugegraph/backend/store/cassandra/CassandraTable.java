@@ -19,13 +19,18 @@
 
 package com.baidu.hugegraph.backend.store.cassandra;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 
@@ -33,10 +38,13 @@ import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.query.Condition;
 import com.baidu.hugegraph.backend.query.Condition.Relation;
+import com.baidu.hugegraph.backend.query.Condition.RelationType;
+import com.baidu.hugegraph.backend.query.ConditionQuery;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.query.Query.Order;
 import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.backend.store.BackendTable;
+import com.baidu.hugegraph.backend.store.PipelinedQueryIterator;
 import com.baidu.hugegraph.exception.NotFoundException;
 import com.baidu.hugegraph.iterator.ExtendableIterator;
 import com.baidu.hugegraph.type.Shard;
@@ -44,8 +52,13 @@ import com.baidu.hugegraph.type.define.HugeKeys;
 import com.baidu.hugegraph.util.CopyUtil;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnDefinitions;
 import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.exceptions.DriverException;
 import com.datastax.driver.core.exceptions.PagingStateException;
@@ -61,6 +74,7 @@ import com.datastax.driver.core.schemabuilder.SchemaBuilder;
 import com.datastax.driver.core.schemabuilder.SchemaStatement;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 public abstract class CassandraTable
                 extends BackendTable<CassandraSessionPool.Session,
@@ -96,10 +110,23 @@ public abstract class CassandraTable
             return rs;
         }
 
-        List<Select> selections = this.query2Select(this.table(), query);
+        if (this.scanInParallel(session, query)) {
+            List<Shard> shards = this.shards(session);
+            if (shards != null) {
+                return this.queryConcurrently(session, query,
+                                              this.shards2Select(query,
+                                                                 shards));
+            }
+        }
+
+        List<Selection> selections = this.query2Select(this.table(), query);
+        if (selections.size() > 1 && !query.paging() &&
+            session.queryConcurrency() > 1) {
+            return this.queryConcurrently(session, query, selections);
+        }
         try {
-            for (Select selection : selections) {
-                ResultSet results = session.query(selection);
+            for (Selection selection : selections) {
+                ResultSet results = session.query(selection.bind(session));
                 rs.extend(this.results2Entries(query, results));
             }
         } catch (DriverException e) {
@@ -110,7 +137,88 @@ public abstract class CassandraTable
         return rs;
     }
 
-    protected List<Select> query2Select(String table, Query query) {
+    private Iterator<BackendEntry> queryConcurrently(
+                                   CassandraSessionPool.Session session,
+                                   Query query, List<Selection> selections) {
+        List<Supplier<CompletableFuture<ResultSet>>> tasks;
+        tasks = new ArrayList<>(selections.size());
+        for (Selection selection : selections) {
+            // Bind in the current thread since preparing may be blocked
+            BoundStatement statement;
+            try {
+                statement = selection.bind(session);
+            } catch (DriverException e) {
+                throw new BackendException("Failed to query [%s]", e, query);
+            }
+            tasks.add(() -> session.queryAsync(statement));
+        }
+
+        Iterator<BackendEntry> rs = new PipelinedQueryIterator<>(
+                                    query, tasks,
+                                    results -> this.results2Entries(query,
+                                                                    results),
+                                    session.queryConcurrency());
+        LOG.debug("Return {} for query {} with {} selects",
+                  rs, query, selections.size());
+        return rs;
+    }
+
+    /**
+     * Whether to read a full scan of the table by token-range shards, it's
+     * not applied to a query restricted by partition key, order or limit
+     */
+    protected boolean scanInParallel(CassandraSessionPool.Session session,
+                                     Query query) {
+        if (!session.parallelScan() || session.queryConcurrency() <= 1) {
+            return false;
+        }
+        if (!query.resultType().isGraph() || !query.ids().isEmpty() ||
+            !query.orders().isEmpty() || query.paging() ||
+            query.limit() != Query.NO_LIMIT || query.offset() != 0) {
+            return false;
+        }
+        if (query.conditions().isEmpty()) {
+            return true;
+        }
+        if (!(query instanceof ConditionQuery)) {
+            return false;
+        }
+        List<HugeKeys> pkeys = this.pkColumnName();
+        for (Relation r : ((ConditionQuery) query).relations()) {
+            if (r.relation() == RelationType.SCAN || pkeys.contains(r.key())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Shard> shards(CassandraSessionPool.Session session) {
+        CassandraShard splitter = new CassandraShard(session,
+                                                     session.keyspace(),
+                                                     this.table());
+        try {
+            return splitter.getSplits(0, session.scanSplitSize());
+        } catch (BackendException e) {
+            LOG.warn("Failed to get shards of table '{}', scan it without " +
+                     "shards", this.table(), e);
+            return null;
+        }
+    }
+
+    protected List<Selection> shards2Select(Query query, List<Shard> shards) {
+        List<Selection> selections = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            Select select = QueryBuilder.select().from(this.table());
+            Selection selection = new Selection(select);
+            Condition scan = Condition.scan(shard.start(), shard.end());
+            select.where(this.condition2Cql(scan, selection.values()));
+            this.conditions2Select(query.conditions(), selection);
+            selections.add(selection);
+        }
+        return selections;
+    }
+
+    protected List<Selection> query2Select(String table, Query query) {
         // Set table
         Select select = QueryBuilder.select().from(table);
 
@@ -120,25 +228,6 @@ public abstract class CassandraTable
                      "on Cassandra store, it will be ignored");
         }
 
-        // Set limit
-        if (query.limit() != Query.NO_LIMIT) {
-            long total = query.limit() + query.offset();
-            String page = query.page();
-            if (page == null) {
-                select.limit((int) total);
-            } else {
-                select.setFetchSize((int) total);
-                // It's the first time if page is empty
-                if (!page.isEmpty()) {
-                    try {
-                        select.setPagingState(PagingState.fromString(page));
-                    } catch (PagingStateException e) {
-                        throw new BackendException(e.getMessage());
-                    }
-                }
-            }
-        }
-
         // Set order-by
         for (Map.Entry<HugeKeys, Order> order : query.orders().entrySet()) {
             String name = formatKey(order.getKey());
@@ -151,27 +240,54 @@ public abstract class CassandraTable
         }
 
         // Is query by id?
-        List<Select> ids = this.queryId2Select(query, select);
+        List<Selection> ids = this.queryId2Select(query,
+                                                  new Selection(select));
 
+        List<Selection> selections;
         if (query.conditions().isEmpty()) {
             // Query only by id
             LOG.debug("Query only by id(s): {}", ids);
-            return ids;
+            selections = ids;
         } else {
-            List<Select> conds = new ArrayList<Select>(ids.size());
-            for (Select selection : ids) {
+            selections = new ArrayList<>(ids.size());
+            for (Selection selection : ids) {
                 // Query by condition
-                conds.addAll(this.queryCondition2Select(query, selection));
+                selections.addAll(this.queryCondition2Select(query,
+                                                             selection));
             }
-            LOG.debug("Query by conditions: {}", conds);
-            return conds;
+            LOG.debug("Query by conditions: {}", selections);
         }
+
+        // Set limit, which must be the last bind marker
+        if (query.limit() != Query.NO_LIMIT) {
+            long total = query.limit() + query.offset();
+            String page = query.page();
+            PagingState pagingState = null;
+            // It's the first time if page is empty
+            if (page != null && !page.isEmpty()) {
+                try {
+                    pagingState = PagingState.fromString(page);
+                } catch (PagingStateException e) {
+                    throw new BackendException(e.getMessage());
+                }
+            }
+            for (Selection selection : selections) {
+                if (page == null) {
+                    selection.limit((int) total);
+                } else {
+                    selection.fetchSize((int) total);
+                    selection.pagingState(pagingState);
+                }
+            }
+        }
+        return selections;
     }
 
-    protected List<Select> queryId2Select(Query query, Select select) {
+    protected List<Selection> queryId2Select(Query query,
+                                             Selection selection) {
         // Query by id(s)
         if (query.ids().isEmpty()) {
-            return ImmutableList.of(select);
+            return ImmutableList.of(selection);
         }
 
         List<HugeKeys> nameParts = this.idColumnName();
@@ -194,7 +310,7 @@ public abstract class CassandraTable
                 assert id.size() == 1;
                 idList.add(id.get(0));
             }
-            return this.ids2IdSelects(select, nameParts.get(0), idList);
+            return this.ids2IdSelects(selection, nameParts.get(0), idList);
         }
 
         /*
@@ -204,55 +320,63 @@ public abstract class CassandraTable
          * columns when using: select.where(QueryBuilder.in(names, idList));
          * So we use multi-query instead of IN
          */
-        List<Select> selects = new ArrayList<>(ids.size());
+        List<Selection> selects = new ArrayList<>(ids.size());
         for (List<Object> id : ids) {
             assert nameParts.size() == id.size();
-            Select idSelect = cloneSelect(select, this.table());
+            Selection idSelect = selection.copy(this.table());
             /*
              * NOTE: concat with AND relation, like:
              * "pk = id and ck1 = v1 and ck2 = v2"
              */
             for (int i = 0, n = nameParts.size(); i < n; i++) {
-                idSelect.where(formatEQ(nameParts.get(i), id.get(i)));
+                idSelect.where(formatEQ(nameParts.get(i)), id.get(i));
             }
             selects.add(idSelect);
         }
         return selects;
     }
 
-    protected Collection<Select> queryCondition2Select(Query query,
-                                                       Select select) {
+    protected Collection<Selection> queryCondition2Select(Query query,
+                                                          Selection select) {
         // Query by conditions
-        Set<Condition> conditions = query.conditions();
+        this.conditions2Select(query.conditions(), select);
+        return ImmutableList.of(select);
+    }
+
+    protected void conditions2Select(Collection<Condition> conditions,
+                                     Selection select) {
         for (Condition condition : conditions) {
-            Clause clause = condition2Cql(condition);
-            select.where(clause);
+            Clause clause = condition2Cql(condition, select.values());
+            select.select().where(clause);
             if (Clauses.needAllowFiltering(clause)) {
-                select.allowFiltering();
+                select.select().allowFiltering();
             }
         }
-        return ImmutableList.of(select);
     }
 
-    protected Clause condition2Cql(Condition condition) {
+    protected Clause condition2Cql(Condition condition, List<Object> values) {
         switch (condition.type()) {
             case AND:
                 Condition.And and = (Condition.And) condition;
-                Clause left = condition2Cql(and.left());
-                Clause right = condition2Cql(and.right());
+                Clause left = condition2Cql(and.left(), values);
+                Clause right = condition2Cql(and.right(), values);
                 return Clauses.and(left, right);
             case OR:
                 throw new BackendException("Not support OR currently");
             case RELATION:
                 Condition.Relation r = (Condition.Relation) condition;
-                return relation2Cql(r);
+                return relation2Cql(r, values);
             default:
                 final String msg = "Unsupported condition: " + condition;
                 throw new AssertionError(msg);
         }
     }
 
-    protected Clause relation2Cql(Relation relation) {
+    /**
+     * Convert a relation to a clause with bind markers, the values to bind
+     * will be added to the `values` in the order of the markers
+     */
+    protected Clause relation2Cql(Relation relation, List<Object> values) {
         String key = relation.serialKey().toString();
         Object value = relation.serialValue();
 
@@ -261,36 +385,49 @@ public abstract class CassandraTable
 
         switch (relation.relation()) {
             case EQ:
-                return QueryBuilder.eq(key, value);
+                values.add(value);
+                return QueryBuilder.eq(key, QueryBuilder.bindMarker());
             case GT:
-                return QueryBuilder.gt(key, value);
+                values.add(value);
+                return QueryBuilder.gt(key, QueryBuilder.bindMarker());
             case GTE:
-                return QueryBuilder.gte(key, value);
+                values.add(value);
+                return QueryBuilder.gte(key, QueryBuilder.bindMarker());
             case LT:
-                return QueryBuilder.lt(key, value);
+                values.add(value);
+                return QueryBuilder.lt(key, QueryBuilder.bindMarker());
             case LTE:
-                return QueryBuilder.lte(key, value);
+                values.add(value);
+                return QueryBuilder.lte(key, QueryBuilder.bindMarker());
             case IN:
-                List<?> values = (List<?>) value;
-                List<Object> serializedValues = new ArrayList<>(values.size());
-                for (Object v : values) {
+                List<?> inValues = (List<?>) value;
+                List<Object> serializedValues = new ArrayList<>(
+                                                inValues.size());
+                for (Object v : inValues) {
                     serializedValues.add(serializeValue(v));
                 }
-                return QueryBuilder.in(key, serializedValues);
+                values.add(serializedValues);
+                return QueryBuilder.in(key, QueryBuilder.bindMarker());
             case CONTAINS:
-                return QueryBuilder.contains(key, value);
+                values.add(value);
+                return QueryBuilder.contains(key, QueryBuilder.bindMarker());
             case CONTAINS_KEY:
-                return QueryBuilder.containsKey(key, value);
+                values.add(value);
+                return QueryBuilder.containsKey(key,
+                                                QueryBuilder.bindMarker());
             case SCAN:
                 String[] col = pkColumnName().stream()
                                              .map(pk -> formatKey(pk))
                                              .toArray(String[]::new);
                 Shard shard = (Shard) value;
-                Object start = QueryBuilder.raw(shard.start());
-                Object end = QueryBuilder.raw(shard.end());
+                // The tokens will be parsed by the type of token
+                values.add(shard.start());
+                values.add(shard.end());
                 return Clauses.and(
-                        QueryBuilder.gte(QueryBuilder.token(col), start),
-                        QueryBuilder.lt(QueryBuilder.token(col), end));
+                        QueryBuilder.gte(QueryBuilder.token(col),
+                                         QueryBuilder.bindMarker()),
+                        QueryBuilder.lt(QueryBuilder.token(col),
+                                        QueryBuilder.bindMarker()));
             /*
              * Currently we can't support LIKE due to error:
              * "cassandra no viable alternative at input 'like'..."
@@ -303,14 +440,16 @@ public abstract class CassandraTable
         }
     }
 
-    private List<Select> ids2IdSelects(Select select, HugeKeys key,
-                                       List<Object> ids) {
+    private List<Selection> ids2IdSelects(Selection selection, HugeKeys key,
+                                          List<Object> ids) {
         int size = ids.size();
-        List<Select> selects = new ArrayList<>();
+        List<Selection> selects = new ArrayList<>();
         for (int i = 0, j; i < size; i = j) {
             j = Math.min(i + MAX_ELEMENTS_IN_CLAUSE, size);
-            Select idSelect = cloneSelect(select, this.table());
-            idSelect.where(QueryBuilder.in(formatKey(key), ids.subList(i, j)));
+            Selection idSelect = selection.copy(this.table());
+            idSelect.where(QueryBuilder.in(formatKey(key),
+                                           QueryBuilder.bindMarker()),
+                           ids.subList(i, j));
             selects.add(idSelect);
         }
         return selects;
@@ -329,6 +468,26 @@ public abstract class CassandraTable
         return value;
     }
 
+    /**
+     * Bind the values to a statement with bind markers, the statement will
+     * be prepared only once by the session pool
+     */
+    protected static BoundStatement bind(CassandraSessionPool.Session session,
+                                         RegularStatement statement,
+                                         List<Object> values) {
+        PreparedStatement prepared = session.prepare(statement);
+        ColumnDefinitions variables = prepared.getVariables();
+        E.checkState(variables.size() == values.size(),
+                     "Expect %s values for '%s', but got %s",
+                     variables.size(), prepared.getQueryString(),
+                     values.size());
+        Object[] args = new Object[values.size()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = formatValue(variables.getType(i), values.get(i));
+        }
+        return prepared.bind(args);
+    }
+
     protected Iterator<BackendEntry> results2Entries(Query q, ResultSet r) {
         return new CassandraEntryIterator(r, q, this::mergeEntries);
     }
@@ -370,6 +529,93 @@ public abstract class CassandraTable
         return QueryBuilder.eq(formatKey(key), value);
     }
 
+    public static final Clause formatEQ(HugeKeys key) {
+        return QueryBuilder.eq(formatKey(key), QueryBuilder.bindMarker());
+    }
+
+    /**
+     * Format a value to the java type of the cql type to bind, the numbers
+     * are serialized as long or int, and the elements of collections too
+     */
+    public static final Object formatValue(DataType type, Object value) {
+        if (value == null) {
+            return null;
+        }
+        DataType.Name name = type.getName();
+        if (value instanceof String) {
+            if (name == DataType.Name.TEXT ||
+                name == DataType.Name.VARCHAR ||
+                name == DataType.Name.ASCII) {
+                return value;
+            }
+            // Parse the literal like the token of a shard
+            return CodecRegistry.DEFAULT_INSTANCE.codecFor(type)
+                                                 .parse((String) value);
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            switch (name) {
+                case TINYINT:
+                    return number.byteValue();
+                case SMALLINT:
+                    return number.shortValue();
+                case INT:
+                    return number.intValue();
+                case BIGINT:
+                case COUNTER:
+                    return number.longValue();
+                case FLOAT:
+                    return number.floatValue();
+                case DOUBLE:
+                    return number.doubleValue();
+                case DECIMAL:
+                    if (number instanceof BigDecimal) {
+                        return number;
+                    }
+                    return new BigDecimal(number.toString());
+                case VARINT:
+                    return new BigDecimal(number.toString()).toBigInteger();
+                default:
+                    break;
+            }
+        }
+
+        List<DataType> args = type.getTypeArguments();
+        switch (name) {
+            case LIST:
+                List<Object> list = new ArrayList<>();
+                for (Object e : elements(value)) {
+                    list.add(formatValue(args.get(0), e));
+                }
+                return list;
+            case SET:
+                Set<Object> set = new LinkedHashSet<>();
+                for (Object e : elements(value)) {
+                    set.add(formatValue(args.get(0), e));
+                }
+                return set;
+            case MAP:
+                E.checkArgument(value instanceof Map,
+                                "Expect map value for %s, but got %s",
+                                type, value);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                    map.put(formatValue(args.get(0), e.getKey()),
+                            formatValue(args.get(1), e.getValue()));
+                }
+                return map;
+            default:
+                return value;
+        }
+    }
+
+    private static Collection<?> elements(Object value) {
+        if (value instanceof Collection) {
+            return (Collection<?>) value;
+        }
+        return ImmutableList.of(value);
+    }
+
     /**
      * Insert an entire row
      */
@@ -378,12 +624,14 @@ public abstract class CassandraTable
                        CassandraBackendEntry.Row entry) {
         assert entry.columns().size() > 0;
         Insert insert = QueryBuilder.insertInto(this.table());
+        List<Object> values = new ArrayList<>(entry.columns().size());
 
         for (Map.Entry<HugeKeys, Object> c : entry.columns().entrySet()) {
-            insert.value(formatKey(c.getKey()), c.getValue());
+            insert.value(formatKey(c.getKey()), QueryBuilder.bindMarker());
+            values.add(c.getValue());
         }
 
-        session.add(insert);
+        session.add(bind(session, insert, values));
     }
 
     /**
@@ -399,6 +647,7 @@ public abstract class CassandraTable
         Map<HugeKeys, Object> columns = entry.columns();
 
         Update update = QueryBuilder.update(table());
+        List<Object> values = new ArrayList<>();
 
         for (HugeKeys key : colNames) {
             if (!columns.containsKey(key)) {
@@ -409,20 +658,23 @@ public abstract class CassandraTable
             Object value = columns.get(key);
 
             if (value instanceof Map) {
-                update.with(QueryBuilder.putAll(name, (Map<?, ?>) value));
-            } else if (value instanceof List) {
-                update.with(QueryBuilder.appendAll(name, (List<?>) value));
+                update.with(QueryBuilder.putAll(name,
+                                                QueryBuilder.bindMarker()));
             } else {
-                update.with(QueryBuilder.append(name, value));
+                // The single element will be bound as a list
+                update.with(QueryBuilder.appendAll(name,
+                                                   QueryBuilder.bindMarker()));
             }
+            values.add(value);
         }
 
         for (HugeKeys idName : idNames) {
             assert columns.containsKey(idName);
-            update.where(formatEQ(idName, columns.get(idName)));
+            update.where(formatEQ(idName));
+            values.add(columns.get(idName));
         }
 
-        session.add(update);
+        session.add(bind(session, update, values));
     }
 
     /**
@@ -439,6 +691,7 @@ public abstract class CassandraTable
 
         // Update by id
         Update update = QueryBuilder.update(table());
+        List<Object> values = new ArrayList<>();
 
         for (HugeKeys key : colNames) {
             /*
@@ -458,23 +711,26 @@ public abstract class CassandraTable
             if (value instanceof Map) {
                 @SuppressWarnings("rawtypes")
                 Set<?> keySet = ((Map) value).keySet();
-                update.with(QueryBuilder.removeAll(name, keySet));
+                values.add(keySet);
             } else if (value instanceof Set) {
-                update.with(QueryBuilder.removeAll(name, (Set<?>) value));
+                values.add(value);
             } else if (value instanceof List) {
                 Set<?> keySet = new HashSet<>((List<?>) value);
-                update.with(QueryBuilder.removeAll(name, keySet));
+                values.add(keySet);
             } else {
-                update.with(QueryBuilder.remove(name, value));
+                values.add(ImmutableSet.of(value));
             }
+            update.with(QueryBuilder.removeAll(name,
+                                               QueryBuilder.bindMarker()));
         }
 
         for (HugeKeys idName : idNames) {
             assert columns.containsKey(idName);
-            update.where(formatEQ(idName, columns.get(idName)));
+            update.where(formatEQ(idName));
+            values.add(columns.get(idName));
         }
 
-        session.add(update);
+        session.add(bind(session, update, values));
     }
 
     /**
@@ -485,6 +741,7 @@ public abstract class CassandraTable
                        CassandraBackendEntry.Row entry) {
         List<HugeKeys> idNames = this.idColumnName();
         Delete delete = QueryBuilder.delete().from(this.table());
+        List<Object> values = new ArrayList<>(idNames.size());
 
         if (entry.columns().isEmpty()) {
             // Delete just by id
@@ -492,13 +749,15 @@ public abstract class CassandraTable
             assert idNames.size() == idValues.size();
 
             for (int i = 0, n = idNames.size(); i < n; i++) {
-                delete.where(formatEQ(idNames.get(i), idValues.get(i)));
+                delete.where(formatEQ(idNames.get(i)));
+                values.add(idValues.get(i));
             }
         } else {
             // Delete just by column keys(must be id columns)
             for (HugeKeys idName : idNames) {
                 // TODO: should support other filters (like containsKey)
-                delete.where(formatEQ(idName, entry.column(idName)));
+                delete.where(formatEQ(idName));
+                values.add(entry.column(idName));
             }
             /*
              * TODO: delete by id + keys(like index element-ids -- it seems
@@ -506,7 +765,7 @@ public abstract class CassandraTable
              */
         }
 
-        session.add(delete);
+        session.add(bind(session, delete, values));
     }
 
     protected void createTable(CassandraSessionPool.Session session,
@@ -551,4 +810,78 @@ public abstract class CassandraTable
     public void clear(CassandraSessionPool.Session session) {
         this.dropTable(session);
     }
+
+    /**
+     * The select statement with bind markers and the values to bind
+     */
+    protected static class Selection {
+
+        private final Select select;
+        private final List<Object> values;
+        private int fetchSize;
+        private PagingState pagingState;
+
+        public Selection(Select select) {
+            this(select, new ArrayList<>());
+        }
+
+        private Selection(Select select, List<Object> values) {
+            this.select = select;
+            this.values = values;
+            this.fetchSize = 0;
+            this.pagingState = null;
+        }
+
+        public Select select() {
+            return this.select;
+        }
+
+        public List<Object> values() {
+            return this.values;
+        }
+
+        public Selection where(Clause clause, Object value) {
+            this.select.where(clause);
+            this.values.add(value);
+            return this;
+        }
+
+        public void limit(int limit) {
+            this.select.limit(QueryBuilder.bindMarker());
+            this.values.add(limit);
+        }
+
+        public void fetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public void pagingState(PagingState pagingState) {
+            this.pagingState = pagingState;
+        }
+
+        public Selection copy(String table) {
+            Selection selection = new Selection(cloneSelect(this.select,
+                                                            table),
+                                                new ArrayList<>(this.values));
+            selection.fetchSize = this.fetchSize;
+            selection.pagingState = this.pagingState;
+            return selection;
+        }
+
+        public BoundStatement bind(CassandraSessionPool.Session session) {
+            BoundStatement statement = CassandraTable.bind(session,
+                                                           this.select,
+                                                           this.values);
+            statement.setFetchSize(this.fetchSize);
+            if (this.pagingState != null) {
+                statement.setPagingState(this.pagingState);
+            }
+            return statement;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s", this.select, this.values);
+        }
+    }
 }
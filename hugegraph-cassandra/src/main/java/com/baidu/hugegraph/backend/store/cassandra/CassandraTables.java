@@ -21,6 +21,7 @@ package com.baidu.hugegraph.backend.store.cassandra;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 
@@ -29,6 +30,9 @@ import com.baidu.hugegraph.backend.id.EdgeId;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.id.IdUtil;
+import com.baidu.hugegraph.backend.query.Condition;
+import com.baidu.hugegraph.backend.query.Condition.Relation;
+import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.Directions;
@@ -226,7 +230,8 @@ public class CassandraTables {
             ImmutableMap<HugeKeys, DataType> columns = ImmutableMap.of(
                     HugeKeys.NAME, DataType.text(),
                     HugeKeys.INDEX_TYPE, DataType.tinyint(),
-                    HugeKeys.FIELDS, DataType.list(DATATYPE_PK)
+                    HugeKeys.FIELDS, DataType.list(DATATYPE_PK),
+                    HugeKeys.BUCKETS, DataType.cint()
             );
 
             this.createTable(session, pkeys, ckeys, columns);
@@ -460,8 +465,13 @@ public class CassandraTables {
 
         @Override
         public void init(CassandraSessionPool.Session session) {
+            /*
+             * The entries of a low-cardinality value may be spread over
+             * several buckets by the index label, to avoid a huge partition
+             */
             ImmutableMap<HugeKeys, DataType> pkeys = ImmutableMap.of(
-                    HugeKeys.FIELD_VALUES, DataType.text()
+                    HugeKeys.FIELD_VALUES, DataType.text(),
+                    HugeKeys.BUCKET, DataType.cint()
             );
             ImmutableMap<HugeKeys, DataType> ckeys = ImmutableMap.of(
                     HugeKeys.INDEX_LABEL_ID, DATATYPE_IL,
@@ -472,13 +482,61 @@ public class CassandraTables {
             this.createTable(session, pkeys, ckeys, columns);
         }
 
+        @Override
+        protected List<HugeKeys> pkColumnName() {
+            return ImmutableList.of(HugeKeys.FIELD_VALUES, HugeKeys.BUCKET);
+        }
+
         @Override
         protected List<HugeKeys> idColumnName() {
             return ImmutableList.of(HugeKeys.FIELD_VALUES,
+                                    HugeKeys.BUCKET,
                                     HugeKeys.INDEX_LABEL_ID,
                                     HugeKeys.ELEMENT_IDS);
         }
 
+        @Override
+        protected Collection<Selection> queryCondition2Select(
+                                        Query query, Selection select) {
+            List<Condition> conditions = new ArrayList<>();
+            List<?> buckets = ImmutableList.of(0);
+            for (Condition condition : query.conditions()) {
+                if (condition.isRelation() &&
+                    ((Relation) condition).key() == HugeKeys.BUCKET) {
+                    // Only a bucketed index label has the buckets
+                    Relation r = (Relation) condition;
+                    assert r.relation() == Condition.RelationType.IN;
+                    buckets = (List<?>) r.value();
+                } else {
+                    conditions.add(condition);
+                }
+            }
+
+            if (buckets.size() == 1) {
+                select.where(formatEQ(HugeKeys.BUCKET), buckets.get(0));
+                this.conditions2Select(conditions, select);
+                return ImmutableList.of(select);
+            }
+            if (query.paging()) {
+                // Let the coordinator read the buckets for a paging query
+                select.where(QueryBuilder.in(formatKey(HugeKeys.BUCKET),
+                                             QueryBuilder.bindMarker()),
+                             buckets);
+                this.conditions2Select(conditions, select);
+                return ImmutableList.of(select);
+            }
+
+            // Read the buckets by a select per bucket, which may be parallel
+            List<Selection> selects = new ArrayList<>(buckets.size());
+            for (Object bucket : buckets) {
+                Selection bucketSelect = select.copy(this.table());
+                bucketSelect.where(formatEQ(HugeKeys.BUCKET), bucket);
+                this.conditions2Select(conditions, bucketSelect);
+                selects.add(bucketSelect);
+            }
+            return selects;
+        }
+
         @Override
         protected List<HugeKeys> modifiableColumnName() {
             return ImmutableList.of();
@@ -513,11 +571,15 @@ public class CassandraTables {
             }
 
             final String FIELD_VALUES = formatKey(HugeKeys.FIELD_VALUES);
+            final String BUCKET = formatKey(HugeKeys.BUCKET);
             for (Iterator<Row> it = rs.iterator(); it.hasNext();) {
-                fieldValues = it.next().get(FIELD_VALUES, String.class);
+                Row row = it.next();
+                fieldValues = row.get(FIELD_VALUES, String.class);
+                int bucket = row.getInt(BUCKET);
                 Delete delete = QueryBuilder.delete().from(this.table());
                 delete.where(formatEQ(HugeKeys.INDEX_LABEL_ID, indexLabel));
                 delete.where(formatEQ(HugeKeys.FIELD_VALUES, fieldValues));
+                delete.where(formatEQ(HugeKeys.BUCKET, bucket));
                 session.add(delete);
             }
         }
@@ -23,6 +23,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
@@ -61,6 +65,7 @@ import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.structure.HugeFeatures;
 import com.baidu.hugegraph.traversal.optimize.HugeGraphStepStrategy;
 import com.baidu.hugegraph.traversal.optimize.HugeVertexStepStrategy;
+import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.LockUtil;
 import com.baidu.hugegraph.util.Log;
@@ -105,6 +110,8 @@ public class HugeGraph implements Graph {
     private final BackendStoreProvider storeProvider;
     private final TinkerpopTransaction tx;
 
+    private volatile ExecutorService queryExecutor;
+
     private HugeVariables variables;
 
     public HugeGraph(HugeConfig configuration) {
@@ -131,10 +138,26 @@ public class HugeGraph implements Graph {
         }
 
         this.tx = new TinkerpopTransaction(this);
+        this.queryExecutor = null;
 
         this.variables = null;
     }
 
+    private ExecutorService newQueryExecutor(int workers) {
+        String prefix = "query-worker-" + this.name + "-";
+        AtomicInteger threads = new AtomicInteger(0);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                                      workers, workers, 60L, TimeUnit.SECONDS,
+                                      new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, prefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Let the idle workers exit
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     private BackendStoreProvider loadStoreProvider() {
         String backend = this.configuration.get(CoreOptions.BACKEND);
         LOG.info("Opening backend store '{}' for graph '{}'",
@@ -192,6 +215,18 @@ public class HugeGraph implements Graph {
         }
     }
 
+    /**
+     * Create a checkpoint of the backend data into the directory, which
+     * can be opened as a separate graph. The checkpoint of each store is a
+     * consistent copy, but the stores are checkpointed one by one, so the
+     * schema should not be changed while creating the checkpoint
+     */
+    public void createCheckpoint(String dir) {
+        LOG.info("Creating checkpoint of graph '{}' into '{}'",
+                 this.name, dir);
+        this.storeProvider.createCheckpoint(dir);
+    }
+
     private SchemaTransaction openSchemaTransaction() throws HugeException {
         try {
             String name = this.configuration.get(CoreOptions.STORE_SCHEMA);
@@ -241,6 +276,30 @@ public class HugeGraph implements Graph {
         return this.openGraphTransaction();
     }
 
+    /**
+     * The executor to run sub-queries in parallel, null if disabled.
+     * It's created when first used and shutdown when the graph is closed.
+     * NOTE: the transactions are thread local, a task must close the
+     * transactions by closeTx() after using them in a worker.
+     */
+    public ExecutorService queryExecutor() {
+        ExecutorService executor = this.queryExecutor;
+        if (executor != null) {
+            return executor;
+        }
+        int workers = this.configuration.get(
+                      CoreOptions.QUERY_PARALLEL_WORKERS);
+        if (workers <= 0) {
+            return null;
+        }
+        synchronized (this) {
+            if (this.queryExecutor == null) {
+                this.queryExecutor = this.newQueryExecutor(workers);
+            }
+            return this.queryExecutor;
+        }
+    }
+
     public AbstractSerializer serializer() {
         String name = this.configuration.get(CoreOptions.SERIALIZER);
         AbstractSerializer serializer = SerializerFactory.serializer(name);
@@ -302,6 +361,14 @@ public class HugeGraph implements Graph {
         return this.graphTransaction().queryEdges(query);
     }
 
+    public Iterator<Edge> adjacentEdges(Collection<Id> vertices,
+                                        Directions direction,
+                                        long degree, Id... edgeLabels) {
+        return this.graphTransaction().queryEdgesByVertices(vertices,
+                                                            direction, degree,
+                                                            edgeLabels);
+    }
+
     public PropertyKey propertyKey(Id id) {
         PropertyKey pk = this.schemaTransaction().getPropertyKey(id);
         E.checkArgument(pk != null, "Undefined property key id: '%s'", id);
@@ -361,10 +428,18 @@ public class HugeGraph implements Graph {
         try {
             this.closeTx();
         } finally {
+            this.closeQueryExecutor();
             this.storeProvider.close();
         }
     }
 
+    private synchronized void closeQueryExecutor() {
+        if (this.queryExecutor != null) {
+            this.queryExecutor.shutdown();
+            this.queryExecutor = null;
+        }
+    }
+
     public void closeTx() {
         try {
             if (this.tx.isOpen()) {
@@ -36,6 +36,8 @@ public interface Cache {
 
     public void invalidate(Id id);
 
+    public boolean containsKey(Id id);
+
     public void traverse(Consumer<Object> consumer);
 
     public void clear();
@@ -47,4 +49,8 @@ public interface Cache {
     public long capacity();
 
     public long size();
+
+    public long hits();
+
+    public long miss();
 }
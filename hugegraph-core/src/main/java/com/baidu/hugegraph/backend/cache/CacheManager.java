@@ -27,6 +27,9 @@ import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
+
+import com.baidu.hugegraph.exception.NotSupportException;
+import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
 
 public class CacheManager {
@@ -83,4 +86,29 @@ public class CacheManager {
         }
         return cache;
     }
+
+    public Cache cache(String name, String type, long capacity) {
+        Cache cache = this.caches.get(name);
+        if (cache == null) {
+            switch (type) {
+                case "ram":
+                    E.checkArgument(capacity <= Integer.MAX_VALUE,
+                                    "The capacity of ram cache must be " +
+                                    "<= %s, but got %s",
+                                    Integer.MAX_VALUE, capacity);
+                    cache = new RamCache((int) capacity);
+                    break;
+                case "tinylfu":
+                    cache = new TinyLfuCache(capacity);
+                    break;
+                case "offheap":
+                    cache = new OffheapCache(capacity);
+                    break;
+                default:
+                    throw new NotSupportException("cache type '%s'", type);
+            }
+            this.caches.put(name, cache);
+        }
+        return cache;
+    }
 }
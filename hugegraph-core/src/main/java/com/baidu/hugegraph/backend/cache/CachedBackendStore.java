@@ -96,6 +96,11 @@ public class CachedBackendStore implements BackendStore {
         return this.store.metadata(type, meta, args);
     }
 
+    @Override
+    public void createCheckpoint(String dir) {
+        this.store.createCheckpoint(dir);
+    }
+
     @Override
     public BackendFeatures features() {
         return this.store.features();
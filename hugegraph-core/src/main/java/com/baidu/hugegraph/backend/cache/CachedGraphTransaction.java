@@ -22,6 +22,9 @@ package com.baidu.hugegraph.backend.cache;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
@@ -29,43 +32,114 @@ import org.apache.tinkerpop.gremlin.structure.Vertex;
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.cache.CachedBackendStore.QueryId;
+import com.baidu.hugegraph.backend.cache.EdgeCacheIndex.Reason;
+import com.baidu.hugegraph.backend.id.EdgeId;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.serializer.BinaryBackendEntry;
+import com.baidu.hugegraph.backend.serializer.BinarySerializer;
+import com.baidu.hugegraph.backend.serializer.BytesBuffer;
+import com.baidu.hugegraph.backend.store.BackendEntry;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
 import com.baidu.hugegraph.backend.store.BackendStore;
 import com.baidu.hugegraph.backend.tx.GraphTransaction;
 import com.baidu.hugegraph.config.CoreOptions;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.IndexLabel;
+import com.baidu.hugegraph.schema.SchemaElement;
 import com.baidu.hugegraph.structure.HugeEdge;
 import com.baidu.hugegraph.structure.HugeEdgeProperty;
 import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.structure.HugeVertexProperty;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.util.Events;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 public class CachedGraphTransaction extends GraphTransaction {
 
+    // The edge cache is shared by transactions, so is the index of it
+    private static final Map<String, EdgeCacheIndex> EDGE_CACHE_INDEXES =
+                                                     new ConcurrentHashMap<>();
+
+    // Used to serialize vertices stored in off-heap cache
+    private static final BinarySerializer SERIALIZER = new BinarySerializer();
+
     private final Cache verticesCache;
+    private final Cache offheapVerticesCache;
     private final Cache edgesCache;
+    private final EdgeCacheIndex edgesIndex;
 
     public CachedGraphTransaction(HugeGraph graph, BackendStore store) {
         super(graph, store);
         this.verticesCache = this.cache("vertex");
+        this.offheapVerticesCache = this.offheapCache("vertex-offheap");
         this.edgesCache = this.cache("edge");
+        this.edgesIndex = EDGE_CACHE_INDEXES.computeIfAbsent(
+                          this.cacheName("edge"),
+                          name -> new EdgeCacheIndex(this.edgesCache));
+
+        this.listenChanges();
+    }
+
+    private String cacheName(String prefix) {
+        return cacheName(prefix, super.graph());
+    }
+
+    private static String cacheName(String prefix, HugeGraph graph) {
+        return prefix + "-" + graph.name();
     }
 
     private Cache cache(String prefix) {
         HugeConfig conf = super.graph().configuration();
 
-        final String name = prefix + "-" + super.graph().name();
-        final int capacity = conf.get(CoreOptions.GRAPH_CACHE_CAPACITY);
+        final String name = this.cacheName(prefix);
+        final String type = conf.get(CoreOptions.GRAPH_CACHE_TYPE);
+        final int expire = conf.get(CoreOptions.GRAPH_CACHE_EXPIRE);
+        // The ram cache is limited by items, tinylfu cache by bytes
+        final long capacity = type.equals("ram") ?
+                              conf.get(CoreOptions.GRAPH_CACHE_CAPACITY) :
+                              conf.get(CoreOptions.GRAPH_CACHE_MEMORY);
+
+        Cache cache = CacheManager.instance().cache(name, type, capacity);
+        cache.expire(expire);
+        return cache;
+    }
+
+    private Cache offheapCache(String prefix) {
+        HugeConfig conf = super.graph().configuration();
+
+        final long capacity = conf.get(CoreOptions.GRAPH_CACHE_OFFHEAP_MEMORY);
+        if (capacity <= 0L) {
+            return null;
+        }
+        final String name = this.cacheName(prefix);
         final int expire = conf.get(CoreOptions.GRAPH_CACHE_EXPIRE);
 
-        Cache cache = CacheManager.instance().cache(name, capacity);
+        Cache cache = CacheManager.instance().cache(name, "offheap", capacity);
         cache.expire(expire);
         return cache;
     }
 
+    private void listenChanges() {
+        // Listen store event: "store.init", "store.clear"
+        List<String> events = ImmutableList.of(Events.STORE_INIT,
+                                               Events.STORE_CLEAR);
+        super.store().provider().listen(event -> {
+            if (events.contains(event.name())) {
+                LOG.info("Clear graph cache on event '{}'", event.name());
+                this.verticesCache.clear();
+                if (this.offheapVerticesCache != null) {
+                    this.offheapVerticesCache.clear();
+                }
+                this.edgesIndex.clear();
+                return true;
+            }
+            return false;
+        });
+    }
+
     @Override
     public Iterator<Vertex> queryVertices(Object... vertexIds) {
         List<Vertex> vertices = new ArrayList<>(vertexIds.length);
@@ -74,10 +148,7 @@ public class CachedGraphTransaction extends GraphTransaction {
                 continue;
             }
             Id vid = HugeVertex.getIdValue(vertexId);
-            Object v = this.verticesCache.getOrFetch(vid, id -> {
-                Iterator<Vertex> iterator = super.queryVertices(id);
-                return iterator.hasNext() ? iterator.next() : null;
-            });
+            Object v = this.verticesCache.getOrFetch(vid, this::queryVertex);
             if (v != null) {
                 vertices.add((Vertex) v);
             }
@@ -85,6 +156,66 @@ public class CachedGraphTransaction extends GraphTransaction {
         return vertices.iterator();
     }
 
+    private Vertex queryVertex(Id id) {
+        if (this.offheapVerticesCache == null) {
+            Iterator<Vertex> iterator = super.queryVertices(id);
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        // Deserialize the vertex if hit the off-heap cache
+        byte[] bytes = (byte[]) this.offheapVerticesCache.get(id);
+        if (bytes != null) {
+            try {
+                return this.deserializeVertex(id, bytes);
+            } catch (Exception e) {
+                // Like the vertex label has been removed
+                LOG.debug("Failed to deserialize cached vertex '{}'", id, e);
+                this.offheapVerticesCache.invalidate(id);
+            }
+        }
+
+        Iterator<Vertex> iterator = super.queryVertices(id);
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        HugeVertex vertex = (HugeVertex) iterator.next();
+        if (!vertex.removed()) {
+            this.offheapVerticesCache.update(id, serializeVertex(vertex));
+        }
+        return vertex;
+    }
+
+    private HugeVertex deserializeVertex(Id id, byte[] bytes) {
+        BinaryBackendEntry entry = SERIALIZER.newBackendEntry(HugeType.VERTEX,
+                                                              id);
+        BytesBuffer buffer = BytesBuffer.wrap(bytes);
+        int columns = buffer.readInt();
+        for (int i = 0; i < columns; i++) {
+            byte[] name = buffer.read(buffer.readInt());
+            byte[] value = buffer.read(buffer.readInt());
+            entry.column(name, value);
+        }
+        return SERIALIZER.readVertex(super.graph(), entry);
+    }
+
+    private static byte[] serializeVertex(HugeVertex vertex) {
+        BackendEntry entry = SERIALIZER.writeVertex(vertex);
+        BytesBuffer buffer = BytesBuffer.allocate(BytesBuffer.DEFAULT_CAPACITY);
+        buffer.writeInt(entry.columnsSize());
+        for (BackendColumn column : entry.columns()) {
+            buffer.writeInt(column.name.length).write(column.name);
+            buffer.writeInt(column.value.length).write(column.value);
+        }
+        return buffer.bytes();
+    }
+
+    private void invalidateVertex(Id id) {
+        this.verticesCache.invalidate(id);
+        if (this.offheapVerticesCache != null) {
+            this.offheapVerticesCache.invalidate(id);
+        }
+    }
+
     @Override
     public Iterator<Vertex> queryVertices(Query query) {
         if (!query.ids().isEmpty() && query.conditions().isEmpty()) {
@@ -96,14 +227,16 @@ public class CachedGraphTransaction extends GraphTransaction {
 
     @Override
     public Iterator<Edge> queryEdges(Query query) {
-        if (query.empty()) {
-            // Query all edges, don't cache it
+        if (query.empty() || query.capacity() == Query.NO_CAPACITY) {
+            // Query all edges or unlimited edges like rebuilding index
             return super.queryEdges(query);
         }
 
         Object result = this.edgesCache.getOrFetch(new QueryId(query), id -> {
             // Iterator can't be cached, caching list instead
-            return ImmutableList.copyOf(super.queryEdges(query));
+            List<Edge> edges = ImmutableList.copyOf(super.queryEdges(query));
+            this.edgesIndex.track(id, query, edges);
+            return edges;
         });
         @SuppressWarnings("unchecked")
         List<Edge> edges = (List<Edge>) result;
@@ -113,7 +246,7 @@ public class CachedGraphTransaction extends GraphTransaction {
     @Override
     public Vertex addVertex(HugeVertex vertex) {
         // Update vertex cache
-        this.verticesCache.invalidate(vertex.id());
+        this.invalidateVertex(vertex.id());
 
         return super.addVertex(vertex);
     }
@@ -121,10 +254,10 @@ public class CachedGraphTransaction extends GraphTransaction {
     @Override
     public void removeVertex(HugeVertex vertex) {
         // Update vertex cache
-        this.verticesCache.invalidate(vertex.id());
+        this.invalidateVertex(vertex.id());
 
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache of queries related to the vertex
+        this.edgesIndex.invalidateVertex(vertex.id(), Reason.VERTEX);
 
         super.removeVertex(vertex);
     }
@@ -132,7 +265,7 @@ public class CachedGraphTransaction extends GraphTransaction {
     @Override
     public <V> void addVertexProperty(HugeVertexProperty<V> prop) {
         // Update vertex cache
-        this.verticesCache.invalidate(prop.element().id());
+        this.invalidateVertex(prop.element().id());
 
         super.addVertexProperty(prop);
     }
@@ -140,23 +273,23 @@ public class CachedGraphTransaction extends GraphTransaction {
     @Override
     public <V> void removeVertexProperty(HugeVertexProperty<V> prop) {
         // Update vertex cache
-        this.verticesCache.invalidate(prop.element().id());
+        this.invalidateVertex(prop.element().id());
 
         super.removeVertexProperty(prop);
     }
 
     @Override
     public Edge addEdge(HugeEdge edge) {
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache of queries related to the edge
+        this.edgesIndex.invalidateEdge(edge.id(), Reason.EDGE);
 
         return super.addEdge(edge);
     }
 
     @Override
     public void removeEdge(HugeEdge edge) {
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache of queries related to the edge
+        this.edgesIndex.invalidateEdge(edge.id(), Reason.EDGE);
 
         super.removeEdge(edge);
     }
@@ -165,44 +298,104 @@ public class CachedGraphTransaction extends GraphTransaction {
     public void removeEdges(EdgeLabel edgeLabel) {
         super.removeEdges(edgeLabel);
 
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache of queries related to the edge label
+        this.edgesIndex.invalidateEdgeLabel(edgeLabel.id(),
+                                            Reason.EDGE_LABEL);
     }
 
     @Override
     public <V> void addEdgeProperty(HugeEdgeProperty<V> prop) {
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache of queries related to the edge
+        if (prop.element().id() != null) {
+            // The id of new created edge may be not assigned yet
+            this.edgesIndex.invalidateEdge(prop.element().id(), Reason.EDGE);
+        }
 
         super.addEdgeProperty(prop);
     }
 
     @Override
     public <V> void removeEdgeProperty(HugeEdgeProperty<V> prop) {
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache of queries related to the edge
+        if (prop.element().id() != null) {
+            // The id of new created edge may be not assigned yet
+            this.edgesIndex.invalidateEdge(prop.element().id(), Reason.EDGE);
+        }
 
         super.removeEdgeProperty(prop);
     }
 
     @Override
     public void removeIndex(IndexLabel indexLabel) {
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache of queries which may be answered by the index
+        if (indexLabel.baseType() == HugeType.EDGE_LABEL) {
+            this.edgesIndex.invalidateScans(Reason.INDEX_LABEL);
+        }
 
         super.removeIndex(indexLabel);
     }
 
+    @Override
+    public void rebuildIndex(SchemaElement schema) {
+        super.rebuildIndex(schema);
+
+        // Update edge cache of queries which may be answered by new index
+        this.edgesIndex.invalidateScans(Reason.INDEX_LABEL);
+    }
+
+    @Override
+    protected void commit2Backend() {
+        // Collect the updates before they are cleared by prepareCommit()
+        Set<Id> vertices = this.removedVerticesInTx();
+        Set<Id> edges = this.edgesInTx();
+
+        super.commit2Backend();
+
+        /*
+         * Update edge cache again after committed, since the edges may be
+         * cached by queries during the transaction, like querying edges of
+         * the removed vertices when preparing the deletions.
+         */
+        for (Id id : vertices) {
+            this.edgesIndex.invalidateVertex(id, Reason.VERTEX);
+        }
+        for (Id id : edges) {
+            this.edgesIndex.invalidateEdge((EdgeId) id, Reason.EDGE);
+        }
+    }
+
     @Override
     public void rollback() throws BackendException {
         // Update vertex cache
         for (Id id : this.verticesInTx()) {
-            this.verticesCache.invalidate(id);
+            this.invalidateVertex(id);
         }
 
-        // TODO: Use a more precise strategy to update the edge cache
-        this.edgesCache.clear();
+        // Update edge cache, the cached edges may be updated in place
+        for (Id id : this.edgesInTx()) {
+            this.edgesIndex.invalidateEdge((EdgeId) id, Reason.ROLLBACK);
+        }
 
         super.rollback();
     }
+
+    /**
+     * The number of cached edge queries evicted by each kind of mutation
+     */
+    public Map<String, Long> edgesCacheEvictions() {
+        return this.edgesIndex.evictions();
+    }
+
+    /**
+     * The number of cached edge queries of a graph evicted by each kind of
+     * mutation, it's empty if the edges of the graph have never been cached
+     */
+    public static Map<String, Long> edgesCacheEvictions(HugeGraph graph) {
+        EdgeCacheIndex index = EDGE_CACHE_INDEXES.get(cacheName("edge",
+                                                                graph));
+        if (index == null) {
+            return ImmutableMap.of();
+        }
+        return index.evictions();
+    }
 }
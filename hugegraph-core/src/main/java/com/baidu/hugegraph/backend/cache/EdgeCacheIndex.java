@@ -0,0 +1,303 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.cache;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.backend.id.EdgeId;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.query.Condition;
+import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.structure.HugeEdge;
+import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.util.Log;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Reverse index from vertices and edge labels to the cached edge queries,
+ * so that a mutation only invalidates the cached queries it may affect
+ * rather than clearing the whole edge cache. A cached query is indexed by:
+ *  1.the owner vertices in the conditions or ids of the query;
+ *  2.the vertices and labels of the edges in the results;
+ *  3.the edge label for queries not bound to vertices (like querying by
+ *    label or properties), which may match any new edge of the label.
+ */
+public final class EdgeCacheIndex {
+
+    private static final Logger LOG = Log.logger(Cache.class);
+
+    // Prune the index if tracked queries exceed the cache size too much
+    private static final int MIN_PRUNE_SIZE = 1024;
+    // Queries tracked in the period may be not put into cache yet
+    private static final long PRUNE_GRACE_TIME = 1000L;
+
+    // Scanning queries without label condition are indexed by this label
+    private static final Id ALL_LABELS = IdGenerator.of("~all_labels");
+
+    public enum Reason {
+        VERTEX,
+        EDGE,
+        EDGE_LABEL,
+        INDEX_LABEL,
+        ROLLBACK
+    }
+
+    private final Cache cache;
+
+    private final Map<Id, Set<Id>> vertexQueries;
+    private final Map<Id, Set<Id>> labelQueries;
+    private final Map<Id, Set<Id>> scanQueries;
+    // The index keys of each tracked query, used to untrack it
+    private final Map<Id, Keys> queries;
+
+    private final Map<Reason, AtomicLong> evictions;
+    private final AtomicBoolean pruning;
+
+    public EdgeCacheIndex(Cache cache) {
+        this.cache = cache;
+        this.vertexQueries = new ConcurrentHashMap<>();
+        this.labelQueries = new ConcurrentHashMap<>();
+        this.scanQueries = new ConcurrentHashMap<>();
+        this.queries = new ConcurrentHashMap<>();
+        this.evictions = new EnumMap<>(Reason.class);
+        for (Reason reason : Reason.values()) {
+            this.evictions.put(reason, new AtomicLong(0L));
+        }
+        this.pruning = new AtomicBoolean(false);
+    }
+
+    /**
+     * Track the query before caching its results
+     */
+    public void track(Id id, Query query, Collection<Edge> edges) {
+        Keys keys = new Keys();
+        keys.collect(query);
+        for (Edge edge : edges) {
+            EdgeId edgeId = ((HugeEdge) edge).id();
+            keys.vertices.add(edgeId.ownerVertexId());
+            keys.vertices.add(edgeId.otherVertexId());
+            keys.labels.add(edgeId.edgeLabelId());
+        }
+
+        this.queries.put(id, keys);
+        register(this.vertexQueries, keys.vertices, id);
+        register(this.labelQueries, keys.labels, id);
+        register(this.scanQueries, keys.scans, id);
+
+        if (this.queries.size() > Math.max(this.cache.size() * 2,
+                                           MIN_PRUNE_SIZE)) {
+            this.prune();
+        }
+    }
+
+    public void invalidateVertex(Id vertex, Reason reason) {
+        this.evict(this.vertexQueries.remove(vertex), reason);
+    }
+
+    public void invalidateEdge(EdgeId edge, Reason reason) {
+        this.evict(this.vertexQueries.remove(edge.ownerVertexId()), reason);
+        this.evict(this.vertexQueries.remove(edge.otherVertexId()), reason);
+        this.evict(this.scanQueries.remove(edge.edgeLabelId()), reason);
+        this.evict(this.scanQueries.remove(ALL_LABELS), reason);
+    }
+
+    public void invalidateEdgeLabel(Id label, Reason reason) {
+        this.evict(this.labelQueries.remove(label), reason);
+        this.evict(this.scanQueries.remove(label), reason);
+        this.evict(this.scanQueries.remove(ALL_LABELS), reason);
+    }
+
+    public void invalidateScans(Reason reason) {
+        for (Id label : this.scanQueries.keySet()) {
+            this.evict(this.scanQueries.remove(label), reason);
+        }
+    }
+
+    public void clear() {
+        this.cache.clear();
+        this.queries.clear();
+        this.vertexQueries.clear();
+        this.labelQueries.clear();
+        this.scanQueries.clear();
+    }
+
+    /**
+     * The number of cached queries evicted for each reason
+     */
+    public Map<String, Long> evictions() {
+        Map<String, Long> evictions = new LinkedHashMap<>();
+        for (Map.Entry<Reason, AtomicLong> e : this.evictions.entrySet()) {
+            evictions.put(e.getKey().name().toLowerCase(), e.getValue().get());
+        }
+        return evictions;
+    }
+
+    private void evict(Set<Id> ids, Reason reason) {
+        if (ids == null) {
+            return;
+        }
+        AtomicLong counter = this.evictions.get(reason);
+        for (Id id : ids) {
+            this.untrack(id);
+            if (this.cache.containsKey(id)) {
+                this.cache.invalidate(id);
+                counter.incrementAndGet();
+            }
+        }
+    }
+
+    private void untrack(Id id) {
+        Keys keys = this.queries.remove(id);
+        if (keys == null) {
+            return;
+        }
+        unregister(this.vertexQueries, keys.vertices, id);
+        unregister(this.labelQueries, keys.labels, id);
+        unregister(this.scanQueries, keys.scans, id);
+    }
+
+    private void prune() {
+        if (!this.pruning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int pruned = 0;
+            long deadline = System.currentTimeMillis() - PRUNE_GRACE_TIME;
+            // Untrack the queries evicted from cache by LRU or expiration
+            for (Map.Entry<Id, Keys> e : this.queries.entrySet()) {
+                Id id = e.getKey();
+                if (e.getValue().time < deadline &&
+                    !this.cache.containsKey(id)) {
+                    this.untrack(id);
+                    pruned++;
+                }
+            }
+            LOG.debug("Edge cache index pruned {} queries (size {})",
+                      pruned, this.queries.size());
+        } finally {
+            this.pruning.set(false);
+        }
+    }
+
+    private static void register(Map<Id, Set<Id>> index, Set<Id> keys,
+                                 Id query) {
+        for (Id key : keys) {
+            index.compute(key, (k, queries) -> {
+                if (queries == null) {
+                    queries = new HashSet<>();
+                }
+                queries.add(query);
+                return queries;
+            });
+        }
+    }
+
+    private static void unregister(Map<Id, Set<Id>> index, Set<Id> keys,
+                                   Id query) {
+        for (Id key : keys) {
+            index.computeIfPresent(key, (k, queries) -> {
+                queries.remove(query);
+                return queries.isEmpty() ? null : queries;
+            });
+        }
+    }
+
+    private static class Keys {
+
+        private final long time = System.currentTimeMillis();
+        private final Set<Id> vertices = new HashSet<>();
+        private final Set<Id> labels = new HashSet<>();
+        private final Set<Id> scans = new HashSet<>();
+
+        public void collect(Query query) {
+            if (!query.ids().isEmpty()) {
+                for (Id id : query.ids()) {
+                    if (!(id instanceof EdgeId)) {
+                        this.scans.add(ALL_LABELS);
+                        return;
+                    }
+                    this.vertices.add(((EdgeId) id).ownerVertexId());
+                    this.vertices.add(((EdgeId) id).otherVertexId());
+                }
+                return;
+            }
+            if (!(query instanceof ConditionQuery)) {
+                this.scans.add(ALL_LABELS);
+                return;
+            }
+
+            ConditionQuery cq = (ConditionQuery) query;
+            if (collectIds(cq, HugeKeys.OWNER_VERTEX, this.vertices)) {
+                return;
+            }
+            // May match any edge of the labels
+            if (!collectIds(cq, HugeKeys.LABEL, this.scans)) {
+                this.scans.clear();
+                this.scans.add(ALL_LABELS);
+            }
+        }
+
+        /**
+         * Collect ids in EQ or IN relations of the key
+         * @return false if no such relation or contains other relations
+         */
+        private static boolean collectIds(ConditionQuery query, HugeKeys key,
+                                          Set<Id> ids) {
+            boolean found = false;
+            for (Condition.Relation r : query.relations()) {
+                if (!key.equals(r.key())) {
+                    continue;
+                }
+                Collection<?> values;
+                switch (r.relation()) {
+                    case EQ:
+                        values = ImmutableList.of(r.value());
+                        break;
+                    case IN:
+                        values = (Collection<?>) r.value();
+                        break;
+                    default:
+                        return false;
+                }
+                for (Object value : values) {
+                    if (!(value instanceof Id)) {
+                        return false;
+                    }
+                    ids.add((Id) value);
+                }
+                found = true;
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.perf.PerfUtil.Watched;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
+
+/**
+ * A cache of bytes stored in direct memory, so that the cached data is
+ * out of the reach of GC. The entries are partitioned into segments by
+ * hash of keys, each segment is a ring buffer allocated in FIFO order,
+ * the oldest entries are evicted when the new entries overwrite them.
+ * NOTE: the values must be byte arrays, and are copied when accessed.
+ */
+public class OffheapCache implements Cache {
+
+    private static final Logger LOG = Log.logger(Cache.class);
+
+    private static final int MAX_SEGMENT_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder miss = new LongAdder();
+
+    // Default expire time(ms)
+    private volatile long expire = 0L;
+
+    private final long capacity;
+    private final Segment[] segments;
+
+    public OffheapCache(long capacity) {
+        this(capacity, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // NOTE: count in bytes, not in number of items
+    public OffheapCache(long capacity, int segments) {
+        E.checkArgument(capacity > 0L,
+                        "The capacity of cache must be > 0, but got %s",
+                        capacity);
+        E.checkArgument(segments > 0,
+                        "The segments of cache must be > 0, but got %s",
+                        segments);
+        // Make the number of segments be power of 2
+        int count = Integer.highestOneBit(segments);
+        if (count < segments) {
+            count <<= 1;
+        }
+        while (capacity / count > MAX_SEGMENT_CAPACITY) {
+            count <<= 1;
+        }
+
+        this.capacity = capacity;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            int size = (int) Math.max(capacity / count, 1L);
+            this.segments[i] = new Segment(size);
+        }
+    }
+
+    @Watched(prefix = "offheapcache")
+    @Override
+    public Object get(Id id) {
+        byte[] value = this.segment(id).read(id, this.expire);
+        if (value == null) {
+            this.miss.increment();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("OffheapCache missed '{}' (miss={}, hits={})",
+                          id, this.miss, this.hits);
+            }
+        } else {
+            this.hits.increment();
+        }
+        return value;
+    }
+
+    @Watched(prefix = "offheapcache")
+    @Override
+    public Object getOrFetch(Id id, Function<Id, Object> fetcher) {
+        Object value = this.get(id);
+        if (value == null) {
+            // Do fetch and update the cache
+            value = fetcher.apply(id);
+            this.update(id, value);
+        }
+        return value;
+    }
+
+    @Watched(prefix = "offheapcache")
+    @Override
+    public void update(Id id, Object value) {
+        if (id == null || value == null) {
+            return;
+        }
+        this.segment(id).write(id, checkBytes(value), false);
+    }
+
+    @Watched(prefix = "offheapcache")
+    @Override
+    public void updateIfAbsent(Id id, Object value) {
+        if (id == null || value == null) {
+            return;
+        }
+        this.segment(id).write(id, checkBytes(value), true);
+    }
+
+    @Watched(prefix = "offheapcache")
+    @Override
+    public void invalidate(Id id) {
+        if (id == null) {
+            return;
+        }
+        this.segment(id).remove(id);
+    }
+
+    @Override
+    public boolean containsKey(Id id) {
+        return this.segment(id).contains(id);
+    }
+
+    @Override
+    public void traverse(Consumer<Object> consumer) {
+        E.checkNotNull(consumer, "consumer");
+        for (Segment segment : this.segments) {
+            for (byte[] value : segment.values()) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public void expire(long seconds) {
+        // Convert the unit from seconds to milliseconds
+        this.expire = seconds * 1000;
+    }
+
+    @Override
+    public void tick() {
+        if (this.expire <= 0) {
+            return;
+        }
+
+        int expired = 0;
+        for (Segment segment : this.segments) {
+            expired += segment.expire(this.expire);
+        }
+        LOG.debug("Cache expired items: {} (expire {}ms, size {})",
+                  expired, this.expire, this.size());
+    }
+
+    @Override
+    public long capacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public long size() {
+        long size = 0L;
+        for (Segment segment : this.segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long miss() {
+        return this.miss.sum();
+    }
+
+    private Segment segment(Id id) {
+        int hash = id.hashCode();
+        hash ^= (hash >>> 16);
+        return this.segments[hash & (this.segments.length - 1)];
+    }
+
+    private static byte[] checkBytes(Object value) {
+        E.checkArgument(value instanceof byte[],
+                        "The value of offheap cache must be bytes, " +
+                        "but got %s", value.getClass().getSimpleName());
+        return (byte[]) value;
+    }
+
+    private static final long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock;
+        private final ByteBuffer buffer;
+        private final Map<Id, Slot> slots;
+        // The allocated slots in FIFO order, include the removed ones
+        private final ArrayDeque<Slot> queue;
+        private int tail;
+
+        public Segment(int capacity) {
+            this.lock = new ReentrantLock();
+            this.buffer = ByteBuffer.allocateDirect(capacity);
+            this.slots = new HashMap<>();
+            this.queue = new ArrayDeque<>();
+            this.tail = 0;
+        }
+
+        public byte[] read(Id id, long expire) {
+            this.lock.lock();
+            try {
+                Slot slot = this.slots.get(id);
+                if (slot == null) {
+                    return null;
+                }
+                if (expire > 0 && now() - slot.time > expire) {
+                    this.slots.remove(id);
+                    return null;
+                }
+                return this.copy(slot);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public void write(Id id, byte[] value, boolean ifAbsent) {
+            int capacity = this.buffer.capacity();
+            this.lock.lock();
+            try {
+                if (ifAbsent && this.slots.containsKey(id)) {
+                    return;
+                }
+                this.slots.remove(id);
+                if (value.length > capacity) {
+                    // Too large to be cached
+                    return;
+                }
+
+                // Wrap around if the space at the end is not enough
+                if (this.tail + value.length > capacity) {
+                    this.evict(capacity);
+                    this.tail = 0;
+                }
+                this.evict(this.tail + value.length);
+
+                Slot slot = new Slot(id, this.tail, value.length);
+                ByteBuffer buffer = this.buffer.duplicate();
+                buffer.position(slot.offset);
+                buffer.put(value);
+                this.tail += value.length;
+
+                this.slots.put(id, slot);
+                this.queue.addLast(slot);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public void remove(Id id) {
+            this.lock.lock();
+            try {
+                // The space is reclaimed when the ring buffer wraps around
+                this.slots.remove(id);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public boolean contains(Id id) {
+            this.lock.lock();
+            try {
+                return this.slots.containsKey(id);
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public List<byte[]> values() {
+            this.lock.lock();
+            try {
+                List<byte[]> values = new ArrayList<>(this.slots.size());
+                for (Slot slot : this.slots.values()) {
+                    values.add(this.copy(slot));
+                }
+                return values;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public void clear() {
+            this.lock.lock();
+            try {
+                this.slots.clear();
+                this.queue.clear();
+                this.tail = 0;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public int expire(long expire) {
+            long current = now();
+            int expired = 0;
+            this.lock.lock();
+            try {
+                // The slots are ordered by time in the queue
+                for (Slot slot : this.queue) {
+                    if (current - slot.time <= expire) {
+                        break;
+                    }
+                    if (this.slots.remove(slot.id, slot)) {
+                        expired++;
+                    }
+                }
+            } finally {
+                this.lock.unlock();
+            }
+            return expired;
+        }
+
+        public int size() {
+            this.lock.lock();
+            try {
+                return this.slots.size();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Evict the slots located in [tail, end) which will be overwritten
+         */
+        private void evict(int end) {
+            Slot head;
+            while ((head = this.queue.peekFirst()) != null &&
+                   head.offset >= this.tail && head.offset < end) {
+                this.queue.pollFirst();
+                this.slots.remove(head.id, head);
+            }
+        }
+
+        private byte[] copy(Slot slot) {
+            byte[] value = new byte[slot.length];
+            ByteBuffer buffer = this.buffer.duplicate();
+            buffer.position(slot.offset);
+            buffer.get(value);
+            return value;
+        }
+    }
+
+    private static final class Slot {
+
+        private final Id id;
+        private final int offset;
+        private final int length;
+        private final long time;
+
+        public Slot(Id id, int offset, int length) {
+            this.id = id;
+            this.offset = offset;
+            this.length = length;
+            this.time = now();
+        }
+    }
+}
@@ -254,6 +254,11 @@ public class RamCache implements Cache {
         this.remove(id);
     }
 
+    @Override
+    public boolean containsKey(Id id) {
+        return this.map.containsKey(id);
+    }
+
     @Watched(prefix = "ramcache")
     @Override
     public void traverse(Consumer<Object> consumer) {
@@ -313,6 +318,16 @@ public class RamCache implements Cache {
         return this.map.size();
     }
 
+    @Override
+    public long hits() {
+        return this.hits;
+    }
+
+    @Override
+    public long miss() {
+        return this.miss;
+    }
+
     @Override
     public String toString() {
         return this.map.toString();
@@ -0,0 +1,652 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.cache;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.perf.PerfUtil.Watched;
+import com.baidu.hugegraph.structure.HugeEdge;
+import com.baidu.hugegraph.structure.HugeElement;
+import com.baidu.hugegraph.structure.HugeProperty;
+import com.baidu.hugegraph.structure.HugeVertex;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
+
+/**
+ * A cache with capacity in bytes, the entries are partitioned into segments
+ * by hash of keys, and each segment has its own lock and W-TinyLFU policy:
+ * new entries are put into a small LRU window, an entry evicted from the
+ * window is admitted into the main SLRU space only if it's accessed more
+ * frequently than the victim of main space, so that one large scan can't
+ * flush the hot entries. The frequency is estimated by a count-min sketch.
+ * Reads are lock free, the access order is updated only if the segment
+ * lock is not held by others.
+ */
+public class TinyLfuCache implements Cache {
+
+    public static final long DEFAULT_CAPACITY = 256L * RamCache.MB;
+
+    private static final Logger LOG = Log.logger(Cache.class);
+
+    // The percent of window and protected space in a segment
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    // Used to size the frequency sketch of segments
+    private static final int AVG_ENTRY_WEIGHT = 256;
+
+    // Rough memory size of objects in bytes
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int NODE_OVERHEAD = 80;
+    private static final int ELEMENT_OVERHEAD = 96;
+    private static final int PROPERTY_OVERHEAD = 48;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder miss = new LongAdder();
+
+    // Default expire time(ms)
+    private volatile long expire = 0L;
+
+    private final long capacity;
+    private final Map<Id, Node> map;
+    private final Segment[] segments;
+
+    public TinyLfuCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TinyLfuCache(long capacity) {
+        this(capacity, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // NOTE: count in bytes, not in number of items
+    public TinyLfuCache(long capacity, int segments) {
+        E.checkArgument(capacity > 0L,
+                        "The capacity of cache must be > 0, but got %s",
+                        capacity);
+        E.checkArgument(segments > 0,
+                        "The segments of cache must be > 0, but got %s",
+                        segments);
+        this.capacity = capacity;
+        this.map = new ConcurrentHashMap<>();
+
+        // Make the number of segments be power of 2
+        int count = Integer.highestOneBit(segments);
+        if (count < segments) {
+            count <<= 1;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment(Math.max(capacity / count, 1L));
+        }
+    }
+
+    @Watched(prefix = "tinylfucache")
+    @Override
+    public Object get(Id id) {
+        Node node = this.map.get(id);
+        Segment segment = this.segment(id);
+        if (node == null || this.expired(node)) {
+            this.miss.increment();
+            // Record the frequency of missed key for admission
+            segment.tryAccess(id.hashCode(), null);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("TinyLfuCache missed '{}' (miss={}, hits={})",
+                          id, this.miss, this.hits);
+            }
+            return null;
+        }
+        this.hits.increment();
+        segment.tryAccess(id.hashCode(), node);
+        return node.value;
+    }
+
+    @Watched(prefix = "tinylfucache")
+    @Override
+    public Object getOrFetch(Id id, Function<Id, Object> fetcher) {
+        Object value = this.get(id);
+        if (value == null) {
+            // Do fetch and update the cache
+            value = fetcher.apply(id);
+            this.update(id, value);
+        }
+        return value;
+    }
+
+    @Watched(prefix = "tinylfucache")
+    @Override
+    public void update(Id id, Object value) {
+        if (id == null || value == null) {
+            return;
+        }
+        this.segment(id).put(id, value, false);
+    }
+
+    @Watched(prefix = "tinylfucache")
+    @Override
+    public void updateIfAbsent(Id id, Object value) {
+        if (id == null || value == null || this.map.containsKey(id)) {
+            return;
+        }
+        this.segment(id).put(id, value, true);
+    }
+
+    @Watched(prefix = "tinylfucache")
+    @Override
+    public void invalidate(Id id) {
+        if (id == null || !this.map.containsKey(id)) {
+            return;
+        }
+        this.segment(id).remove(id);
+    }
+
+    @Override
+    public boolean containsKey(Id id) {
+        return this.map.containsKey(id);
+    }
+
+    @Override
+    public void traverse(Consumer<Object> consumer) {
+        E.checkNotNull(consumer, "consumer");
+        for (Node node : this.map.values()) {
+            consumer.accept(node.value);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public void expire(long seconds) {
+        // Convert the unit from seconds to milliseconds
+        this.expire = seconds * 1000;
+    }
+
+    @Override
+    public void tick() {
+        if (this.expire <= 0) {
+            return;
+        }
+
+        int expired = 0;
+        for (Node node : this.map.values()) {
+            if (this.expired(node)) {
+                this.segment(node.key).remove(node);
+                expired++;
+            }
+        }
+        LOG.debug("Cache expired items: {} (expire {}ms, size {})",
+                  expired, this.expire, this.size());
+    }
+
+    @Override
+    public long capacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public long size() {
+        return this.map.size();
+    }
+
+    @Override
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long miss() {
+        return this.miss.sum();
+    }
+
+    /**
+     * The estimated memory size in bytes of all entries
+     */
+    public long weight() {
+        long weight = 0L;
+        for (Segment segment : this.segments) {
+            weight += segment.weight;
+        }
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return this.map.toString();
+    }
+
+    /**
+     * Estimate the memory size in bytes of an entry, it's rough but cheap
+     */
+    protected long weigh(Id id, Object value) {
+        return NODE_OVERHEAD + sizeOf(id) + sizeOf(value);
+    }
+
+    private boolean expired(Node node) {
+        long expire = this.expire;
+        return expire > 0 && now() - node.time > expire;
+    }
+
+    private Segment segment(Id id) {
+        int hash = spread(id.hashCode());
+        return this.segments[(hash >>> 16) & (this.segments.length - 1)];
+    }
+
+    private static long sizeOf(Object object) {
+        if (object instanceof Id) {
+            return OBJECT_OVERHEAD + ((Id) object).length();
+        } else if (object instanceof String) {
+            return 40L + 2L * ((String) object).length();
+        } else if (object instanceof Number || object instanceof Boolean) {
+            return OBJECT_OVERHEAD + 8L;
+        } else if (object instanceof Date) {
+            return OBJECT_OVERHEAD + 16L;
+        } else if (object instanceof byte[]) {
+            return OBJECT_OVERHEAD + ((byte[]) object).length;
+        } else if (object instanceof Collection) {
+            long size = 32L;
+            for (Object element : (Collection<?>) object) {
+                size += 8L + sizeOf(element);
+            }
+            return size;
+        } else if (object instanceof HugeElement) {
+            return sizeOf((HugeElement) object);
+        }
+        return 32L;
+    }
+
+    private static long sizeOf(HugeElement element) {
+        long size = ELEMENT_OVERHEAD + sizeOf(element.id());
+        for (HugeProperty<?> property : element.getProperties().values()) {
+            size += PROPERTY_OVERHEAD + sizeOf(property.value());
+        }
+        if (element instanceof HugeVertex) {
+            for (HugeEdge edge : ((HugeVertex) element).getEdges()) {
+                size += 8L + sizeOf(edge);
+            }
+        } else if (element instanceof HugeEdge) {
+            // The source and target vertex
+            size += 2L * ELEMENT_OVERHEAD;
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        // The finalizer of murmur3
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static final long now() {
+        return System.currentTimeMillis();
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock;
+        private final long capacity;
+        private final long windowCapacity;
+        private final long protectedCapacity;
+        private final FrequencySketch sketch;
+
+        // The window LRU, and the probation and protected SLRU of main space
+        private final NodeQueue window;
+        private final NodeQueue probation;
+        private final NodeQueue protect;
+        private volatile long weight;
+
+        public Segment(long capacity) {
+            this.lock = new ReentrantLock();
+            this.capacity = capacity;
+            this.windowCapacity = Math.max(capacity * WINDOW_PERCENT / 100,
+                                           1L);
+            this.protectedCapacity = (capacity - this.windowCapacity) *
+                                     PROTECTED_PERCENT / 100;
+            this.sketch = new FrequencySketch(capacity / AVG_ENTRY_WEIGHT);
+            this.window = new NodeQueue();
+            this.probation = new NodeQueue();
+            this.protect = new NodeQueue();
+            this.weight = 0L;
+        }
+
+        /**
+         * Record the access if the lock is available, it's lossy but
+         * readers would never be blocked
+         */
+        public void tryAccess(int hash, Node node) {
+            if (!this.lock.tryLock()) {
+                return;
+            }
+            try {
+                this.sketch.increment(spread(hash));
+                if (node != null && node.owner != null) {
+                    this.onAccess(node);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public void put(Id id, Object value, boolean ifAbsent) {
+            long weight = weigh(id, value);
+            this.lock.lock();
+            try {
+                Node old = TinyLfuCache.this.map.get(id);
+                if (old != null) {
+                    if (ifAbsent) {
+                        return;
+                    }
+                    this.unlink(old);
+                    TinyLfuCache.this.map.remove(id, old);
+                }
+                this.sketch.increment(spread(id.hashCode()));
+                if (weight > this.capacity) {
+                    // Too large to be cached
+                    return;
+                }
+                Node node = new Node(id, value, weight);
+                TinyLfuCache.this.map.put(id, node);
+                this.link(node, this.window);
+                this.evict();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public void remove(Id id) {
+            this.lock.lock();
+            try {
+                Node node = TinyLfuCache.this.map.remove(id);
+                if (node != null) {
+                    this.unlink(node);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public void remove(Node node) {
+            this.lock.lock();
+            try {
+                if (TinyLfuCache.this.map.remove(node.key, node)) {
+                    this.unlink(node);
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        public void clear() {
+            this.lock.lock();
+            try {
+                for (NodeQueue queue : new NodeQueue[]{this.window,
+                                                       this.probation,
+                                                       this.protect}) {
+                    Node node;
+                    while ((node = queue.first()) != null) {
+                        TinyLfuCache.this.map.remove(node.key, node);
+                        this.unlink(node);
+                    }
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private void onAccess(Node node) {
+            if (node.owner != this.probation) {
+                node.owner.moveToLast(node);
+                return;
+            }
+            // Promote to protected, and demote the overflowed to probation
+            this.unlink(node);
+            this.link(node, this.protect);
+            while (this.protect.weight > this.protectedCapacity) {
+                Node demoted = this.protect.first();
+                this.unlink(demoted);
+                this.link(demoted, this.probation);
+            }
+        }
+
+        private void evict() {
+            // Move the overflowed entries of window to the tail of probation
+            Node candidate = null;
+            while (this.window.weight > this.windowCapacity) {
+                Node node = this.window.first();
+                this.unlink(node);
+                this.link(node, this.probation);
+                if (candidate == null) {
+                    candidate = node;
+                }
+            }
+
+            while (this.weight > this.capacity) {
+                Node victim = this.probation.first();
+                if (victim == null) {
+                    victim = this.protect.first();
+                }
+                if (victim == null) {
+                    victim = this.window.first();
+                }
+                if (candidate != null) {
+                    Node next = candidate.next;
+                    // The candidate is admitted only if it's more frequent
+                    if (candidate != victim && !this.admit(candidate, victim)) {
+                        victim = candidate;
+                    }
+                    if (candidate == victim) {
+                        candidate = next;
+                    }
+                }
+                TinyLfuCache.this.map.remove(victim.key, victim);
+                this.unlink(victim);
+            }
+        }
+
+        private boolean admit(Node candidate, Node victim) {
+            int candidateFreq = this.sketch.frequency(
+                                spread(candidate.key.hashCode()));
+            int victimFreq = this.sketch.frequency(
+                             spread(victim.key.hashCode()));
+            return candidateFreq > victimFreq;
+        }
+
+        private void link(Node node, NodeQueue queue) {
+            assert node.owner == null;
+            node.owner = queue;
+            queue.addLast(node);
+            this.weight += node.weight;
+        }
+
+        private void unlink(Node node) {
+            if (node.owner == null) {
+                return;
+            }
+            node.owner.remove(node);
+            node.owner = null;
+            this.weight -= node.weight;
+        }
+    }
+
+    private static final class Node {
+
+        private final Id key;
+        private final Object value;
+        private final long weight;
+        private final long time;
+
+        // Guarded by the segment lock
+        private NodeQueue owner;
+        private Node prev;
+        private Node next;
+
+        public Node(Id key, Object value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.time = now();
+        }
+
+        @Override
+        public String toString() {
+            return this.key.toString();
+        }
+    }
+
+    private static final class NodeQueue {
+
+        private Node head;
+        private Node tail;
+        private long weight;
+
+        public Node first() {
+            return this.head;
+        }
+
+        public void addLast(Node node) {
+            node.prev = this.tail;
+            node.next = null;
+            if (this.tail == null) {
+                this.head = node;
+            } else {
+                this.tail.next = node;
+            }
+            this.tail = node;
+            this.weight += node.weight;
+        }
+
+        public void remove(Node node) {
+            if (node.prev == null) {
+                this.head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                this.tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = node.next = null;
+            this.weight -= node.weight;
+        }
+
+        public void moveToLast(Node node) {
+            if (this.tail != node) {
+                this.remove(node);
+                this.addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Count-min sketch with 4-bit counters, 16 counters are packed into
+     * a long, the counters are halved periodically to keep fresh.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+                0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int size;
+
+        public FrequencySketch(long expectedEntries) {
+            long length = Math.min(Math.max(expectedEntries, 16L), 1L << 24);
+            int capacity = Integer.highestOneBit((int) length);
+            if (capacity < length) {
+                capacity <<= 1;
+            }
+            this.table = new long[capacity];
+            this.mask = capacity - 1;
+            this.sampleSize = 10 * capacity;
+            this.size = 0;
+        }
+
+        public int frequency(int hash) {
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                int index = this.indexOf(hash, i);
+                int count = (int) ((this.table[index] >>>
+                                    ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        public void increment(int hash) {
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = this.indexOf(hash, i);
+                added |= this.incrementAt(index, start + i);
+            }
+            if (added && ++this.size >= this.sampleSize) {
+                this.reset();
+            }
+        }
+
+        private boolean incrementAt(int index, int counter) {
+            int offset = counter << 2;
+            long mask = 0xfL << offset;
+            if ((this.table[index] & mask) != mask) {
+                this.table[index] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return ((int) h) & this.mask;
+        }
+
+        private void reset() {
+            for (int i = 0; i < this.table.length; i++) {
+                this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+            }
+            this.size >>>= 1;
+        }
+    }
+}
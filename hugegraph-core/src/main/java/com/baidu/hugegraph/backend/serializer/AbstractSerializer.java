@@ -19,13 +19,18 @@
 
 package com.baidu.hugegraph.backend.serializer;
 
+import java.util.List;
+
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.query.Condition.RelationType;
 import com.baidu.hugegraph.backend.query.ConditionQuery;
 import com.baidu.hugegraph.backend.query.IdQuery;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.util.E;
 
 public abstract class AbstractSerializer
                 implements GraphSerializer, SchemaSerializer {
@@ -42,6 +47,29 @@ public abstract class AbstractSerializer
 
     protected abstract Query writeQueryCondition(Query query);
 
+    /**
+     * Serialize edge query with an IN relation of owner vertex, by default
+     * convert it to an id query with one id(prefix) per owner vertex
+     * @param query the edge query with owner vertices in IN relation
+     * @return serialized query
+     */
+    protected Query writeQueryEdgeInCondition(ConditionQuery query) {
+        @SuppressWarnings("unchecked")
+        List<Id> vertices = (List<Id>) query.condition(HugeKeys.OWNER_VERTEX);
+
+        IdQuery result = new IdQuery(query.resultType(), query);
+        result.capacity(query.capacity());
+        for (Id vertex : vertices) {
+            ConditionQuery q = query.copy();
+            q.unsetCondition(HugeKeys.OWNER_VERTEX);
+            q.eq(HugeKeys.OWNER_VERTEX, vertex);
+            Id id = this.writeQueryEdgeCondition(q);
+            E.checkState(id != null, "Can't serialize edge query: %s", q);
+            result.query(id);
+        }
+        return result;
+    }
+
     @Override
     public Query writeQuery(Query query) {
         HugeType type = query.resultType();
@@ -53,6 +81,12 @@ public abstract class AbstractSerializer
                                            "and by condition at the same time");
             }
 
+            ConditionQuery cq = (ConditionQuery) query;
+            if (cq.containsCondition(HugeKeys.OWNER_VERTEX, RelationType.IN)) {
+                // Query edges of multiple vertices
+                return this.writeQueryEdgeInCondition(cq);
+            }
+
             Id id = this.writeQueryEdgeCondition(query);
             if (id != null) {
                 return new IdQuery(query, id);
@@ -19,7 +19,10 @@
 
 package com.baidu.hugegraph.backend.serializer;
 
+import java.nio.BufferUnderflowException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.apache.commons.lang.NotImplementedException;
 
@@ -29,6 +32,7 @@ import com.baidu.hugegraph.backend.id.EdgeId;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.IdQuery;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.serializer.BinaryBackendEntry.BinaryId;
 import com.baidu.hugegraph.backend.store.BackendEntry;
@@ -47,15 +51,27 @@ import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.structure.HugeVertexProperty;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.Cardinality;
+import com.baidu.hugegraph.type.define.DataType;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.type.define.HugeKeys;
 import com.baidu.hugegraph.util.Bytes;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.KryoUtil;
+import com.baidu.hugegraph.util.NumericUtil;
 import com.baidu.hugegraph.util.StringEncoding;
 
 public class BinarySerializer extends AbstractSerializer {
 
+    /*
+     * The version of property values written by BytesBuffer.writeProperty(),
+     * the values written by Kryo before have no version: the edge value
+     * begins with an int of properties size whose first byte is 0x00, and
+     * the vertex property value is regarded as Kryo if it doesn't begin
+     * with the version or can't be parsed exactly.
+     */
+    private static final byte PROPERTY_VERSION = 0x7f;
+    private static final int PROPERTY_VALUE_SIZE = 16;
+
     @Override
     public BinaryBackendEntry newBackendEntry(HugeType type, Id id) {
         BytesBuffer buffer = BytesBuffer.allocate(1 + id.length());
@@ -117,10 +133,17 @@ public class BinarySerializer extends AbstractSerializer {
         return buffer.bytes();
     }
 
+    protected byte[] formatPropertyValue(HugeProperty<?> prop) {
+        BytesBuffer buffer = BytesBuffer.allocate(1 + PROPERTY_VALUE_SIZE);
+        buffer.write(PROPERTY_VERSION);
+        buffer.writeProperty(prop.propertyKey(), prop.value());
+        return buffer.bytes();
+    }
+
     protected BackendColumn formatProperty(HugeProperty<?> prop) {
         BackendColumn col = new BackendColumn();
         col.name = this.formatPropertyName(prop);
-        col.value = KryoUtil.toKryo(prop.value());
+        col.value = this.formatPropertyValue(prop);
         return col;
     }
 
@@ -128,8 +151,20 @@ public class BinarySerializer extends AbstractSerializer {
         PropertyKey pkey = owner.graph().propertyKey(pkeyId);
 
         // Parse value
-        Object value = KryoUtil.fromKryo(val, pkey.clazz());
+        Object value = null;
+        if (val.length > 0 && val[0] == PROPERTY_VERSION) {
+            value = parsePropertyValue(pkey, val);
+        }
+        if (value == null) {
+            // The value is written by Kryo without version
+            value = KryoUtil.fromKryo(val, pkey.clazz());
+        }
+
+        this.parseProperty(pkey, value, owner);
+    }
 
+    protected void parseProperty(PropertyKey pkey, Object value,
+                                 HugeElement owner) {
         // Set properties of vertex/edge
         if (pkey.cardinality() == Cardinality.SINGLE) {
             owner.addProperty(pkey, value);
@@ -144,6 +179,18 @@ public class BinarySerializer extends AbstractSerializer {
         }
     }
 
+    private static Object parsePropertyValue(PropertyKey pkey, byte[] val) {
+        BytesBuffer buffer = BytesBuffer.wrap(val);
+        buffer.read();
+        try {
+            Object value = buffer.readProperty(pkey);
+            // It's a value of Kryo if there are bytes left
+            return buffer.remaining() == 0 ? value : null;
+        } catch (BufferUnderflowException | BackendException e) {
+            return null;
+        }
+    }
+
     protected byte[] formatEdgeName(HugeEdge edge) {
         // source-vertex + dir + edge-label + sort-values + target-vertex
 
@@ -160,18 +207,20 @@ public class BinarySerializer extends AbstractSerializer {
 
     protected byte[] formatEdgeValue(HugeEdge edge) {
         final int propCount = edge.getProperties().size();
-        BytesBuffer buffer = BytesBuffer.allocate(4 + 16 * propCount);
+        BytesBuffer buffer = BytesBuffer.allocate(1 + 4 + propCount *
+                                                  (9 + PROPERTY_VALUE_SIZE));
 
         // Write edge id
         //buffer.writeId(edge.id());
 
-        // Write edge properties size
-        buffer.writeInt(propCount);
+        // Write version and edge properties size
+        buffer.write(PROPERTY_VERSION);
+        buffer.writeVInt(propCount);
 
         // Write edge properties data
         for (HugeProperty<?> property : edge.getProperties().values()) {
             buffer.writeId(property.propertyKey().id());
-            buffer.writeBytes(KryoUtil.toKryo(property.value()));
+            buffer.writeProperty(property.propertyKey(), property.value());
         }
 
         return buffer.bytes();
@@ -237,9 +286,19 @@ public class BinarySerializer extends AbstractSerializer {
         //Id id = buffer.readId();
 
         // Write edge properties
-        int size = buffer.readInt();
-        for (int i = 0; i < size; i++) {
-            this.parseProperty(buffer.readId(), buffer.readBytes(), edge);
+        if (col.value[0] == PROPERTY_VERSION) {
+            buffer.read();
+            int size = buffer.readVInt();
+            for (int i = 0; i < size; i++) {
+                PropertyKey pkey = graph.propertyKey(buffer.readId());
+                this.parseProperty(pkey, buffer.readProperty(pkey), edge);
+            }
+        } else {
+            // The properties size is an int and values are written by Kryo
+            int size = buffer.readInt();
+            for (int i = 0; i < size; i++) {
+                this.parseProperty(buffer.readId(), buffer.readBytes(), edge);
+            }
         }
     }
 
@@ -349,11 +408,12 @@ public class BinarySerializer extends AbstractSerializer {
              * meaningful for deletion of index data in secondary/range index.
              * TODO: improve
              */
-            Id id = index.indexLabel();
-            entry = new BinaryBackendEntry(index.type(),
-                                           new BinaryId(id.asBytes(), id));
+            BinaryId id = formatIndexId(index.type(), index.indexLabel(),
+                                        null);
+            entry = new BinaryBackendEntry(index.type(), id);
         } else {
-            Id id = index.id();
+            BinaryId id = formatIndexId(index.type(), index.indexLabel(),
+                                        index.fieldValues());
             byte[] indexId = id.asBytes();
             E.checkArgument(indexId.length <= BytesBuffer.UINT8_MAX,
                             "Index key must be less than 256, but got: %s",
@@ -365,9 +425,7 @@ public class BinarySerializer extends AbstractSerializer {
             buffer.writeId(elemId, true);
             buffer.writeUInt8(indexId.length);
 
-            // Ensure the original look of the index key
-            entry = new BinaryBackendEntry(index.type(),
-                                           new BinaryId(indexId, id));
+            entry = new BinaryBackendEntry(index.type(), id);
             entry.column(buffer.bytes(), null);
             entry.subId(elemId);
         }
@@ -380,9 +438,8 @@ public class BinarySerializer extends AbstractSerializer {
             return null;
         }
         BinaryBackendEntry entry = this.convertEntry(bytesEntry);
-        // TODO: parse index id from entry.id() as bytes instead of string
-        HugeIndex index = HugeIndex.parseIndexId(graph, entry.type(),
-                                                 entry.id().origin());
+        HugeIndex index = parseIndexId(graph, entry.type(),
+                                       entry.id().asBytes());
         for (BackendColumn col : entry.columns()) {
             if (col.name.length <= 0) {
                 // Ignore
@@ -455,6 +512,22 @@ public class BinarySerializer extends AbstractSerializer {
         return null;
     }
 
+    @Override
+    protected Query writeQueryEdgeInCondition(ConditionQuery query) {
+        Query result = super.writeQueryEdgeInCondition(query);
+
+        // Sort the prefixes to scan them in the order of keys
+        List<Id> prefixes = new ArrayList<>(result.ids());
+        prefixes.sort((id1, id2) -> Bytes.compare(id1.asBytes(),
+                                                  id2.asBytes()));
+        IdQuery sorted = new IdQuery(query.resultType(), query);
+        sorted.capacity(result.capacity());
+        for (Id prefix : prefixes) {
+            sorted.query(prefix);
+        }
+        return sorted;
+    }
+
     @Override
     protected Query writeQueryCondition(Query query) {
         return query;
@@ -476,8 +549,91 @@ public class BinarySerializer extends AbstractSerializer {
         return new BinaryId(buffer.bytes(), id);
     }
 
+    /**
+     * Format the key of secondary/range index as bytes:
+     *  [index-label-id(int)][value-type(byte)][field-values]
+     * The field values of secondary index are written as UTF-8 bytes with
+     * an ending, and the number of range index is written as long or double
+     * with the sign bit flipped, so the keys of an index label are ordered
+     * by the field values in bytes. The key contains only the index label
+     * id if the field values is null.
+     */
+    public static BinaryId formatIndexId(HugeType type, Id indexLabel,
+                                         Object fieldValues) {
+        BytesBuffer buffer;
+        if (fieldValues == null) {
+            buffer = BytesBuffer.allocate(BytesBuffer.INT_LEN);
+            buffer.writeInt((int) indexLabel.asLong());
+        } else if (type == HugeType.SECONDARY_INDEX) {
+            String value = fieldValues.toString();
+            buffer = BytesBuffer.allocate(BytesBuffer.INT_LEN + 1 +
+                                          value.length() + 2);
+            buffer.writeInt((int) indexLabel.asLong());
+            buffer.write(DataType.TEXT.code());
+            buffer.writeStringWithEnding(value);
+        } else {
+            assert type == HugeType.RANGE_INDEX;
+            E.checkState(fieldValues instanceof Number,
+                         "Field value of range index must be number: %s",
+                         fieldValues.getClass().getSimpleName());
+            Number number = (Number) fieldValues;
+            buffer = BytesBuffer.allocate(BytesBuffer.INT_LEN + 1 +
+                                          BytesBuffer.LONG_LEN);
+            buffer.writeInt((int) indexLabel.asLong());
+            if (number instanceof Float || number instanceof Double) {
+                double value = number.doubleValue();
+                buffer.write(DataType.DOUBLE.code());
+                buffer.writeLong(NumericUtil.doubleToSortableLong(value) ^
+                                 Long.MIN_VALUE);
+            } else {
+                buffer.write(DataType.LONG.code());
+                buffer.writeLong(number.longValue() ^ Long.MIN_VALUE);
+            }
+        }
+        return new BinaryId(buffer.bytes(), null);
+    }
+
+    public static HugeIndex parseIndexId(HugeGraph graph, HugeType type,
+                                         byte[] id) {
+        BytesBuffer buffer = BytesBuffer.wrap(id);
+        Id label = IdGenerator.of(buffer.readInt());
+        IndexLabel indexLabel = IndexLabel.label(graph, label);
+        HugeIndex index = new HugeIndex(indexLabel);
+        if (buffer.remaining() == 0) {
+            return index;
+        }
+
+        byte valueType = buffer.read();
+        Object values;
+        if (valueType == DataType.TEXT.code()) {
+            E.checkState(type == HugeType.SECONDARY_INDEX,
+                         "Invalid secondary index id");
+            values = buffer.readStringWithEnding();
+        } else {
+            E.checkState(type == HugeType.RANGE_INDEX,
+                         "Invalid range index id");
+            long value = buffer.readLong() ^ Long.MIN_VALUE;
+            Number number;
+            if (valueType == DataType.DOUBLE.code()) {
+                number = NumericUtil.sortableLongToDouble(value);
+            } else {
+                E.checkState(valueType == DataType.LONG.code(),
+                             "Invalid range index value type: %s",
+                             valueType);
+                number = value;
+            }
+            List<Id> fields = indexLabel.indexFields();
+            E.checkState(fields.size() == 1, "Invalid range index fields");
+            DataType dataType = graph.propertyKey(fields.get(0)).dataType();
+            // The date is indexed as long
+            values = dataType.isNumber() ?
+                     dataType.valueToNumber(number) : number;
+        }
+        index.fieldValues(values);
+        return index;
+    }
+
     public static BinaryId splitIdKey(HugeType type, byte[] bytes) {
-        // TODO: maybe we can find a better way to parse index id
         if (type == HugeType.SECONDARY_INDEX || type == HugeType.RANGE_INDEX) {
             int idLength = bytes.length > 0 ? bytes[bytes.length - 1] : 0;
             BytesBuffer buffer = BytesBuffer.wrap(bytes);
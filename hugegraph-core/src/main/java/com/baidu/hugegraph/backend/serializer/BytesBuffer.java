@@ -21,11 +21,21 @@ package com.baidu.hugegraph.backend.serializer;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.UUID;
 
+import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.serializer.BinaryBackendEntry.BinaryId;
+import com.baidu.hugegraph.schema.PropertyKey;
+import com.baidu.hugegraph.type.define.Cardinality;
+import com.baidu.hugegraph.type.define.DataType;
 import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.KryoUtil;
 import com.baidu.hugegraph.util.StringEncoding;
 
 /**
@@ -48,6 +58,9 @@ public final class BytesBuffer {
     public static final int ID_MAX_LEN = UINT8_MAX & 0x7f + 1; // 128
     public static final int BIG_ID_MAX_LEN = UINT16_MAX & 0x7fff + 1; // 32768
 
+    public static final byte STRING_ENDING_BYTE = 0x00;
+    public static final byte STRING_ESCAPE_BYTE = 0x01;
+
     public static final int DEFAULT_CAPACITY = 64;
     public static final int MAX_BUFFER_CAPACITY = 128 * 1024 * 1024; // 128M
 
@@ -98,6 +111,10 @@ public final class BytesBuffer {
         }
     }
 
+    public int remaining() {
+        return this.buffer.remaining();
+    }
+
     private void require(int size) {
         // Does need to resize?
         if (this.buffer.capacity() - this.buffer.position() >= size) {
@@ -273,6 +290,226 @@ public final class BytesBuffer {
         return StringEncoding.decode(bytes);
     }
 
+    /**
+     * Write string as UTF-8 bytes ending with 0x00 0x00, the byte 0x00 in
+     * the string is escaped as 0x00 0x01, so that the written bytes keep
+     * the order of the string and are not a prefix of each other
+     */
+    public BytesBuffer writeStringWithEnding(String value) {
+        byte[] bytes = StringEncoding.encode(value);
+        require(bytes.length + 2);
+        for (byte b : bytes) {
+            this.write(b);
+            if (b == STRING_ENDING_BYTE) {
+                this.write(STRING_ESCAPE_BYTE);
+            }
+        }
+        this.write(STRING_ENDING_BYTE);
+        this.write(STRING_ENDING_BYTE);
+        return this;
+    }
+
+    public String readStringWithEnding() {
+        BytesBuffer bytes = new BytesBuffer(this.buffer.remaining());
+        while (true) {
+            byte b = this.read();
+            if (b == STRING_ENDING_BYTE) {
+                b = this.read();
+                if (b == STRING_ENDING_BYTE) {
+                    break;
+                }
+                E.checkState(b == STRING_ESCAPE_BYTE,
+                             "Invalid escaped byte: %s", b);
+                b = STRING_ENDING_BYTE;
+            }
+            bytes.write(b);
+        }
+        return StringEncoding.decode(bytes.bytes());
+    }
+
+    public BytesBuffer writeVInt(int value) {
+        // Write 7 bits each time, the high bit means more bytes follow
+        while ((value & ~0x7f) != 0) {
+            this.write((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        this.write((byte) value);
+        return this;
+    }
+
+    public int readVInt() {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = this.read();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BackendException("Invalid vint value at position %s",
+                                   this.buffer.position());
+    }
+
+    public BytesBuffer writeVLong(long value) {
+        while ((value & ~0x7fL) != 0L) {
+            this.write((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        this.write((byte) value);
+        return this;
+    }
+
+    public long readVLong() {
+        long value = 0L;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = this.read();
+            value |= (b & 0x7fL) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BackendException("Invalid vlong value at position %s",
+                                   this.buffer.position());
+    }
+
+    /**
+     * Write property value by the data type and cardinality of property key,
+     * the values of SET/LIST are written as count followed by each value
+     */
+    public BytesBuffer writeProperty(PropertyKey pkey, Object value) {
+        if (pkey.cardinality() == Cardinality.SINGLE) {
+            return this.writeProperty(pkey.dataType(), value);
+        }
+        E.checkArgument(value instanceof Collection,
+                        "Invalid value of non-single property: %s", value);
+        Collection<?> values = (Collection<?>) value;
+        this.writeVInt(values.size());
+        for (Object v : values) {
+            this.writeProperty(pkey.dataType(), v);
+        }
+        return this;
+    }
+
+    public Object readProperty(PropertyKey pkey) {
+        if (pkey.cardinality() == Cardinality.SINGLE) {
+            return this.readProperty(pkey.dataType());
+        }
+        Collection<Object> values;
+        if (pkey.cardinality() == Cardinality.SET) {
+            values = new LinkedHashSet<>();
+        } else {
+            assert pkey.cardinality() == Cardinality.LIST;
+            values = new LinkedList<>();
+        }
+        int size = this.readVInt();
+        for (int i = 0; i < size; i++) {
+            values.add(this.readProperty(pkey.dataType()));
+        }
+        return values;
+    }
+
+    private BytesBuffer writeProperty(DataType dataType, Object value) {
+        switch (dataType) {
+            case BOOLEAN:
+                this.writeBoolean((Boolean) value);
+                break;
+            case BYTE:
+                this.write(((Number) value).byteValue());
+                break;
+            case INT:
+                this.writeVInt(zigzag(((Number) value).intValue()));
+                break;
+            case LONG:
+                this.writeVLong(zigzag(((Number) value).longValue()));
+                break;
+            case FLOAT:
+                this.writeFloat(((Number) value).floatValue());
+                break;
+            case DOUBLE:
+                this.writeDouble(((Number) value).doubleValue());
+                break;
+            case TEXT:
+                this.writeBytesWithVLength(StringEncoding.encode(
+                                           (String) value));
+                break;
+            case BLOB:
+                this.writeBytesWithVLength((byte[]) value);
+                break;
+            case DATE:
+                this.writeVLong(zigzag(((Date) value).getTime()));
+                break;
+            case UUID:
+                UUID uuid = (UUID) value;
+                this.writeLong(uuid.getMostSignificantBits());
+                this.writeLong(uuid.getLeastSignificantBits());
+                break;
+            default:
+                this.writeBytesWithVLength(KryoUtil.toKryo(value));
+                break;
+        }
+        return this;
+    }
+
+    private Object readProperty(DataType dataType) {
+        switch (dataType) {
+            case BOOLEAN:
+                return this.readBoolean();
+            case BYTE:
+                return this.read();
+            case INT:
+                return unzigzag(this.readVInt());
+            case LONG:
+                return unzigzag(this.readVLong());
+            case FLOAT:
+                return this.readFloat();
+            case DOUBLE:
+                return this.readDouble();
+            case TEXT:
+                return StringEncoding.decode(this.readBytesWithVLength());
+            case BLOB:
+                return this.readBytesWithVLength();
+            case DATE:
+                return new Date(unzigzag(this.readVLong()));
+            case UUID:
+                return new UUID(this.readLong(), this.readLong());
+            default:
+                return KryoUtil.fromKryo(this.readBytesWithVLength(),
+                                         dataType.clazz());
+        }
+    }
+
+    public BytesBuffer writeBytesWithVLength(byte[] bytes) {
+        this.writeVInt(bytes.length);
+        this.write(bytes);
+        return this;
+    }
+
+    public byte[] readBytesWithVLength() {
+        int length = this.readVInt();
+        if (length < 0 || length > this.remaining()) {
+            throw new BackendException("Invalid bytes length %s at " +
+                                       "position %s", length,
+                                       this.buffer.position());
+        }
+        return this.read(length);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
     public BytesBuffer writeId(Id id) {
         return this.writeId(id, false);
     }
@@ -19,7 +19,9 @@
 
 package com.baidu.hugegraph.backend.serializer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import com.baidu.hugegraph.HugeGraph;
@@ -350,6 +352,24 @@ public abstract class TableSerializer extends AbstractSerializer {
         return null;
     }
 
+    @Override
+    protected Query writeQueryEdgeInCondition(ConditionQuery query) {
+        // Let backend store query owner vertices by IN relation natively
+        for (Condition.Relation r : query.relations()) {
+            if (r.key() == HugeKeys.OWNER_VERTEX &&
+                r.relation() == Condition.RelationType.IN) {
+                List<?> values = (List<?>) r.value();
+                List<Object> serialValues = new ArrayList<>(values.size());
+                for (Object value : values) {
+                    serialValues.add(IdUtil.writeString((Id) value));
+                }
+                r.serialValue(serialValues);
+            }
+        }
+        this.writeQueryEdgeCondition(query);
+        return query;
+    }
+
     @Override
     protected Query writeQueryCondition(Query query) {
         if (query.resultType().isGraph()) {
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.event.EventHub;
 import com.baidu.hugegraph.event.EventListener;
+import com.baidu.hugegraph.exception.NotSupportException;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Events;
 import com.baidu.hugegraph.util.Log;
@@ -96,6 +97,27 @@ public abstract class AbstractBackendStoreProvider
         this.storeEventHub.notify(Events.STORE_CLEAR, this);
     }
 
+    @Override
+    public void createCheckpoint(String dir) {
+        this.checkOpened();
+        // Check all the stores before creating any checkpoint
+        for (BackendStore store : this.stores.values()) {
+            if (!store.features().supportsCheckpoint()) {
+                throw new NotSupportException(
+                          "checkpoint of store '%s' with backend '%s'",
+                          store.name(), this.type());
+            }
+        }
+        /*
+         * NOTE: the checkpoint of each store is consistent itself, but the
+         * stores are checkpointed one by one, so schema changes committed
+         * in the meantime may be contained only in part of the checkpoints
+         */
+        for (BackendStore store : this.stores.values()) {
+            store.createCheckpoint(dir);
+        }
+    }
+
     @Override
     public BackendStore loadSchemaStore(final String name) {
         LOG.debug("The '{}' StoreProvider load SchemaStore '{}'",
@@ -50,4 +50,8 @@ public interface BackendFeatures {
     public boolean supportsTransaction();
 
     public boolean supportsNumberType();
+
+    public boolean supportsIndexBuckets();
+
+    public boolean supportsCheckpoint();
 }
@@ -56,6 +56,9 @@ public interface BackendStore {
     // Get metadata by key
     public <R> R metadata(HugeType type, String meta, Object[] args);
 
+    // Create a point-in-time copy of the data into a directory
+    public void createCheckpoint(String dir);
+
     // Backend features
     public BackendFeatures features();
 
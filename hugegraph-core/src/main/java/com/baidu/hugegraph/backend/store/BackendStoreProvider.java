@@ -39,5 +39,7 @@ public interface BackendStoreProvider {
 
     public void clear();
 
+    public void createCheckpoint(String dir);
+
     public void listen(EventListener listener);
 }
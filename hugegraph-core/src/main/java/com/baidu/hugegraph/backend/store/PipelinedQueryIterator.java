@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.iterator.WrappedIterator;
+import com.baidu.hugegraph.util.E;
+
+/**
+ * Iterate the results of several sub-queries (like the selects of a query),
+ * which are executed concurrently with at most `concurrency` in flight.
+ * The results are returned in the order of the sub-queries if the query
+ * asks for an order, otherwise in the order of their arrival.
+ * @param <R> the type of the result of a sub-query
+ */
+public class PipelinedQueryIterator<R> extends WrappedIterator<BackendEntry> {
+
+    private final Query query;
+    private final Iterator<Supplier<CompletableFuture<R>>> tasks;
+    private final Function<R, Iterator<BackendEntry>> mapper;
+    private final int concurrency;
+    private final boolean ordered;
+
+    // The sub-queries in flight, in the order of submitting
+    private final Deque<CompletableFuture<R>> submitted;
+    // The finished sub-queries, in the order of finishing
+    private final BlockingQueue<CompletableFuture<R>> finished;
+    private Iterator<BackendEntry> results;
+
+    public PipelinedQueryIterator(Query query,
+                                  List<Supplier<CompletableFuture<R>>> tasks,
+                                  Function<R, Iterator<BackendEntry>> mapper,
+                                  int concurrency) {
+        E.checkArgument(concurrency > 0,
+                        "The concurrency must be > 0, but got %s",
+                        concurrency);
+        this.query = query;
+        this.tasks = tasks.iterator();
+        this.mapper = mapper;
+        this.concurrency = concurrency;
+        this.ordered = !query.orders().isEmpty();
+        this.submitted = new ArrayDeque<>(concurrency);
+        this.finished = new LinkedBlockingQueue<>();
+        this.results = null;
+
+        // Start the sub-queries before iterating
+        this.submit();
+    }
+
+    @Override
+    protected Iterator<?> originIterator() {
+        return this.results;
+    }
+
+    @Override
+    protected boolean fetch() {
+        assert this.current == null;
+        while (this.results == null || !this.results.hasNext()) {
+            if (this.submitted.isEmpty()) {
+                return false;
+            }
+            this.results = this.mapper.apply(this.nextFinished());
+        }
+        this.current = this.results.next();
+        return true;
+    }
+
+    /**
+     * Cancel the sub-queries in flight, and release the results of the
+     * finished ones if they are closeable (like the ResultSet of JDBC)
+     */
+    @Override
+    public void close() throws Exception {
+        CompletableFuture<R> future;
+        while ((future = this.submitted.poll()) != null) {
+            if (future.cancel(true) || future.isCompletedExceptionally()) {
+                continue;
+            }
+            R result = future.getNow(null);
+            if (result instanceof AutoCloseable) {
+                ((AutoCloseable) result).close();
+            }
+        }
+        super.close();
+    }
+
+    private void submit() {
+        while (this.submitted.size() < this.concurrency &&
+               this.tasks.hasNext()) {
+            CompletableFuture<R> future = this.tasks.next().get();
+            this.submitted.add(future);
+            if (!this.ordered) {
+                future.whenComplete((r, e) -> this.finished.add(future));
+            }
+        }
+    }
+
+    private R nextFinished() {
+        CompletableFuture<R> future;
+        if (this.ordered) {
+            future = this.submitted.poll();
+        } else {
+            try {
+                future = this.finished.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BackendException("Interrupted while querying [%s]",
+                                           e, this.query);
+            }
+            this.submitted.remove(future);
+        }
+        // Keep the sub-queries in flight
+        this.submit();
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BackendException) {
+                throw (BackendException) e.getCause();
+            }
+            throw new BackendException("Failed to query [%s]",
+                                       e.getCause(), this.query);
+        }
+    }
+}
@@ -75,6 +75,12 @@ public class InMemoryDBStore implements BackendStore {
         throw new UnsupportedOperationException("InMemoryDBStore.metadata()");
     }
 
+    @Override
+    public void createCheckpoint(String dir) {
+        throw new UnsupportedOperationException(
+                  "InMemoryDBStore.createCheckpoint()");
+    }
+
     protected void registerTableManager(HugeType type, InMemoryDBTable table) {
         this.tables.put(type, table);
     }
@@ -318,5 +324,15 @@ public class InMemoryDBStore implements BackendStore {
         public boolean supportsNumberType() {
             return false;
         }
+
+        @Override
+        public boolean supportsIndexBuckets() {
+            return false;
+        }
+
+        @Override
+        public boolean supportsCheckpoint() {
+            return false;
+        }
     };
 }
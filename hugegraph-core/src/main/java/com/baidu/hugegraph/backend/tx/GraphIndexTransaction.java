@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,8 +32,6 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.tinkerpop.gremlin.structure.Edge;
-import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import com.baidu.hugegraph.HugeException;
 import com.baidu.hugegraph.HugeGraph;
@@ -65,6 +64,7 @@ import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.InsertionOrderUtil;
 import com.baidu.hugegraph.util.LockUtil;
 import com.baidu.hugegraph.util.NumericUtil;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 public class GraphIndexTransaction extends AbstractTransaction {
@@ -205,7 +205,7 @@ public class GraphIndexTransaction extends AbstractTransaction {
     /**
      * Update index(user properties) of vertex or edge
      */
-    private void updateIndex(Id ilId, HugeElement element, boolean removed) {
+    protected void updateIndex(Id ilId, HugeElement element, boolean removed) {
         SchemaTransaction schema = graph().schemaTransaction();
         IndexLabel indexLabel = schema.getIndexLabel(ilId);
         E.checkArgument(indexLabel != null,
@@ -439,8 +439,10 @@ public class GraphIndexTransaction extends AbstractTransaction {
     private MatchedLabel collectMatchedLabel(SchemaLabel schemaLabel,
                                              ConditionQuery query) {
         SchemaTransaction schema = this.graph().schemaTransaction();
+        // The hidden shadows of rebuilding index labels are not queryable
         Set<IndexLabel> indexLabels = schemaLabel.indexLabels().stream()
                                                  .map(schema::getIndexLabel)
+                                                 .filter(il -> !il.hidden())
                                                  .collect(Collectors.toSet());
         if (indexLabels.isEmpty()) {
             return null;
@@ -726,6 +728,14 @@ public class GraphIndexTransaction extends AbstractTransaction {
             indexQuery = new ConditionQuery(HugeType.SECONDARY_INDEX, query);
             indexQuery.eq(HugeKeys.INDEX_LABEL_ID, indexLabel.id());
             indexQuery.eq(HugeKeys.FIELD_VALUES, joinedValues);
+            if (indexLabel.buckets() > 1) {
+                // Read the entries from all the buckets
+                List<Integer> buckets = new ArrayList<>();
+                for (int i = 0; i < indexLabel.buckets(); i++) {
+                    buckets.add(i);
+                }
+                indexQuery.query(Condition.in(HugeKeys.BUCKET, buckets));
+            }
         } else {
             assert indexLabel.indexType() == IndexType.RANGE;
             if (query.userpropConditions().size() > 2) {
@@ -874,55 +884,52 @@ public class GraphIndexTransaction extends AbstractTransaction {
 
     public void rebuildIndex(HugeType type, Id label,
                              Collection<Id> indexLabelIds) {
-        GraphTransaction tx = graph().graphTransaction();
-        // Manually commit avoid deletion override add/update
-        boolean autoCommit = this.autoCommit();
-        this.autoCommit(false);
+        SchemaTransaction schema = this.graph().schemaTransaction();
+        /*
+         * Build the index into shadow index labels, the shadows are updated
+         * by the concurrent writes of elements too but not used by queries,
+         * so the readers keep using the old index until the switch below
+         */
+        Map<IndexLabel, IndexLabel> shadows = new LinkedHashMap<>();
+        try {
+            // Copy ids since the shadows are added to the base label
+            for (Id id : ImmutableList.copyOf(indexLabelIds)) {
+                IndexLabel indexLabel = schema.getIndexLabel(id);
+                if (indexLabel == null || indexLabel.hidden()) {
+                    // Skip the shadows of other rebuilding
+                    continue;
+                }
+                shadows.put(indexLabel, schema.addShadowIndexLabel(indexLabel));
+            }
+            Set<Id> shadowIds = shadows.values().stream()
+                                       .map(IndexLabel::id)
+                                       .collect(Collectors.toSet());
+            new IndexRebuilder(this.graph(), type, label, shadowIds).rebuild();
+        } catch (Throwable e) {
+            for (IndexLabel shadow : shadows.values()) {
+                schema.removeIndexLabel(shadow.id());
+            }
+            throw e;
+        }
 
+        // Switch to the shadows in a short step which blocks the index users
         LockUtil.Locks locks = new LockUtil.Locks();
         try {
-            locks.lockWrites(LockUtil.INDEX_REBUILD, indexLabelIds);
-            locks.lockWrites(LockUtil.INDEX_LABEL, indexLabelIds);
-            this.removeIndex(indexLabelIds);
-            /**
-             * Note: Here must commit index transaction firstly.
-             * Because remove index convert to (id like <?>:personByCity):
-             * `delete from index table where label = ?`,
-             * But append index will convert to (id like Beijing:personByCity):
-             * `update index element_ids += xxx where field_value = ?
-             * and index_label_name = ?`,
-             * They have different id lead to it can't compare and optimize
-             */
-            this.commit();
-            if (type == HugeType.VERTEX_LABEL) {
-                ConditionQuery query = new ConditionQuery(HugeType.VERTEX);
-                query.eq(HugeKeys.LABEL, label);
-                query.capacity(Query.NO_CAPACITY);
-                for (Iterator<Vertex> itor = tx.queryVertices(query);
-                     itor.hasNext();) {
-                    HugeVertex vertex = (HugeVertex) itor.next();
-                    for (Id id : indexLabelIds) {
-                        this.updateIndex(id, vertex, false);
-                    }
-                }
-            } else {
-                assert type == HugeType.EDGE_LABEL;
-                ConditionQuery query = new ConditionQuery(HugeType.EDGE);
-                query.eq(HugeKeys.LABEL, label);
-                query.capacity(Query.NO_CAPACITY);
-                for (Iterator<Edge> itor = tx.queryEdges(query);
-                     itor.hasNext();) {
-                    HugeEdge edge = (HugeEdge) itor.next();
-                    for (Id id : indexLabelIds) {
-                        this.updateIndex(id, edge, false);
-                    }
-                }
+            locks.lockWrites(LockUtil.INDEX_LABEL, shadows.keySet().stream()
+                                                          .map(IndexLabel::id)
+                                                          .toArray(Id[]::new));
+            for (Map.Entry<IndexLabel, IndexLabel> e : shadows.entrySet()) {
+                schema.switchIndexLabel(e.getKey(), e.getValue());
             }
-            this.commit();
         } finally {
-            this.autoCommit(autoCommit);
             locks.unlock();
         }
+
+        // The old index data is not visible any more, drop it at last
+        for (IndexLabel indexLabel : shadows.keySet()) {
+            this.removeIndex(indexLabel);
+        }
+        this.commit();
     }
 
     private static class MatchedLabel {
@@ -22,11 +22,15 @@ package com.baidu.hugegraph.backend.tx;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -51,8 +55,10 @@ import com.baidu.hugegraph.backend.query.ConditionQueryFlatten;
 import com.baidu.hugegraph.backend.query.IdQuery;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendEntry;
+import com.baidu.hugegraph.backend.store.BackendFeatures;
 import com.baidu.hugegraph.backend.store.BackendMutation;
 import com.baidu.hugegraph.backend.store.BackendStore;
+import com.baidu.hugegraph.backend.store.BackendTable;
 import com.baidu.hugegraph.backend.tx.GraphIndexTransaction.OptimizedType;
 import com.baidu.hugegraph.config.CoreOptions;
 import com.baidu.hugegraph.config.HugeConfig;
@@ -60,12 +66,15 @@ import com.baidu.hugegraph.exception.NotFoundException;
 import com.baidu.hugegraph.iterator.ExtendableIterator;
 import com.baidu.hugegraph.iterator.FilterIterator;
 import com.baidu.hugegraph.iterator.FlatMapperFilterIterator;
+import com.baidu.hugegraph.iterator.FlatMapperIterator;
 import com.baidu.hugegraph.iterator.MapperIterator;
+import com.baidu.hugegraph.iterator.Metadatable;
 import com.baidu.hugegraph.perf.PerfUtil.Watched;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.IndexLabel;
 import com.baidu.hugegraph.schema.PropertyKey;
 import com.baidu.hugegraph.schema.SchemaElement;
+import com.baidu.hugegraph.schema.SchemaLabel;
 import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.structure.HugeEdge;
 import com.baidu.hugegraph.structure.HugeEdgeProperty;
@@ -76,6 +85,7 @@ import com.baidu.hugegraph.structure.HugeVertex;
 import com.baidu.hugegraph.structure.HugeVertexProperty;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.Indexfiable;
+import com.baidu.hugegraph.type.Shard;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.type.define.HugeKeys;
 import com.baidu.hugegraph.type.define.IdStrategy;
@@ -83,6 +93,8 @@ import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.InsertionOrderUtil;
 import com.baidu.hugegraph.util.LockUtil;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 
 public class GraphTransaction extends IndexableTransaction {
 
@@ -104,6 +116,9 @@ public class GraphTransaction extends IndexableTransaction {
 
     private final int vertexesCapacity;
     private final int edgesCapacity;
+    private final int batchSize;
+    private final int removeBatchSize;
+    private final long removeSplitSize;
 
     public GraphTransaction(HugeGraph graph, BackendStore store) {
         super(graph, store);
@@ -114,6 +129,9 @@ public class GraphTransaction extends IndexableTransaction {
         final HugeConfig conf = graph.configuration();
         this.vertexesCapacity = conf.get(CoreOptions.VERTEX_TX_CAPACITY);
         this.edgesCapacity = conf.get(CoreOptions.EDGE_TX_CAPACITY);
+        this.batchSize = conf.get(CoreOptions.QUERY_BATCH_SIZE);
+        this.removeBatchSize = conf.get(CoreOptions.REMOVE_LABEL_BATCH_SIZE);
+        this.removeSplitSize = conf.get(CoreOptions.REMOVE_LABEL_SPLIT_SIZE);
     }
 
     @Override
@@ -174,6 +192,10 @@ public class GraphTransaction extends IndexableTransaction {
         return ids;
     }
 
+    protected Set<Id> removedVerticesInTx() {
+        return new HashSet<>(this.removedVertexes.keySet());
+    }
+
     protected Set<Id> edgesInTx() {
         Set<Id> ids = new HashSet<>(this.addedEdges.keySet());
         ids.addAll(this.removedEdges.keySet());
@@ -284,17 +306,35 @@ public class GraphTransaction extends IndexableTransaction {
     public Iterator<BackendEntry> query(Query query) {
         List<Query> queries = new ArrayList<>();
         if (query instanceof ConditionQuery) {
-            for (ConditionQuery cq: ConditionQueryFlatten.flatten(
-                                    (ConditionQuery) query)) {
-                Query q = this.optimizeQuery(cq);
+            List<ConditionQuery> flattenQueries = ConditionQueryFlatten.flatten(
+                                                  (ConditionQuery) query);
+            IdQuery ids = null;
+            for (Query q : this.optimizeQueries(flattenQueries)) {
                 /*
                  * NOTE: There are two possibilities for this query:
                  * 1.sysprop-query, which would not be empty.
                  * 2.index-query result(ids after optimize), which may be empty.
                  */
-                if (!q.empty()) {
+                if (q.empty()) {
                     // Return empty if there is no result after index-query
+                    continue;
+                }
+                /*
+                 * Collapse the adjacent id queries into one multi-get query,
+                 * keep the duplicate results of OR conditions as before
+                 */
+                if (!isPlainIdQuery(q)) {
+                    ids = null;
                     queries.add(q);
+                } else if (ids != null && BackendTable.tableType(ids) ==
+                                          BackendTable.tableType(q) &&
+                           Collections.disjoint(ids.ids(), q.ids())) {
+                    ids.query(q.ids());
+                } else {
+                    ids = new IdQuery(q.resultType(), q.originQuery());
+                    ids.capacity(query.capacity());
+                    ids.query(q.ids());
+                    queries.add(ids);
                 }
             }
         } else {
@@ -308,6 +348,84 @@ public class GraphTransaction extends IndexableTransaction {
         return rs;
     }
 
+    /**
+     * Optimize the flattened queries, the index queries are run by the
+     * query executor of graph in parallel if there are more than one, and
+     * the results keep the order of the flattened queries.
+     * NOTE: the sysprop queries, like the per-label edge queries of a
+     * vertex step, are not index queries and still run one by one in the
+     * current thread, since the backend iterators are bound to the session
+     * of the thread that opened them.
+     */
+    private List<Query> optimizeQueries(List<ConditionQuery> queries) {
+        List<Query> results = new ArrayList<>(queries.size());
+        List<ConditionQuery> indexQueries = new ArrayList<>();
+        for (ConditionQuery query : queries) {
+            Query result = this.optimizeQueryBySysprop(query);
+            if (result == null) {
+                indexQueries.add(query);
+            }
+            results.add(result);
+        }
+
+        ExecutorService executor = this.graph().queryExecutor();
+        /*
+         * NOTE: the index query can't be done with changes in transaction,
+         * let it throw exception in the current thread in that case
+         */
+        if (executor == null || indexQueries.size() <= 1 ||
+            this.hasUpdates()) {
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, this.queryByIndex(queries.get(i)));
+                }
+            }
+            return results;
+        }
+
+        HugeGraph graph = this.graph();
+        List<Future<Query>> futures = new ArrayList<>(indexQueries.size());
+        try {
+            for (ConditionQuery query : indexQueries) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return graph.graphTransaction().queryByIndex(query);
+                    } finally {
+                        // Transaction of graph is thread local
+                        graph.closeTx();
+                    }
+                }));
+            }
+            Iterator<Future<Query>> iter = futures.iterator();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, iter.next().get());
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HugeException("Interrupted while querying", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new HugeException("Failed to query", cause);
+        } finally {
+            for (Future<Query> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static boolean isPlainIdQuery(Query query) {
+        return query instanceof IdQuery &&
+               !(query instanceof ConditionQuery) &&
+               query.offset() == 0L && query.limit() == Query.NO_LIMIT &&
+               !query.paging() && query.orders().isEmpty();
+    }
+
     @Watched("graph.addVertex-with-instance")
     public Vertex addVertex(HugeVertex vertex) {
         this.checkOwnerThread();
@@ -538,9 +656,94 @@ public class GraphTransaction extends IndexableTransaction {
 
     public Iterator<Edge> queryEdges(Query query) {
         assert query.resultType().isEdge();
+        return this.readEdges(query, this.query(query));
+    }
 
-        Iterator<BackendEntry> entries = this.query(query);
+    /**
+     * Query edges of multiple vertices, the vertices are split into batches
+     * and each batch is sent to backend with one query per direction and
+     * edge label, rather than one query per vertex
+     * @param sourceVertices source vertices of edges
+     * @param direction only be "IN", "OUT" or "BOTH"
+     * @param degree max edges of each source vertex, or Query.NO_LIMIT
+     * @param edgeLabels edge labels of queried edges
+     * @return edges of all the source vertices
+     */
+    public Iterator<Edge> queryEdgesByVertices(Collection<Id> sourceVertices,
+                                               Directions direction,
+                                               long degree, Id... edgeLabels) {
+        E.checkArgument(degree > 0L,
+                        "The degree must be > 0, but got %s", degree);
+
+        if (degree != Query.NO_LIMIT) {
+            /*
+             * The degree can't be pushed down into a batch query, so query
+             * each vertex with the limit to avoid reading all the edges of
+             * super vertices, these queries also go through the edge cache.
+             * NOTE: some backends may return more edges than the limit
+             * since the edges of a vertex are stored in one entry.
+             */
+            int limit = (int) Math.min(degree, Integer.MAX_VALUE);
+            return new FlatMapperIterator<>(sourceVertices.iterator(),
+                                            vertex -> {
+                ConditionQuery q = constructEdgesQuery(vertex, direction,
+                                                       edgeLabels);
+                q.limit(degree);
+                return Iterators.limit(this.queryEdges(q), limit);
+            });
+        }
+
+        List<List<Id>> batches = Lists.partition(
+                                 new ArrayList<>(sourceVertices),
+                                 this.batchSize);
+        return new FlatMapperIterator<>(batches.iterator(), batch -> {
+            return this.queryEdgesByBatch(batch, direction, edgeLabels);
+        });
+    }
+
+    private Iterator<Edge> queryEdgesByBatch(List<Id> vertices,
+                                             Directions direction,
+                                             Id... edgeLabels) {
+        Directions[] dirs = direction == Directions.BOTH ?
+                            new Directions[]{Directions.OUT, Directions.IN} :
+                            new Directions[]{direction};
+        Id[][] labels = edgeLabels.length == 0 ?
+                        new Id[][]{edgeLabels} :
+                        Arrays.stream(edgeLabels).map(label -> {
+                            return new Id[]{label};
+                        }).toArray(Id[][]::new);
+
+        // Each sub-query is flattened except the vertices(IN relation)
+        ExtendableIterator<BackendEntry> entries = new ExtendableIterator<>();
+        for (Directions dir : dirs) {
+            for (Id[] label : labels) {
+                ConditionQuery q = constructEdgesQuery(vertices, dir, label);
+                q.capacity(Query.NO_CAPACITY);
+                entries.extend(super.query(q));
+            }
+        }
+
+        ConditionQuery query = constructEdgesQuery(vertices, direction,
+                                                   edgeLabels);
+        query.capacity(Query.NO_CAPACITY);
+        /*
+         * An edge between two vertices of the batch is returned once for
+         * each of them when querying both directions, so just filter the
+         * repeated edges of the same source vertex
+         */
+        return this.readEdges(query, entries, edge -> {
+            return ImmutableList.of(edge.id().ownerVertexId(), edge.id());
+        });
+    }
+
+    private Iterator<Edge> readEdges(Query query,
+                                     Iterator<BackendEntry> entries) {
+        return this.readEdges(query, entries, HugeEdge::id);
+    }
 
+    private Iterator<Edge> readEdges(Query query,
+                                     Iterator<BackendEntry> entries,
+                                     Function<HugeEdge, Object> edgeKey) {
         Function<BackendEntry, Iterator<HugeEdge>> mapper = entry -> {
             // Edges are in a vertex
             HugeVertex vertex = this.serializer.readVertex(graph(), entry);
@@ -549,7 +752,7 @@ public class GraphTransaction extends IndexableTransaction {
             return ImmutableList.copyOf(vertex.getEdges()).iterator();
         };
 
-        Set<Id> returnedEdges = new HashSet<>();
+        Set<Object> returnedEdges = new HashSet<>();
         Function<HugeEdge, Boolean> filter = edge -> {
             // Filter hidden results
             if (!query.showHidden() && Graph.Hidden.isHidden(edge.label())) {
@@ -561,14 +764,13 @@ public class GraphTransaction extends IndexableTransaction {
             }
 
             // Filter repeat edges (TODO: split edges table into OUT&IN table)
-            if (!returnedEdges.contains(edge.id())) {
+            if (returnedEdges.add(edgeKey.apply(edge))) {
                 /*
                  * NOTE: Maybe some edges are IN and others are OUT if
                  * querying edges both directions, perhaps it would look
                  * better if we convert all edges in results to OUT, but
                  * that would break the logic when querying IN edges.
                  */
-                returnedEdges.add(edge.id());
                 return true;
             } else {
                 LOG.debug("Results contains edge: {}", edge);
@@ -801,14 +1003,44 @@ public class GraphTransaction extends IndexableTransaction {
                                                      Id... edgeLabels) {
         E.checkState(sourceVertex != null,
                      "The edge query must contain source vertex");
-        E.checkState(direction != null,
-                     "The edge query must contain direction");
 
         ConditionQuery query = new ConditionQuery(HugeType.EDGE);
 
         // Edge source vertex
         query.eq(HugeKeys.OWNER_VERTEX, sourceVertex);
 
+        return fillEdgesQuery(query, direction, edgeLabels);
+    }
+
+    /**
+     * Construct one edge condition query based on multiple source vertices,
+     * direction and edge labels, the source vertices will be kept as an IN
+     * relation that backend stores can serve within one query
+     * @param sourceVertices source vertices of edge
+     * @param direction only be "IN", "OUT" or "BOTH"
+     * @param edgeLabels edge labels of queried edges
+     * @return constructed condition query
+     */
+    public static ConditionQuery constructEdgesQuery(List<Id> sourceVertices,
+                                                     Directions direction,
+                                                     Id... edgeLabels) {
+        E.checkState(sourceVertices != null && !sourceVertices.isEmpty(),
+                     "The edge query must contain source vertices");
+
+        ConditionQuery query = new ConditionQuery(HugeType.EDGE);
+
+        // Edge source vertices
+        query.query(Condition.in(HugeKeys.OWNER_VERTEX, sourceVertices));
+
+        return fillEdgesQuery(query, direction, edgeLabels);
+    }
+
+    private static ConditionQuery fillEdgesQuery(ConditionQuery query,
+                                                 Directions direction,
+                                                 Id... edgeLabels) {
+        E.checkState(direction != null,
+                     "The edge query must contain direction");
+
         // Edge direction
         if (direction == Directions.BOTH) {
             query.query(Condition.or(
@@ -871,7 +1103,11 @@ public class GraphTransaction extends IndexableTransaction {
         }
     }
 
-    protected Query optimizeQuery(ConditionQuery query) {
+    /**
+     * Optimize the query by primary-key, sort-key or sysprops,
+     * return null if it should be optimized by index-query
+     */
+    protected Query optimizeQueryBySysprop(ConditionQuery query) {
         Id label = (Id) query.condition(HugeKeys.LABEL);
 
         // Optimize vertex query
@@ -934,11 +1170,15 @@ public class GraphTransaction extends IndexableTransaction {
             }
         }
 
-        /*
-         * Optimize by index-query
-         * It will return a list of id (maybe empty) if success,
-         * or throw exception if there is no any index for query properties.
-         */
+        return null;
+    }
+
+    /**
+     * Optimize by index-query
+     * It will return a list of id (maybe empty) if success,
+     * or throw exception if there is no any index for query properties.
+     */
+    protected Query queryByIndex(ConditionQuery query) {
         this.beforeRead();
         try {
             return this.indexTx.query(query);
@@ -1218,18 +1458,14 @@ public class GraphTransaction extends IndexableTransaction {
         boolean autoCommit = this.autoCommit();
         this.autoCommit(false);
         try {
-            ConditionQuery query = new ConditionQuery(HugeType.VERTEX);
-            query.eq(HugeKeys.LABEL, vertexLabel.id());
-            query.capacity(Query.NO_CAPACITY);
-            if (vertexLabel.hidden()) {
-                query.showHidden(true);
-            }
-
-            for (Iterator<Vertex> vertices = queryVertices(query);
-                 vertices.hasNext();) {
-                this.removeVertex((HugeVertex) vertices.next());
-            }
-            this.commit();
+            // Edges and indexes of the vertices are removed in each batch
+            long count = this.removeByLabel(HugeType.VERTEX, vertexLabel,
+                                            this.removeVerticesBatchSize(),
+                                            v -> {
+                this.removeVertex((HugeVertex) v);
+            });
+            LOG.debug("Removed {} vertices of label '{}'",
+                      count, vertexLabel.name());
         } catch (Exception e) {
             LOG.error("Failed to remove vertices", e);
             throw new HugeException("Failed to remove vertices", e);
@@ -1252,19 +1488,16 @@ public class GraphTransaction extends IndexableTransaction {
                                                       edgeLabel.id()));
                 this.doRemove(this.serializer.writeId(HugeType.EDGE_IN,
                                                       edgeLabel.id()));
+                this.commit();
             } else {
-                ConditionQuery query = new ConditionQuery(HugeType.EDGE);
-                query.eq(HugeKeys.LABEL, edgeLabel.id());
-                query.capacity(Query.NO_CAPACITY);
-                if (edgeLabel.hidden()) {
-                    query.showHidden(true);
-                }
-                for (Iterator<Edge> edges = queryEdges(query);
-                     edges.hasNext();) {
-                    this.removeEdge((HugeEdge) edges.next());
-                }
+                long count = this.removeByLabel(HugeType.EDGE, edgeLabel,
+                                                this.removeEdgesBatchSize(),
+                                                e -> {
+                    this.removeEdge((HugeEdge) e);
+                });
+                LOG.debug("Removed {} edges of label '{}'",
+                          count, edgeLabel.name());
             }
-            this.commit();
         } catch (Exception e) {
             LOG.error("Failed to remove edges", e);
             throw new HugeException("Failed to remove edges", e);
@@ -1272,4 +1505,142 @@ public class GraphTransaction extends IndexableTransaction {
             this.autoCommit(autoCommit);
         }
     }
+
+    /**
+     * Split the table of vertices or edges into shards by the backend
+     * @return the shards, or an empty list if the backend can't split them
+     */
+    protected List<Shard> shards(HugeType type, long splitSize) {
+        assert type == HugeType.VERTEX || type == HugeType.EDGE_OUT;
+        BackendFeatures features = this.store().features();
+        if (!features.supportsScanToken() &&
+            !features.supportsScanKeyRange()) {
+            return ImmutableList.of();
+        }
+        return this.metadata(type, "splits", splitSize);
+    }
+
+    /**
+     * Query the vertices or edges of a shard, or query them by label if the
+     * shard is null. NOTE: the elements of a shard may belong to any label.
+     */
+    protected Iterator<?> queryByShard(HugeType type, Id label,
+                                       Shard shard, boolean showHidden) {
+        assert type == HugeType.VERTEX || type == HugeType.EDGE;
+        ConditionQuery query;
+        if (shard == null) {
+            query = new ConditionQuery(type);
+            query.eq(HugeKeys.LABEL, label);
+        } else {
+            // Scan the OUT edges only to avoid getting an edge twice
+            query = new ConditionQuery(type == HugeType.VERTEX ?
+                                       HugeType.VERTEX : HugeType.EDGE_OUT);
+            query.scan(shard.start(), shard.end());
+        }
+        query.capacity(Query.NO_CAPACITY);
+        query.showHidden(showHidden);
+        if (type == HugeType.VERTEX) {
+            return this.queryVertices(query);
+        } else {
+            return this.queryEdges(query);
+        }
+    }
+
+    private long removeByLabel(HugeType type, SchemaLabel label,
+                               int batchSize, Consumer<Object> remover) {
+        BackendFeatures features = this.store().features();
+        if (features.supportsQueryByLabel() &&
+            features.supportsQueryByPage()) {
+            return this.removeByPages(type, label, batchSize, remover);
+        } else {
+            return this.removeByShards(type, label, batchSize, remover);
+        }
+    }
+
+    /**
+     * Remove the elements of a label page by page, each page is read out
+     * before removing and committing it, and the next page continues from
+     * the position of the last one rather than querying from the beginning
+     */
+    private long removeByPages(HugeType type, SchemaLabel label,
+                               int batchSize, Consumer<Object> remover) {
+        long count = 0L;
+        String page = "";
+        while (page != null) {
+            ConditionQuery query = new ConditionQuery(type);
+            query.eq(HugeKeys.LABEL, label.id());
+            query.showHidden(label.hidden());
+            query.capacity(Query.NO_CAPACITY);
+            query.limit(batchSize);
+            query.page(page);
+            Iterator<?> results = type == HugeType.VERTEX ?
+                                  this.queryVertices(query) :
+                                  this.queryEdges(query);
+            List<?> elements = ImmutableList.copyOf(results);
+            String next = (String) ((Metadatable) results).metadata("page");
+            E.checkState(!page.equals(next),
+                         "No progress while removing %s of label '%s' " +
+                         "at page '%s'", type, label.name(), page);
+            page = next;
+
+            for (Object element : elements) {
+                remover.accept(element);
+            }
+            this.commit();
+            count += elements.size();
+            LOG.debug("Removing {} of label '{}': {} elements",
+                      type, label.name(), count);
+        }
+        return count;
+    }
+
+    /**
+     * Remove the elements of a label shard by shard, the elements of a shard
+     * are collected with one scan and then removed in batches, so that
+     * neither the removed elements are scanned again nor the scan is
+     * disturbed by the committed batches. The backends that can't split
+     * shards query the elements of the label instead.
+     */
+    private long removeByShards(HugeType type, SchemaLabel label,
+                                int batchSize, Consumer<Object> remover) {
+        List<Shard> shards = this.shards(type == HugeType.VERTEX ?
+                                         HugeType.VERTEX : HugeType.EDGE_OUT,
+                                         this.removeSplitSize);
+        if (shards.isEmpty()) {
+            shards = Collections.singletonList(null);
+        }
+
+        long count = 0L;
+        for (Shard shard : shards) {
+            List<Object> elements = new ArrayList<>();
+            Iterator<?> results = this.queryByShard(type, label.id(), shard,
+                                                    label.hidden());
+            while (results.hasNext()) {
+                HugeElement element = (HugeElement) results.next();
+                // The scanned shard contains elements of all labels
+                if (element.schemaLabel().id().equals(label.id())) {
+                    elements.add(element);
+                }
+            }
+
+            for (List<Object> batch : Lists.partition(elements, batchSize)) {
+                for (Object element : batch) {
+                    remover.accept(element);
+                }
+                this.commit();
+                count += batch.size();
+                LOG.debug("Removing {} of label '{}': {} elements",
+                          type, label.name(), count);
+            }
+        }
+        return count;
+    }
+
+    private int removeVerticesBatchSize() {
+        return Math.min(this.removeBatchSize, this.vertexesCapacity);
+    }
+
+    private int removeEdgesBatchSize() {
+        return Math.min(this.removeBatchSize, this.edgesCapacity);
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.tx;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.HugeException;
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.config.CoreOptions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.structure.HugeElement;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.Shard;
+import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
+
+/**
+ * Rebuild the indexes of a vertex/edge label by the shards of the backend,
+ * the shards are scanned by parallel workers, each worker has its own
+ * graph transaction and commits the indexes in batches. The stores which
+ * don't support splitting shards are rebuilt by querying the label.
+ */
+public class IndexRebuilder {
+
+    private static final Logger LOG = Log.logger(IndexRebuilder.class);
+
+    private static final AtomicInteger ID = new AtomicInteger(0);
+
+    private final HugeGraph graph;
+    private final HugeType type;
+    private final Id label;
+    private final Collection<Id> indexLabels;
+
+    private final int workers;
+    private final int batchSize;
+    private final long splitSize;
+
+    private final AtomicLong rebuilt;
+    private final AtomicInteger finishedShards;
+
+    public IndexRebuilder(HugeGraph graph, HugeType type, Id label,
+                          Collection<Id> indexLabels) {
+        E.checkArgument(type == HugeType.VERTEX_LABEL ||
+                        type == HugeType.EDGE_LABEL,
+                        "Can't rebuild index for %s", type);
+        this.graph = graph;
+        this.type = type;
+        this.label = label;
+        this.indexLabels = indexLabels;
+
+        HugeConfig conf = graph.configuration();
+        this.workers = conf.get(CoreOptions.INDEX_REBUILD_WORKERS);
+        this.batchSize = conf.get(CoreOptions.INDEX_REBUILD_BATCH_SIZE);
+        this.splitSize = conf.get(CoreOptions.INDEX_REBUILD_SPLIT_SIZE);
+
+        this.rebuilt = new AtomicLong(0L);
+        this.finishedShards = new AtomicInteger(0);
+    }
+
+    /**
+     * Rebuild the indexes and wait for all the workers to finish
+     * @return the number of rebuilt vertices or edges
+     */
+    public long rebuild() {
+        List<Shard> shards = this.shards();
+        int workers = Math.min(this.workers, Math.max(shards.size(), 1));
+        String prefix = "index-rebuild-" + ID.incrementAndGet() + "-";
+        AtomicInteger threads = new AtomicInteger(0);
+        ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, prefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOG.info("Rebuild index {} of {} '{}' with {} shards and {} workers",
+                 this.indexLabels, this.type, this.label,
+                 Math.max(shards.size(), 1), workers);
+
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            if (shards.isEmpty()) {
+                futures.add(executor.submit(() -> this.rebuildShard(null, 1)));
+            }
+            for (Shard shard : shards) {
+                futures.add(executor.submit(() -> {
+                    this.rebuildShard(shard, shards.size());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HugeException("Interrupted while rebuilding index", e);
+        } catch (ExecutionException e) {
+            throw new HugeException("Failed to rebuild index %s of '%s'",
+                                    e.getCause(), this.indexLabels,
+                                    this.label);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdown();
+        }
+
+        LOG.info("Rebuilt index {} of {} '{}' for {} elements",
+                 this.indexLabels, this.type, this.label, this.rebuilt);
+        return this.rebuilt.get();
+    }
+
+    private List<Shard> shards() {
+        HugeType type = this.type == HugeType.VERTEX_LABEL ?
+                        HugeType.VERTEX : HugeType.EDGE_OUT;
+        return this.graph.graphTransaction().shards(type, this.splitSize);
+    }
+
+    private void rebuildShard(Shard shard, int shards) {
+        GraphTransaction tx = this.graph.graphTransaction();
+        GraphIndexTransaction indexTx = (GraphIndexTransaction)
+                                        tx.indexTransaction();
+        try {
+            long count = 0L;
+            Iterator<?> elements = this.queryElements(tx, shard);
+            while (elements.hasNext()) {
+                HugeElement element = (HugeElement) elements.next();
+                // The scanned shard contains elements of all labels
+                if (!this.label.equals(element.schemaLabel().id())) {
+                    continue;
+                }
+                for (Id id : this.indexLabels) {
+                    indexTx.updateIndex(id, element, false);
+                }
+                if (++count % this.batchSize == 0) {
+                    indexTx.commit();
+                    long rebuilt = this.rebuilt.addAndGet(this.batchSize);
+                    LOG.debug("Rebuilding index {} of '{}': {} elements",
+                              this.indexLabels, this.label, rebuilt);
+                }
+            }
+            indexTx.commit();
+            this.rebuilt.addAndGet(count % this.batchSize);
+
+            LOG.info("Rebuilding index {} of '{}': {}/{} shards finished, " +
+                     "{} elements", this.indexLabels, this.label,
+                     this.finishedShards.incrementAndGet(), shards,
+                     this.rebuilt);
+        } finally {
+            // Transaction of graph is thread local, close it in worker
+            this.graph.closeTx();
+        }
+    }
+
+    private Iterator<?> queryElements(GraphTransaction tx, Shard shard) {
+        HugeType type = this.type == HugeType.VERTEX_LABEL ?
+                        HugeType.VERTEX : HugeType.EDGE;
+        return tx.queryByShard(type, this.label, shard, false);
+    }
+}
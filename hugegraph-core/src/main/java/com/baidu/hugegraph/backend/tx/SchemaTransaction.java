@@ -24,6 +24,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
 import com.baidu.hugegraph.HugeException;
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.BackendException;
@@ -48,6 +50,8 @@ import com.google.common.collect.ImmutableSet;
 
 public class SchemaTransaction extends IndexableTransaction {
 
+    private static final String SHADOW_PREFIX = "rebuild_";
+
     private SchemaIndexTransaction indexTx;
 
     public SchemaTransaction(HugeGraph graph, BackendStore store) {
@@ -276,6 +280,44 @@ public class SchemaTransaction extends IndexableTransaction {
         }
     }
 
+    /**
+     * Add a hidden copy of the index label with a new id, which is updated
+     * by the writes of elements like the index label but not used by the
+     * queries, the index is rebuilt into it while the queries keep using
+     * the old one, see switchIndexLabel()
+     */
+    public IndexLabel addShadowIndexLabel(IndexLabel indexLabel) {
+        String name = Graph.Hidden.hide(SHADOW_PREFIX + indexLabel.name());
+        E.checkState(this.getIndexLabel(name) == null,
+                     "The index label '%s' is being rebuilt",
+                     indexLabel.name());
+        IndexLabel shadow = indexLabel.copy(
+                            this.getNextId(HugeType.INDEX_LABEL), name);
+        SchemaLabel schemaLabel;
+        if (indexLabel.baseType() == HugeType.VERTEX_LABEL) {
+            schemaLabel = this.getVertexLabel(indexLabel.baseValue());
+        } else {
+            assert indexLabel.baseType() == HugeType.EDGE_LABEL;
+            schemaLabel = this.getEdgeLabel(indexLabel.baseValue());
+        }
+        this.addIndexLabel(schemaLabel, shadow);
+        return shadow;
+    }
+
+    /**
+     * Replace the index label with its shadow, the shadow takes the name
+     * of the index label, the index data of the replaced index label should
+     * be removed by the caller
+     */
+    public void switchIndexLabel(IndexLabel indexLabel, IndexLabel shadow) {
+        LOG.debug("SchemaTransaction switch index label '{}' to '{}'",
+                  indexLabel.id(), shadow.id());
+        this.removeIndexLabelFromBaseLabel(indexLabel);
+        this.removeSchema(indexLabel);
+        this.removeSchema(shadow);
+        this.addSchema(shadow.copy(shadow.id(), indexLabel.name()));
+    }
+
     public void rebuildIndex(SchemaElement schema) {
         LOG.debug("SchemaTransaction rebuild index for {} with id '{}'",
                   schema.type(), schema.id());
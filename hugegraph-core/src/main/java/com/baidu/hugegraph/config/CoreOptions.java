@@ -19,6 +19,7 @@
 
 package com.baidu.hugegraph.config;
 
+import static com.baidu.hugegraph.config.OptionChecker.allowValues;
 import static com.baidu.hugegraph.config.OptionChecker.disallowEmpty;
 import static com.baidu.hugegraph.config.OptionChecker.rangeInt;
 
@@ -119,6 +120,46 @@ public class CoreOptions extends OptionHolder {
                     10000
             );
 
+    public static final ConfigOption<Integer> REMOVE_LABEL_BATCH_SIZE =
+            new ConfigOption<>(
+                    "graph.remove_label_batch_size",
+                    "The number of vertices/edges to commit in one batch " +
+                    "when removing all the vertices/edges of a label.",
+                    rangeInt(1, 1000000),
+                    1000
+            );
+
+    public static final ConfigOption<Long> REMOVE_LABEL_SPLIT_SIZE =
+            new ConfigOption<>(
+                    "graph.remove_label_split_size",
+                    "The size(bytes) of each shard to scan when removing " +
+                    "all the vertices/edges of a label, only used by the " +
+                    "backends support splitting but not querying by label.",
+                    rangeInt(1024L * 1024L, Long.MAX_VALUE),
+                    (64L * 1024L * 1024L)
+            );
+
+    public static final ConfigOption<Integer> QUERY_BATCH_SIZE =
+            new ConfigOption<>(
+                    "query.batch_size",
+                    "The max size(items) of vertices in one batch when " +
+                    "querying edges of multiple vertices.",
+                    rangeInt(1, 65535),
+                    500
+            );
+
+    public static final ConfigOption<Integer> QUERY_PARALLEL_WORKERS =
+            new ConfigOption<>(
+                    "query.parallel_workers",
+                    "The number of workers to run the index queries " +
+                    "flattened from OR/IN conditions in parallel, such as " +
+                    "has(key, within(values)), 0 means running them one " +
+                    "by one. The sysprop queries, like the edge queries " +
+                    "of a vertex step, always run one by one.",
+                    rangeInt(0, 256),
+                    4
+            );
+
     /**
      * The schema name rule:
      * 1、Not allowed end with spaces
@@ -140,6 +181,25 @@ public class CoreOptions extends OptionHolder {
                     (1024 * 1024 * 1)
             );
 
+    public static final ConfigOption<String> GRAPH_CACHE_TYPE =
+            new ConfigOption<>(
+                    "graph.cache_type",
+                    "The cache type of graph data(vertex/edge), 'ram' is " +
+                    "LRU cache limited by items, 'tinylfu' is segmented " +
+                    "W-TinyLFU cache limited by memory.",
+                    allowValues("ram", "tinylfu"),
+                    "ram"
+            );
+
+    public static final ConfigOption<Long> GRAPH_CACHE_MEMORY =
+            new ConfigOption<>(
+                    "graph.cache_memory",
+                    "The max cache memory(bytes) of graph data(vertex/edge) " +
+                    "for each cache, only used by 'tinylfu' cache.",
+                    rangeInt(1L, Long.MAX_VALUE),
+                    (1024L * 1024L * 256L)
+            );
+
     public static final ConfigOption<Integer> GRAPH_CACHE_CAPACITY =
             new ConfigOption<>(
                     "graph.cache_capacity",
@@ -148,6 +208,16 @@ public class CoreOptions extends OptionHolder {
                     (1024 * 1024 * 10)
             );
 
+    public static final ConfigOption<Long> GRAPH_CACHE_OFFHEAP_MEMORY =
+            new ConfigOption<>(
+                    "graph.cache_offheap_memory",
+                    "The max off-heap memory(bytes) of the second level " +
+                    "vertex cache which stores serialized vertices, " +
+                    "0 means disable it.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    0L
+            );
+
     public static final ConfigOption<Integer> GRAPH_CACHE_EXPIRE =
             new ConfigOption<>(
                     "graph.cache_expire",
@@ -156,6 +226,33 @@ public class CoreOptions extends OptionHolder {
                     (60 * 10)
             );
 
+    public static final ConfigOption<Integer> INDEX_REBUILD_WORKERS =
+            new ConfigOption<>(
+                    "index.rebuild_workers",
+                    "The number of workers to rebuild index of a label, " +
+                    "each worker rebuilds one shard at a time.",
+                    rangeInt(1, 256),
+                    4
+            );
+
+    public static final ConfigOption<Integer> INDEX_REBUILD_BATCH_SIZE =
+            new ConfigOption<>(
+                    "index.rebuild_batch_size",
+                    "The number of vertices/edges to commit index in one " +
+                    "batch when rebuilding index.",
+                    rangeInt(1, Integer.MAX_VALUE),
+                    1000
+            );
+
+    public static final ConfigOption<Long> INDEX_REBUILD_SPLIT_SIZE =
+            new ConfigOption<>(
+                    "index.rebuild_split_size",
+                    "The size(bytes) of each shard to scan when rebuilding " +
+                    "index, only used by the backends support splitting.",
+                    rangeInt(1024L * 1024L, Long.MAX_VALUE),
+                    (64L * 1024L * 1024L)
+            );
+
     public static final ConfigOption<Long> SNOWFLAKE_WORKER_ID =
             new ConfigOption<>(
                     "snowflake.worker_id",
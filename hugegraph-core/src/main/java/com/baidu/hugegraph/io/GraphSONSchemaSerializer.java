@@ -111,6 +111,7 @@ public class GraphSONSchemaSerializer {
         }
         map.put(HugeKeys.INDEX_TYPE, indexLabel.indexType());
         map.put(HugeKeys.FIELDS, graph.mapPkId2Name(indexLabel.indexFields()));
+        map.put(HugeKeys.BUCKETS, indexLabel.buckets());
         return map;
     }
 }
@@ -40,11 +40,13 @@ public class IndexLabel extends SchemaElement {
     private Id baseValue;
     private IndexType indexType;
     private List<Id> indexFields;
+    private int buckets;
 
     public IndexLabel(final HugeGraph graph, Id id, String name) {
         super(graph, id, name);
         this.indexType = IndexType.SECONDARY;
         this.indexFields = new ArrayList<>();
+        this.buckets = 1;
     }
 
     protected IndexLabel(long id, String name) {
@@ -116,6 +118,32 @@ public class IndexLabel extends SchemaElement {
         return this.indexFields.get(0);
     }
 
+    /**
+     * The number of hash buckets that the secondary index entries with the
+     * same field values are spread over, 1 means not bucketed
+     */
+    public int buckets() {
+        return this.buckets;
+    }
+
+    public void buckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Copy the definition of the index label with another id and name
+     */
+    public IndexLabel copy(Id id, String name) {
+        IndexLabel indexLabel = new IndexLabel(this.graph, id, name);
+        indexLabel.baseType = this.baseType;
+        indexLabel.baseValue = this.baseValue;
+        indexLabel.indexType = this.indexType;
+        indexLabel.indexFields.addAll(this.indexFields);
+        indexLabel.buckets = this.buckets;
+        indexLabel.properties(this.properties);
+        return indexLabel;
+    }
+
     @Override
     public Map<String, Object> userdata() {
         throw new NotSupportException("user data for index label");
@@ -199,5 +227,7 @@ public class IndexLabel extends SchemaElement {
         Builder on(HugeType baseType, String baseValue);
 
         Builder indexType(IndexType indexType);
+
+        Builder buckets(int buckets);
     }
 }
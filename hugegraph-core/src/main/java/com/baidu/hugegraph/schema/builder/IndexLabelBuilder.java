@@ -42,6 +42,7 @@ import com.baidu.hugegraph.type.define.HugeKeys;
 import com.baidu.hugegraph.type.define.IndexType;
 import com.baidu.hugegraph.util.CollectionUtil;
 import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.LockUtil;
 
 public class IndexLabelBuilder implements IndexLabel.Builder {
 
@@ -50,6 +51,7 @@ public class IndexLabelBuilder implements IndexLabel.Builder {
     private String baseValue;
     private IndexType indexType;
     private List<String> indexFields;
+    private int buckets;
     private boolean checkExist;
 
     private SchemaTransaction transaction;
@@ -60,6 +62,7 @@ public class IndexLabelBuilder implements IndexLabel.Builder {
         this.name = name;
         this.indexType = IndexType.SECONDARY;
         this.indexFields = new ArrayList<>();
+        this.buckets = 1;
         this.checkExist = true;
         this.transaction = transaction;
     }
@@ -77,6 +80,7 @@ public class IndexLabelBuilder implements IndexLabel.Builder {
             PropertyKey propertyKey = this.transaction.getPropertyKey(field);
             indexLabel.indexField(propertyKey.id());
         }
+        indexLabel.buckets(this.buckets);
         return indexLabel;
     }
 
@@ -99,6 +103,7 @@ public class IndexLabelBuilder implements IndexLabel.Builder {
          * the same fields, fail to create new index label.
          */
         this.checkFields(schemaLabel.properties());
+        this.checkBuckets();
         this.checkRepeatIndex(schemaLabel);
 
         // Delete index label which is prefix of the new index label
@@ -107,12 +112,20 @@ public class IndexLabelBuilder implements IndexLabel.Builder {
 
         // Create index label
         indexLabel = this.build();
-        this.transaction.addIndexLabel(schemaLabel, indexLabel);
-
-        // TODO: use event to replace direct call
-        this.rebuildIndexIfNeeded(indexLabel);
+        LockUtil.Locks locks = new LockUtil.Locks();
+        try {
+            // Reject the index queries before the index is built
+            locks.lockWrites(LockUtil.INDEX_REBUILD, indexLabel.id());
+            this.transaction.addIndexLabel(schemaLabel, indexLabel);
+
+            // TODO: use event to replace direct call
+            this.rebuildIndexIfNeeded(indexLabel);
+        } finally {
+            locks.unlock();
+        }
 
-        return indexLabel;
+        // The index label is replaced by a new id if it has been rebuilt
+        return this.transaction.getIndexLabel(this.name);
     }
 
     @Override
@@ -207,6 +220,15 @@ public class IndexLabelBuilder implements IndexLabel.Builder {
         return this;
     }
 
+    @Override
+    public IndexLabelBuilder buckets(int buckets) {
+        E.checkArgument(buckets > 0,
+                        "The buckets of index label '%s' must be > 0, " +
+                        "but got %s", this.name, buckets);
+        this.buckets = buckets;
+        return this;
+    }
+
     @Override
     public IndexLabelBuilder ifNotExist() {
         this.checkExist = false;
@@ -280,6 +302,19 @@ public class IndexLabelBuilder implements IndexLabel.Builder {
         }
     }
 
+    private void checkBuckets() {
+        if (this.buckets == 1) {
+            return;
+        }
+        E.checkArgument(this.indexType == IndexType.SECONDARY,
+                        "Only secondary index can be bucketed, " +
+                        "but got %s index '%s'", this.indexType, this.name);
+        E.checkArgument(this.transaction.store().features()
+                                        .supportsIndexBuckets(),
+                        "Not supported bucketed index '%s' by the backend " +
+                        "store", this.name);
+    }
+
     private void checkRepeatIndex(SchemaLabel schemaLabel) {
         for (Id id : schemaLabel.indexLabels()) {
             IndexLabel old = this.transaction.getIndexLabel(id);
@@ -30,6 +30,7 @@ import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.id.IdUtil;
 import com.baidu.hugegraph.backend.id.SplicingIdGenerator;
 import com.baidu.hugegraph.exception.NotSupportException;
 import com.baidu.hugegraph.schema.IndexLabel;
@@ -95,6 +96,19 @@ public class HugeIndex implements GraphType {
         return this.elementIds.iterator().next();
     }
 
+    /**
+     * The bucket of the element id in a bucketed index, the hash must be
+     * stable since it decides where the index entry is stored
+     */
+    public int bucket() {
+        int buckets = this.indexLabel.buckets();
+        if (buckets <= 1) {
+            return 0;
+        }
+        int hash = IdUtil.writeString(this.elementId()).hashCode();
+        return Math.floorMod(hash, buckets);
+    }
+
     public Set<Id> elementIds() {
         return Collections.unmodifiableSet(this.elementIds);
     }
@@ -20,16 +20,18 @@
 package com.baidu.hugegraph.traversal.optimize;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
-import javax.ws.rs.core.MultivaluedHashMap;
-import javax.ws.rs.core.MultivaluedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.tinkerpop.gremlin.structure.Edge;
@@ -37,13 +39,14 @@ import org.apache.tinkerpop.gremlin.structure.Edge;
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.query.Query;
-import com.baidu.hugegraph.backend.tx.GraphTransaction;
 import com.baidu.hugegraph.rest.ClientException;
 import com.baidu.hugegraph.schema.SchemaLabel;
 import com.baidu.hugegraph.structure.HugeEdge;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.collection.IdArena;
+import com.baidu.hugegraph.util.collection.IdSet;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -51,12 +54,23 @@ import com.google.common.collect.ImmutableSet;
 public class HugeTraverser {
 
     private HugeGraph graph;
+    // Expand each layer in parallel if executor is set
+    private final TraversalExecutor executor;
 
     public static final List<Id> PATH_NONE = ImmutableList.of();
     public static final long NO_LIMIT = -1L;
 
     public HugeTraverser(HugeGraph graph) {
+        this(graph, null);
+    }
+
+    public HugeTraverser(HugeGraph graph, TraversalExecutor executor) {
         this.graph = graph;
+        this.executor = executor;
+    }
+
+    protected HugeGraph graph() {
+        return this.graph;
     }
 
     public List<Id> shortestPath(Id sourceV, Id targetV, Directions dir,
@@ -231,86 +245,110 @@ public class HugeTraverser {
             return ImmutableSet.of();
         }
 
-        Set<Id> neighbors = newSet();
-        for (Id source : vertices) {
-            Iterator<Edge> edges = this.edgesOfVertex(source, dir,
-                                                      label, degree);
+        Set<Id> neighbors = this.newLayerSet();
+        AtomicLong count = new AtomicLong(0L);
+        this.traverse(vertices, batch -> {
+            Iterator<Edge> edges = this.edgesOfVertices(batch, dir,
+                                                        label, degree);
             while (edges.hasNext()) {
+                // Maybe reach limit by other sub-layers
+                if (limit != NO_LIMIT && count.get() >= limit) {
+                    return;
+                }
                 HugeEdge e = (HugeEdge) edges.next();
                 Id target = e.id().otherVertexId();
                 if (excluded != null && excluded.contains(target)) {
                     continue;
                 }
-                neighbors.add(target);
-                if (limit != NO_LIMIT && neighbors.size() >= limit) {
-                    return neighbors;
+                if (!neighbors.add(target)) {
+                    continue;
+                }
+                // Give back the added target if exceeded limit
+                if (limit != NO_LIMIT && count.incrementAndGet() > limit) {
+                    neighbors.remove(target);
+                    return;
                 }
             }
-        }
+        });
         return neighbors;
     }
 
-    private Iterator<Edge> edgesOfVertex(Id source, Directions dir,
-                                         Id label, long limit) {
+    /**
+     * Consume a layer of vertices in the caller thread, or split it into
+     * sub-layers and consume them by the executor in parallel
+     */
+    private void traverse(Collection<Id> vertices,
+                          Consumer<Collection<Id>> consumer) {
+        if (this.executor == null) {
+            consumer.accept(vertices);
+        } else {
+            this.executor.traverse(this.graph, vertices, consumer);
+        }
+    }
+
+    /**
+     * Query edges of a layer of vertices in batches, at most `degree`
+     * edges would be returned for each source vertex
+     */
+    protected Iterator<Edge> edgesOfVertices(Collection<Id> sources,
+                                             Directions dir, Id label,
+                                             long degree) {
         Id[] labels = {};
         if (label != null) {
             labels = new Id[]{label};
         }
 
-        Query query = GraphTransaction.constructEdgesQuery(source, dir, labels);
-        if (limit != NO_LIMIT) {
-            query.limit(limit);
+        if (degree == NO_LIMIT) {
+            degree = Query.NO_LIMIT;
         }
-        return this.graph.edges(query);
+        return this.graph.adjacentEdges(sources, dir, degree, labels);
     }
 
-    private Id getEdgeLabelId(Object label) {
+    protected Id getEdgeLabelId(Object label) {
         if (label == null) {
             return null;
         }
         return SchemaLabel.getLabelId(this.graph, HugeType.EDGE, label);
     }
 
-    private static void checkPositive(int value, String name) {
+    protected static void checkPositive(int value, String name) {
         E.checkArgument(value > 0,
                         "%s must be > 0, but got '%s'", name, value);
     }
 
-    private static void checkDegree(long degree) {
+    protected static void checkDegree(long degree) {
         checkLimit(degree, "Degree");
     }
 
-    private static void checkCapacity(long capacity) {
+    protected static void checkCapacity(long capacity) {
         checkLimit(capacity, "Capacity");
     }
 
-    private static void checkLimit(long limit) {
+    protected static void checkLimit(long limit) {
         checkLimit(limit, "Limit");
     }
 
-    private static void checkLimit(long value, String name) {
+    protected static void checkLimit(long value, String name) {
         E.checkArgument(value > 0 || value == NO_LIMIT,
                         "%s must be > 0 or == %s, but got: %s",
                         name, NO_LIMIT, value);
     }
 
-    private static <V> Set<V> newSet() {
-        return new HashSet<>();
-    }
-
-    private static <K, V> Map<K, V> newMap() {
-        return new HashMap<>();
+    private static Set<Id> newSet() {
+        return new IdSet();
     }
 
-    private static <K, V> MultivaluedMap<K, V> newMultivalueMap() {
-        return new MultivaluedHashMap<>();
+    private Set<Id> newLayerSet() {
+        if (this.executor == null) {
+            return newSet();
+        }
+        return ConcurrentHashMap.newKeySet();
     }
 
     private class ShortestPathTraverser {
 
-        // TODO: change Map to Set to reduce memory cost
-        private Map<Id, Node> sources = newMap();
-        private Map<Id, Node> targets = newMap();
+        private final Nodes sources;
+        private final Nodes targets;
 
         private final Directions direction;
         private final Id label;
@@ -320,8 +358,9 @@ public class HugeTraverser {
 
         public ShortestPathTraverser(Id sourceV, Id targetV, Directions dir,
                                      Id label, long degree, long capacity) {
-            this.sources.put(sourceV, new Node(sourceV));
-            this.targets.put(targetV, new Node(targetV));
+            IdArena ids = new IdArena();
+            this.sources = new Nodes(ids, sourceV);
+            this.targets = new Nodes(ids, targetV);
             this.direction = dir;
             this.label = label;
             this.degree = degree;
@@ -333,37 +372,15 @@ public class HugeTraverser {
          * Search forward from source
          */
         public List<Id> forward() {
-            Map<Id, Node> newVertices = newMap();
             // Traversal vertices of previous level
-            for (Node v : this.sources.values()) {
-                Iterator<Edge> edges = edgesOfVertex(v.id(), this.direction,
-                                                     this.label, this.degree);
-                while (edges.hasNext()) {
-                    HugeEdge edge = (HugeEdge) edges.next();
-                    Id target = edge.id().otherVertexId();
-
-                    // If cross point exists, shortest path found, concat them
-                    if (this.targets.containsKey(target)) {
-                        return v.joinPath(this.targets.get(target));
-                    }
-
-                    /*
-                     * Not found shortest path yet, node is added to
-                     * newVertices if:
-                     * 1. not in sources and newVertices yet
-                     * 2. path of node doesn't have loop
-                     */
-                    if (!newVertices.containsKey(target) &&
-                        !this.sources.containsKey(target) &&
-                        !v.contains(target)) {
-                        newVertices.put(target, new Node(target, v));
-                    }
-                }
+            List<Id> path = this.expand(this.sources, this.targets,
+                                        this.direction);
+            if (path != null) {
+                return path;
             }
 
             // Re-init sources
-            this.sources = newVertices;
-            this.size += newVertices.size();
+            this.size += this.sources.commit();
 
             return PATH_NONE;
         }
@@ -372,40 +389,69 @@ public class HugeTraverser {
          * Search backward from target
          */
         public List<Id> backward() {
-            Map<Id, Node> newVertices = newMap();
             Directions opposite = this.direction.opposite();
             // Traversal vertices of previous level
-            for (Node v : this.targets.values()) {
-                Iterator<Edge> edges = edgesOfVertex(v.id(), opposite,
-                                                     this.label, this.degree);
-                while (edges.hasNext()) {
-                    HugeEdge edge = (HugeEdge) edges.next();
-                    Id target = edge.id().otherVertexId();
+            List<Id> path = this.expand(this.targets, this.sources, opposite);
+            if (path != null) {
+                return path;
+            }
 
-                    // If cross point exists, shortest path found, concat them
-                    if (this.sources.containsKey(target)) {
-                        return v.joinPath(this.sources.get(target));
-                    }
+            // Re-init targets
+            this.size += this.targets.commit();
 
-                    /*
-                     * Not found shortest path yet, node is added to
-                     * newVertices if:
-                     * 1. not in targets and newVertices yet
-                     * 2. path of node doesn't have loop
-                     */
-                    if (!newVertices.containsKey(target) &&
-                        !this.targets.containsKey(target) &&
-                        !v.contains(target)) {
-                        newVertices.put(target, new Node(target, v));
+            return PATH_NONE;
+        }
+
+        private List<Id> expand(Nodes nodes, Nodes others, Directions dir) {
+            // The result is null if not reach any cross point
+            AtomicReference<List<Id>> found = new AtomicReference<>();
+            traverse(nodes.layer(), batch -> {
+                Iterator<Edge> edges = edgesOfVertices(batch, dir,
+                                                       this.label,
+                                                       this.degree);
+                // Stop if shortest path found by other sub-layers
+                while (edges.hasNext() && found.get() == null) {
+                    HugeEdge edge = (HugeEdge) edges.next();
+                    // Nodes are not thread safe, lock it for sub-layers
+                    synchronized (this) {
+                        this.visit(nodes, others, edge, found);
                     }
                 }
+            });
+            List<Id> path = found.get();
+            if (path != null) {
+                nodes.rollback();
             }
+            return path;
+        }
 
-            // Re-init targets
-            this.targets = newVertices;
-            this.size += newVertices.size();
+        private void visit(Nodes nodes, Nodes others, HugeEdge edge,
+                           AtomicReference<List<Id>> found) {
+            if (found.get() != null) {
+                return;
+            }
+            int v = nodes.firstInLayer(edge.id().ownerVertexId());
+            assert v != Nodes.NONE;
+            Id target = edge.id().otherVertexId();
+
+            // If cross point exists, shortest path found, concat them
+            int crosspoint = others.firstInLayer(target);
+            if (crosspoint != Nodes.NONE) {
+                found.set(nodes.joinPath(v, others, crosspoint));
+                return;
+            }
 
-            return PATH_NONE;
+            /*
+             * Not found shortest path yet, node is added to
+             * new layer if:
+             * 1. not in current layer and new layer yet
+             * 2. path of node doesn't have loop
+             */
+            if (nodes.firstInBuilding(target) == Nodes.NONE &&
+                nodes.firstInLayer(target) == Nodes.NONE &&
+                !nodes.contains(v, target)) {
+                nodes.add(target, v);
+            }
         }
 
         public boolean reachCapacity() {
@@ -418,10 +464,8 @@ public class HugeTraverser {
 
     private class PathsTraverser {
 
-        private MultivaluedMap<Id, Node> sources = newMultivalueMap();
-        private MultivaluedMap<Id, Node> targets = newMultivalueMap();
-        private MultivaluedMap<Id, Node> sourcesAll = newMultivalueMap();
-        private MultivaluedMap<Id, Node> targetsAll = newMultivalueMap();
+        private final Nodes sources;
+        private final Nodes targets;
 
         private final Id label;
         private final long degree;
@@ -431,10 +475,9 @@ public class HugeTraverser {
 
         public PathsTraverser(Id sourceV, Id targetV, Id label,
                               long degree, long capacity, long limit) {
-            this.sources.add(sourceV, new Node(sourceV));
-            this.targets.add(targetV, new Node(targetV));
-            this.sourcesAll.putAll(this.sources);
-            this.targetsAll.putAll(this.targets);
+            IdArena ids = new IdArena();
+            this.sources = new Nodes(ids, sourceV);
+            this.targets = new Nodes(ids, targetV);
             this.label = label;
             this.degree = degree;
             this.capacity = capacity;
@@ -446,101 +489,60 @@ public class HugeTraverser {
          * Search forward from source
          */
         public List<Path> forward(Directions direction) {
-            List<Path> paths = new ArrayList<>();
-            MultivaluedMap<Id, Node> newVertices = newMultivalueMap();
-            Iterator<Edge> edges;
-            // Traversal vertices of previous level
-            for (List<Node> nodes : this.sources.values()) {
-                for (Node n : nodes) {
-                    edges = edgesOfVertex(n.id(), direction,
-                                          this.label, this.degree);
-                    while (edges.hasNext()) {
-                        HugeEdge edge = (HugeEdge) edges.next();
-                        Id target = edge.id().otherVertexId();
-
-                        // If have loop, skip target
-                        if (n.contains(target)) {
-                            continue;
-                        }
-
-                        // If cross point exists, path found, concat them
-                        if (this.targetsAll.containsKey(target)) {
-                            for (Node node : this.targetsAll.get(target)) {
-                                List<Id> path = n.joinPath(node);
-                                if (!path.isEmpty()) {
-                                    paths.add(new Path(target, path));
-                                    ++this.count;
-                                    if (this.reachLimit()) {
-                                        return paths;
-                                    }
-                                }
-                            }
-                        }
-
-                        // Add node to next start-nodes
-                        newVertices.add(target, new Node(target, n));
-                    }
-                }
-            }
-            // Re-init sources
-            this.sources = newVertices;
-            // Record all passed vertices
-            this.sourcesAll.putAll(newVertices);
-
-            return paths;
+            return this.expand(this.sources, this.targets, direction);
         }
 
         /**
          * Search backward from target
          */
         public List<Path> backward(Directions direction) {
+            return this.expand(this.targets, this.sources, direction);
+        }
+
+        private List<Path> expand(Nodes nodes, Nodes others,
+                                  Directions direction) {
             List<Path> paths = new ArrayList<>();
-            MultivaluedMap<Id, Node> newVertices = newMultivalueMap();
-            Iterator<Edge> edges;
             // Traversal vertices of previous level
-            for (List<Node> nodes : this.targets.values()) {
-                for (Node n : nodes) {
-                    edges = edgesOfVertex(n.id(), direction,
-                                          this.label, this.degree);
-                    while (edges.hasNext()) {
-                        HugeEdge edge = (HugeEdge) edges.next();
-                        Id target = edge.id().otherVertexId();
-
-                        // If have loop, skip target
-                        if (n.contains(target)) {
-                            continue;
-                        }
+            Iterator<Edge> edges = edgesOfVertices(nodes.layer(), direction,
+                                                   this.label, this.degree);
+            while (edges.hasNext()) {
+                HugeEdge edge = (HugeEdge) edges.next();
+                int n = nodes.firstInLayer(edge.id().ownerVertexId());
+                assert n != Nodes.NONE;
+                Id target = edge.id().otherVertexId();
+
+                for (; n != Nodes.NONE; n = nodes.nextInLayer(n)) {
+                    // If have loop, skip target
+                    if (nodes.contains(n, target)) {
+                        continue;
+                    }
 
-                        // If cross point exists, path found, concat them
-                        if (this.sourcesAll.containsKey(target)) {
-                            for (Node node : this.sourcesAll.get(target)) {
-                                List<Id> path = n.joinPath(node);
-                                if (!path.isEmpty()) {
-                                    paths.add(new Path(target, path));
-                                    ++this.count;
-                                    if (this.reachLimit()) {
-                                        return paths;
-                                    }
-                                }
+                    // If cross point exists, path found, concat them
+                    for (int o = others.firstInLatest(target);
+                         o != Nodes.NONE; o = others.nextInLatest(o)) {
+                        List<Id> path = nodes.joinPath(n, others, o);
+                        if (!path.isEmpty()) {
+                            paths.add(new Path(target, path));
+                            ++this.count;
+                            if (this.reachLimit()) {
+                                nodes.rollback();
+                                return paths;
                             }
                         }
-
-                        // Add node to next start-nodes
-                        newVertices.add(target, new Node(target, n));
                     }
+
+                    // Add node to next start-nodes
+                    nodes.add(target, n);
                 }
             }
-
-            // Re-init targets
-            this.targets = newVertices;
-            // Record all passed vertices
-            this.targetsAll.putAll(newVertices);
+            // Re-init start-nodes and record all passed vertices
+            nodes.commit();
 
             return paths;
         }
 
         public int accessedNodes() {
-            return this.sourcesAll.size() + this.targetsAll.size();
+            return this.sources.vertices() + this.targets.vertices();
         }
 
         public boolean reachLimit() {
@@ -555,47 +557,193 @@ public class HugeTraverser {
         }
     }
 
-    private static class Node {
+    /**
+     * Nodes of the path trees searched from one side. A node is an int
+     * index of the arrays which record id code and parent of the node,
+     * instead of an object linked to its parent. Nodes are appended layer
+     * by layer: the current layer is in range [layerStart, nextStart), and
+     * the layer being built is in range [nextStart, size).
+     */
+    private static class Nodes {
+
+        public static final int NONE = -1;
+
+        private static final int INIT_CAPACITY = 16;
+
+        // Shared by the nodes of both sides
+        private final IdArena ids;
+
+        private int[] codes;
+        private int[] parents;
+        // The previous node with the same id
+        private int[] nexts;
+        // The latest node of each id code
+        private int[] heads;
+        private int size;
+
+        // The start node of each committed layer
+        private int[] layers;
+        private int layerCount;
+        private int layerStart;
+        private int nextStart;
+
+        // Count of distinct ids of all nodes and committed nodes
+        private int vertices;
+        private int committedVertices;
+
+        public Nodes(IdArena ids, Id root) {
+            this.ids = ids;
+            this.codes = new int[INIT_CAPACITY];
+            this.parents = new int[INIT_CAPACITY];
+            this.nexts = new int[INIT_CAPACITY];
+            this.heads = new int[0];
+            this.size = 0;
+            this.layers = new int[INIT_CAPACITY];
+            this.layerCount = 0;
+            this.layerStart = 0;
+            this.nextStart = 0;
+            this.vertices = 0;
+            this.committedVertices = 0;
+
+            this.add(root, NONE);
+            this.commit();
+        }
+
+        public int add(Id id, int parent) {
+            int code = this.ids.code(id);
+            if (code >= this.heads.length) {
+                int length = this.heads.length;
+                this.heads = Arrays.copyOf(this.heads,
+                                           Math.max(code + 1, length * 2));
+                Arrays.fill(this.heads, length, this.heads.length, NONE);
+            }
+            if (this.size == this.codes.length) {
+                int capacity = this.size * 2;
+                this.codes = Arrays.copyOf(this.codes, capacity);
+                this.parents = Arrays.copyOf(this.parents, capacity);
+                this.nexts = Arrays.copyOf(this.nexts, capacity);
+            }
+
+            int node = this.size++;
+            this.codes[node] = code;
+            this.parents[node] = parent;
+            this.nexts[node] = this.heads[code];
+            if (this.heads[code] == NONE) {
+                this.vertices++;
+            }
+            this.heads[code] = node;
+            return node;
+        }
+
+        /**
+         * Make the layer being built as current layer
+         * @return the count of nodes in the new current layer
+         */
+        public int commit() {
+            if (this.layerCount == this.layers.length) {
+                this.layers = Arrays.copyOf(this.layers, this.layerCount * 2);
+            }
+            this.layers[this.layerCount++] = this.nextStart;
+            this.layerStart = this.nextStart;
+            this.nextStart = this.size;
+            this.committedVertices = this.vertices;
+            return this.nextStart - this.layerStart;
+        }
+
+        /**
+         * Discard nodes of the layer being built
+         */
+        public void rollback() {
+            for (int node = this.size - 1; node >= this.nextStart; node--) {
+                int code = this.codes[node];
+                this.heads[code] = this.nexts[node];
+                if (this.heads[code] == NONE) {
+                    this.vertices--;
+                }
+            }
+            this.size = this.nextStart;
+        }
+
+        public int vertices() {
+            return this.committedVertices;
+        }
+
+        /**
+         * Distinct ids of nodes in current layer
+         */
+        public List<Id> layer() {
+            List<Id> layer = new ArrayList<>(this.nextStart - this.layerStart);
+            for (int node = this.layerStart; node < this.nextStart; node++) {
+                int code = this.codes[node];
+                if (this.firstInLayer(code) == node) {
+                    layer.add(this.ids.id(code));
+                }
+            }
+            return layer;
+        }
+
+        public int firstInLayer(Id id) {
+            return this.firstInLayer(this.ids.find(id));
+        }
 
-        private Id id;
-        private Node parent;
+        public int nextInLayer(int node) {
+            int next = this.nexts[node];
+            return next >= this.layerStart ? next : NONE;
+        }
 
-        public Node(Id id) {
-            this(id, null);
+        public int firstInBuilding(Id id) {
+            int node = this.head(this.ids.find(id));
+            return node >= this.nextStart ? node : NONE;
         }
 
-        public Node(Id id, Node parent) {
-            E.checkArgumentNotNull(id, "Id of Node can't be null");
-            this.id = id;
-            this.parent = parent;
+        /**
+         * Get the first node of the id in the latest committed layer which
+         * contains the id
+         */
+        public int firstInLatest(Id id) {
+            int node = this.head(this.ids.find(id));
+            while (node >= this.nextStart) {
+                node = this.nexts[node];
+            }
+            return node;
         }
 
-        public Id id() {
-            return this.id;
+        public int nextInLatest(int node) {
+            int next = this.nexts[node];
+            if (next == NONE || next < this.layerStartOf(node)) {
+                return NONE;
+            }
+            return next;
         }
 
-        @SuppressWarnings("unused")
-        public Node parent() {
-            return this.parent;
+        public boolean contains(int node, Id id) {
+            int code = this.ids.find(id);
+            if (code == NONE) {
+                return false;
+            }
+            for (int n = node; n != NONE; n = this.parents[n]) {
+                if (this.codes[n] == code) {
+                    return true;
+                }
+            }
+            return false;
         }
 
-        public List<Id> path() {
+        public List<Id> path(int node) {
             List<Id> ids = new ArrayList<>();
-            Node current = this;
-            do {
-                ids.add(current.id);
-                current = current.parent;
-            } while (current != null);
+            for (int n = node; n != NONE; n = this.parents[n]) {
+                ids.add(this.ids.id(this.codes[n]));
+            }
             Collections.reverse(ids);
             return ids;
         }
 
-        public List<Id> joinPath(Node back) {
+        public List<Id> joinPath(int node, Nodes other, int back) {
             // Get self path
-            List<Id> path = this.path();
+            List<Id> path = this.path(node);
 
             // Get reversed other path
-            List<Id> backPath = back.path();
+            List<Id> backPath = other.path(back);
             Collections.reverse(backPath);
 
             // Avoid loop in path
@@ -608,29 +756,28 @@ public class HugeTraverser {
             return path;
         }
 
-        public boolean contains(Id id) {
-            Node node = this;
-            do {
-                if (node.id.equals(id)) {
-                    return true;
-                }
-                node = node.parent;
-            } while (node != null);
-            return false;
+        private int firstInLayer(int code) {
+            int node = this.head(code);
+            while (node >= this.nextStart) {
+                node = this.nexts[node];
+            }
+            return node >= this.layerStart ? node : NONE;
         }
 
-        @Override
-        public int hashCode() {
-            return this.id.hashCode();
+        private int head(int code) {
+            if (code == NONE || code >= this.heads.length) {
+                return NONE;
+            }
+            return this.heads[code];
         }
 
-        @Override
-        public boolean equals(Object object) {
-            if (!(object instanceof Node)) {
-                return false;
+        private int layerStartOf(int node) {
+            int i = Arrays.binarySearch(this.layers, 0, this.layerCount, node);
+            if (i < 0) {
+                // The insertion point is behind the layer of the node
+                i = -i - 2;
             }
-            Node other = (Node) object;
-            return this.id.equals(other.id);
+            return this.layers[i];
         }
     }
 
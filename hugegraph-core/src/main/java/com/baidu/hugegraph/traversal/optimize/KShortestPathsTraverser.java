@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.traversal.optimize;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.type.define.Directions;
+import com.baidu.hugegraph.util.E;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Find the k shortest loopless paths weighted by a number property of edges
+ * with Yen's algorithm. Paths are computed lazily in ascending order of
+ * weight, so they can be written out as soon as found.
+ */
+public class KShortestPathsTraverser extends WeightedShortestPathTraverser {
+
+    public KShortestPathsTraverser(HugeGraph graph) {
+        super(graph);
+    }
+
+    public Iterator<WeightedPath> kShortestPaths(Id sourceV, Id targetV,
+                                                 Directions dir, String label,
+                                                 String weight,
+                                                 double defaultWeight,
+                                                 int k, long degree,
+                                                 long capacity) {
+        E.checkNotNull(sourceV, "source vertex id");
+        E.checkNotNull(targetV, "target vertex id");
+        E.checkNotNull(dir, "direction");
+        checkPositive(k, "The k of k-shortest-paths");
+        checkDegree(degree);
+        checkCapacity(capacity);
+
+        Weigher weigher = this.weigher(dir, label, weight, defaultWeight,
+                                       degree, capacity);
+        return new PathsIterator(sourceV, targetV, weigher, k);
+    }
+
+    private static class PathsIterator implements Iterator<WeightedPath> {
+
+        private final Id source;
+        private final Id target;
+        private final Weigher weigher;
+        private final int k;
+
+        private final List<WeightedPath> found;
+        // Candidates ordered by weight, keep at most k - found paths
+        private final TreeSet<Candidate> candidates;
+        private final Set<WeightedPath> seen;
+        private long sequence;
+        private WeightedPath next;
+
+        public PathsIterator(Id source, Id target, Weigher weigher, int k) {
+            this.source = source;
+            this.target = target;
+            this.weigher = weigher;
+            this.k = k;
+            this.found = new ArrayList<>();
+            this.candidates = new TreeSet<>();
+            this.seen = new HashSet<>();
+            this.sequence = 0L;
+            this.next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next != null) {
+                return true;
+            }
+            if (this.found.size() >= this.k) {
+                return false;
+            }
+            this.next = this.fetch();
+            return this.next != null;
+        }
+
+        @Override
+        public WeightedPath next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            WeightedPath path = this.next;
+            this.next = null;
+            return path;
+        }
+
+        private WeightedPath fetch() {
+            WeightedPath path;
+            if (this.found.isEmpty()) {
+                path = this.weigher.shortestPath(this.source, this.target,
+                                                 ImmutableSet.of(),
+                                                 ImmutableSet.of());
+                if (path != null) {
+                    this.seen.add(path);
+                }
+            } else {
+                this.spur(this.found.get(this.found.size() - 1));
+                Candidate candidate = this.candidates.pollFirst();
+                path = candidate == null ? null : candidate.path;
+            }
+            if (path != null) {
+                this.found.add(path);
+            }
+            return path;
+        }
+
+        /**
+         * Deviate from each vertex of the last found path to collect the
+         * candidate paths
+         */
+        private void spur(WeightedPath last) {
+            List<Id> vertices = last.vertices();
+            List<Id> edges = last.edges();
+            for (int i = 0; i < vertices.size() - 1; i++) {
+                Id spurVertex = vertices.get(i);
+                List<Id> rootVertices = vertices.subList(0, i + 1);
+                List<Id> rootEdges = edges.subList(0, i);
+
+                // Exclude next edges of found paths sharing the same root
+                Set<Id> excludedEdges = new HashSet<>();
+                for (WeightedPath path : this.found) {
+                    List<Id> pathEdges = path.edges();
+                    if (pathEdges.size() > i &&
+                        pathEdges.subList(0, i).equals(rootEdges) &&
+                        path.vertices().subList(0, i + 1)
+                            .equals(rootVertices)) {
+                        excludedEdges.add(pathEdges.get(i));
+                    }
+                }
+                // Exclude vertices of root to keep the path loopless
+                Set<Id> excludedVertices = new HashSet<>(
+                                           rootVertices.subList(0, i));
+
+                WeightedPath spurPath = this.weigher.shortestPath(
+                                        spurVertex, this.target,
+                                        excludedVertices, excludedEdges);
+                if (spurPath == null) {
+                    continue;
+                }
+                WeightedPath path = last.subPath(i).append(spurPath);
+                if (this.seen.add(path)) {
+                    this.offer(path);
+                }
+            }
+        }
+
+        private void offer(WeightedPath path) {
+            this.candidates.add(new Candidate(path, this.sequence++));
+            // No need to keep more candidates than the paths still needed
+            int needed = this.k - this.found.size();
+            while (this.candidates.size() > needed) {
+                this.candidates.pollLast();
+            }
+        }
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+
+        private final WeightedPath path;
+        private final long sequence;
+
+        public Candidate(WeightedPath path, long sequence) {
+            this.path = path;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int cmp = Double.compare(this.path.weight(), other.path.weight());
+            if (cmp != 0) {
+                return cmp;
+            }
+            return Long.compare(this.sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.traversal.optimize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.config.CoreOptions;
+import com.baidu.hugegraph.util.E;
+
+/**
+ * Fork-join executor used by HugeTraverser to expand a whole BFS layer
+ * in parallel: the frontier is split into sub-layers of at most
+ * `query.batch_size` vertices, and each sub-layer is consumed by a worker
+ * with its own graph transaction.
+ */
+public class TraversalExecutor {
+
+    private final ForkJoinPool pool;
+
+    public TraversalExecutor(int workers) {
+        E.checkArgument(workers > 0,
+                        "The traversal workers must be > 0, but got %s",
+                        workers);
+        this.pool = new ForkJoinPool(workers);
+    }
+
+    public int workers() {
+        return this.pool.getParallelism();
+    }
+
+    /**
+     * Call consumer for each sub-layer of the vertices and wait for all
+     * of them to finish, the consumer must be thread safe
+     */
+    public void traverse(HugeGraph graph, Collection<Id> vertices,
+                         Consumer<Collection<Id>> consumer) {
+        int batchSize = graph.configuration().get(CoreOptions.QUERY_BATCH_SIZE);
+        if (vertices.size() <= batchSize) {
+            // Not worth to fork, consume it in the caller thread
+            consumer.accept(vertices);
+            return;
+        }
+        List<Id> list = new ArrayList<>(vertices);
+        this.pool.invoke(new LayerTask(graph, list, batchSize, consumer));
+    }
+
+    public void close() {
+        this.pool.shutdown();
+    }
+
+    private static class LayerTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 2496153218435787716L;
+
+        private final HugeGraph graph;
+        private final List<Id> vertices;
+        private final int batchSize;
+        private final Consumer<Collection<Id>> consumer;
+
+        public LayerTask(HugeGraph graph, List<Id> vertices, int batchSize,
+                         Consumer<Collection<Id>> consumer) {
+            this.graph = graph;
+            this.vertices = vertices;
+            this.batchSize = batchSize;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            int size = this.vertices.size();
+            if (size > this.batchSize) {
+                int middle = size / 2;
+                invokeAll(this.subTask(0, middle), this.subTask(middle, size));
+                return;
+            }
+            try {
+                this.consumer.accept(this.vertices);
+            } finally {
+                // Transaction of graph is thread local, close it in worker
+                this.graph.closeTx();
+            }
+        }
+
+        private LayerTask subTask(int from, int to) {
+            return new LayerTask(this.graph, this.vertices.subList(from, to),
+                                 this.batchSize, this.consumer);
+        }
+    }
+}
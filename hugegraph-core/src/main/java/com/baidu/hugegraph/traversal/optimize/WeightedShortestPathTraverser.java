@@ -0,0 +1,399 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.traversal.optimize;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+
+import com.baidu.hugegraph.HugeGraph;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.schema.PropertyKey;
+import com.baidu.hugegraph.structure.HugeEdge;
+import com.baidu.hugegraph.structure.HugeProperty;
+import com.baidu.hugegraph.type.define.Cardinality;
+import com.baidu.hugegraph.type.define.Directions;
+import com.baidu.hugegraph.util.E;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Find the shortest path weighted by a number property of edges, by
+ * bidirectional Dijkstra search from both source and target
+ */
+public class WeightedShortestPathTraverser extends HugeTraverser {
+
+    public WeightedShortestPathTraverser(HugeGraph graph) {
+        super(graph);
+    }
+
+    public WeightedPath weightedShortestPath(Id sourceV, Id targetV,
+                                             Directions dir, String label,
+                                             String weight,
+                                             double defaultWeight,
+                                             long degree, long capacity) {
+        E.checkNotNull(sourceV, "source vertex id");
+        E.checkNotNull(targetV, "target vertex id");
+        E.checkNotNull(dir, "direction");
+        checkDegree(degree);
+        checkCapacity(capacity);
+
+        Weigher weigher = this.weigher(dir, label, weight, defaultWeight,
+                                       degree, capacity);
+        return weigher.shortestPath(sourceV, targetV, ImmutableSet.of(),
+                                    ImmutableSet.of());
+    }
+
+    protected Weigher weigher(Directions dir, String label, String weight,
+                              double defaultWeight, long degree,
+                              long capacity) {
+        E.checkArgument(defaultWeight >= 0.0D,
+                        "The default weight must be >= 0, but got '%s'",
+                        defaultWeight);
+        Id labelId = this.getEdgeLabelId(label);
+        PropertyKey weightKey = null;
+        if (weight != null) {
+            weightKey = this.graph().propertyKey(weight);
+            E.checkArgument(weightKey.dataType().isNumber() &&
+                            weightKey.cardinality() == Cardinality.SINGLE,
+                            "The weight property '%s' must be a single " +
+                            "number, but got %s(%s)", weight,
+                            weightKey.dataType(), weightKey.cardinality());
+        }
+        return new Weigher(dir, labelId, weightKey, defaultWeight,
+                           degree, capacity);
+    }
+
+    /**
+     * The settings of weighted searching, search paths between two vertices
+     * with some vertices and edges excluded
+     */
+    protected class Weigher {
+
+        private final Directions direction;
+        private final Id label;
+        private final PropertyKey weight;
+        private final double defaultWeight;
+        private final long degree;
+        private final long capacity;
+
+        public Weigher(Directions direction, Id label, PropertyKey weight,
+                       double defaultWeight, long degree, long capacity) {
+            this.direction = direction;
+            this.label = label;
+            this.weight = weight;
+            this.defaultWeight = defaultWeight;
+            this.degree = degree;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Search shortest path from source to target without passing the
+         * excluded vertices and edges
+         * @return the path, or null if not found or reach capacity
+         */
+        public WeightedPath shortestPath(Id source, Id target,
+                                         Set<Id> excludedVertices,
+                                         Set<Id> excludedEdges) {
+            if (source.equals(target)) {
+                return new WeightedPath(ImmutableList.of(source),
+                                        ImmutableList.of(),
+                                        ImmutableList.of());
+            }
+
+            Side forward = new Side(source, this.direction);
+            Side backward = new Side(target, this.direction.opposite());
+            double best = Double.POSITIVE_INFINITY;
+            Id crosspoint = null;
+
+            while (!forward.finished() && !backward.finished()) {
+                // No shorter path could be found if the sum of tops >= best
+                if (forward.top() + backward.top() >= best) {
+                    break;
+                }
+                Side side = forward.top() <= backward.top() ?
+                            forward : backward;
+                Side other = side == forward ? backward : forward;
+
+                Id vertex = side.settle();
+                if (vertex == null) {
+                    continue;
+                }
+                Iterator<Edge> edges = edgesOfVertices(
+                                       ImmutableList.of(vertex),
+                                       side.direction, this.label,
+                                       this.degree);
+                while (edges.hasNext()) {
+                    HugeEdge edge = (HugeEdge) edges.next();
+                    Id adjacent = edge.id().otherVertexId();
+                    if (excludedEdges.contains(edge.id()) ||
+                        excludedVertices.contains(adjacent)) {
+                        continue;
+                    }
+                    double distance = side.relax(vertex, edge,
+                                                 this.weight(edge));
+                    Double otherDistance = other.distance(adjacent);
+                    if (otherDistance != null &&
+                        distance + otherDistance < best) {
+                        best = distance + otherDistance;
+                        crosspoint = adjacent;
+                    }
+                }
+
+                if (this.capacity != NO_LIMIT &&
+                    forward.size() + backward.size() > this.capacity) {
+                    return null;
+                }
+            }
+
+            if (crosspoint == null) {
+                return null;
+            }
+            WeightedPath path = forward.path(crosspoint);
+            path.append(backward.path(crosspoint).reverse());
+            return path;
+        }
+
+        private double weight(HugeEdge edge) {
+            if (this.weight == null) {
+                return this.defaultWeight;
+            }
+            HugeProperty<?> property = edge.getProperty(this.weight.id());
+            if (property == null) {
+                return this.defaultWeight;
+            }
+            double value = ((Number) property.value()).doubleValue();
+            E.checkArgument(value >= 0.0D,
+                            "The weight of edge '%s' must be >= 0, " +
+                            "but got '%s'", edge.id(), value);
+            return value;
+        }
+    }
+
+    /**
+     * Search state from one side: the tentative distances, the steps to
+     * parents and the queue of vertices to settle
+     */
+    private static class Side {
+
+        private final Directions direction;
+        private final Map<Id, Double> distances;
+        private final Map<Id, Step> parents;
+        private final Set<Id> settled;
+        private final PriorityQueue<Step> queue;
+
+        public Side(Id root, Directions direction) {
+            this.direction = direction;
+            this.distances = new HashMap<>();
+            this.parents = new HashMap<>();
+            this.settled = new HashSet<>();
+            this.queue = new PriorityQueue<>();
+
+            this.distances.put(root, 0.0D);
+            this.queue.add(new Step(root, null, null, 0.0D, 0.0D));
+        }
+
+        public boolean finished() {
+            return this.queue.isEmpty();
+        }
+
+        public double top() {
+            return this.queue.peek().distance;
+        }
+
+        public int size() {
+            return this.distances.size();
+        }
+
+        public Double distance(Id vertex) {
+            return this.distances.get(vertex);
+        }
+
+        /**
+         * Poll the nearest vertex to settle
+         * @return the vertex, or null if it has been settled
+         */
+        public Id settle() {
+            Step step = this.queue.poll();
+            if (!this.settled.add(step.vertex)) {
+                return null;
+            }
+            return step.vertex;
+        }
+
+        public double relax(Id parent, HugeEdge edge, double weight) {
+            Id vertex = edge.id().otherVertexId();
+            double distance = this.distances.get(parent) + weight;
+            Double old = this.distances.get(vertex);
+            if (old != null && old <= distance) {
+                return old;
+            }
+            Step step = new Step(vertex, parent, edge.id(), weight, distance);
+            this.distances.put(vertex, distance);
+            this.parents.put(vertex, step);
+            this.queue.add(step);
+            return distance;
+        }
+
+        public WeightedPath path(Id vertex) {
+            List<Id> vertices = new ArrayList<>();
+            List<Id> edges = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            vertices.add(vertex);
+            Step step;
+            while ((step = this.parents.get(vertex)) != null) {
+                vertex = step.parent;
+                vertices.add(vertex);
+                edges.add(step.edge);
+                weights.add(step.weight);
+            }
+            Collections.reverse(vertices);
+            Collections.reverse(edges);
+            Collections.reverse(weights);
+            return new WeightedPath(vertices, edges, weights);
+        }
+    }
+
+    private static class Step implements Comparable<Step> {
+
+        private final Id vertex;
+        private final Id parent;
+        private final Id edge;
+        private final double weight;
+        private final double distance;
+
+        public Step(Id vertex, Id parent, Id edge,
+                    double weight, double distance) {
+            this.vertex = vertex;
+            this.parent = parent;
+            this.edge = edge;
+            this.weight = weight;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Step other) {
+            return Double.compare(this.distance, other.distance);
+        }
+    }
+
+    public static class WeightedPath {
+
+        private final List<Id> vertices;
+        private final List<Id> edges;
+        private final List<Double> weights;
+        private double weight;
+
+        public WeightedPath(List<Id> vertices, List<Id> edges,
+                            List<Double> weights) {
+            E.checkArgument(vertices.size() == edges.size() + 1 &&
+                            edges.size() == weights.size(),
+                            "Invalid weighted path with %s vertices, " +
+                            "%s edges and %s weights", vertices.size(),
+                            edges.size(), weights.size());
+            this.vertices = new ArrayList<>(vertices);
+            this.edges = new ArrayList<>(edges);
+            this.weights = new ArrayList<>(weights);
+            this.weight = 0.0D;
+            for (double weight : weights) {
+                this.weight += weight;
+            }
+        }
+
+        public List<Id> vertices() {
+            return Collections.unmodifiableList(this.vertices);
+        }
+
+        public List<Id> edges() {
+            return Collections.unmodifiableList(this.edges);
+        }
+
+        public double weight() {
+            return this.weight;
+        }
+
+        /**
+         * The sub path from the first vertex to the vertex at index
+         */
+        public WeightedPath subPath(int index) {
+            return new WeightedPath(this.vertices.subList(0, index + 1),
+                                    this.edges.subList(0, index),
+                                    this.weights.subList(0, index));
+        }
+
+        /**
+         * Append a path which starts with the last vertex of this path
+         */
+        public WeightedPath append(WeightedPath other) {
+            Id last = this.vertices.get(this.vertices.size() - 1);
+            Id first = other.vertices.get(0);
+            E.checkArgument(last.equals(first),
+                            "Can't append path starts with '%s' to path " +
+                            "ends with '%s'", first, last);
+            this.vertices.addAll(other.vertices.subList(1,
+                                 other.vertices.size()));
+            this.edges.addAll(other.edges);
+            this.weights.addAll(other.weights);
+            this.weight += other.weight;
+            return this;
+        }
+
+        public WeightedPath reverse() {
+            Collections.reverse(this.vertices);
+            Collections.reverse(this.edges);
+            Collections.reverse(this.weights);
+            return this;
+        }
+
+        public Map<String, Object> toMap() {
+            return ImmutableMap.of("weight", this.weight,
+                                   "vertices", this.vertices);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.vertices.hashCode() ^ this.edges.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof WeightedPath)) {
+                return false;
+            }
+            WeightedPath path = (WeightedPath) other;
+            return this.vertices.equals(path.vertices) &&
+                   this.edges.equals(path.edges);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s(%s)", this.vertices, this.weight);
+        }
+    }
+}
@@ -55,12 +55,14 @@ public enum HugeKeys {
     BASE_VALUE(151, "base_value"),
     INDEX_TYPE(152, "index_type"),
     FIELDS(153, "fields"),
+    BUCKETS(154, "buckets"),
 
     /* Column names of index data */
     INDEX_NAME(180, "index_name"),
     FIELD_VALUES(181, "field_values"),
     INDEX_LABEL_ID(182, "index_label_id"),
     ELEMENT_IDS(183, "element_ids"),
+    BUCKET(184, "bucket"),
 
     /* Column names of data type (Vertex/Edge) */
     LABEL(200, "label"),
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.id.IdGenerator.LongId;
+import com.baidu.hugegraph.backend.id.IdGenerator.StringId;
+import com.baidu.hugegraph.util.E;
+
+/**
+ * Intern vertex ids into dense int codes without keeping the Id objects:
+ * a number id is stored as a primitive long, and the bytes of a string id
+ * are appended to a shared byte arena. Codes are looked up by an
+ * open-addressing hash table of int slots. Other ids (like uuid or edge
+ * ids) are kept as objects in a hash map. This class is not thread safe.
+ */
+public final class IdArena {
+
+    public static final int NONE = -1;
+
+    private static final int INIT_CAPACITY = 16;
+    private static final int MAX_ID_LENGTH = 0xffff;
+
+    // Value of number id, or offset << 16 | length of string id in bytes
+    private long[] values;
+    // Mark codes of string ids
+    private final BitSet strings;
+    private byte[] bytes;
+    private int bytesSize;
+
+    // Hash table of code + 1, 0 means an empty slot
+    private int[] slots;
+    private int size;
+
+    // The ids which are neither number nor string, and their codes
+    private final List<Id> others;
+    // Mark codes of the other ids
+    private final BitSet objects;
+    private final Map<Id, Integer> otherCodes;
+
+    public IdArena() {
+        this.values = new long[INIT_CAPACITY];
+        this.strings = new BitSet();
+        this.bytes = new byte[INIT_CAPACITY * 8];
+        this.bytesSize = 0;
+        this.slots = new int[INIT_CAPACITY * 2];
+        this.size = 0;
+        this.others = new ArrayList<>();
+        this.objects = new BitSet();
+        this.otherCodes = new HashMap<>();
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Get the code of the id, or assign a new code to it if not exists
+     */
+    public int code(Id id) {
+        E.checkArgument(id != null, "The id can't be null");
+        if (!supported(id)) {
+            return this.lookupOther(id, true);
+        }
+        return this.lookup(id, true);
+    }
+
+    /**
+     * Get the code of the id, return NONE if not exists
+     */
+    public int find(Id id) {
+        if (!supported(id)) {
+            return this.lookupOther(id, false);
+        }
+        return this.lookup(id, false);
+    }
+
+    public Id id(int code) {
+        E.checkArgument(code >= 0 && code < this.size,
+                        "Invalid id code %s, the size is %s",
+                        code, this.size);
+        long value = this.values[code];
+        if (this.objects.get(code)) {
+            return this.others.get((int) value);
+        }
+        if (!this.strings.get(code)) {
+            return IdGenerator.of(value);
+        }
+        int offset = (int) (value >>> 16);
+        int length = (int) (value & MAX_ID_LENGTH);
+        return IdGenerator.of(Arrays.copyOfRange(this.bytes, offset,
+                                                 offset + length), false);
+    }
+
+    private int lookup(Id id, boolean create) {
+        boolean number = id.number();
+        long value = 0L;
+        byte[] idBytes = null;
+        int hash;
+        if (number) {
+            value = id.asLong();
+            hash = hash(value);
+        } else {
+            idBytes = id.asBytes();
+            hash = hash(idBytes, 0, idBytes.length);
+        }
+
+        int mask = this.slots.length - 1;
+        int i = hash & mask;
+        for (int slot; (slot = this.slots[i]) != 0; i = (i + 1) & mask) {
+            int code = slot - 1;
+            if (number ? this.equals(code, value) :
+                         this.equals(code, idBytes)) {
+                return code;
+            }
+        }
+        if (!create) {
+            return NONE;
+        }
+
+        int code = this.size++;
+        this.ensureCapacity();
+        if (number) {
+            this.values[code] = value;
+        } else {
+            this.values[code] = this.append(idBytes);
+            this.strings.set(code);
+        }
+        if (this.size * 2 > this.slots.length) {
+            this.rehash(this.slots.length * 2);
+        } else {
+            this.slots[i] = code + 1;
+        }
+        return code;
+    }
+
+    private int lookupOther(Id id, boolean create) {
+        Integer code = this.otherCodes.get(id);
+        if (code != null) {
+            return code;
+        }
+        if (!create) {
+            return NONE;
+        }
+        code = this.size++;
+        this.ensureCapacity();
+        // Store the index of the id in others
+        this.values[code] = this.others.size();
+        this.objects.set(code);
+        this.others.add(id);
+        this.otherCodes.put(id, code);
+        return code;
+    }
+
+    private boolean equals(int code, long value) {
+        return !this.strings.get(code) && !this.objects.get(code) &&
+               this.values[code] == value;
+    }
+
+    private boolean equals(int code, byte[] idBytes) {
+        if (!this.strings.get(code)) {
+            return false;
+        }
+        long value = this.values[code];
+        int offset = (int) (value >>> 16);
+        int length = (int) (value & MAX_ID_LENGTH);
+        if (length != idBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.bytes[offset + i] != idBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long append(byte[] idBytes) {
+        E.checkArgument(idBytes.length <= MAX_ID_LENGTH,
+                        "The id length can't exceed %s, but got %s",
+                        MAX_ID_LENGTH, idBytes.length);
+        int required = this.bytesSize + idBytes.length;
+        E.checkState(required >= 0, "The id arena is too large");
+        if (required > this.bytes.length) {
+            int capacity = Math.max(required, this.bytes.length * 2);
+            if (capacity < 0) {
+                capacity = Integer.MAX_VALUE;
+            }
+            this.bytes = Arrays.copyOf(this.bytes, capacity);
+        }
+        int offset = this.bytesSize;
+        System.arraycopy(idBytes, 0, this.bytes, offset, idBytes.length);
+        this.bytesSize = required;
+        return ((long) offset << 16) | idBytes.length;
+    }
+
+    private void ensureCapacity() {
+        if (this.size > this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.values.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        E.checkState(capacity > 0, "The id arena is too large");
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < this.size; code++) {
+            if (this.objects.get(code)) {
+                // Not in the hash table
+                continue;
+            }
+            int i = this.hashOf(code) & mask;
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = code + 1;
+        }
+        this.slots = slots;
+    }
+
+    private int hashOf(int code) {
+        long value = this.values[code];
+        if (!this.strings.get(code)) {
+            return hash(value);
+        }
+        int offset = (int) (value >>> 16);
+        int length = (int) (value & MAX_ID_LENGTH);
+        return hash(this.bytes, offset, length);
+    }
+
+    private static int hash(long value) {
+        return mix((int) (value ^ (value >>> 32)));
+    }
+
+    private static int hash(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        // The finalizer of murmur3, spread bits for linear probing
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private static boolean supported(Id id) {
+        return id instanceof LongId || id instanceof StringId;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.util.collection;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.baidu.hugegraph.backend.id.Id;
+
+/**
+ * A compact set of ids backed by an IdArena, the ids are iterated in the
+ * order of first insertion. A removed id only marks its code as removed,
+ * so the memory of it is not released.
+ */
+public class IdSet extends AbstractSet<Id> {
+
+    private final IdArena ids;
+    private final BitSet removed;
+
+    public IdSet() {
+        this.ids = new IdArena();
+        this.removed = new BitSet();
+    }
+
+    @Override
+    public boolean add(Id id) {
+        int size = this.ids.size();
+        int code = this.ids.code(id);
+        if (this.ids.size() > size) {
+            return true;
+        }
+        if (this.removed.get(code)) {
+            this.removed.clear(code);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        if (!(object instanceof Id)) {
+            return false;
+        }
+        int code = this.ids.find((Id) object);
+        return code != IdArena.NONE && !this.removed.get(code);
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        if (!(object instanceof Id)) {
+            return false;
+        }
+        int code = this.ids.find((Id) object);
+        if (code == IdArena.NONE || this.removed.get(code)) {
+            return false;
+        }
+        this.removed.set(code);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return this.ids.size() - this.removed.cardinality();
+    }
+
+    @Override
+    public Iterator<Id> iterator() {
+        return new Iterator<Id>() {
+
+            private int code = IdSet.this.removed.nextClearBit(0);
+            private int last = IdArena.NONE;
+
+            @Override
+            public boolean hasNext() {
+                return this.code < IdSet.this.ids.size();
+            }
+
+            @Override
+            public Id next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Id id = IdSet.this.ids.id(this.code);
+                this.last = this.code;
+                this.code = IdSet.this.removed.nextClearBit(this.code + 1);
+                return id;
+            }
+
+            @Override
+            public void remove() {
+                if (this.last == IdArena.NONE) {
+                    throw new IllegalStateException();
+                }
+                IdSet.this.removed.set(this.last);
+                this.last = IdArena.NONE;
+            }
+        };
+    }
+}
@@ -54,6 +54,20 @@ public class MysqlEntryIterator extends BackendEntryIterator<ResultSet> {
         this.last = null;
     }
 
+    @Override
+    public boolean hasNext() {
+        boolean hasNext = super.hasNext();
+        if (!hasNext) {
+            // Release the results early, the statement may be reused
+            try {
+                this.results.close();
+            } catch (SQLException e) {
+                throw new BackendException("Failed to close results", e);
+            }
+        }
+        return hasNext;
+    }
+
     @Override
     protected final boolean fetch() {
         assert this.current == null;
@@ -100,4 +100,14 @@ public class MysqlFeatures implements BackendFeatures {
     public boolean supportsNumberType() {
         return true;
     }
+
+    @Override
+    public boolean supportsIndexBuckets() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsCheckpoint() {
+        return false;
+    }
 }
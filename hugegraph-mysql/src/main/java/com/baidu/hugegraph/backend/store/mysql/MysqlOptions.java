@@ -89,4 +89,34 @@ public class MysqlOptions extends OptionHolder {
                     rangeInt(1, 10),
                     3
             );
+
+    public static final ConfigOption<Integer> JDBC_QUERY_CONCURRENCY =
+            new ConfigOption<>(
+                    "jdbc.query_concurrency",
+                    "The max number of selects of a query executed " +
+                    "concurrently by extra connections, 1 means executing " +
+                    "them one by one by the connection of the session.",
+                    rangeInt(1, 64),
+                    1
+            );
+
+    public static final ConfigOption<Integer> JDBC_INSERT_BATCH_SIZE =
+            new ConfigOption<>(
+                    "jdbc.insert_batch_size",
+                    "The max number of rows of a table coalesced into one " +
+                    "multi-row REPLACE statement when committing, 1 means " +
+                    "inserting the rows one by one.",
+                    rangeInt(1, 10000),
+                    100
+            );
+
+    public static final ConfigOption<Integer> JDBC_PREPARED_SELECT_CACHE =
+            new ConfigOption<>(
+                    "jdbc.prepared_select_cache",
+                    "The max number of server-side prepared selects cached " +
+                    "by each session for the lookups by id, owner vertex " +
+                    "and index, 0 means not to prepare the selects.",
+                    rangeInt(0, 1024),
+                    16
+            );
 }
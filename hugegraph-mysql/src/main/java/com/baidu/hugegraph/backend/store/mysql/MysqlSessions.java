@@ -25,8 +25,19 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 
 import org.apache.http.client.utils.URIBuilder;
@@ -47,9 +58,17 @@ public class MysqlSessions extends BackendSessionPool {
     private HugeConfig config;
     private String database;
 
+    // The workers to execute the selects of a query concurrently
+    private ExecutorService queryExecutor;
+    private final ThreadLocal<Connection> queryConnection;
+    private final Queue<Connection> queryConnections;
+
     public MysqlSessions(HugeConfig config, String database) {
         this.config = config;
         this.database = database;
+        this.queryExecutor = null;
+        this.queryConnection = new ThreadLocal<>();
+        this.queryConnections = new ConcurrentLinkedQueue<>();
     }
 
     public HugeConfig config() {
@@ -119,8 +138,60 @@ public class MysqlSessions extends BackendSessionPool {
     }
 
     @Override
-    protected void doClose() {
-        // pass
+    protected synchronized void doClose() {
+        if (this.queryExecutor != null) {
+            this.queryExecutor.shutdown();
+            this.queryExecutor = null;
+        }
+        Connection conn;
+        while ((conn = this.queryConnections.poll()) != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                LOG.warn("Failed to close query connection", e);
+            }
+        }
+    }
+
+    public int queryConcurrency() {
+        return this.config.get(MysqlOptions.JDBC_QUERY_CONCURRENCY);
+    }
+
+    public int insertBatchSize() {
+        return this.config.get(MysqlOptions.JDBC_INSERT_BATCH_SIZE);
+    }
+
+    public int preparedSelectCache() {
+        return this.config.get(MysqlOptions.JDBC_PREPARED_SELECT_CACHE);
+    }
+
+    private synchronized ExecutorService queryExecutor() {
+        if (this.queryExecutor == null) {
+            String prefix = "mysql-query-" + this.database + "-";
+            AtomicInteger threads = new AtomicInteger(0);
+            this.queryExecutor = Executors.newFixedThreadPool(
+                                 this.queryConcurrency(), r -> {
+                Thread thread = new Thread(r, prefix +
+                                              threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.queryExecutor;
+    }
+
+    /**
+     * Get the connection of current query worker, each worker holds its
+     * own connection which will be closed when the sessions are closed
+     */
+    private Connection queryConnection() throws SQLException {
+        Connection conn = this.queryConnection.get();
+        if (conn == null || conn.isClosed()) {
+            conn = this.open(true);
+            this.queryConnection.set(conn);
+            this.queryConnections.add(conn);
+        }
+        return conn;
     }
 
     public synchronized Session session() {
@@ -206,12 +277,31 @@ public class MysqlSessions extends BackendSessionPool {
 
         private Connection conn;
         private Map<String, PreparedStatement> statements;
+        // The rows to insert, grouped by the insert template of each table
+        private final Map<String, List<Object[]>> rows;
+        // The server-side prepared selects in LRU order
+        private final Map<String, SelectStatement> selects;
         private boolean opened;
         private int count;
 
         public Session() {
             this.conn = null;
             this.statements = new HashMap<>();
+            this.rows = new LinkedHashMap<>();
+            this.selects = new LinkedHashMap<String, SelectStatement>(
+                                                 16, 0.75F, true) {
+                private static final long serialVersionUID = 0L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                          Map.Entry<String, SelectStatement> eldest) {
+                    if (this.size() <= preparedSelectCache()) {
+                        return false;
+                    }
+                    eldest.getValue().close();
+                    return true;
+                }
+            };
             this.opened = false;
             this.count = 0;
             try {
@@ -244,6 +334,10 @@ public class MysqlSessions extends BackendSessionPool {
                     exception = e;
                 }
             }
+            for (SelectStatement select : this.selects.values()) {
+                select.close();
+            }
+            this.selects.clear();
 
             try {
                 this.conn.close();
@@ -266,6 +360,7 @@ public class MysqlSessions extends BackendSessionPool {
         @Override
         public void clear() {
             this.count = 0;
+            this.rows.clear();
             SQLException exception = null;
             for (PreparedStatement statement : this.statements.values()) {
                 try {
@@ -291,9 +386,17 @@ public class MysqlSessions extends BackendSessionPool {
         public Integer commit() {
             int updated = 0;
             try {
+                /*
+                 * Execute the batched deletes before the inserts, so that
+                 * the rows deleted and inserted again are kept
+                 */
                 for (PreparedStatement statement : this.statements.values()) {
                     updated += IntStream.of(statement.executeBatch()).sum();
                 }
+                for (Map.Entry<String, List<Object[]>> e :
+                     this.rows.entrySet()) {
+                    updated += this.insertRows(e.getKey(), e.getValue());
+                }
                 this.conn.commit();
                 this.clear();
             } catch (SQLException e) {
@@ -316,14 +419,131 @@ public class MysqlSessions extends BackendSessionPool {
             return this.count > 0;
         }
 
+        /**
+         * Insert the rows by multi-row statements, each of which contains
+         * at most `jdbc.insert_batch_size` rows
+         */
+        private int insertRows(String template, List<Object[]> rows)
+                               throws SQLException {
+            int batchSize = insertBatchSize();
+            int updated = 0;
+            for (int i = 0, n = rows.size(); i < n; i += batchSize) {
+                List<Object[]> batch = rows.subList(i, Math.min(i + batchSize,
+                                                                n));
+                String sql = MysqlUtil.multiRowInsert(template, batch.size());
+                if (batch.size() == batchSize) {
+                    // Reuse the statement of full batch
+                    PreparedStatement statement = this.prepareStatement(sql);
+                    updated += executeUpdate(statement, batch);
+                } else {
+                    try (PreparedStatement statement =
+                         this.conn.prepareStatement(sql)) {
+                        updated += executeUpdate(statement, batch);
+                    }
+                }
+            }
+            return updated;
+        }
+
         public ResultSet select(String sql) throws SQLException {
             return this.conn.createStatement().executeQuery(sql);
         }
 
+        public boolean prepareSelects() {
+            return preparedSelectCache() > 0;
+        }
+
+        /**
+         * Execute a select with the params bound to its placeholders by a
+         * cached server-side prepared statement, and read the results by
+         * the reader. The statement is released for reuse once the results
+         * are closed, which is done by the iterator returned by the reader
+         * when it's exhausted (including reaching the limit) or closed.
+         */
+        public <R> R select(String sql, List<Object> params,
+                            Function<ResultSet, R> reader)
+                            throws SQLException {
+            SelectStatement select = this.selects.get(sql);
+            if (select == null && this.prepareSelects()) {
+                select = new SelectStatement(this.serverPrepareStatement(sql));
+                this.selects.put(sql, select);
+            }
+            if (select == null || select.reading()) {
+                /*
+                 * The results of the cached statement are still being read,
+                 * which will be closed if execute it again
+                 */
+                PreparedStatement statement = this.conn.prepareStatement(sql);
+                statement.closeOnCompletion();
+                bind(statement, params);
+                return reader.apply(statement.executeQuery());
+            }
+            return select.execute(params, reader);
+        }
+
+        private PreparedStatement serverPrepareStatement(String sql)
+                                                         throws SQLException {
+            Class<com.mysql.jdbc.Connection> clazz =
+                                             com.mysql.jdbc.Connection.class;
+            if (this.conn.isWrapperFor(clazz)) {
+                // Statements are prepared by client if useServerPrepStmts=false
+                return this.conn.unwrap(clazz).serverPrepareStatement(sql);
+            }
+            return this.conn.prepareStatement(sql);
+        }
+
+        /**
+         * Execute a select by a query worker with its own connection
+         */
+        public CompletableFuture<ResultSet> selectAsync(String sql) {
+            CompletableFuture<ResultSet> future = new CompletableFuture<>();
+            queryExecutor().execute(() -> {
+                if (future.isDone()) {
+                    // Cancelled before executing
+                    return;
+                }
+                Statement statement = null;
+                try {
+                    /*
+                     * The results are buffered by the driver, so the
+                     * connection of the worker can execute the next select
+                     * while the results of this one are still being read
+                     */
+                    statement = queryConnection().createStatement();
+                    statement.closeOnCompletion();
+                    ResultSet results = statement.executeQuery(sql);
+                    if (!future.complete(results)) {
+                        // Cancelled while executing
+                        results.close();
+                    }
+                } catch (Exception e) {
+                    closeQuietly(statement);
+                    future.completeExceptionally(new BackendException(
+                                                 "Failed to query [%s]",
+                                                 e, sql));
+                }
+            });
+            return future;
+        }
+
+        public int queryConcurrency() {
+            return MysqlSessions.this.queryConcurrency();
+        }
+
         public boolean execute(String sql) throws SQLException {
             return this.conn.createStatement().execute(sql);
         }
 
+        public void add(String template, Object[] row) {
+            List<Object[]> rows = this.rows.get(template);
+            if (rows == null) {
+                rows = new ArrayList<>();
+                this.rows.put(template, rows);
+            }
+            rows.add(row);
+            this.count++;
+        }
+
         public void add(PreparedStatement statement) {
             try {
                 // Add a row to statement
@@ -345,4 +565,87 @@ public class MysqlSessions extends BackendSessionPool {
             return statement;
         }
     }
+
+    private static int executeUpdate(PreparedStatement statement,
+                                     List<Object[]> rows) throws SQLException {
+        int i = 1;
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                statement.setObject(i++, value);
+            }
+        }
+        return statement.executeUpdate();
+    }
+
+    private static void closeQuietly(Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            LOG.warn("Failed to close statement", e);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, List<Object> params)
+                             throws SQLException {
+        for (int i = 0, n = params.size(); i < n; i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static class SelectStatement {
+
+        private final PreparedStatement statement;
+        // The results being read, the statement is released once closed
+        private ResultSet results;
+
+        public SelectStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.results = null;
+        }
+
+        public boolean reading() throws SQLException {
+            return this.results != null && !this.results.isClosed();
+        }
+
+        public <R> R execute(List<Object> params,
+                             Function<ResultSet, R> reader)
+                             throws SQLException {
+            bind(this.statement, params);
+            this.results = this.statement.executeQuery();
+            try {
+                return reader.apply(this.results);
+            } catch (RuntimeException e) {
+                this.release();
+                throw e;
+            }
+        }
+
+        public void release() {
+            if (this.results == null) {
+                return;
+            }
+            try {
+                this.results.close();
+            } catch (SQLException e) {
+                LOG.warn("Failed to close results of prepared select", e);
+            }
+            this.results = null;
+        }
+
+        public void close() {
+            try {
+                if (this.reading()) {
+                    // Close after the results are read
+                    this.statement.closeOnCompletion();
+                } else {
+                    this.statement.close();
+                }
+            } catch (SQLException e) {
+                LOG.warn("Failed to close prepared select", e);
+            }
+        }
+    }
 }
@@ -250,6 +250,12 @@ public abstract class MysqlStore implements BackendStore {
         throw new UnsupportedOperationException("MysqlStore.metadata()");
     }
 
+    @Override
+    public void createCheckpoint(String dir) {
+        throw new UnsupportedOperationException(
+                  "MysqlStore.createCheckpoint()");
+    }
+
     @Override
     public BackendFeatures features() {
         return FEATURES;
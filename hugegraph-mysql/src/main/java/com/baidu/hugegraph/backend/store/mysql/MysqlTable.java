@@ -23,10 +23,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 
@@ -36,6 +39,7 @@ import com.baidu.hugegraph.backend.query.Condition;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.store.BackendEntry;
 import com.baidu.hugegraph.backend.store.BackendTable;
+import com.baidu.hugegraph.backend.store.PipelinedQueryIterator;
 import com.baidu.hugegraph.backend.store.TableDefine;
 import com.baidu.hugegraph.backend.store.mysql.MysqlEntryIterator.PageState;
 import com.baidu.hugegraph.exception.NotFoundException;
@@ -178,20 +182,8 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
     public void insert(MysqlSessions.Session session,
                        MysqlBackendEntry.Row entry) {
         String template = this.buildInsertTemplate(entry);
-
-        PreparedStatement insertStmt;
-        try {
-            // Create or get insert prepare statement
-            insertStmt = session.prepareStatement(template);
-            int i = 1;
-            for (Object object : entry.columns().values()) {
-                insertStmt.setObject(i++, object);
-            }
-        } catch (SQLException e) {
-            throw new BackendException("Failed to prepare statement '%s'" +
-                                       "for entry: %s", template, entry);
-        }
-        session.add(insertStmt);
+        // The rows are coalesced into multi-row statements when committing
+        session.add(template, entry.columns().values().toArray());
     }
 
     @Override
@@ -250,7 +242,20 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
             return rs;
         }
 
+        if (session.prepareSelects()) {
+            List<PreparedSelect> selects = this.query2PreparedSelect(
+                                           this.table(), query);
+            if (selects != null && (selects.size() == 1 ||
+                                    session.queryConcurrency() <= 1)) {
+                return this.queryPrepared(session, query, selects);
+            }
+        }
+
         List<StringBuilder> selections = this.query2Select(this.table(), query);
+        if (selections.size() > 1 && !query.paging() &&
+            session.queryConcurrency() > 1) {
+            return this.queryConcurrently(session, query, selections);
+        }
         try {
             for (StringBuilder selection : selections) {
                 ResultSet results = session.select(selection.toString());
@@ -264,6 +269,46 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
         return rs;
     }
 
+    private Iterator<BackendEntry> queryPrepared(MysqlSessions.Session session,
+                                                 Query query,
+                                                 List<PreparedSelect> selects) {
+        ExtendableIterator<BackendEntry> rs = new ExtendableIterator<>();
+        try {
+            for (PreparedSelect select : selects) {
+                rs.extend(session.select(select.sql(), select.params(),
+                                         results -> this.results2Entries(
+                                                    query, results)));
+            }
+        } catch (SQLException e) {
+            throw new BackendException("Failed to query [%s]", e, query);
+        }
+
+        LOG.debug("Return {} for query {} with prepared selects {}",
+                  rs, query, selects);
+        return rs;
+    }
+
+    private Iterator<BackendEntry> queryConcurrently(
+                                   MysqlSessions.Session session,
+                                   Query query,
+                                   List<StringBuilder> selections) {
+        List<Supplier<CompletableFuture<ResultSet>>> tasks;
+        tasks = new ArrayList<>(selections.size());
+        for (StringBuilder selection : selections) {
+            String sql = selection.toString();
+            tasks.add(() -> session.selectAsync(sql));
+        }
+
+        Iterator<BackendEntry> rs = new PipelinedQueryIterator<>(
+                                    query, tasks,
+                                    results -> this.results2Entries(query,
+                                                                    results),
+                                    session.queryConcurrency());
+        LOG.debug("Return {} for query {} with {} selects",
+                  rs, query, selections.size());
+        return rs;
+    }
+
     protected List<StringBuilder> query2Select(String table, Query query) {
         // Set table
         StringBuilder select = new StringBuilder(64);
@@ -359,6 +404,110 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
         return selections;
     }
 
+    /**
+     * Build the selects of a query with the values bound to parameters,
+     * which are used for the lookups by id, owner vertex or index.
+     * Return null if the query should be executed by literal selects.
+     */
+    protected List<PreparedSelect> query2PreparedSelect(String table,
+                                                        Query query) {
+        if (query.paging()) {
+            // The page state is appended as literal values
+            return null;
+        }
+
+        StringBuilder select = new StringBuilder(64);
+        select.append("SELECT * FROM ").append(table);
+
+        List<PreparedSelect> selects;
+        if (query.ids().isEmpty()) {
+            selects = ImmutableList.of(new PreparedSelect(select));
+        } else {
+            selects = this.queryId2PreparedSelect(query, select);
+        }
+
+        if (!query.conditions().isEmpty()) {
+            List<Object> params = new ArrayList<>();
+            List<StringBuilder> clauses = new ArrayList<>();
+            for (Condition condition : query.conditions()) {
+                clauses.add(this.condition2Sql(condition, params));
+            }
+            boolean startWithWhere = query.ids().isEmpty();
+            WhereBuilder where = new WhereBuilder(startWithWhere);
+            where.and(clauses);
+            String sql = where.build();
+            for (PreparedSelect prepared : selects) {
+                prepared.append(startWithWhere ? sql : " AND" + sql, params);
+            }
+        }
+
+        for (PreparedSelect prepared : selects) {
+            if (!query.orders().isEmpty()) {
+                this.wrapOrderBy(prepared.select, query);
+            }
+            if (query.limit() != Query.NO_LIMIT || query.offset() > 0) {
+                assert query.limit() >= 0;
+                assert query.offset() >= 0;
+                prepared.append(" limit ? offset ?",
+                                ImmutableList.of(query.limit(),
+                                                 query.offset()));
+            }
+        }
+        return selects;
+    }
+
+    protected List<PreparedSelect> queryId2PreparedSelect(
+                                   Query query, StringBuilder select) {
+        List<HugeKeys> nameParts = this.idColumnName();
+
+        List<List<Object>> ids = new ArrayList<>(query.ids().size());
+        for (Id id : query.ids()) {
+            List<Object> idParts = this.idColumnValue(id);
+            if (nameParts.size() != idParts.size()) {
+                throw new NotFoundException(
+                          "Unsupported ID format: '%s' (should contain %s)",
+                          id, nameParts);
+            }
+            ids.add(idParts);
+        }
+
+        // Query only by partition-key
+        if (nameParts.size() == 1) {
+            List<Object> values = new ArrayList<>(ids.size());
+            for (List<Object> objects : ids) {
+                assert objects.size() == 1;
+                values.add(objects.get(0));
+            }
+            values = padValues(values);
+            StringBuilder sql = new StringBuilder(" WHERE ");
+            sql.append(formatKey(nameParts.get(0)));
+            if (values.size() == 1) {
+                sql.append(" = ?");
+            } else {
+                sql.append(" IN (");
+                for (int i = 0, n = values.size(); i < n; i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(")");
+            }
+            PreparedSelect prepared = new PreparedSelect(select);
+            prepared.append(sql.toString(), values);
+            return ImmutableList.of(prepared);
+        }
+
+        // Query by partition-key + clustering-key, a select for each id
+        WhereBuilder where = new WhereBuilder();
+        where.and(formatKeys(nameParts), "?");
+        String sql = where.build();
+        List<PreparedSelect> selects = new ArrayList<>(ids.size());
+        for (List<Object> objects : ids) {
+            PreparedSelect prepared = new PreparedSelect(select);
+            prepared.append(sql, objects);
+            selects.add(prepared);
+        }
+        return selects;
+    }
+
     protected List<StringBuilder> queryCondition2Select(Query query,
                                                         StringBuilder select) {
         // Query by conditions
@@ -374,11 +523,20 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
     }
 
     protected StringBuilder condition2Sql(Condition condition) {
+        return this.condition2Sql(condition, null);
+    }
+
+    /**
+     * Build the sql of a condition, the values are replaced by '?' and
+     * collected into params if params is not null
+     */
+    protected StringBuilder condition2Sql(Condition condition,
+                                          List<Object> params) {
         switch (condition.type()) {
             case AND:
                 Condition.And and = (Condition.And) condition;
-                StringBuilder left = this.condition2Sql(and.left());
-                StringBuilder right = this.condition2Sql(and.right());
+                StringBuilder left = this.condition2Sql(and.left(), params);
+                StringBuilder right = this.condition2Sql(and.right(), params);
                 int size = left.length() + right.length() + " AND ".length();
                 StringBuilder sql = new StringBuilder(size);
                 sql.append(left).append(" AND ").append(right);
@@ -387,7 +545,7 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
                 throw new BackendException("Not support OR currently");
             case RELATION:
                 Condition.Relation r = (Condition.Relation) condition;
-                return this.relation2Sql(r);
+                return this.relation2Sql(r, params);
             default:
                 final String msg = "Unsupported condition: " + condition;
                 throw new AssertionError(msg);
@@ -395,11 +553,18 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
     }
 
     protected StringBuilder relation2Sql(Condition.Relation relation) {
+        return this.relation2Sql(relation, null);
+    }
+
+    protected StringBuilder relation2Sql(Condition.Relation relation,
+                                         List<Object> params) {
         String key = relation.serialKey().toString();
         Object value = relation.serialValue();
 
-        // Serialize value (TODO: should move to Serializer)
-        value = serializeValue(value);
+        if (relation.relation() != Condition.RelationType.IN) {
+            // Serialize value (TODO: should move to Serializer)
+            value = bindValue(value, params);
+        }
 
         StringBuilder sql = new StringBuilder(32);
         sql.append(key);
@@ -425,8 +590,11 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
             case IN:
                 sql.append(" IN (");
                 List<?> values = (List<?>) value;
+                if (params != null) {
+                    values = padValues(values);
+                }
                 for (int i = 0, n = values.size(); i < n; i++) {
-                    sql.append(serializeValue(values.get(i)));
+                    sql.append(bindValue(values.get(i), params));
                     if (i != n - 1) {
                         sql.append(", ");
                     }
@@ -514,6 +682,41 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
         return value;
     }
 
+    /**
+     * Pad the values of IN relation to the size of power of 2 by repeating
+     * the last value, to limit the number of prepared selects
+     */
+    private static <T> List<T> padValues(List<T> values) {
+        int size = values.size();
+        if (size <= 1 || (size & (size - 1)) == 0) {
+            return values;
+        }
+        int paddedSize = Integer.highestOneBit(size) << 1;
+        List<T> padded = new ArrayList<>(paddedSize);
+        padded.addAll(values);
+        T last = values.get(size - 1);
+        while (padded.size() < paddedSize) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    private static Object bindValue(Object value, List<Object> params) {
+        if (params == null) {
+            return serializeValue(value);
+        }
+        if (value instanceof Id) {
+            value = ((Id) value).asObject();
+        }
+        if (!(value instanceof String || value instanceof Number ||
+              value instanceof Boolean)) {
+            // Bind as the string form like the literal value does
+            value = String.valueOf(value);
+        }
+        params.add(value);
+        return "?";
+    }
+
     protected Iterator<BackendEntry> results2Entries(Query query,
                                                      ResultSet results) {
         return new MysqlEntryIterator(results, query, this::mergeEntries);
@@ -547,4 +750,36 @@ public abstract class MysqlTable extends BackendTable<MysqlSessions.Session,
         }
         return names;
     }
+
+    /**
+     * A select with '?' placeholders and the values bound to them in order
+     */
+    public static class PreparedSelect {
+
+        private final StringBuilder select;
+        private final List<Object> params;
+
+        public PreparedSelect(StringBuilder select) {
+            this.select = new StringBuilder(select);
+            this.params = new ArrayList<>();
+        }
+
+        public String sql() {
+            return this.select.toString();
+        }
+
+        public List<Object> params() {
+            return Collections.unmodifiableList(this.params);
+        }
+
+        public void append(String sql, List<?> params) {
+            this.select.append(sql);
+            this.params.addAll(params);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s; %s", this.select, this.params);
+        }
+    }
 }
@@ -19,8 +19,33 @@
 
 package com.baidu.hugegraph.backend.store.mysql;
 
+import com.baidu.hugegraph.util.E;
+
 public class MysqlUtil {
 
+    /**
+     * Expand a single-row insert template which ends with the placeholders
+     * of a row like "INSERT INTO t (a, b) VALUES (?, ?)" to the template
+     * of the specified number of rows
+     */
+    public static String multiRowInsert(String template, int rows) {
+        E.checkArgument(rows > 0, "The rows must be > 0, but got %s", rows);
+        int index = template.lastIndexOf('(');
+        E.checkArgument(index > 0 && template.endsWith(")"),
+                        "Invalid insert template '%s'", template);
+        if (rows == 1) {
+            return template;
+        }
+        String row = template.substring(index);
+        StringBuilder sql = new StringBuilder(template.length() +
+                                              (row.length() + 2) * rows);
+        sql.append(template);
+        for (int i = 1; i < rows; i++) {
+            sql.append(", ").append(row);
+        }
+        return sql.toString();
+    }
+
     public static String escapeString(String value) {
         int length = value.length();
         if (!isEscapeNeededForString(value, length)) {
@@ -103,4 +103,14 @@ public class PaloFeatures implements BackendFeatures {
     public boolean supportsNumberType() {
         return true;
     }
+
+    @Override
+    public boolean supportsIndexBuckets() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsCheckpoint() {
+        return false;
+    }
 }
@@ -94,6 +94,12 @@ public class PaloSessions extends MysqlSessions {
         return String.format("CREATE DATABASE IF NOT EXISTS %s;", database);
     }
 
+    @Override
+    public int preparedSelectCache() {
+        // Palo doesn't support server-side prepared statements
+        return 0;
+    }
+
     @Override
     protected final synchronized Session newSession() {
         int id = this.counter.incrementAndGet();
@@ -0,0 +1,502 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store.rocksdb;
+
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.serializer.BytesBuffer;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumnIterator;
+import com.baidu.hugegraph.util.Bytes;
+
+/**
+ * The adjacency blocks of edges without sort values.
+ *
+ * An edge is stored as a key like:
+ *  [owner-vertex-id][direction][label-id][sort-values][other-vertex-id]
+ * with the sort values empty if the edge label has no sort keys. Such edges
+ * of a (vertex, direction, label) can be packed into blocks instead:
+ *  [owner-vertex-id][direction][label-id][0xffff][chunk]
+ * The chunk is decided by the hash of other vertex id, each block holds the
+ * records of edges appended through the "stringappend" merge operator:
+ *  add: [0x01][other-vertex-id][edge-value]
+ *  del: [0x02][other-vertex-id]
+ * The block marker 0xffff is an impossible sort values length since a key
+ * with it must be longer than 64KB, and it makes the blocks follow the
+ * edges of the same label.
+ *
+ * When reading, the blocks of a (vertex, direction, label) are replayed
+ * one by one and expanded to the columns of edges with the same names as
+ * the normal layout, the edges of a block are sorted by other vertex id.
+ * Since an edge always belongs to the same block, only the block being read
+ * is kept in memory. The expanded edges follow the normal edges of the
+ * label, and the paging position of an expanded edge is the block key
+ * appended with the other vertex id, so that a page can seek to its block.
+ * A block is rewritten with only the live edges once most of its records
+ * are deleted or overridden.
+ *
+ * A table with blocks contains the flag key [0xff], which can't be an edge
+ * key since a string id with the length header 0xff is 128 bytes long.
+ */
+public final class RocksDBEdgeBlocks {
+
+    public static final int CHUNKS = 64;
+
+    public static final byte[] FLAG_KEY = {(byte) 0xff};
+
+    private static final byte MARKER = (byte) 0xff;
+    private static final byte ADD = 0x01;
+    private static final byte DEL = 0x02;
+    // The delimiter written between operands by "stringappend"
+    private static final byte DELIMITER = ',';
+
+    private static final int LENGTH_LEN = BytesBuffer.SHORT_LEN;
+
+    // Rewrite a block if the ratio of its dead records reaches it
+    private static final double DEAD_RATIO = 0.5;
+
+    /**
+     * Get the end offset of label id in an edge key,
+     * return -1 if the key doesn't contain a whole label id
+     */
+    public static int labelEnd(byte[] key) {
+        BytesBuffer buffer = BytesBuffer.wrap(key);
+        try {
+            buffer.readId();
+            buffer.read();
+            buffer.readId();
+        } catch (BufferUnderflowException e) {
+            return -1;
+        }
+        return key.length - buffer.remaining();
+    }
+
+    /**
+     * Get the end offset of label id if the key is an edge key with empty
+     * sort values, or return -1
+     */
+    public static int packableLabelEnd(byte[] key) {
+        int labelEnd = labelEnd(key);
+        if (labelEnd < 0 || key.length <= labelEnd + LENGTH_LEN ||
+            !emptySortValues(key, labelEnd)) {
+            return -1;
+        }
+        return labelEnd;
+    }
+
+    public static boolean emptySortValues(byte[] key, int labelEnd) {
+        return key.length >= labelEnd + LENGTH_LEN &&
+               key[labelEnd] == 0 && key[labelEnd + 1] == 0;
+    }
+
+    /**
+     * Whether the key ends with a whole vertex id after the sort values
+     */
+    public static boolean wholeEdgeKey(byte[] key, int labelEnd) {
+        if (key.length <= labelEnd + LENGTH_LEN) {
+            return false;
+        }
+        BytesBuffer buffer = BytesBuffer.wrap(key, labelEnd,
+                                              key.length - labelEnd);
+        try {
+            buffer.readBytes();
+            buffer.readId();
+        } catch (BufferUnderflowException e) {
+            return false;
+        }
+        return buffer.remaining() == 0;
+    }
+
+    /**
+     * Get the end offset of label id if the key is a block key, or return -1
+     */
+    public static int blockLabelEnd(byte[] key) {
+        int length = key.length;
+        // Check the marker before parsing the key
+        if (length <= LENGTH_LEN + 1 || key[length - 3] != MARKER ||
+            key[length - 2] != MARKER) {
+            return -1;
+        }
+        int labelEnd = labelEnd(key);
+        if (labelEnd < 0 || key.length != labelEnd + LENGTH_LEN + 1 ||
+            key[labelEnd] != MARKER || key[labelEnd + 1] != MARKER) {
+            return -1;
+        }
+        return labelEnd;
+    }
+
+    public static byte[] blockPrefix(byte[] key, int labelEnd) {
+        byte[] prefix = Arrays.copyOf(key, labelEnd + LENGTH_LEN);
+        prefix[labelEnd] = MARKER;
+        prefix[labelEnd + 1] = MARKER;
+        return prefix;
+    }
+
+    public static byte[] blockKey(byte[] key, int labelEnd) {
+        byte[] block = Arrays.copyOf(key, labelEnd + LENGTH_LEN + 1);
+        block[labelEnd] = MARKER;
+        block[labelEnd + 1] = MARKER;
+        block[labelEnd + LENGTH_LEN] = chunk(key, labelEnd);
+        return block;
+    }
+
+    /**
+     * Get the key to seek for a paging position, which is the block key if
+     * it's the position of an edge in block, or the position itself
+     */
+    public static byte[] seekKey(byte[] position) {
+        int labelEnd = labelEnd(position);
+        if (labelEnd < 0 || position.length <= labelEnd + LENGTH_LEN + 1 ||
+            position[labelEnd] != MARKER || position[labelEnd + 1] != MARKER) {
+            return position;
+        }
+        return Arrays.copyOf(position, labelEnd + LENGTH_LEN + 1);
+    }
+
+    public static byte[] addRecord(byte[] key, int labelEnd, byte[] value) {
+        byte[] other = otherVertex(key, labelEnd);
+        BytesBuffer buffer = BytesBuffer.allocate(1 + 2 * BytesBuffer.INT_LEN +
+                                                  other.length + value.length);
+        buffer.write(ADD);
+        buffer.writeBytesWithVLength(other);
+        buffer.writeBytesWithVLength(value);
+        return buffer.bytes();
+    }
+
+    public static byte[] delRecord(byte[] key, int labelEnd) {
+        byte[] other = otherVertex(key, labelEnd);
+        BytesBuffer buffer = BytesBuffer.allocate(1 + BytesBuffer.INT_LEN +
+                                                  other.length);
+        buffer.write(DEL);
+        buffer.writeBytesWithVLength(other);
+        return buffer.bytes();
+    }
+
+    private static byte[] otherVertex(byte[] key, int labelEnd) {
+        return Arrays.copyOfRange(key, labelEnd + LENGTH_LEN, key.length);
+    }
+
+    private static byte chunk(byte[] key, int labelEnd) {
+        int hash = 1;
+        for (int i = labelEnd + LENGTH_LEN; i < key.length; i++) {
+            hash = 31 * hash + key[i];
+        }
+        return (byte) ((hash & Integer.MAX_VALUE) % CHUNKS);
+    }
+
+    public static boolean flagKey(byte[] key) {
+        return key.length == 1 && key[0] == FLAG_KEY[0];
+    }
+
+    /**
+     * Compact the records of a block into the add records of live edges
+     * @return the compacted block, or null if it's not worth rewriting
+     */
+    public static byte[] compact(byte[] block) {
+        Map<byte[], byte[]> edges = new TreeMap<>(Bytes::compare);
+        int records = replay(block, edges);
+        if (records - edges.size() < records * DEAD_RATIO) {
+            return null;
+        }
+
+        int size = 0;
+        for (Map.Entry<byte[], byte[]> edge : edges.entrySet()) {
+            size += 2 + 2 * BytesBuffer.INT_LEN + edge.getKey().length +
+                    edge.getValue().length;
+        }
+        BytesBuffer buffer = BytesBuffer.allocate(size);
+        boolean first = true;
+        for (Map.Entry<byte[], byte[]> edge : edges.entrySet()) {
+            if (!first) {
+                buffer.write(DELIMITER);
+            }
+            first = false;
+            buffer.write(ADD);
+            buffer.writeBytesWithVLength(edge.getKey());
+            buffer.writeBytesWithVLength(edge.getValue());
+        }
+        return buffer.bytes();
+    }
+
+    private static int replay(byte[] block, Map<byte[], byte[]> edges) {
+        int records = 0;
+        BytesBuffer buffer = BytesBuffer.wrap(block);
+        try {
+            while (buffer.remaining() > 0) {
+                byte op = buffer.read();
+                if (op == DELIMITER) {
+                    continue;
+                }
+                records++;
+                byte[] other = buffer.readBytesWithVLength();
+                if (op == ADD) {
+                    edges.put(other, buffer.readBytesWithVLength());
+                } else if (op == DEL) {
+                    edges.remove(other);
+                } else {
+                    throw new BackendException("Invalid edge block op: %s",
+                                               op);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new BackendException("Invalid edge block: 0x%s", e,
+                                       Bytes.toHex(block));
+        }
+        return records;
+    }
+
+    public static BackendColumnIterator concat(BackendColumnIterator first,
+                                               BackendColumnIterator second) {
+        return new BackendColumnIterator() {
+
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || second.hasNext();
+            }
+
+            @Override
+            public BackendColumn next() {
+                if (first.hasNext()) {
+                    return first.next();
+                }
+                return second.next();
+            }
+
+            @Override
+            public byte[] position() {
+                // Concat only the iterators of the query by id without paging
+                return null;
+            }
+
+            @Override
+            public void close() {
+                first.close();
+                second.close();
+            }
+        };
+    }
+
+    /**
+     * Concat the iterators created one by one, the next iterator is not
+     * created until the previous one is finished
+     */
+    public static BackendColumnIterator concat(
+                                        Iterator<BackendColumnIterator> iters) {
+        return new BackendColumnIterator() {
+
+            private BackendColumnIterator current = BackendColumnIterator.EMPTY;
+
+            @Override
+            public boolean hasNext() {
+                while (!this.current.hasNext()) {
+                    if (!iters.hasNext()) {
+                        return false;
+                    }
+                    this.current.close();
+                    this.current = iters.next();
+                }
+                return true;
+            }
+
+            @Override
+            public BackendColumn next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.current.next();
+            }
+
+            @Override
+            public byte[] position() {
+                // Concat only the iterators of the query by ids
+                return null;
+            }
+
+            @Override
+            public void close() {
+                this.current.close();
+            }
+        };
+    }
+
+    /**
+     * The iterator to expand the blocks into columns of edges, the other
+     * columns are returned as is. The expanded columns can be filtered
+     * by a prefix or a set of names, or skipped if their positions are
+     * less than the begin position of paging.
+     */
+    public static class ColumnIterator implements BackendColumnIterator {
+
+        private final BackendColumnIterator columns;
+        private final byte[] prefix;
+        private final byte[] begin;
+        private final Set<byte[]> names;
+
+        private Iterator<BackendColumn> expanded;
+        private byte[] block;
+        private BackendColumn next;
+        private byte[] nextPosition;
+        private byte[] position;
+
+        public ColumnIterator(BackendColumnIterator columns,
+                              byte[] prefix, byte[] begin) {
+            this(columns, prefix, begin, null);
+        }
+
+        public ColumnIterator(BackendColumnIterator columns,
+                              Set<byte[]> names) {
+            this(columns, null, null, names);
+        }
+
+        private ColumnIterator(BackendColumnIterator columns, byte[] prefix,
+                               byte[] begin, Set<byte[]> names) {
+            this.columns = columns;
+            this.prefix = prefix;
+            this.begin = begin;
+            this.names = names;
+            this.expanded = null;
+            this.block = null;
+            this.next = null;
+            this.nextPosition = null;
+            this.position = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next == null) {
+                this.next = this.fetch();
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public BackendColumn next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BackendColumn col = this.next;
+            this.next = null;
+            this.position = this.nextPosition;
+            return col;
+        }
+
+        @Override
+        public byte[] position() {
+            if (this.next != null ||
+                (this.expanded != null && this.expanded.hasNext())) {
+                return this.position;
+            }
+            return this.columns.position() == null ? null : this.position;
+        }
+
+        @Override
+        public void close() {
+            this.columns.close();
+        }
+
+        private BackendColumn fetch() {
+            while (true) {
+                BackendColumn col;
+                byte[] position;
+                if (this.expanded != null && this.expanded.hasNext()) {
+                    col = this.expanded.next();
+                    position = blockPosition(this.block, col.name);
+                } else if (this.columns.hasNext()) {
+                    col = this.columns.next();
+                    position = col.name;
+                } else {
+                    return null;
+                }
+
+                if (flagKey(col.name)) {
+                    continue;
+                }
+                int labelEnd = blockLabelEnd(col.name);
+                if (labelEnd >= 0) {
+                    this.expanded = this.expand(col, labelEnd);
+                    this.block = col.name;
+                    continue;
+                }
+                if (this.prefix != null &&
+                    !Bytes.prefixWith(col.name, this.prefix)) {
+                    continue;
+                }
+                if (this.begin != null &&
+                    Bytes.compare(position, this.begin) < 0) {
+                    continue;
+                }
+                if (this.names != null && !this.names.contains(col.name)) {
+                    continue;
+                }
+                this.nextPosition = position;
+                return col;
+            }
+        }
+
+        private static byte[] blockPosition(byte[] block, byte[] name) {
+            int labelEnd = block.length - LENGTH_LEN - 1;
+            int otherLength = name.length - labelEnd - LENGTH_LEN;
+            byte[] position = Arrays.copyOf(block, block.length + otherLength);
+            System.arraycopy(name, labelEnd + LENGTH_LEN, position,
+                             block.length, otherLength);
+            return position;
+        }
+
+        private Iterator<BackendColumn> expand(BackendColumn block,
+                                               int labelEnd) {
+            // An edge is always in the same block, replay only this block
+            Map<byte[], byte[]> edges = new TreeMap<>(Bytes::compare);
+            replay(block.value, edges);
+
+            Iterator<Map.Entry<byte[], byte[]>> iter =
+                                                edges.entrySet().iterator();
+            return new Iterator<BackendColumn>() {
+
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                @Override
+                public BackendColumn next() {
+                    Map.Entry<byte[], byte[]> edge = iter.next();
+                    byte[] other = edge.getKey();
+                    BackendColumn col = new BackendColumn();
+                    // The sort values length is 0
+                    col.name = Arrays.copyOf(block.name, labelEnd +
+                                             LENGTH_LEN + other.length);
+                    col.name[labelEnd] = 0;
+                    col.name[labelEnd + 1] = 0;
+                    System.arraycopy(other, 0, col.name,
+                                     labelEnd + LENGTH_LEN, other.length);
+                    col.value = edge.getValue();
+                    return col;
+                }
+            };
+        }
+    }
+}
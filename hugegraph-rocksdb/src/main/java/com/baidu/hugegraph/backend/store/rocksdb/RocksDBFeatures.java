@@ -104,4 +104,14 @@ public class RocksDBFeatures implements BackendFeatures {
     public boolean supportsNumberType() {
         return false;
     }
+
+    @Override
+    public boolean supportsIndexBuckets() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsCheckpoint() {
+        return true;
+    }
 }
@@ -83,6 +83,36 @@ public class RocksDBOptions extends OptionHolder {
                     ""
             );
 
+    public static final ConfigOption<Integer> SST_WRITERS =
+            new ConfigOption<>(
+                    "rocksdb.sst_writers",
+                    "The number of threads to sort and write SST files in " +
+                    "parallel when bulk loading by rocksdbsst backend.",
+                    rangeInt(1, 1024),
+                    4
+            );
+
+    public static final ConfigOption<Long> SST_SORT_BUFFER_SIZE =
+            new ConfigOption<>(
+                    "rocksdb.sst_sort_buffer_size",
+                    "The size(bytes) of records of each table to sort in " +
+                    "memory before spilling them to disk when bulk loading " +
+                    "by rocksdbsst backend.",
+                    rangeInt(Bytes.MB, Long.MAX_VALUE),
+                    64L * Bytes.MB
+            );
+
+    public static final ConfigOption<Boolean> EDGE_BLOCKS =
+            new ConfigOption<>(
+                    "rocksdb.edge_blocks",
+                    "Whether to pack the edges of edge labels without sort " +
+                    "keys into the adjacency blocks of each vertex, which " +
+                    "are read in a few seeks. It can't be disabled once " +
+                    "there are edges written into blocks.",
+                    disallowEmpty(),
+                    false
+            );
+
     // TODO: support ConfigOption<InfoLogLevel>
     public static final ConfigOption<String> LOG_LEVEL =
             new ConfigOption<>(
@@ -124,6 +154,19 @@ public class RocksDBOptions extends OptionHolder {
                     false
             );
 
+    public static final ConfigOption<String> WRITE_MODE =
+            new ConfigOption<>(
+                    "rocksdb.write_mode",
+                    "The mode to write WAL of RocksDB: async writes WAL " +
+                    "without fsync, sync fsyncs WAL on commit and the " +
+                    "concurrent commits are grouped into one fsync, " +
+                    "no_wal disables WAL and flushes memtables when " +
+                    "closing, which loses the unflushed data if crashed. " +
+                    "WAL is always disabled in bulkload mode.",
+                    allowValues("async", "sync", "no_wal"),
+                    "async"
+            );
+
     public static final ConfigOption<String> COMPRESSION_TYPE =
             new ConfigOption<>(
                     "rocksdb.compression_type",
@@ -238,6 +281,27 @@ public class RocksDBOptions extends OptionHolder {
                     1
             );
 
+    public static final ConfigOption<Long> BLOCK_CACHE_SIZE =
+            new ConfigOption<>(
+                    "rocksdb.block_cache_size",
+                    "The total size(bytes) of block cache of the vertex, " +
+                    "edge and index tables, shared by the tables according " +
+                    "to their weights, 0 means disabling block cache.",
+                    rangeInt(0L, Long.MAX_VALUE),
+                    64L * Bytes.MB
+            );
+
+    public static final ConfigOption<Integer> BLOOM_FILTER_BITS_PER_KEY =
+            new ConfigOption<>(
+                    "rocksdb.bloom_filter_bits_per_key",
+                    "The bits per key of bloom filter, the vertex, edge and " +
+                    "secondary index tables use prefix bloom filters, the " +
+                    "others use whole key bloom filters, 0 means disabling " +
+                    "bloom filter.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    10
+            );
+
     public static final ConfigOption<Boolean> ALLOW_MMAP_WRITES =
             new ConfigOption<>(
                     "rocksdb.allow_mmap_writes",
@@ -19,6 +19,7 @@
 
 package com.baidu.hugegraph.backend.store.rocksdb;
 
+import java.util.List;
 import java.util.Set;
 
 import org.rocksdb.RocksDBException;
@@ -33,6 +34,8 @@ public abstract class RocksDBSessions extends BackendSessionPool {
     public abstract void createTable(String table) throws RocksDBException;
     public abstract void dropTable(String table) throws RocksDBException;
 
+    public abstract void createCheckpoint(String targetPath);
+
     public abstract Session session();
 
     /**
@@ -50,6 +53,14 @@ public abstract class RocksDBSessions extends BackendSessionPool {
 
         public abstract String property(String table, String property);
 
+        /**
+         * Pin a snapshot of the current data, the reads of the session
+         * see the same data until the snapshot is released. It can be
+         * pinned repeatedly and must be released as many times.
+         */
+        public abstract void pinSnapshot();
+        public abstract void releaseSnapshot();
+
         public abstract void put(String table, byte[] key, byte[] value);
         public abstract void merge(String table, byte[] key, byte[] value);
 
@@ -58,10 +69,14 @@ public abstract class RocksDBSessions extends BackendSessionPool {
         public abstract void delete(String table, byte[] key);
 
         public abstract byte[] get(String table, byte[] key);
+        public abstract BackendColumnIterator get(String table,
+                                                  List<byte[]> keys);
 
         public abstract BackendColumnIterator scan(String table);
         public abstract BackendColumnIterator scan(String table,
                                                    byte[] prefix);
+        public abstract BackendColumnIterator scan(String table,
+                                                   List<byte[]> prefixes);
         public abstract BackendColumnIterator scan(String table,
                                                    byte[] keyFrom,
                                                    byte[] keyTo,
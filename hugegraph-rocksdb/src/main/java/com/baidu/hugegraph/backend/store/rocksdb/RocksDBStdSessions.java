@@ -23,12 +23,17 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Checkpoint;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
@@ -37,6 +42,7 @@ import org.rocksdb.CompactionStyle;
 import org.rocksdb.CompressionType;
 import org.rocksdb.DBOptions;
 import org.rocksdb.DBOptionsInterface;
+import org.rocksdb.FlushOptions;
 import org.rocksdb.InfoLogLevel;
 import org.rocksdb.MutableColumnFamilyOptionsInterface;
 import org.rocksdb.Options;
@@ -44,8 +50,10 @@ import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.Snapshot;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
+import org.slf4j.Logger;
 
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
@@ -53,10 +61,13 @@ import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumnIterator;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.util.Bytes;
 import com.baidu.hugegraph.util.E;
+import com.baidu.hugegraph.util.Log;
 import com.baidu.hugegraph.util.StringEncoding;
 
 public class RocksDBStdSessions extends RocksDBSessions {
 
+    private static final Logger LOG = Log.logger(RocksDBStdSessions.class);
+
     private final HugeConfig conf;
     private final RocksDB rocksdb;
     private final Map<String, ColumnFamilyHandle> cfs;
@@ -68,7 +79,7 @@ public class RocksDBStdSessions extends RocksDBSessions {
 
         // Init options
         Options options = new Options();
-        initOptions(this.conf, options, options, options);
+        initOptions(this.conf, null, options, options, options);
         options.setWalDir(walPath);
 
         /*
@@ -91,13 +102,13 @@ public class RocksDBStdSessions extends RocksDBSessions {
         for (String cf : cfs) {
             ColumnFamilyDescriptor cfd = new ColumnFamilyDescriptor(encode(cf));
             ColumnFamilyOptions options = cfd.columnFamilyOptions();
-            initOptions(this.conf, null, options, options);
+            initOptions(this.conf, cf, null, options, options);
             cfds.add(cfd);
         }
 
         // Init DB options
         DBOptions options = new DBOptions();
-        initOptions(this.conf, options, null, null);
+        initOptions(this.conf, null, options, null, null);
         options.setWalDir(walPath);
 
         // Open RocksDB with CFs
@@ -130,7 +141,7 @@ public class RocksDBStdSessions extends RocksDBSessions {
         // Should we use options.setCreateMissingColumnFamilies() to create CF
         ColumnFamilyDescriptor cfd = new ColumnFamilyDescriptor(encode(table));
         ColumnFamilyOptions options = cfd.columnFamilyOptions();
-        initOptions(this.conf, null, options, options);
+        initOptions(this.conf, table, null, options, options);
         this.cfs.put(table, this.rocksdb.createColumnFamily(cfd));
 
         ingestExternalFile();
@@ -146,6 +157,18 @@ public class RocksDBStdSessions extends RocksDBSessions {
         this.cfs.remove(table);
     }
 
+    @Override
+    public void createCheckpoint(String targetPath) {
+        this.checkValid();
+        // The hard links of SST files are created if on the same disk
+        try (Checkpoint checkpoint = Checkpoint.create(this.rocksdb)) {
+            checkpoint.createCheckpoint(targetPath);
+        } catch (RocksDBException e) {
+            throw new BackendException("Failed to create checkpoint at '%s'",
+                                       e, targetPath);
+        }
+    }
+
     @Override
     public final synchronized Session session() {
         return (Session) super.getOrNewSession();
@@ -162,6 +185,11 @@ public class RocksDBStdSessions extends RocksDBSessions {
     protected synchronized void doClose() {
         this.checkValid();
 
+        if (disableWAL(this.conf)) {
+            // Persist the data in memtables which is not written to WAL
+            this.flush();
+        }
+
         for (ColumnFamilyHandle cf : this.cfs.values()) {
             cf.close();
         }
@@ -170,6 +198,22 @@ public class RocksDBStdSessions extends RocksDBSessions {
         this.rocksdb.close();
     }
 
+    private void flush() {
+        try (FlushOptions options = new FlushOptions()) {
+            options.setWaitForFlush(true);
+            for (ColumnFamilyHandle cf : this.cfs.values()) {
+                this.rocksdb.flush(options, cf);
+            }
+        } catch (RocksDBException e) {
+            throw new BackendException("Failed to flush memtables", e);
+        }
+    }
+
+    private static boolean disableWAL(HugeConfig conf) {
+        return conf.get(RocksDBOptions.BULKLOAD_MODE) ||
+               "no_wal".equals(conf.get(RocksDBOptions.WRITE_MODE));
+    }
+
     private void checkValid() {
         E.checkState(this.rocksdb.isOwningHandle(),
                      "It seems RocksDB has been closed");
@@ -221,7 +265,7 @@ public class RocksDBStdSessions extends RocksDBSessions {
         }
     }
 
-    public static void initOptions(HugeConfig conf,
+    public static void initOptions(HugeConfig conf, String table,
                                    DBOptionsInterface<?> db,
                                    ColumnFamilyOptionsInterface<?> cf,
                                    MutableColumnFamilyOptionsInterface<?> mcf) {
@@ -280,8 +324,17 @@ public class RocksDBStdSessions extends RocksDBSessions {
             cf.setMaxWriteBufferNumberToMaintain(
                     conf.get(RocksDBOptions.MAX_MEMTABLES_TO_MAINTAIN));
 
+            RocksDBTableProfile profile = RocksDBTableProfile.of(table);
+
             // https://github.com/facebook/rocksdb/tree/master/utilities/merge_operators
-            cf.setMergeOperatorName("uint64add"); // uint64add/stringappend
+            if (profile.edgeTable()) {
+                // Append the records of edges to adjacency blocks
+                cf.setMergeOperatorName("stringappend");
+            } else {
+                cf.setMergeOperatorName("uint64add");
+            }
+
+            initTableOptions(conf, profile, cf);
         }
 
         if (mcf != null) {
@@ -322,6 +375,36 @@ public class RocksDBStdSessions extends RocksDBSessions {
         }
     }
 
+    private static void initTableOptions(HugeConfig conf,
+                                         RocksDBTableProfile profile,
+                                         ColumnFamilyOptionsInterface<?> cf) {
+        BlockBasedTableConfig tableConfig = new BlockBasedTableConfig();
+
+        long cacheSize = conf.get(RocksDBOptions.BLOCK_CACHE_SIZE);
+        if (cacheSize == 0L) {
+            tableConfig.setNoBlockCache(true);
+        } else if (!profile.defaultBlockCache()) {
+            tableConfig.setBlockCacheSize(profile.blockCacheSize(cacheSize));
+        }
+
+        int bitsPerKey = conf.get(RocksDBOptions.BLOOM_FILTER_BITS_PER_KEY);
+        if (bitsPerKey > 0) {
+            // Use full filter instead of block based filter
+            tableConfig.setFilter(new BloomFilter(bitsPerKey, false));
+        }
+        if (profile.prefixFilter()) {
+            /*
+             * The keys are always scanned by prefix (or by range), so only
+             * put prefixes into the filter. Use capped prefix extractor
+             * because the keys may be shorter than the prefix length.
+             */
+            cf.useCappedPrefixExtractor(profile.prefixLength());
+            tableConfig.setWholeKeyFiltering(false);
+        }
+
+        cf.setTableFormatConfig(tableConfig);
+    }
+
     public static final byte[] encode(String string) {
         return StringEncoding.encode(string);
     }
@@ -362,20 +445,45 @@ public class RocksDBStdSessions extends RocksDBSessions {
         private WriteBatch batch;
         private WriteOptions writeOptions;
 
+        private ReadOptions prefixReadOptions;
+        private ReadOptions totalOrderReadOptions;
+
+        private Snapshot snapshot;
+        private int snapshotRefs;
+
         public StdSession(HugeConfig conf) {
             this.closed = false;
 
-            boolean bulkload = conf.get(RocksDBOptions.BULKLOAD_MODE);
+            String mode = conf.get(RocksDBOptions.WRITE_MODE);
             this.batch = new WriteBatch();
             this.writeOptions = new WriteOptions();
-            this.writeOptions.setDisableWAL(bulkload);
-            //this.writeOptions.setSync(false);
+            this.writeOptions.setDisableWAL(disableWAL(conf));
+            /*
+             * With sync the concurrent commits are grouped by the write
+             * thread of RocksDB, the WAL is fsynced once for each group
+             */
+            this.writeOptions.setSync("sync".equals(mode));
+
+            // The read options are copied by iterators, so can be reused
+            this.prefixReadOptions = new ReadOptions();
+            this.prefixReadOptions.setPrefixSameAsStart(true);
+            this.totalOrderReadOptions = new ReadOptions();
+            this.totalOrderReadOptions.setTotalOrderSeek(true);
+
+            this.snapshot = null;
+            this.snapshotRefs = 0;
         }
 
         @Override
         public void close() {
             assert this.closeable();
             this.closed = true;
+            if (this.snapshot != null) {
+                rocksdb().releaseSnapshot(this.snapshot);
+                this.snapshot = null;
+            }
+            this.prefixReadOptions.close();
+            this.totalOrderReadOptions.close();
         }
 
         @Override
@@ -399,6 +507,36 @@ public class RocksDBStdSessions extends RocksDBSessions {
             return this.batch.count() > 0;
         }
 
+        /**
+         * Pin a snapshot by the read options which are used by all reads
+         */
+        @Override
+        public void pinSnapshot() {
+            if (this.snapshotRefs++ > 0) {
+                return;
+            }
+            assert this.snapshot == null;
+            this.snapshot = rocksdb().getSnapshot();
+            this.prefixReadOptions.setSnapshot(this.snapshot);
+            this.totalOrderReadOptions.setSnapshot(this.snapshot);
+        }
+
+        /**
+         * Release the snapshot if it's not pinned by any other one
+         */
+        @Override
+        public void releaseSnapshot() {
+            E.checkState(this.snapshotRefs > 0, "No snapshot is pinned");
+            if (--this.snapshotRefs > 0) {
+                return;
+            }
+            // The iterators created with the snapshot are still valid
+            this.prefixReadOptions.setSnapshot(null);
+            this.totalOrderReadOptions.setSnapshot(null);
+            rocksdb().releaseSnapshot(this.snapshot);
+            this.snapshot = null;
+        }
+
         /**
          * Get property value by name from specified table
          */
@@ -487,19 +625,54 @@ public class RocksDBStdSessions extends RocksDBSessions {
             assert !this.hasChanges();
 
             try {
-                return rocksdb().get(cf(table), key);
+                // Read by the options carrying the pinned snapshot if any
+                return rocksdb().get(cf(table), this.totalOrderReadOptions,
+                                     key);
             } catch (RocksDBException e) {
                 throw new BackendException(e);
             }
         }
 
+        /**
+         * Get records by keys from a table in a batch, the records are
+         * returned in the order of keys and the missing keys are skipped
+         */
+        @Override
+        public BackendColumnIterator get(String table, List<byte[]> keys) {
+            assert !this.hasChanges();
+
+            List<ColumnFamilyHandle> cfs = Collections.nCopies(keys.size(),
+                                                               cf(table));
+            Map<byte[], byte[]> values;
+            try {
+                // NOTE: the values are mapped by the same key instances
+                values = rocksdb().multiGet(this.totalOrderReadOptions,
+                                            cfs, keys);
+            } catch (RocksDBException e) {
+                throw new BackendException(e);
+            }
+
+            List<BackendColumn> cols = new ArrayList<>(values.size());
+            for (byte[] key : keys) {
+                byte[] value = values.get(key);
+                if (value != null) {
+                    BackendColumn col = new BackendColumn();
+                    col.name = key;
+                    col.value = value;
+                    cols.add(col);
+                }
+            }
+            return new ListColumnIterator(cols);
+        }
+
         /**
          * Scan all records from a table
          */
         @Override
         public BackendColumnIterator scan(String table) {
             assert !this.hasChanges();
-            RocksIterator itor = rocksdb().newIterator(cf(table));
+            RocksIterator itor = rocksdb().newIterator(
+                                 cf(table), this.totalOrderReadOptions);
             return new ColumnIterator(table, itor, null, null, SCAN_ANY);
         }
 
@@ -509,13 +682,39 @@ public class RocksDBStdSessions extends RocksDBSessions {
         @Override
         public BackendColumnIterator scan(String table, byte[] prefix) {
             assert !this.hasChanges();
-            // NOTE: Options.prefix_extractor is a prerequisite
-            //ReadOptions.setPrefixSameAsStart(true);
-            RocksIterator itor = rocksdb().newIterator(cf(table));
+            /*
+             * Use prefix bloom filter and stop at the end of the prefix if
+             * the prefix extractor of the table can handle the prefix
+             */
+            RocksDBTableProfile profile = RocksDBTableProfile.of(table);
+            ReadOptions options = profile.prefixFilter(prefix) ?
+                                  this.prefixReadOptions :
+                                  this.totalOrderReadOptions;
+            RocksIterator itor = rocksdb().newIterator(cf(table), options);
             return new ColumnIterator(table, itor, prefix, null,
                                       SCAN_PREFIX_WITH_BEGIN);
         }
 
+        /**
+         * Scan records by multiple key prefixes from a table, all of the
+         * prefixes are scanned in order by seeking the same iterator
+         */
+        @Override
+        public BackendColumnIterator scan(String table,
+                                          List<byte[]> prefixes) {
+            assert !this.hasChanges();
+            RocksDBTableProfile profile = RocksDBTableProfile.of(table);
+            ReadOptions options = this.prefixReadOptions;
+            for (byte[] prefix : prefixes) {
+                if (!profile.prefixFilter(prefix)) {
+                    options = this.totalOrderReadOptions;
+                    break;
+                }
+            }
+            RocksIterator itor = rocksdb().newIterator(cf(table), options);
+            return new PrefixesIterator(itor, prefixes);
+        }
+
         /**
          * Scan records by key range from a table
          */
@@ -523,13 +722,110 @@ public class RocksDBStdSessions extends RocksDBSessions {
         public BackendColumnIterator scan(String table, byte[] keyFrom,
                                           byte[] keyTo, int scanType) {
             assert !this.hasChanges();
-            ReadOptions options = new ReadOptions();
-            options.setTotalOrderSeek(true); // Not sure if it must be set
-            RocksIterator itor = rocksdb().newIterator(cf(table), options);
+            // Scan by range must be in total order with prefix extractor
+            RocksIterator itor = rocksdb().newIterator(
+                                 cf(table), this.totalOrderReadOptions);
             return new ColumnIterator(table, itor, keyFrom, keyTo, scanType);
         }
     }
 
+    /**
+     * An iterator of the columns fetched in memory
+     */
+    private static class ListColumnIterator implements BackendColumnIterator {
+
+        private final Iterator<BackendColumn> cols;
+
+        public ListColumnIterator(List<BackendColumn> cols) {
+            this.cols = cols.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.cols.hasNext();
+        }
+
+        @Override
+        public BackendColumn next() {
+            return this.cols.next();
+        }
+
+        @Override
+        public byte[] position() {
+            // Paging is not supported
+            return null;
+        }
+
+        @Override
+        public void close() {
+            // pass
+        }
+    }
+
+    /**
+     * A wrapper for RocksIterator that scans multiple prefixes one by one,
+     * it seeks to the next prefix when the current one is finished
+     */
+    private static class PrefixesIterator implements BackendColumnIterator {
+
+        private final RocksIterator itor;
+        private final Iterator<byte[]> prefixes;
+
+        private byte[] prefix;
+
+        public PrefixesIterator(RocksIterator itor, List<byte[]> prefixes) {
+            E.checkNotNull(itor, "itor");
+            this.itor = itor;
+            this.prefixes = prefixes.iterator();
+            this.prefix = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!this.itor.isOwningHandle()) {
+                return false;
+            }
+            while (this.prefix == null || !this.itor.isValid() ||
+                   !Bytes.prefixWith(this.itor.key(), this.prefix)) {
+                if (!this.prefixes.hasNext()) {
+                    // Free the iterator if finished
+                    this.itor.close();
+                    return false;
+                }
+                this.prefix = this.prefixes.next();
+                this.itor.seek(this.prefix);
+            }
+            return true;
+        }
+
+        @Override
+        public BackendColumn next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            BackendColumn entry = new BackendColumn();
+            entry.name = this.itor.key();
+            entry.value = this.itor.value();
+
+            this.itor.next();
+            return entry;
+        }
+
+        @Override
+        public byte[] position() {
+            // Paging is not supported
+            return null;
+        }
+
+        @Override
+        public void close() {
+            if (this.itor.isOwningHandle()) {
+                this.itor.close();
+            }
+        }
+    }
+
     /**
      * A wrapper for RocksIterator that convert RocksDB results to std Iterator
      */
@@ -20,6 +20,7 @@
 package com.baidu.hugegraph.backend.store.rocksdb;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,6 +30,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
@@ -49,6 +56,7 @@ import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.util.E;
 import com.baidu.hugegraph.util.Log;
+import com.baidu.hugegraph.util.StringEncoding;
 import com.google.common.collect.ImmutableList;
 
 public abstract class RocksDBStore implements BackendStore {
@@ -57,6 +65,18 @@ public abstract class RocksDBStore implements BackendStore {
 
     private static final BackendFeatures FEATURES = new RocksDBFeatures();
 
+    /*
+     * The version of data layout, the stores written by other versions
+     * can't be opened. Version 1.1 changes the index keys of the binary
+     * serializer to [index-label-id][value-type][field-values].
+     */
+    private static final String VERSION = "1.1";
+    /*
+     * The version is kept in the secondary index table with the key 0xff,
+     * which is not an index key since it's shorter than an index label id
+     */
+    private static final byte[] VERSION_KEY = {(byte) 0xff};
+
     private final String name;
     private final String database;
 
@@ -149,6 +169,8 @@ public abstract class RocksDBStore implements BackendStore {
                 this.open(disk, disk, Arrays.asList(table));
             }
         }
+
+        this.checkVersion();
     }
 
     protected RocksDBSessions open(String data, String wal, List<String> tbs) {
@@ -281,9 +303,36 @@ public abstract class RocksDBStore implements BackendStore {
             this.createTable(db, table);
         }
 
+        // Write the version into the new store, or check the existing one
+        Session session = this.session(HugeType.SECONDARY_INDEX);
+        String table = this.table(HugeType.SECONDARY_INDEX).table();
+        if (session.get(table, VERSION_KEY) == null) {
+            session.put(table, VERSION_KEY, StringEncoding.encode(VERSION));
+            session.commit();
+        }
+        this.checkVersion();
+
         LOG.info("Store initialized: {}", this.name);
     }
 
+    private void checkVersion() {
+        if (!this.opened(HugeType.SECONDARY_INDEX)) {
+            // The store has not been initialized
+            return;
+        }
+        Session session = this.session(HugeType.SECONDARY_INDEX);
+        String table = this.table(HugeType.SECONDARY_INDEX).table();
+        byte[] bytes = session.get(table, VERSION_KEY);
+        String version = bytes == null ? "1.0" : StringEncoding.decode(bytes);
+        if (!VERSION.equals(version)) {
+            throw new BackendException(
+                      "The data version '%s' of store '%s' is incompatible " +
+                      "with the version '%s', please clear the data path " +
+                      "of it and init the store again", version, this.name,
+                      VERSION);
+        }
+    }
+
     private void createTable(RocksDBSessions db, String table) {
         try {
             db.createTable(table);
@@ -357,7 +406,21 @@ public abstract class RocksDBStore implements BackendStore {
         return table.metadata(this.session(type), meta, args);
     }
 
-    private Session session(HugeType tableType) {
+    @Override
+    public void createCheckpoint(String dir) {
+        this.checkOpened();
+        E.checkState(this.tableDiskMapping.isEmpty(),
+                     "Can't create checkpoint of store '%s' with data disks",
+                     this.name);
+        // Keep the same layout as data path, a directory for each store
+        String path = this.wrapPath(dir);
+        E.checkArgument(!Files.exists(Paths.get(path)),
+                        "The checkpoint directory '%s' already exists", path);
+        this.sessions.createCheckpoint(path);
+        LOG.info("Store {} checkpoint created: {}", this.name, path);
+    }
+
+    protected Session session(HugeType tableType) {
         this.checkOpened();
 
         // Optimized disk
@@ -369,6 +432,22 @@ public abstract class RocksDBStore implements BackendStore {
         return this.sessions.session();
     }
 
+    protected void closeSession(HugeType tableType) {
+        this.checkOpened();
+
+        String disk = this.tableDiskMapping.get(tableType);
+        RocksDBSessions db = disk != null ? db(disk) : this.sessions;
+        db.closeSession();
+    }
+
+    protected boolean opened(HugeType tableType) {
+        this.checkOpened();
+
+        String disk = this.tableDiskMapping.get(tableType);
+        RocksDBSessions db = disk != null ? db(disk) : this.sessions;
+        return db.openedTables().contains(this.table(tableType).table());
+    }
+
     private List<Session> session() {
         this.checkOpened();
 
@@ -461,6 +540,13 @@ public abstract class RocksDBStore implements BackendStore {
             return tableNames;
         }
 
+        @Override
+        public void clear() {
+            super.clear();
+            // The reserved id blocks are dropped with the counters table
+            this.counters.reset();
+        }
+
         @Override
         public Id nextId(HugeType type) {
             super.checkOpened();
@@ -471,10 +557,22 @@ public abstract class RocksDBStore implements BackendStore {
 
     public static class RocksDBGraphStore extends RocksDBStore {
 
+        private static final HugeType[] EDGE_TABLES = {HugeType.EDGE_OUT,
+                                                       HugeType.EDGE_IN};
+
+        private static final long COMPACT_WAIT_SECONDS = 10L;
+
+        // Whether a compaction of the edge blocks is scheduled or running
+        private final AtomicBoolean compacting;
+        private volatile ExecutorService compactor;
+
         public RocksDBGraphStore(BackendStoreProvider provider,
                                  String database, String name) {
             super(provider, database, name);
 
+            this.compacting = new AtomicBoolean(false);
+            this.compactor = null;
+
             registerTableManager(HugeType.VERTEX,
                                  new RocksDBTables.Vertex(database));
 
@@ -489,6 +587,135 @@ public abstract class RocksDBStore implements BackendStore {
                                  new RocksDBTables.RangeIndex(database));
         }
 
+        @Override
+        public synchronized void open(HugeConfig config) {
+            super.open(config);
+
+            boolean blocks = config.get(RocksDBOptions.EDGE_BLOCKS);
+            for (HugeType type : EDGE_TABLES) {
+                this.edgeTable(type).blocks(blocks);
+            }
+            this.checkEdgeBlocks();
+
+            if (this.compactor == null) {
+                String thread = "edge-blocks-compactor-" + this.database();
+                this.compactor = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, thread);
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (this.compactor != null) {
+                this.compactor.shutdown();
+                try {
+                    // Stop compacting the rest blocks if it takes too long
+                    if (!this.compactor.awaitTermination(COMPACT_WAIT_SECONDS,
+                                                         TimeUnit.SECONDS)) {
+                        this.compactor.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    this.compactor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+                this.compactor = null;
+            }
+            super.close();
+        }
+
+        @Override
+        public void init() {
+            super.init();
+            this.checkEdgeBlocks();
+        }
+
+        @Override
+        public void commitTx() {
+            // Only the blocks written by this commit are excluded
+            List<Lock> locks = new ArrayList<>();
+            try {
+                for (HugeType type : EDGE_TABLES) {
+                    locks.addAll(this.edgeTable(type).lockWrittenBlocks());
+                }
+                super.commitTx();
+            } finally {
+                for (Lock lock : locks) {
+                    lock.unlock();
+                }
+            }
+            this.compactEdgeBlocks();
+        }
+
+        @Override
+        public void rollbackTx() {
+            for (HugeType type : EDGE_TABLES) {
+                this.edgeTable(type).clearWrittenBlocks();
+            }
+            super.rollbackTx();
+        }
+
+        /**
+         * Compact the dirty edge blocks in background, at most one
+         * compaction is scheduled at the same time
+         */
+        private void compactEdgeBlocks() {
+            ExecutorService compactor = this.compactor;
+            if (compactor == null || !this.hasDirtyEdgeBlocks() ||
+                !this.compacting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                compactor.execute(() -> {
+                    try {
+                        for (HugeType type : EDGE_TABLES) {
+                            Session session = this.session(type);
+                            try {
+                                this.edgeTable(type).compactBlocks(session);
+                            } finally {
+                                // The session of compactor is thread local
+                                this.closeSession(type);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        LOG.warn("Failed to compact edge blocks of store {}",
+                                 this.name(), e);
+                    } finally {
+                        this.compacting.set(false);
+                    }
+                    // Compact the blocks dirtied while compacting
+                    this.compactEdgeBlocks();
+                });
+            } catch (RejectedExecutionException e) {
+                // The store is closing
+                this.compacting.set(false);
+            }
+        }
+
+        private boolean hasDirtyEdgeBlocks() {
+            for (HugeType type : EDGE_TABLES) {
+                if (this.edgeTable(type).hasDirtyBlocks()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void checkEdgeBlocks() {
+            for (HugeType type : EDGE_TABLES) {
+                // The tables are not created before initialized
+                if (this.opened(type)) {
+                    this.edgeTable(type).checkBlocks(this.session(type));
+                }
+            }
+        }
+
+        private RocksDBTables.Edge edgeTable(HugeType type) {
+            return (RocksDBTables.Edge) this.table(type);
+        }
+
         @Override
         public Id nextId(HugeType type) {
             throw new UnsupportedOperationException(
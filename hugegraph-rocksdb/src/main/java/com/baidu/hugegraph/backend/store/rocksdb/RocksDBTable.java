@@ -19,7 +19,10 @@
 
 package com.baidu.hugegraph.backend.store.rocksdb;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 
@@ -121,9 +124,23 @@ public class RocksDBTable extends BackendTable<Session, BackendEntry> {
         // Query by id
         if (query.conditions().isEmpty()) {
             assert !query.ids().isEmpty();
+            if (query.ids().size() == 1) {
+                Id id = query.ids().iterator().next();
+                return newEntryIterator(this.queryById(session, id), query);
+            } else if (!query.paging()) {
+                return newEntryIterator(this.queryByIds(session, query.ids()),
+                                        query);
+            }
             ExtendableIterator<BackendEntry> rs = new ExtendableIterator<>();
-            for (Id id : query.ids()) {
-                rs.extend(newEntryIterator(this.queryById(session, id), query));
+            // Read the entries of all ids from the same snapshot
+            session.pinSnapshot();
+            try {
+                for (Id id : query.ids()) {
+                    rs.extend(newEntryIterator(this.queryById(session, id),
+                                               query));
+                }
+            } finally {
+                session.releaseSnapshot();
             }
             return rs;
         }
@@ -147,6 +164,20 @@ public class RocksDBTable extends BackendTable<Session, BackendEntry> {
         return session.scan(this.table(), id.asBytes());
     }
 
+    protected BackendColumnIterator queryByIds(Session session,
+                                               Set<Id> ids) {
+        /*
+         * An entry may consist of multiple columns prefixed with its id,
+         * like the vertex with a column per property, so scan the ids as
+         * prefixes by the same iterator rather than an iterator per id
+         */
+        List<byte[]> prefixes = new ArrayList<>(ids.size());
+        for (Id id : ids) {
+            prefixes.add(id.asBytes());
+        }
+        return session.scan(this.table(), prefixes);
+    }
+
     protected BackendColumnIterator queryByCond(Session session,
                                                 ConditionQuery query) {
         if (query.containsScanCondition()) {
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store.rocksdb;
+
+/**
+ * The tuning profile of each kind of RocksDB table (column family).
+ *
+ * The prefix length is decided by the key layout of BinarySerializer:
+ *  vertex:          [vertex-id][sysprop or property-key-id]
+ *  edge:            [owner-vertex-id][direction][label-id]...
+ *  secondary index: [index-label-id][value-type][field-values][element-id]
+ * The ids are written with a length header, so the prefix is capped to
+ * the length of an encoded int id (1 + 4 bytes). The prefix of secondary
+ * index covers the index label id (4 bytes), the value type and the first
+ * 3 bytes of field values. A scan with a prefix shorter than that is done
+ * in total order without the prefix filter.
+ *
+ * The weight is the share of block cache of the table, the tables with
+ * weight 0 use the default block cache of RocksDB.
+ */
+public enum RocksDBTableProfile {
+
+    VERTEX(RocksDBTables.Vertex.TABLE, 5, 4),
+
+    EDGE_OUT("o" + RocksDBTables.Edge.TABLE_SUFFIX, 6, 4),
+
+    EDGE_IN("i" + RocksDBTables.Edge.TABLE_SUFFIX, 6, 2),
+
+    SECONDARY_INDEX(RocksDBTables.SecondaryIndex.TABLE, 8, 1),
+
+    // Range index is always scanned by range, no prefix filter is needed
+    RANGE_INDEX(RocksDBTables.RangeIndex.TABLE, 0, 1),
+
+    DEFAULT(null, 0, 0);
+
+    private final String table;
+    private final int prefixLength;
+    private final int weight;
+
+    private RocksDBTableProfile(String table, int prefixLength, int weight) {
+        this.table = table;
+        this.prefixLength = prefixLength;
+        this.weight = weight;
+    }
+
+    public int prefixLength() {
+        return this.prefixLength;
+    }
+
+    public boolean edgeTable() {
+        return this == EDGE_OUT || this == EDGE_IN;
+    }
+
+    public boolean prefixFilter() {
+        return this.prefixLength > 0;
+    }
+
+    /**
+     * Whether a scan with the prefix can use the prefix filter
+     */
+    public boolean prefixFilter(byte[] prefix) {
+        return this.prefixFilter() && prefix.length >= this.prefixLength;
+    }
+
+    public long blockCacheSize(long totalSize) {
+        assert this.weight > 0;
+        return totalSize * this.weight / totalWeight();
+    }
+
+    public boolean defaultBlockCache() {
+        return this.weight == 0;
+    }
+
+    /**
+     * Get the profile by the name of table like "graph+v"
+     */
+    public static RocksDBTableProfile of(String table) {
+        if (table == null) {
+            return DEFAULT;
+        }
+        String name = table.substring(table.lastIndexOf('+') + 1);
+        for (RocksDBTableProfile profile : values()) {
+            if (name.equals(profile.table)) {
+                return profile;
+            }
+        }
+        return DEFAULT;
+    }
+
+    private static int totalWeight() {
+        int total = 0;
+        for (RocksDBTableProfile profile : values()) {
+            total += profile.weight;
+        }
+        return total;
+    }
+}
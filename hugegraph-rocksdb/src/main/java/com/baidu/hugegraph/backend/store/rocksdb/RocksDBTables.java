@@ -21,19 +21,39 @@ package com.baidu.hugegraph.backend.store.rocksdb;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.id.IdGenerator;
 import com.baidu.hugegraph.backend.query.Condition;
 import com.baidu.hugegraph.backend.query.Condition.Relation;
 import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.serializer.BinaryEntryIterator.PageState;
+import com.baidu.hugegraph.backend.serializer.BinarySerializer;
+import com.baidu.hugegraph.backend.store.BackendEntry;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
 import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumnIterator;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions.Session;
-import com.baidu.hugegraph.structure.HugeIndex;
 import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.Shard;
 import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.util.Bytes;
 import com.baidu.hugegraph.util.E;
+import com.google.common.collect.Iterators;
 
 public class RocksDBTables {
 
@@ -41,38 +61,67 @@ public class RocksDBTables {
 
         private static final String TABLE = "c";
 
-        private static final int MAX_TIMES = 1000;
-        private static final byte[] ONE = b(1L);
+        // The number of ids reserved by each durable merge
+        private static final long BLOCK_SIZE = 1000L;
+        private static final byte[] BLOCK = b(BLOCK_SIZE);
+
+        private final Map<HugeType, IdBlock> blocks;
 
         public Counters(String database) {
             super(database, TABLE);
+            this.blocks = new ConcurrentHashMap<>();
         }
 
-        public synchronized Id nextId(Session session, HugeType type) {
-            byte[] key = new byte[]{type.code()};
-
-            // Do get-increase-get-compare operation
-            long counter = 0L;
-            long expect = -1L;
-            for (int i = 0; i < MAX_TIMES; i++) {
-                // Get the latest value
-                byte[] value = session.get(this.table(), key);
-                if (value != null) {
-                    counter = l(value);
-                }
-                if (counter == expect) {
-                    break;
+        /**
+         * Allocate id from the block reserved in memory, a new block is
+         * reserved by increasing the counter in RocksDB with BLOCK_SIZE
+         * once the current block runs out. The unused ids of the reserved
+         * block are skipped after restarting.
+         */
+        public Id nextId(Session session, HugeType type) {
+            IdBlock block = this.blocks.computeIfAbsent(type, t -> {
+                // Recover the high-water mark from RocksDB
+                return new IdBlock(this.counter(session, t));
+            });
+
+            long id = block.next.incrementAndGet();
+            if (id > block.limit) {
+                synchronized (block) {
+                    while (id > block.limit) {
+                        block.limit = this.reserve(session, type,
+                                                   block.limit);
+                    }
                 }
-                // Increase local counter
-                expect = counter + 1L;
-                // Increase 1, the default value of counter is 0 in RocksDB
-                session.merge(this.table(), key, ONE);
-                session.commit();
             }
+            return IdGenerator.of(id);
+        }
+
+        /**
+         * Forget the reserved blocks, the ids will be allocated from the
+         * counter in RocksDB, call it after the table is dropped or reopened
+         */
+        public void reset() {
+            this.blocks.clear();
+        }
+
+        private long reserve(Session session, HugeType type, long limit) {
+            byte[] key = new byte[]{type.code()};
+            // Increase BLOCK_SIZE, the default value of counter is 0
+            session.merge(this.table(), key, BLOCK);
+            session.commit();
 
+            long counter = this.counter(session, type);
             E.checkState(counter != 0L, "Please check whether RocksDB is OK");
-            E.checkState(counter == expect, "RocksDB is busy please try again");
-            return IdGenerator.of(counter);
+            E.checkState(counter == limit + BLOCK_SIZE,
+                         "The counter of %s is changed unexpectedly " +
+                         "from %s to %s", type, limit, counter);
+            return counter;
+        }
+
+        private long counter(Session session, HugeType type) {
+            byte[] key = new byte[]{type.code()};
+            byte[] value = session.get(this.table(), key);
+            return value == null ? 0L : l(value);
         }
 
         private static byte[] b(long value) {
@@ -87,6 +136,19 @@ public class RocksDBTables {
                              .order(ByteOrder.nativeOrder())
                              .getLong();
         }
+
+        private static class IdBlock {
+
+            // The last allocated id
+            private final AtomicLong next;
+            // The max id of the reserved block
+            private volatile long limit;
+
+            public IdBlock(long counter) {
+                this.next = new AtomicLong(counter);
+                this.limit = counter;
+            }
+        }
     }
 
     public static class VertexLabel extends RocksDBTable {
@@ -138,9 +200,267 @@ public class RocksDBTables {
 
         public static final String TABLE_SUFFIX = "e";
 
+        private static final int BLOCK_LOCKS = 64;
+
+        private volatile boolean blocks;
+        // The blocks which have deleted records since last compaction
+        private final Set<byte[]> dirtyBlocks;
+        // Exclude the commits of the blocks while compacting one of them
+        private final ReadWriteLock[] blockLocks;
+        // The locks of blocks written by the uncommitted changes of a thread
+        private final ThreadLocal<Set<Integer>> writtenBlocks;
+
         public Edge(boolean out, String database) {
             // Edge out/in table
             super(database, (out ? 'o' : 'i') + TABLE_SUFFIX);
+            this.blocks = false;
+            this.dirtyBlocks = new ConcurrentSkipListSet<>(Bytes::compare);
+            this.blockLocks = new ReadWriteLock[BLOCK_LOCKS];
+            for (int i = 0; i < BLOCK_LOCKS; i++) {
+                this.blockLocks[i] = new ReentrantReadWriteLock();
+            }
+            this.writtenBlocks = ThreadLocal.withInitial(TreeSet::new);
+        }
+
+        /**
+         * Set whether to write the edges without sort values into blocks,
+         * the blocks are always readable even if it's disabled
+         */
+        public void blocks(boolean blocks) {
+            this.blocks = blocks;
+        }
+
+        /**
+         * Flag the table if blocks are enabled, or check there are no
+         * blocks if disabled, since the edges in blocks would not be
+         * deleted or overridden by the normal layout
+         */
+        public void checkBlocks(Session session) {
+            byte[] flag = session.get(this.table(), RocksDBEdgeBlocks.FLAG_KEY);
+            if (this.blocks) {
+                if (flag == null) {
+                    session.put(this.table(), RocksDBEdgeBlocks.FLAG_KEY,
+                                RocksDBEdgeBlocks.FLAG_KEY);
+                    session.commit();
+                }
+            } else if (flag != null) {
+                throw new BackendException(
+                          "Can't disable %s since the table '%s' has " +
+                          "edge blocks", RocksDBOptions.EDGE_BLOCKS.name(),
+                          this.table());
+            }
+        }
+
+        public boolean hasDirtyBlocks() {
+            return !this.dirtyBlocks.isEmpty();
+        }
+
+        /**
+         * Rewrite the blocks with deleted records if most of their records
+         * are dead. Each block is rewritten with the lock of it, which must
+         * exclude the commits of the block, otherwise the records committed
+         * between reading and rewriting would be lost
+         */
+        public void compactBlocks(Session session) {
+            Iterator<byte[]> iter = this.dirtyBlocks.iterator();
+            while (iter.hasNext() && !Thread.currentThread().isInterrupted()) {
+                byte[] block = iter.next();
+                iter.remove();
+                Lock lock = this.blockLocks[lockIndex(block)].writeLock();
+                lock.lock();
+                try {
+                    byte[] value = session.get(this.table(), block);
+                    if (value == null) {
+                        continue;
+                    }
+                    byte[] compacted = RocksDBEdgeBlocks.compact(value);
+                    if (compacted == null) {
+                        continue;
+                    }
+                    if (compacted.length == 0) {
+                        session.remove(this.table(), block);
+                    } else {
+                        session.put(this.table(), block, compacted);
+                    }
+                    session.commit();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Lock the blocks written by current thread before committing, the
+         * locks are shared by commits and exclusive to the compaction
+         * @return the locks to unlock after committed
+         */
+        public List<Lock> lockWrittenBlocks() {
+            Set<Integer> indexes = this.writtenBlocks.get();
+            List<Lock> locks = new ArrayList<>(indexes.size());
+            // Lock in the order of indexes
+            for (int index : indexes) {
+                Lock lock = this.blockLocks[index].readLock();
+                lock.lock();
+                locks.add(lock);
+            }
+            indexes.clear();
+            return locks;
+        }
+
+        public void clearWrittenBlocks() {
+            this.writtenBlocks.get().clear();
+        }
+
+        private static int lockIndex(byte[] block) {
+            return (Arrays.hashCode(block) & Integer.MAX_VALUE) % BLOCK_LOCKS;
+        }
+
+        @Override
+        public void insert(Session session, BackendEntry entry) {
+            if (!this.blocks) {
+                super.insert(session, entry);
+                return;
+            }
+            assert !entry.columns().isEmpty();
+            for (BackendColumn col : entry.columns()) {
+                assert entry.belongToMe(col) : entry;
+                int labelEnd = RocksDBEdgeBlocks.packableLabelEnd(col.name);
+                if (labelEnd < 0) {
+                    session.put(this.table(), col.name, col.value);
+                    continue;
+                }
+                // Remove the edge written before enabling blocks if exists
+                session.remove(this.table(), col.name);
+                byte[] block = RocksDBEdgeBlocks.blockKey(col.name, labelEnd);
+                session.merge(this.table(), block,
+                              RocksDBEdgeBlocks.addRecord(col.name, labelEnd,
+                                                          col.value));
+                this.writtenBlocks.get().add(lockIndex(block));
+            }
+        }
+
+        @Override
+        public void delete(Session session, BackendEntry entry) {
+            if (!this.blocks || entry.columns().isEmpty()) {
+                super.delete(session, entry);
+                return;
+            }
+            for (BackendColumn col : entry.columns()) {
+                assert entry.belongToMe(col) : entry;
+                session.remove(this.table(), col.name);
+                int labelEnd = RocksDBEdgeBlocks.packableLabelEnd(col.name);
+                if (labelEnd >= 0) {
+                    byte[] block = RocksDBEdgeBlocks.blockKey(col.name,
+                                                              labelEnd);
+                    session.merge(this.table(), block,
+                                  RocksDBEdgeBlocks.delRecord(col.name,
+                                                              labelEnd));
+                    this.writtenBlocks.get().add(lockIndex(block));
+                    this.dirtyBlocks.add(block);
+                }
+            }
+        }
+
+        @Override
+        protected BackendColumnIterator queryAll(Session session,
+                                                 Query query) {
+            if (!query.paging()) {
+                BackendColumnIterator cols = super.queryAll(session, query);
+                return new RocksDBEdgeBlocks.ColumnIterator(cols, null, null);
+            }
+            /*
+             * Seek to the block if the page begins with an edge in block,
+             * the edges of the block before the position are skipped
+             */
+            byte[] begin = PageState.fromString(query.page()).position();
+            BackendColumnIterator cols = session.scan(
+                                         this.table(),
+                                         RocksDBEdgeBlocks.seekKey(begin),
+                                         null, Session.SCAN_ANY);
+            return new RocksDBEdgeBlocks.ColumnIterator(cols, null, begin);
+        }
+
+        @Override
+        protected BackendColumnIterator queryById(Session session, Id id) {
+            byte[] prefix = id.asBytes();
+            int labelEnd = RocksDBEdgeBlocks.labelEnd(prefix);
+            if (labelEnd < 0 || !RocksDBEdgeBlocks.emptySortValues(prefix,
+                                                                  labelEnd)) {
+                BackendColumnIterator cols = super.queryById(session, id);
+                return new RocksDBEdgeBlocks.ColumnIterator(cols, null, null);
+            }
+
+            /*
+             * The blocks of a label are not prefixed with the id if it
+             * contains empty sort values, scan the blocks of the label
+             * or the only one block of the edge if it's a whole edge key
+             */
+            byte[] blocks;
+            if (RocksDBEdgeBlocks.wholeEdgeKey(prefix, labelEnd)) {
+                blocks = RocksDBEdgeBlocks.blockKey(prefix, labelEnd);
+            } else {
+                blocks = RocksDBEdgeBlocks.blockPrefix(prefix, labelEnd);
+            }
+            BackendColumnIterator cols;
+            // Read the edges and blocks from the same snapshot
+            session.pinSnapshot();
+            try {
+                cols = RocksDBEdgeBlocks.concat(super.queryById(session, id),
+                                                session.scan(this.table(),
+                                                             blocks));
+            } finally {
+                session.releaseSnapshot();
+            }
+            return new RocksDBEdgeBlocks.ColumnIterator(cols, prefix, null);
+        }
+
+        @Override
+        protected BackendColumnIterator queryByIds(Session session,
+                                                   Set<Id> ids) {
+            /*
+             * An edge is stored in a column or a record of block, so get
+             * the edges and their blocks by whole edge keys in a batch.
+             * The ids may be prefixes like the edges of a vertex, which
+             * must be scanned one by one with the blocks of each prefix.
+             */
+            List<byte[]> keys = new ArrayList<>(ids.size());
+            Set<byte[]> edges = new TreeSet<>(Bytes::compare);
+            Set<byte[]> blocks = new TreeSet<>(Bytes::compare);
+            for (Id id : ids) {
+                byte[] key = id.asBytes();
+                int labelEnd = RocksDBEdgeBlocks.labelEnd(key);
+                if (labelEnd < 0 ||
+                    !RocksDBEdgeBlocks.wholeEdgeKey(key, labelEnd)) {
+                    return RocksDBEdgeBlocks.concat(Iterators.transform(
+                           ids.iterator(), i -> this.queryById(session, i)));
+                }
+                keys.add(key);
+                edges.add(key);
+                if (RocksDBEdgeBlocks.emptySortValues(key, labelEnd)) {
+                    byte[] block = RocksDBEdgeBlocks.blockKey(key, labelEnd);
+                    // Get each block once although shared by edges
+                    if (blocks.add(block)) {
+                        keys.add(block);
+                    }
+                }
+            }
+            BackendColumnIterator cols = session.get(this.table(), keys);
+            return new RocksDBEdgeBlocks.ColumnIterator(cols, edges);
+        }
+
+        @Override
+        protected BackendColumnIterator queryByRange(Session session,
+                                                     Id begin, Id end) {
+            BackendColumnIterator cols = super.queryByRange(session,
+                                                            begin, end);
+            return new RocksDBEdgeBlocks.ColumnIterator(cols, null, null);
+        }
+
+        @Override
+        protected BackendColumnIterator queryByRange(Session session,
+                                                     Shard shard) {
+            BackendColumnIterator cols = super.queryByRange(session, shard);
+            return new RocksDBEdgeBlocks.ColumnIterator(cols, null, null);
         }
 
         public static Edge out(String database) {
@@ -175,7 +495,8 @@ public class RocksDBTables {
             E.checkArgument(index != null, "Please specify the index label");
             E.checkArgument(key != null, "Please specify the index key");
 
-            Id id = HugeIndex.formatIndexId(query.resultType(), index, key);
+            Id id = BinarySerializer.formatIndexId(query.resultType(),
+                                                   index, key);
             return this.queryById(session, id);
         }
     }
@@ -232,27 +553,25 @@ public class RocksDBTables {
             HugeType type = query.resultType();
             BackendColumnIterator itor;
             if (keyEq != null) {
-                Id id = HugeIndex.formatIndexId(type, index, keyEq);
+                Id id = BinarySerializer.formatIndexId(type, index, keyEq);
                 itor = this.queryById(session, id);
             } else {
-                if (keyMin == null) {
-                    keyMin = 0L;
-                    keyMinEq = true;
-                }
-
-                Id min = HugeIndex.formatIndexId(type, index, keyMin);
+                // Scan from the first key of the index label if no min
+                Id min = BinarySerializer.formatIndexId(type, index, keyMin);
                 byte[] begin = min.asBytes();
-                if (!keyMinEq) {
+                if (keyMin != null && !keyMinEq) {
                     begin = RocksDBStdSessions.increase(begin);
                 }
 
                 if (keyMax == null) {
-                    Id indexId = HugeIndex.formatIndexId(type, index, null);
+                    Id indexId = BinarySerializer.formatIndexId(type, index,
+                                                                null);
                     byte[] end = indexId.asBytes();
                     itor = session.scan(table(), begin, end,
                                         Session.SCAN_PREFIX_WITH_END);
                 } else {
-                    Id max = HugeIndex.formatIndexId(type, index, keyMax);
+                    Id max = BinarySerializer.formatIndexId(type, index,
+                                                            keyMax);
                     byte[] end = max.asBytes();
                     int scanType = keyMaxEq ?
                                    Session.SCAN_LTE_END :
@@ -20,8 +20,6 @@
 package com.baidu.hugegraph.backend.store.rocksdbsst;
 
 import java.io.File;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -29,32 +27,48 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.tuple.Pair;
-import org.rocksdb.EnvOptions;
-import org.rocksdb.Options;
 import org.rocksdb.RocksDBException;
-import org.rocksdb.SstFileWriter;
 
 import com.baidu.hugegraph.backend.BackendException;
 import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumnIterator;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions;
-import com.baidu.hugegraph.backend.store.rocksdb.RocksDBStdSessions;
 import com.baidu.hugegraph.config.HugeConfig;
 import com.baidu.hugegraph.exception.NotSupportException;
 import com.baidu.hugegraph.util.E;
 
 public class RocksDBSstSessions extends RocksDBSessions {
 
+    private static final AtomicInteger ID = new AtomicInteger(0);
+
     private final HugeConfig conf;
     private final String dataPath;
-    private final Map<String, SstFileWriter> tables;
+    private final Map<String, RocksDBSstSorter> tables;
+
+    private final ExecutorService writers;
+    private final Semaphore spilling;
 
     public RocksDBSstSessions(HugeConfig config, String dataPath) {
         this.conf = config;
         this.dataPath = dataPath;
         this.tables = new ConcurrentHashMap<>();
 
+        int writers = config.get(RocksDBOptions.SST_WRITERS);
+        String prefix = "sst-writer-" + ID.incrementAndGet() + "-";
+        AtomicInteger threads = new AtomicInteger(0);
+        this.writers = Executors.newFixedThreadPool(writers, r -> {
+            Thread thread = new Thread(r, prefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.spilling = new Semaphore(writers);
+
         File path = new File(dataPath);
         if (!path.exists()) {
             E.checkState(path.mkdirs(), "Can't mkdir '%s'", path);
@@ -76,28 +90,36 @@ public class RocksDBSstSessions extends RocksDBSessions {
 
     @Override
     public void createTable(String table) throws RocksDBException {
-        EnvOptions env = new EnvOptions();
-        Options options = new Options();
-        RocksDBStdSessions.initOptions(this.conf, options, options, options);
-        // NOTE: unset merge op due to SIGSEGV when cf.setMergeOperatorName()
-        options.setMergeOperatorName("not-exist-merge-op");
-        SstFileWriter sst = new SstFileWriter(env, options);
-        Path path = Paths.get(this.dataPath, table);
-        sst.open(path.toString() + ".sst");
-        this.tables.put(table, sst);
+        /*
+         * The records are sorted and written into SST files under the
+         * directory "{data_path}/{table}", which can be ingested by the
+         * rocksdb backend with option `rocksdb.sst_path`
+         */
+        this.tables.put(table, new RocksDBSstSorter(this.conf, table,
+                                                    this.dataPath,
+                                                    this.writers,
+                                                    this.spilling));
     }
 
     @Override
     public void dropTable(String table) throws RocksDBException {
-        this.tables.remove(table);
+        RocksDBSstSorter sorter = this.tables.remove(table);
+        if (sorter != null) {
+            sorter.discard();
+        }
     }
 
-    private SstFileWriter table(String table) {
-        SstFileWriter sst = this.tables.get(table);
-        if (sst == null) {
+    private RocksDBSstSorter table(String table) {
+        RocksDBSstSorter sorter = this.tables.get(table);
+        if (sorter == null) {
             throw new BackendException("Table '%s' is not opened", table);
         }
-        return sst;
+        return sorter;
+    }
+
+    @Override
+    public void createCheckpoint(String targetPath) {
+        throw new NotSupportException("RocksDBSstStore createCheckpoint()");
     }
 
     @Override
@@ -112,21 +134,15 @@ public class RocksDBSstSessions extends RocksDBSessions {
 
     @Override
     protected synchronized void doClose() {
-        final String NO_ENTRIES = "Cannot create sst file with no entries";
-
-        for (SstFileWriter sst : this.tables.values()) {
-            E.checkState(sst.isOwningHandle(), "SstFileWriter closed");
-            try {
-                sst.finish();
-            } catch (RocksDBException e) {
-                if (e.getMessage().equals(NO_ENTRIES)) {
-                    continue;
-                }
-                throw new BackendException("Failed to close SstFileWriter", e);
+        try {
+            // Sort and write the SST files of the tables one by one
+            for (RocksDBSstSorter sorter : this.tables.values()) {
+                sorter.finish();
             }
-            sst.close();
+        } finally {
+            this.tables.clear();
+            this.writers.shutdown();
         }
-        this.tables.clear();
     }
 
     /**
@@ -179,22 +195,14 @@ public class RocksDBSstSessions extends RocksDBSessions {
                 return 0;
             }
 
-            try {
-                for (Entry<String, Changes> table : this.batch.entrySet()) {
-                    if (table.getValue().isEmpty() ||
-                        table.getKey().endsWith("i")) {
-                        // Skip empty value table or index table
-                        continue;
-                    }
-
-                    // TODO: limit individual SST file size
-                    SstFileWriter sst = table(table.getKey());
-                    for (Pair<byte[], byte[]> change : table.getValue()) {
-                        sst.put(change.getKey(), change.getValue());
-                    }
+            for (Entry<String, Changes> table : this.batch.entrySet()) {
+                if (table.getValue().isEmpty() ||
+                    table.getKey().endsWith("i")) {
+                    // Skip empty value table or index table
+                    continue;
                 }
-            } catch (RocksDBException e) {
-                throw new BackendException("Failed to commit", e);
+                // The records needn't be sorted, they're sorted when closing
+                table(table.getKey()).put(table.getValue());
             }
 
             // Clear batch if write() successfully (retained if failed)
@@ -211,6 +219,19 @@ public class RocksDBSstSessions extends RocksDBSessions {
             throw new NotSupportException("RocksDBSstStore property()");
         }
 
+        /**
+         * Pin a snapshot, there is nothing to read
+         */
+        @Override
+        public void pinSnapshot() {
+            // pass
+        }
+
+        @Override
+        public void releaseSnapshot() {
+            // pass
+        }
+
         /**
          * Add a KV record to a table
          */
@@ -266,6 +287,14 @@ public class RocksDBSstSessions extends RocksDBSessions {
             return null;
         }
 
+        /**
+         * Get records by keys from a table in a batch
+         */
+        @Override
+        public BackendColumnIterator get(String table, List<byte[]> keys) {
+            return BackendColumnIterator.EMPTY;
+        }
+
         /**
          * Scan all records from a table
          */
@@ -284,6 +313,16 @@ public class RocksDBSstSessions extends RocksDBSessions {
             return BackendColumnIterator.EMPTY;
         }
 
+        /**
+         * Scan records by multiple key prefixes from a table
+         */
+        @Override
+        public BackendColumnIterator scan(String table,
+                                          List<byte[]> prefixes) {
+            assert !this.hasChanges();
+            return BackendColumnIterator.EMPTY;
+        }
+
         /**
          * Scan records by key range from a table
          */
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.backend.store.rocksdbsst;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.rocksdb.EnvOptions;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.SstFileWriter;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBStdSessions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.util.Bytes;
+import com.baidu.hugegraph.util.Log;
+
+/**
+ * Sort the unordered records of a table by external merge sort, and write
+ * them into SST files which can be ingested into RocksDB:
+ *  1.the records are buffered in memory, the buffer is sorted and spilled
+ *    into a run file on local disk by a writer thread when it's full;
+ *  2.when finishing, the key space is partitioned by the keys sampled from
+ *    the runs, each partition is merged from all the runs and written into
+ *    an SST file by a writer thread, the SST files don't overlap each other
+ *    so that they can be ingested at once.
+ * NOTE: if a key is put more than once, the one spilled latest is kept.
+ */
+public class RocksDBSstSorter {
+
+    private static final Logger LOG = Log.logger(RocksDBSstSorter.class);
+
+    // Sample a key every SAMPLE_INTERVAL records of run as sparse index
+    private static final int SAMPLE_INTERVAL = 1024;
+    // The estimated memory of each record in buffer except key and value
+    private static final int RECORD_OVERHEAD = 48;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final HugeConfig conf;
+    private final String table;
+    private final Path sortPath;
+    private final Path sstPath;
+    private final long bufferSize;
+    private final int writers;
+
+    private final ExecutorService executor;
+    // Limit the buffers waiting to be spilled
+    private final Semaphore spilling;
+
+    private List<Pair<byte[], byte[]>> buffer;
+    private long bufferBytes;
+    private final List<Run> runs;
+    private final List<Future<?>> spills;
+
+    public RocksDBSstSorter(HugeConfig conf, String table, String dataPath,
+                            ExecutorService executor, Semaphore spilling) {
+        this.conf = conf;
+        this.table = table;
+        this.sortPath = Paths.get(dataPath, table + ".sorting");
+        this.sstPath = Paths.get(dataPath, table);
+        this.bufferSize = conf.get(RocksDBOptions.SST_SORT_BUFFER_SIZE);
+        this.writers = conf.get(RocksDBOptions.SST_WRITERS);
+
+        this.executor = executor;
+        this.spilling = spilling;
+
+        this.buffer = new ArrayList<>();
+        this.bufferBytes = 0L;
+        this.runs = new ArrayList<>();
+        this.spills = new ArrayList<>();
+    }
+
+    public String table() {
+        return this.table;
+    }
+
+    public synchronized void put(Collection<Pair<byte[], byte[]>> records) {
+        for (Pair<byte[], byte[]> record : records) {
+            this.buffer.add(record);
+            this.bufferBytes += record.getKey().length +
+                                record.getValue().length + RECORD_OVERHEAD;
+            if (this.bufferBytes >= this.bufferSize) {
+                this.spill();
+            }
+        }
+    }
+
+    /**
+     * Sort all the records and write them into SST files of the table
+     * @return the number of SST files
+     */
+    public synchronized int finish() {
+        this.spill();
+        waitFor(this.spills);
+        this.spills.clear();
+
+        if (this.runs.isEmpty()) {
+            this.deleteRuns();
+            return 0;
+        }
+
+        try {
+            Files.createDirectories(this.sstPath);
+        } catch (IOException e) {
+            throw new BackendException("Can't create directory '%s'",
+                                       e, this.sstPath);
+        }
+
+        int runs = this.runs.size();
+        List<byte[]> bounds = this.partitionBounds();
+        List<Future<?>> merges = new ArrayList<>(bounds.size() + 1);
+        List<Path> files = new ArrayList<>(bounds.size() + 1);
+        for (int i = 0; i <= bounds.size(); i++) {
+            byte[] lower = i == 0 ? null : bounds.get(i - 1);
+            byte[] upper = i == bounds.size() ? null : bounds.get(i);
+            Path file = this.sstPath.resolve(String.format("part-%05d.sst",
+                                                           i));
+            files.add(file);
+            merges.add(this.executor.submit(() -> {
+                long count = this.merge(file, lower, upper);
+                LOG.debug("Written {} records into SST file '{}'",
+                          count, file);
+                return count;
+            }));
+        }
+        try {
+            waitFor(merges);
+        } finally {
+            this.deleteRuns();
+        }
+
+        int written = 0;
+        for (Path file : files) {
+            if (Files.exists(file)) {
+                written++;
+            }
+        }
+        LOG.info("Written {} SST files of table '{}' from {} runs",
+                 written, this.table, runs);
+        return written;
+    }
+
+    /**
+     * Discard all the records that are not finished
+     */
+    public synchronized void discard() {
+        this.buffer = new ArrayList<>();
+        this.bufferBytes = 0L;
+        try {
+            waitFor(this.spills);
+        } finally {
+            this.spills.clear();
+            this.deleteRuns();
+        }
+    }
+
+    private void spill() {
+        if (this.buffer.isEmpty()) {
+            return;
+        }
+        List<Pair<byte[], byte[]>> records = this.buffer;
+        this.buffer = new ArrayList<>();
+        this.bufferBytes = 0L;
+
+        int id = this.runs.size();
+        Run run = new Run(id, this.sortPath.resolve("run-" + id));
+        this.runs.add(run);
+
+        try {
+            this.spilling.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackendException("Interrupted while spilling '%s'",
+                                       e, this.table);
+        }
+        try {
+            this.spills.add(this.executor.submit(() -> {
+                try {
+                    run.write(records);
+                } finally {
+                    this.spilling.release();
+                }
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            this.spilling.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Split the key space into partitions with the same number of samples
+     */
+    private List<byte[]> partitionBounds() {
+        List<byte[]> samples = new ArrayList<>();
+        for (Run run : this.runs) {
+            for (Pair<byte[], Long> sample : run.index) {
+                samples.add(sample.getKey());
+            }
+        }
+        samples.sort(Bytes::compare);
+
+        int partitions = Math.max(Math.min(this.writers, samples.size()), 1);
+        List<byte[]> bounds = new ArrayList<>(partitions - 1);
+        for (int i = 1; i < partitions; i++) {
+            byte[] bound = samples.get(i * samples.size() / partitions);
+            if (bounds.isEmpty() ||
+                Bytes.compare(bounds.get(bounds.size() - 1), bound) < 0) {
+                bounds.add(bound);
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Merge the records in range [lower, upper) from all runs into SST file
+     */
+    private long merge(Path file, byte[] lower, byte[] upper)
+                       throws IOException, RocksDBException {
+        // Order by key, and the latest run first if the keys are equal
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((r1, r2) -> {
+            int cmp = Bytes.compare(r1.key, r2.key);
+            return cmp != 0 ? cmp : Integer.compare(r2.run.id, r1.run.id);
+        });
+        try {
+            for (Run run : this.runs) {
+                RunReader reader = new RunReader(run, lower, upper);
+                if (reader.next()) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            if (queue.isEmpty()) {
+                return 0L;
+            }
+
+            long count = 0L;
+            try (EnvOptions env = new EnvOptions();
+                 Options options = this.sstOptions();
+                 SstFileWriter sst = new SstFileWriter(env, options)) {
+                sst.open(file.toString());
+                byte[] last = null;
+                while (!queue.isEmpty()) {
+                    RunReader reader = queue.poll();
+                    if (last == null || !Bytes.equals(last, reader.key)) {
+                        sst.put(reader.key, reader.value);
+                        last = reader.key;
+                        count++;
+                    }
+                    if (reader.next()) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+                sst.finish();
+            }
+            return count;
+        } finally {
+            for (RunReader reader : queue) {
+                reader.close();
+            }
+        }
+    }
+
+    private Options sstOptions() {
+        Options options = new Options();
+        RocksDBStdSessions.initOptions(this.conf, this.table, options,
+                                       options, options);
+        // NOTE: unset merge op due to SIGSEGV when cf.setMergeOperatorName()
+        options.setMergeOperatorName("not-exist-merge-op");
+        return options;
+    }
+
+    private void deleteRuns() {
+        for (Run run : this.runs) {
+            run.delete();
+        }
+        this.runs.clear();
+        try {
+            Files.deleteIfExists(this.sortPath);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete directory '{}'", this.sortPath, e);
+        }
+    }
+
+    private static void waitFor(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BackendException("Interrupted while writing SST", e);
+        } catch (ExecutionException e) {
+            throw new BackendException("Failed to write SST", e.getCause());
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * A sorted run spilled to local disk, each record is written as:
+     *  [key-length(int)][key][value-length(int)][value]
+     */
+    private static final class Run {
+
+        private final int id;
+        private final Path file;
+        // The sampled keys and their offsets in the file
+        private final List<Pair<byte[], Long>> index;
+
+        public Run(int id, Path file) {
+            this.id = id;
+            this.file = file;
+            this.index = new ArrayList<>();
+        }
+
+        public void write(List<Pair<byte[], byte[]>> records)
+                          throws IOException {
+            // NOTE: sort is stable, the latest one is the last of same keys
+            records.sort((r1, r2) -> Bytes.compare(r1.getKey(), r2.getKey()));
+
+            Files.createDirectories(this.file.getParent());
+            FileOutputStream fos = new FileOutputStream(this.file.toFile());
+            try (DataOutputStream out = new DataOutputStream(
+                                        new BufferedOutputStream(
+                                        fos, IO_BUFFER_SIZE))) {
+                long offset = 0L;
+                long count = 0L;
+                for (int i = 0; i < records.size(); i++) {
+                    byte[] key = records.get(i).getKey();
+                    if (i + 1 < records.size() &&
+                        Bytes.equals(key, records.get(i + 1).getKey())) {
+                        // Skip the overridden one
+                        continue;
+                    }
+                    byte[] value = records.get(i).getValue();
+                    if (count++ % SAMPLE_INTERVAL == 0) {
+                        this.index.add(Pair.of(key, offset));
+                    }
+                    out.writeInt(key.length);
+                    out.write(key);
+                    out.writeInt(value.length);
+                    out.write(value);
+                    offset += 8 + key.length + value.length;
+                }
+            }
+        }
+
+        /**
+         * The offset of the last sampled key not greater than the key
+         */
+        public long offset(byte[] key) {
+            if (key == null) {
+                return 0L;
+            }
+            int low = 0;
+            int high = this.index.size() - 1;
+            long offset = 0L;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                Pair<byte[], Long> sample = this.index.get(mid);
+                if (Bytes.compare(sample.getKey(), key) <= 0) {
+                    offset = sample.getValue();
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return offset;
+        }
+
+        public void delete() {
+            try {
+                Files.deleteIfExists(this.file);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete run file '{}'", this.file, e);
+            }
+        }
+    }
+
+    private static final class RunReader implements Closeable {
+
+        private final Run run;
+        private final byte[] lower;
+        private final byte[] upper;
+        private final DataInputStream in;
+        private final long length;
+        private long position;
+
+        private byte[] key;
+        private byte[] value;
+
+        public RunReader(Run run, byte[] lower, byte[] upper)
+                         throws IOException {
+            this.run = run;
+            this.lower = lower;
+            this.upper = upper;
+
+            FileInputStream fis = new FileInputStream(run.file.toFile());
+            this.length = fis.getChannel().size();
+            this.position = run.offset(lower);
+            fis.getChannel().position(this.position);
+            this.in = new DataInputStream(new BufferedInputStream(
+                                          fis, IO_BUFFER_SIZE));
+        }
+
+        public boolean next() throws IOException {
+            do {
+                if (this.position >= this.length) {
+                    return false;
+                }
+                this.key = new byte[this.in.readInt()];
+                this.in.readFully(this.key);
+                this.value = new byte[this.in.readInt()];
+                this.in.readFully(this.value);
+                this.position += 8 + this.key.length + this.value.length;
+            } while (this.lower != null &&
+                     Bytes.compare(this.key, this.lower) < 0);
+
+            if (this.upper != null &&
+                Bytes.compare(this.key, this.upper) >= 0) {
+                this.position = this.length;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.in.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close run file '{}'", this.run.file, e);
+            }
+        }
+    }
+}
@@ -24,7 +24,9 @@ import java.util.List;
 import org.rocksdb.RocksDBException;
 
 import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.store.BackendFeatures;
 import com.baidu.hugegraph.backend.store.BackendStoreProvider;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBFeatures;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBStore;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBTables;
@@ -33,11 +35,25 @@ import com.baidu.hugegraph.type.HugeType;
 
 public abstract class RocksDBSstStore extends RocksDBStore {
 
+    private static final BackendFeatures FEATURES = new RocksDBFeatures() {
+
+        @Override
+        public boolean supportsCheckpoint() {
+            // The sst files are written without a rocksdb instance
+            return false;
+        }
+    };
+
     public RocksDBSstStore(final BackendStoreProvider provider,
                            final String database, final String name) {
         super(provider, database, name);
     }
 
+    @Override
+    public BackendFeatures features() {
+        return FEATURES;
+    }
+
     @Override
     protected RocksDBSessions newSessions(HugeConfig config,
                                           String data, String wal,
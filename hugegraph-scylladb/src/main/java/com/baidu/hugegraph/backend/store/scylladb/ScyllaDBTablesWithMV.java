@@ -32,7 +32,6 @@ import com.baidu.hugegraph.backend.store.cassandra.CassandraTable;
 import com.baidu.hugegraph.backend.store.cassandra.CassandraTables;
 import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.type.define.HugeKeys;
-import com.datastax.driver.core.querybuilder.Select;
 
 public class ScyllaDBTablesWithMV {
 
@@ -84,13 +83,21 @@ public class ScyllaDBTablesWithMV {
          * Query data from label index table if just want to query by label
          */
         @Override
-        protected List<Select> query2Select(String table, Query query) {
+        protected List<Selection> query2Select(String table, Query query) {
             if (isQueryByLabel(query)) {
                 // Query from materialized view
                 return super.query2Select(MV_LABEL2VERTEX, query);
             }
             return super.query2Select(table, query);
         }
+
+        @Override
+        protected boolean scanInParallel(CassandraSessionPool.Session session,
+                                         Query query) {
+            // The query by label is read from materialized view
+            return !isQueryByLabel(query) &&
+                   super.scanInParallel(session, query);
+        }
     }
 
     public static class Edge extends CassandraTables.Edge {
@@ -139,7 +146,7 @@ public class ScyllaDBTablesWithMV {
          * Query data from label index table if just want to query by label
          */
         @Override
-        protected List<Select> query2Select(String table, Query query) {
+        protected List<Selection> query2Select(String table, Query query) {
             if (isQueryByLabel(query)) {
                 // Query from materialized view
                 return super.query2Select(MV_LABEL2EDGE, query);
@@ -147,6 +154,14 @@ public class ScyllaDBTablesWithMV {
             return super.query2Select(table, query);
         }
 
+        @Override
+        protected boolean scanInParallel(CassandraSessionPool.Session session,
+                                         Query query) {
+            // The query by label is read from materialized view
+            return !isQueryByLabel(query) &&
+                   super.scanInParallel(session, query);
+        }
+
         public static Edge out() {
             return new Edge(Directions.OUT);
         }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.api;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class MetricsApiTest extends BaseApiTest {
+
+    private static String path = "/metrics";
+
+    private static final String EVICTIONS = "com.baidu.hugegraph.backend." +
+                                            "cache.CachedGraphTransaction." +
+                                            "hugegraph.edges-evictions.";
+
+    @Test
+    public void testGetEdgesCacheEvictions() throws IOException {
+        Response r = client().get(path);
+        String content = assertResponseStatus(200, r);
+
+        Map<?, ?> metrics = new ObjectMapper().readValue(content, Map.class);
+        Map<?, ?> gauges = (Map<?, ?>) metrics.get("gauges");
+        for (String reason : new String[]{"vertex", "edge", "edge_label",
+                                          "index_label", "rollback"}) {
+            Object evictions = gauges.get(EVICTIONS + reason);
+            Assert.assertNotNull(reason, evictions);
+            Assert.assertTrue(((Number) evictions).longValue() >= 0L);
+        }
+    }
+}
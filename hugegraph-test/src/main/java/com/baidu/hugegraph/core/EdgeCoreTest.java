@@ -23,6 +23,7 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
@@ -40,6 +41,8 @@ import org.junit.Test;
 
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.cache.CachedGraphTransaction;
+import com.baidu.hugegraph.backend.id.Id;
 import com.baidu.hugegraph.backend.query.ConditionQuery;
 import com.baidu.hugegraph.backend.query.Query;
 import com.baidu.hugegraph.backend.serializer.BytesBuffer;
@@ -49,9 +52,15 @@ import com.baidu.hugegraph.schema.SchemaManager;
 import com.baidu.hugegraph.testutil.Assert;
 import com.baidu.hugegraph.testutil.FakeObjects.FakeEdge;
 import com.baidu.hugegraph.testutil.Utils;
+import com.baidu.hugegraph.traversal.optimize.HugeTraverser;
+import com.baidu.hugegraph.traversal.optimize.KShortestPathsTraverser;
+import com.baidu.hugegraph.traversal.optimize.TraversalExecutor;
 import com.baidu.hugegraph.traversal.optimize.TraversalUtil;
+import com.baidu.hugegraph.traversal.optimize.WeightedShortestPathTraverser;
+import com.baidu.hugegraph.traversal.optimize.WeightedShortestPathTraverser.WeightedPath;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.Shard;
+import com.baidu.hugegraph.type.define.Directions;
 import com.baidu.hugegraph.type.define.HugeKeys;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -1079,6 +1088,302 @@ public class EdgeCoreTest extends BaseCoreTest {
         Assert.assertEquals(2, vertices.size());
     }
 
+    @Test
+    public void testQueryEdgesOfVertices() {
+        HugeGraph graph = graph();
+        init18Edges();
+
+        Vertex james = vertex("author", "id", 1);
+        Vertex louise = vertex("person", "name", "Louise");
+        List<Id> vertices = ImmutableList.of((Id) james.id(),
+                                             (Id) louise.id());
+
+        List<Edge> edges = ImmutableList.copyOf(graph.adjacentEdges(
+                           vertices, Directions.OUT, Query.NO_LIMIT));
+        Assert.assertEquals(11, edges.size());
+
+        edges = ImmutableList.copyOf(graph.adjacentEdges(
+                vertices, Directions.BOTH, Query.NO_LIMIT));
+        Assert.assertEquals(13, edges.size());
+
+        Id look = graph.edgeLabel("look").id();
+        Id friend = graph.edgeLabel("friend").id();
+        edges = ImmutableList.copyOf(graph.adjacentEdges(
+                vertices, Directions.OUT, Query.NO_LIMIT, look));
+        Assert.assertEquals(4, edges.size());
+
+        edges = ImmutableList.copyOf(graph.adjacentEdges(
+                vertices, Directions.OUT, Query.NO_LIMIT, look, friend));
+        Assert.assertEquals(7, edges.size());
+
+        // At most 2 edges for each vertex
+        edges = ImmutableList.copyOf(graph.adjacentEdges(
+                vertices, Directions.OUT, 2L));
+        Assert.assertEquals(4, edges.size());
+    }
+
+    @Test
+    public void testQueryEdgesOfAdjacentVerticesWithBothDirections() {
+        HugeGraph graph = graph();
+        init18Edges();
+
+        Vertex louise = vertex("person", "name", "Louise");
+        Vertex jeff = vertex("person", "name", "Jeff");
+        List<Id> vertices = ImmutableList.of((Id) louise.id(),
+                                             (Id) jeff.id());
+
+        // The edge louise->jeff is returned for both louise and jeff
+        List<Edge> edges = ImmutableList.copyOf(graph.adjacentEdges(
+                           vertices, Directions.BOTH, Query.NO_LIMIT));
+        Assert.assertEquals(11, edges.size());
+
+        Id friend = graph.edgeLabel("friend").id();
+        edges = ImmutableList.copyOf(graph.adjacentEdges(
+                vertices, Directions.BOTH, Query.NO_LIMIT, friend));
+        Assert.assertEquals(5, edges.size());
+        long count = edges.stream().filter(e -> {
+            return e.outVertex().equals(louise) && e.inVertex().equals(jeff);
+        }).count();
+        Assert.assertEquals(2L, count);
+
+        // At most 2 edges for each vertex
+        edges = ImmutableList.copyOf(graph.adjacentEdges(
+                vertices, Directions.BOTH, 2L));
+        Assert.assertEquals(4, edges.size());
+    }
+
+    @Test
+    public void testTraverseLayersInParallel() {
+        HugeGraph graph = graph();
+
+        Vertex root = graph.addVertex(T.label, "person", "name", "root",
+                                      "city", "Beijing", "age", 20);
+        Vertex tail = graph.addVertex(T.label, "person", "name", "tail",
+                                      "city", "Beijing", "age", 20);
+        Vertex[] seconds = new Vertex[300];
+        for (int i = 0; i < seconds.length; i++) {
+            seconds[i] = graph.addVertex(T.label, "person", "name", "q" + i,
+                                         "city", "Beijing", "age", 20);
+        }
+        seconds[0].addEdge("friend", tail);
+        for (int i = 0; i < 1000; i++) {
+            Vertex first = graph.addVertex(T.label, "person", "name", "p" + i,
+                                           "city", "Beijing", "age", 20);
+            root.addEdge("friend", first);
+            first.addEdge("friend", seconds[i % seconds.length]);
+        }
+        graph.tx().commit();
+
+        Id source = (Id) root.id();
+        Id target = (Id) tail.id();
+        HugeTraverser serial = new HugeTraverser(graph);
+        TraversalExecutor executor = new TraversalExecutor(4);
+        try {
+            HugeTraverser parallel = new HugeTraverser(graph, executor);
+
+            Set<Id> ids = parallel.kout(source, Directions.OUT, "friend", 2,
+                                        true, HugeTraverser.NO_LIMIT,
+                                        HugeTraverser.NO_LIMIT,
+                                        HugeTraverser.NO_LIMIT);
+            Assert.assertEquals(300, ids.size());
+            Assert.assertEquals(serial.kout(source, Directions.OUT, "friend",
+                                            2, true, HugeTraverser.NO_LIMIT,
+                                            HugeTraverser.NO_LIMIT,
+                                            HugeTraverser.NO_LIMIT),
+                                ids);
+
+            ids = parallel.kout(source, Directions.OUT, "friend", 2, true,
+                                HugeTraverser.NO_LIMIT, 2000L, 100L);
+            Assert.assertEquals(100, ids.size());
+
+            ids = parallel.kneighbor(source, Directions.OUT, "friend", 3,
+                                     HugeTraverser.NO_LIMIT,
+                                     HugeTraverser.NO_LIMIT);
+            Assert.assertEquals(1302, ids.size());
+
+            ids = parallel.kneighbor(source, Directions.OUT, "friend", 3,
+                                     HugeTraverser.NO_LIMIT, 1200L);
+            Assert.assertEquals(1200, ids.size());
+
+            List<Id> path = parallel.shortestPath(source, target,
+                                                  Directions.OUT, "friend", 5,
+                                                  HugeTraverser.NO_LIMIT,
+                                                  HugeTraverser.NO_LIMIT);
+            Assert.assertEquals(4, path.size());
+            Assert.assertEquals(source, path.get(0));
+            Assert.assertEquals(seconds[0].id(), path.get(2));
+            Assert.assertEquals(target, path.get(3));
+            Assert.assertEquals(path.size(),
+                                serial.shortestPath(source, target,
+                                                    Directions.OUT, "friend",
+                                                    5, HugeTraverser.NO_LIMIT,
+                                                    HugeTraverser.NO_LIMIT)
+                                      .size());
+
+            Set<HugeTraverser.Path> paths = serial.paths(
+                                            source, Directions.OUT,
+                                            target, Directions.IN,
+                                            "friend", 4,
+                                            HugeTraverser.NO_LIMIT,
+                                            HugeTraverser.NO_LIMIT,
+                                            HugeTraverser.NO_LIMIT);
+            Assert.assertEquals(4, paths.size());
+            for (HugeTraverser.Path p : paths) {
+                Assert.assertEquals(4, p.vertices().size());
+                Assert.assertEquals(seconds[0].id(), p.vertices().get(2));
+            }
+        } finally {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void testTraverseWeightedPaths() {
+        HugeGraph graph = graph();
+
+        Vertex a = graph.addVertex(T.label, "person", "name", "A",
+                                   "city", "Beijing", "age", 20);
+        Vertex b = graph.addVertex(T.label, "person", "name", "B",
+                                   "city", "Beijing", "age", 20);
+        Vertex c = graph.addVertex(T.label, "person", "name", "C",
+                                   "city", "Beijing", "age", 20);
+        Vertex d = graph.addVertex(T.label, "person", "name", "D",
+                                   "city", "Beijing", "age", 20);
+        long current = System.currentTimeMillis();
+        a.addEdge("transfer", b, "id", 1, "amount", 1.0F,
+                  "timestamp", current);
+        b.addEdge("transfer", d, "id", 2, "amount", 1.0F,
+                  "timestamp", current);
+        a.addEdge("transfer", c, "id", 3, "amount", 1.5F,
+                  "timestamp", current);
+        c.addEdge("transfer", d, "id", 4, "amount", 1.0F,
+                  "timestamp", current);
+        a.addEdge("transfer", d, "id", 5, "amount", 5.0F,
+                  "timestamp", current);
+        b.addEdge("transfer", c, "id", 6, "amount", 0.25F,
+                  "timestamp", current);
+        graph.tx().commit();
+
+        Id source = (Id) a.id();
+        Id target = (Id) d.id();
+        WeightedShortestPathTraverser traverser;
+        traverser = new WeightedShortestPathTraverser(graph);
+
+        WeightedPath path = traverser.weightedShortestPath(
+                            source, target, Directions.OUT, "transfer",
+                            "amount", 1.0D, HugeTraverser.NO_LIMIT,
+                            HugeTraverser.NO_LIMIT);
+        Assert.assertEquals(ImmutableList.of(a.id(), b.id(), d.id()),
+                            path.vertices());
+        Assert.assertEquals(2.0D, path.weight(), 0.0D);
+
+        // Each edge is weighted as default weight without weight property
+        path = traverser.weightedShortestPath(source, target, Directions.OUT,
+                                              "transfer", null, 1.0D,
+                                              HugeTraverser.NO_LIMIT,
+                                              HugeTraverser.NO_LIMIT);
+        Assert.assertEquals(ImmutableList.of(a.id(), d.id()),
+                            path.vertices());
+        Assert.assertEquals(1.0D, path.weight(), 0.0D);
+
+        path = traverser.weightedShortestPath(target, source, Directions.OUT,
+                                              "transfer", "amount", 1.0D,
+                                              HugeTraverser.NO_LIMIT,
+                                              HugeTraverser.NO_LIMIT);
+        Assert.assertNull(path);
+
+        KShortestPathsTraverser kTraverser = new KShortestPathsTraverser(graph);
+        List<WeightedPath> paths = ImmutableList.copyOf(
+                                   kTraverser.kShortestPaths(
+                                   source, target, Directions.OUT, "transfer",
+                                   "amount", 1.0D, 3, HugeTraverser.NO_LIMIT,
+                                   HugeTraverser.NO_LIMIT));
+        Assert.assertEquals(3, paths.size());
+        Assert.assertEquals(ImmutableList.of(a.id(), b.id(), d.id()),
+                            paths.get(0).vertices());
+        Assert.assertEquals(ImmutableList.of(a.id(), b.id(), c.id(), d.id()),
+                            paths.get(1).vertices());
+        Assert.assertEquals(2.25D, paths.get(1).weight(), 0.0D);
+        Assert.assertEquals(ImmutableList.of(a.id(), c.id(), d.id()),
+                            paths.get(2).vertices());
+        Assert.assertEquals(2.5D, paths.get(2).weight(), 0.0D);
+
+        paths = ImmutableList.copyOf(kTraverser.kShortestPaths(
+                                     source, target, Directions.OUT,
+                                     "transfer", "amount", 1.0D, 10,
+                                     HugeTraverser.NO_LIMIT,
+                                     HugeTraverser.NO_LIMIT));
+        Assert.assertEquals(4, paths.size());
+        Assert.assertEquals(ImmutableList.of(a.id(), d.id()),
+                            paths.get(3).vertices());
+        Assert.assertEquals(5.0D, paths.get(3).weight(), 0.0D);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            traverser.weightedShortestPath(source, target, Directions.OUT,
+                                           "transfer", "name", 1.0D,
+                                           HugeTraverser.NO_LIMIT,
+                                           HugeTraverser.NO_LIMIT);
+        });
+    }
+
+    @Test
+    public void testUpdateEdgeCacheOfRelatedQueries() {
+        HugeGraph graph = graph();
+
+        Vertex a = graph.addVertex(T.label, "person", "name", "A",
+                                   "city", "Beijing", "age", 20);
+        Vertex b = graph.addVertex(T.label, "person", "name", "B",
+                                   "city", "Beijing", "age", 20);
+        Vertex c = graph.addVertex(T.label, "person", "name", "C",
+                                   "city", "Beijing", "age", 20);
+        Vertex d = graph.addVertex(T.label, "person", "name", "D",
+                                   "city", "Beijing", "age", 20);
+        long current = System.currentTimeMillis();
+        a.addEdge("transfer", b, "id", 1, "amount", 1.0F,
+                  "timestamp", current);
+        c.addEdge("transfer", d, "id", 2, "amount", 1.0F,
+                  "timestamp", current);
+        graph.tx().commit();
+
+        CachedGraphTransaction tx;
+        tx = (CachedGraphTransaction) graph.graphTransaction();
+        Map<String, Long> evictions = tx.edgesCacheEvictions();
+
+        // Cache edges of each vertex
+        Assert.assertEquals(1, graph.traversal().V(a).outE().toList().size());
+        Assert.assertEquals(1, graph.traversal().V(c).outE().toList().size());
+        Assert.assertEquals(1, graph.traversal().V(d).inE().toList().size());
+
+        // Only the cached edges of vertex a are affected
+        a.addEdge("transfer", b, "id", 3, "amount", 2.0F,
+                  "timestamp", current);
+        graph.tx().commit();
+        Assert.assertEquals(1L, evicted(tx, evictions, "edge"));
+        Assert.assertEquals(2, graph.traversal().V(a).outE().toList().size());
+        Assert.assertEquals(1, graph.traversal().V(c).outE().toList().size());
+        Assert.assertEquals(1L, evicted(tx, evictions, "edge"));
+
+        /*
+         * Evict the cached edges of vertex c and its adjacent vertex d,
+         * and the edges of c queried when committing the deletion
+         */
+        c.remove();
+        graph.tx().commit();
+        Assert.assertEquals(3L, evicted(tx, evictions, "vertex"));
+        Assert.assertEquals(0, graph.traversal().V(d).inE().toList().size());
+        Assert.assertEquals(2, graph.traversal().V(a).outE().toList().size());
+        Assert.assertEquals(1L, evicted(tx, evictions, "edge"));
+
+        // The evictions are shared by the transactions of the graph
+        Assert.assertEquals(tx.edgesCacheEvictions(),
+                            CachedGraphTransaction.edgesCacheEvictions(graph));
+    }
+
+    private static long evicted(CachedGraphTransaction tx,
+                                Map<String, Long> before, String reason) {
+        return tx.edgesCacheEvictions().get(reason) - before.get(reason);
+    }
+
     @Test
     public void testQueryByLongPropOfOverrideEdge() {
         HugeGraph graph = graph();
@@ -695,6 +695,67 @@ public class EdgeLabelCoreTest extends SchemaCoreTest {
         });
     }
 
+    @Test
+    public void testRemoveEdgeLabelWithEdgesInBatches() {
+        super.initPropertyKeys();
+        SchemaManager schema = graph().schema();
+
+        schema.vertexLabel("person")
+              .properties("name", "age", "city")
+              .primaryKeys("name")
+              .nullableKeys("age", "city")
+              .create();
+        schema.vertexLabel("book")
+              .properties("name")
+              .primaryKeys("name")
+              .create();
+        schema.edgeLabel("write").link("person", "book")
+              .properties("time")
+              .nullableKeys("time")
+              .create();
+        schema.edgeLabel("read").link("person", "book")
+              .properties("time")
+              .nullableKeys("time")
+              .create();
+        schema.indexLabel("writeByTime").onE("write").by("time").secondary()
+              .create();
+
+        Vertex marko = graph().addVertex(T.label, "person", "name", "marko");
+        Vertex james = graph().addVertex(T.label, "person", "name", "james");
+        // More edges than the batch size of removing
+        for (int i = 0; i < 1500; i++) {
+            Vertex book = graph().addVertex(T.label, "book", "name", "b" + i);
+            marko.addEdge("write", book, "time", "2016-12-12");
+            if (i < 100) {
+                james.addEdge("read", book, "time", "2016-12-12");
+            }
+            if (i % 500 == 0) {
+                graph().tx().commit();
+            }
+        }
+        graph().tx().commit();
+
+        Assert.assertEquals(1500L, graph().traversal().E().hasLabel("write")
+                                          .count().next().longValue());
+
+        schema.edgeLabel("write").remove();
+
+        Assert.assertThrows(NotFoundException.class, () -> {
+            schema.getEdgeLabel("write");
+        });
+        Assert.assertThrows(NotFoundException.class, () -> {
+            schema.getIndexLabel("writeByTime");
+        });
+
+        // The edges of other labels and the vertices are kept
+        Assert.assertEquals(100L, graph().traversal().E().count().next()
+                                         .longValue());
+        Assert.assertEquals(0L, graph().traversal().V(marko.id()).outE()
+                                       .count().next().longValue());
+        Assert.assertEquals(1502L, graph().traversal().V().count().next()
+                                          .longValue());
+    }
+
     @Test
     public void testRemoveEdgeLabelWithEdgeAndRangeIndex() {
         super.initPropertyKeys();
@@ -30,6 +30,7 @@ import org.junit.Test;
 
 import com.baidu.hugegraph.HugeGraph;
 import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.tx.SchemaTransaction;
 import com.baidu.hugegraph.exception.NotFoundException;
 import com.baidu.hugegraph.schema.EdgeLabel;
 import com.baidu.hugegraph.schema.IndexLabel;
@@ -38,6 +39,7 @@ import com.baidu.hugegraph.schema.VertexLabel;
 import com.baidu.hugegraph.testutil.Assert;
 import com.baidu.hugegraph.type.HugeType;
 import com.baidu.hugegraph.type.define.IndexType;
+import com.google.common.collect.ImmutableSet;
 
 public class IndexLabelCoreTest extends SchemaCoreTest {
 
@@ -130,6 +132,46 @@ public class IndexLabelCoreTest extends SchemaCoreTest {
         Assert.assertEquals(IndexType.SECONDARY, authoredByContri.indexType());
     }
 
+    @Test
+    public void testAddIndexLabelWithBuckets() {
+        super.initPropertyKeys();
+        SchemaManager schema = graph().schema();
+        schema.vertexLabel("person").properties("name", "age", "city")
+              .primaryKeys("name").create();
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            schema.indexLabel("personByCity").onV("person").secondary()
+                  .by("city").buckets(0);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            schema.indexLabel("personByAge").onV("person").range()
+                  .by("age").buckets(4).create();
+        });
+
+        if (!storeFeatures().supportsIndexBuckets()) {
+            Assert.assertThrows(IllegalArgumentException.class, () -> {
+                schema.indexLabel("personByCity").onV("person").secondary()
+                      .by("city").buckets(4).create();
+            });
+            return;
+        }
+
+        schema.indexLabel("personByCity").onV("person").secondary()
+              .by("city").buckets(4).create();
+        IndexLabel personByCity = schema.getIndexLabel("personByCity");
+        Assert.assertEquals(4, personByCity.buckets());
+
+        for (int i = 0; i < 20; i++) {
+            graph().addVertex(T.label, "person", "name", "p" + i,
+                              "city", "Beijing", "age", i);
+        }
+        graph().tx().commit();
+
+        List<Vertex> vertices = graph().traversal().V().hasLabel("person")
+                                       .has("city", "Beijing").toList();
+        Assert.assertEquals(20, vertices.size());
+    }
+
     @Test
     public void testAddIndexLabelOfVertexWithVertexExist() {
         Assume.assumeTrue("Not support range condition query",
@@ -626,6 +668,83 @@ public class IndexLabelCoreTest extends SchemaCoreTest {
         Assert.assertNotNull(vertex);
     }
 
+    @Test
+    public void testRebuildIndexLabelOfVertexInBatches() {
+        super.initPropertyKeys();
+        SchemaManager schema = graph().schema();
+        schema.vertexLabel("person").properties("name", "age", "city")
+              .primaryKeys("name").create();
+        schema.vertexLabel("author").properties("id", "name", "city")
+              .primaryKeys("id").create();
+
+        // More vertices than the default rebuild batch size
+        for (int i = 0; i < 2500; i++) {
+            graph().addVertex(T.label, "person", "name", "p" + i,
+                              "city", "city" + (i % 5), "age", i % 100);
+        }
+        // Vertices of other label are not indexed
+        for (int i = 0; i < 100; i++) {
+            graph().addVertex(T.label, "author", "id", i,
+                              "name", "a" + i, "city", "city0");
+        }
+        graph().tx().commit();
+
+        // Build index for the existing vertices
+        schema.indexLabel("personByCity").onV("person").secondary()
+              .by("city").create();
+        for (int i = 0; i < 5; i++) {
+            List<Vertex> vertices = graph().traversal().V()
+                                           .hasLabel("person")
+                                           .has("city", "city" + i)
+                                           .toList();
+            Assert.assertEquals(500, vertices.size());
+        }
+
+        schema.indexLabel("personByCity").rebuild();
+        List<Vertex> vertices = graph().traversal().V().hasLabel("person")
+                                       .has("city", "city0").toList();
+        Assert.assertEquals(500, vertices.size());
+    }
+
+    @Test
+    public void testRebuildIndexLabelWithShadow() {
+        super.initPropertyKeys();
+        SchemaManager schema = graph().schema();
+        schema.vertexLabel("person").properties("name", "age", "city")
+              .primaryKeys("name").create();
+        IndexLabel personByCity = schema.indexLabel("personByCity")
+                                        .onV("person").secondary()
+                                        .by("city").create();
+        graph().addVertex(T.label, "person", "name", "Baby",
+                          "city", "Hongkong", "age", 3);
+        graph().tx().commit();
+
+        // The old index is used while the shadow is being built
+        SchemaTransaction schemaTx = graph().schemaTransaction();
+        IndexLabel shadow = schemaTx.addShadowIndexLabel(personByCity);
+        Assert.assertTrue(shadow.hidden());
+        Assert.assertEquals(0, schema.getIndexLabels().stream()
+                                     .filter(il -> il.hidden()).count());
+        List<Vertex> vertices = graph().traversal().V().hasLabel("person")
+                                       .has("city", "Hongkong").toList();
+        Assert.assertEquals(1, vertices.size());
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            schemaTx.addShadowIndexLabel(personByCity);
+        });
+        schemaTx.removeIndexLabel(shadow.id());
+
+        // The rebuilt index label is switched to a new id
+        schema.indexLabel("personByCity").rebuild();
+        IndexLabel rebuilt = schema.getIndexLabel("personByCity");
+        Assert.assertNotEquals(personByCity.id(), rebuilt.id());
+        VertexLabel person = schema.getVertexLabel("person");
+        Assert.assertEquals(ImmutableSet.of(rebuilt.id()),
+                            person.indexLabels());
+        vertices = graph().traversal().V().hasLabel("person")
+                          .has("city", "Hongkong").toList();
+        Assert.assertEquals(1, vertices.size());
+    }
+
     @Test
     public void testRebuildIndexLabelOfEdgeLabel() {
         super.initPropertyKeys();
@@ -978,6 +978,36 @@ public class VertexCoreTest extends BaseCoreTest {
                        "city", "Beijing", "age", 20);
     }
 
+    @Test
+    public void testQueryByStringPropWithinValues() {
+        HugeGraph graph = graph();
+        init5Persons();
+
+        List<Vertex> vertexes = graph.traversal().V().hasLabel("person")
+                                .has("city", P.within("Taipei", "Hongkong",
+                                                      "Shanghai", "Beijing"))
+                                .toList();
+
+        Assert.assertEquals(5, vertexes.size());
+        assertContains(vertexes,
+                       T.label, "person", "name", "Baby",
+                       "city", "Hongkong", "age", 3);
+        assertContains(vertexes,
+                       T.label, "person", "name", "Hebe",
+                       "city", "Taipei", "age", 21);
+
+        vertexes = graph.traversal().V().hasLabel("person")
+                   .has("city", P.within("Taipei", "Hongkong", "Xian"))
+                   .toList();
+        Assert.assertEquals(2, vertexes.size());
+        assertContains(vertexes,
+                       T.label, "person", "name", "Baby",
+                       "city", "Hongkong", "age", 3);
+        assertContains(vertexes,
+                       T.label, "person", "name", "Hebe",
+                       "city", "Taipei", "age", 21);
+    }
+
     @Test
     public void testQueryByIntPropWithOneResult() {
         // age = 19
@@ -739,6 +739,60 @@ public class VertexLabelCoreTest extends SchemaCoreTest {
         });
     }
 
+    @Test
+    public void testRemoveVertexLabelWithVerticesInBatches() {
+        super.initPropertyKeys();
+        SchemaManager schema = graph().schema();
+
+        schema.vertexLabel("person")
+              .properties("name", "age", "city")
+              .primaryKeys("name")
+              .nullableKeys("age", "city")
+              .create();
+        schema.vertexLabel("author")
+              .properties("name", "city")
+              .primaryKeys("name")
+              .nullableKeys("city")
+              .create();
+        schema.indexLabel("personByCity").onV("person").by("city").secondary()
+              .create();
+        schema.indexLabel("authorByCity").onV("author").by("city").secondary()
+              .create();
+
+        // More vertices than the batch size of removing
+        for (int i = 0; i < 2500; i++) {
+            graph().addVertex(T.label, "person", "name", "p" + i,
+                              "city", "Beijing");
+            if (i % 500 == 0) {
+                graph().tx().commit();
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            graph().addVertex(T.label, "author", "name", "a" + i,
+                              "city", "Beijing");
+        }
+        graph().tx().commit();
+
+        Assert.assertEquals(2500L, graph().traversal().V().hasLabel("person")
+                                          .count().next().longValue());
+
+        schema.vertexLabel("person").remove();
+
+        Assert.assertThrows(NotFoundException.class, () -> {
+            schema.getVertexLabel("person");
+        });
+        Assert.assertThrows(NotFoundException.class, () -> {
+            schema.getIndexLabel("personByCity");
+        });
+
+        // The vertices of other labels are kept
+        List<Vertex> authors = graph().traversal().V().hasLabel("author")
+                                      .has("city", "Beijing").toList();
+        Assert.assertEquals(100, authors.size());
+        Assert.assertEquals(100L, graph().traversal().V().count().next()
+                                         .longValue());
+    }
+
     @Test
     public void testRemoveVertexLabelUsedByEdgeLabel() {
         super.initPropertyKeys();
@@ -22,22 +22,34 @@ package com.baidu.hugegraph.unit;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import com.baidu.hugegraph.unit.cassandra.CassandraTableTest;
 import com.baidu.hugegraph.unit.common.CacheManagerTest;
 import com.baidu.hugegraph.unit.common.EventHubTest;
 import com.baidu.hugegraph.unit.common.FilterIteratorTest;
 import com.baidu.hugegraph.unit.common.FlatMapperFilterIteratorTest;
 import com.baidu.hugegraph.unit.common.FlatMapperIteratorTest;
 import com.baidu.hugegraph.unit.common.MapperIteratorTest;
+import com.baidu.hugegraph.unit.common.OffheapCacheTest;
 import com.baidu.hugegraph.unit.common.RamCacheTest;
+import com.baidu.hugegraph.unit.common.TinyLfuCacheTest;
 import com.baidu.hugegraph.unit.core.BackendMutationTest;
+import com.baidu.hugegraph.unit.core.BytesBufferTest;
 import com.baidu.hugegraph.unit.core.ConditionQueryFlattenTest;
 import com.baidu.hugegraph.unit.core.EdgeIdTest;
+import com.baidu.hugegraph.unit.core.IdSetTest;
+import com.baidu.hugegraph.unit.core.IndexIdTest;
+import com.baidu.hugegraph.unit.core.PipelinedQueryIteratorTest;
+import com.baidu.hugegraph.unit.mysql.MysqlTableTest;
 import com.baidu.hugegraph.unit.rocksdb.RocksDBCountersTest;
+import com.baidu.hugegraph.unit.rocksdb.RocksDBEdgeBlocksTest;
 import com.baidu.hugegraph.unit.rocksdb.RocksDBSessionsTest;
+import com.baidu.hugegraph.unit.rocksdb.RocksDBSstSessionsTest;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     RamCacheTest.class,
+    TinyLfuCacheTest.class,
+    OffheapCacheTest.class,
     CacheManagerTest.class,
     EventHubTest.class,
 
@@ -47,11 +59,21 @@ import com.baidu.hugegraph.unit.rocksdb.RocksDBSessionsTest;
     FlatMapperFilterIteratorTest.class,
 
     BackendMutationTest.class,
+    BytesBufferTest.class,
     ConditionQueryFlattenTest.class,
     EdgeIdTest.class,
+    IdSetTest.class,
+    IndexIdTest.class,
+    PipelinedQueryIteratorTest.class,
 
     RocksDBSessionsTest.class,
-    RocksDBCountersTest.class
+    RocksDBCountersTest.class,
+    RocksDBEdgeBlocksTest.class,
+    RocksDBSstSessionsTest.class,
+
+    CassandraTableTest.class,
+
+    MysqlTableTest.class
 })
 public class UnitTestSuite {
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.cassandra;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.query.Condition;
+import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.store.cassandra.CassandraTable;
+import com.baidu.hugegraph.backend.store.cassandra.CassandraTables;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.Shard;
+import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class CassandraTableTest extends BaseUnitTest {
+
+    @Before
+    public void setup() {
+        // pass
+    }
+
+    @After
+    public void teardown() {
+        // pass
+    }
+
+    @Test
+    public void testFormatNumberValue() {
+        Assert.assertEquals(3, format(DataType.cint(), 3L));
+        Assert.assertEquals((byte) 1, format(DataType.tinyint(), 1));
+        Assert.assertEquals(5L, format(DataType.bigint(), 5));
+        Assert.assertEquals(new BigDecimal("3.14"),
+                            format(DataType.decimal(), 3.14D));
+        Assert.assertEquals(new BigDecimal("18"),
+                            format(DataType.decimal(), 18));
+        Assert.assertNull(format(DataType.cint(), null));
+    }
+
+    @Test
+    public void testFormatStringValue() {
+        Assert.assertEquals("1:marko", format(DataType.text(), "1:marko"));
+        // The token of a shard
+        Assert.assertEquals(-9223372036854775808L,
+                            format(DataType.bigint(),
+                                   "-9223372036854775808"));
+    }
+
+    @Test
+    public void testFormatCollectionValue() {
+        Object map = format(DataType.map(DataType.cint(), DataType.text()),
+                            ImmutableMap.of(1L, "a", 2L, "b"));
+        Assert.assertEquals(ImmutableMap.of(1, "a", 2, "b"), map);
+        Assert.assertTrue(map instanceof Map);
+
+        Object set = format(DataType.set(DataType.cint()),
+                            ImmutableList.of(1L, 2L, 1L));
+        Assert.assertEquals(ImmutableSet.of(1, 2), set);
+        Assert.assertTrue(set instanceof Set);
+
+        // A single element is bound as a collection
+        Object list = format(DataType.list(DataType.cint()), 5L);
+        Assert.assertEquals(ImmutableList.of(5), list);
+        Assert.assertTrue(list instanceof List);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            format(DataType.map(DataType.cint(), DataType.text()), 1L);
+        });
+    }
+
+    @Test
+    public void testQuerySecondaryIndexWithBuckets() {
+        SecondaryIndex table = new SecondaryIndex();
+
+        ConditionQuery query = new ConditionQuery(HugeType.SECONDARY_INDEX);
+        query.eq(HugeKeys.INDEX_LABEL_ID, IdGenerator.of(1L));
+        query.eq(HugeKeys.FIELD_VALUES, "Beijing");
+        List<String> selects = table.selects(query);
+        Assert.assertEquals(1, selects.size());
+        Assert.assertTrue(selects.get(0).contains("BUCKET=?"));
+        // Read the bucket 0 if the index label is not bucketed
+        Assert.assertTrue(selects.get(0).contains("[0, "));
+
+        // A select per bucket
+        query.query(Condition.in(HugeKeys.BUCKET,
+                                 ImmutableList.of(0, 1, 2)));
+        selects = table.selects(query);
+        Assert.assertEquals(3, selects.size());
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(selects.get(i).contains("BUCKET=?"));
+            Assert.assertTrue(selects.get(i).contains("[" + i + ", "));
+        }
+
+        // The coordinator reads the buckets for a paging query
+        query.limit(10);
+        query.page("");
+        selects = table.selects(query);
+        Assert.assertEquals(1, selects.size());
+        Assert.assertTrue(selects.get(0).contains("BUCKET IN ?"));
+        Assert.assertTrue(selects.get(0).contains("[[0, 1, 2], "));
+    }
+
+    @Test
+    public void testScanVerticesByShards() {
+        Vertex table = new Vertex();
+        List<Shard> shards = ImmutableList.of(
+                             new Shard("-9223372036854775808", "0", 0L),
+                             new Shard("0", "9223372036854775807", 0L));
+
+        Query query = new Query(HugeType.VERTEX);
+        List<String> selects = table.selects(query, shards);
+        Assert.assertEquals(2, selects.size());
+        Assert.assertEquals("SELECT * FROM vertices " +
+                            "WHERE token(ID)>=? AND token(ID)<?; " +
+                            "[-9223372036854775808, 0]", selects.get(0));
+        Assert.assertEquals("SELECT * FROM vertices " +
+                            "WHERE token(ID)>=? AND token(ID)<?; " +
+                            "[0, 9223372036854775807]", selects.get(1));
+
+        // A full scan of a label
+        ConditionQuery labelQuery = new ConditionQuery(HugeType.VERTEX);
+        labelQuery.eq(HugeKeys.LABEL, IdGenerator.of(1L));
+        selects = table.selects(labelQuery, shards);
+        Assert.assertEquals(2, selects.size());
+        Assert.assertEquals("SELECT * FROM vertices " +
+                            "WHERE token(ID)>=? AND token(ID)<? " +
+                            "AND LABEL=?; [0, 9223372036854775807, 1]",
+                            selects.get(1));
+    }
+
+    private static class Vertex extends CassandraTables.Vertex {
+
+        public List<String> selects(Query query, List<Shard> shards) {
+            List<String> selects = new ArrayList<>();
+            for (Selection select : this.shards2Select(query, shards)) {
+                selects.add(select.toString());
+            }
+            return selects;
+        }
+    }
+
+    private static class SecondaryIndex extends CassandraTables.SecondaryIndex {
+
+        public List<String> selects(Query query) {
+            List<String> selects = new ArrayList<>();
+            for (Selection select : this.query2Select(this.table(), query)) {
+                selects.add(select.toString());
+            }
+            return selects;
+        }
+    }
+
+    private static Object format(DataType type, Object value) {
+        Object formatted = CassandraTable.formatValue(type, value);
+        if (formatted != null) {
+            // The formatted value must be serializable as the type
+            TypeCodec<Object> codec = CodecRegistry.DEFAULT_INSTANCE
+                                                   .codecFor(type, formatted);
+            Assert.assertNotNull(codec.serialize(formatted,
+                                                 ProtocolVersion.V4));
+        }
+        return formatted;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.common;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.cache.OffheapCache;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.baidu.hugegraph.util.StringEncoding;
+
+public class OffheapCacheTest extends BaseUnitTest {
+
+    @Before
+    public void setup() {
+        // pass
+    }
+
+    @After
+    public void teardown() throws Exception {
+        // pass
+    }
+
+    private static byte[] bytes(String value) {
+        return StringEncoding.encode(value);
+    }
+
+    @Test
+    public void testUpdateGet() {
+        OffheapCache cache = new OffheapCache(1024 * 1024);
+        Id id = IdGenerator.of("1");
+        cache.update(id, bytes("value-1"));
+        Assert.assertArrayEquals(bytes("value-1"), (byte[]) cache.get(id));
+
+        cache.update(id, bytes("value-22"));
+        Assert.assertArrayEquals(bytes("value-22"), (byte[]) cache.get(id));
+
+        cache.updateIfAbsent(id, bytes("value-3"));
+        Assert.assertArrayEquals(bytes("value-22"), (byte[]) cache.get(id));
+        Assert.assertEquals(1, cache.size());
+
+        Assert.assertEquals(3L, cache.hits());
+        Assert.assertEquals(0L, cache.miss());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            cache.update(id, "value-4");
+        });
+    }
+
+    @Test
+    public void testInvalidateAndClear() {
+        OffheapCache cache = new OffheapCache(1024 * 1024);
+        Id id1 = IdGenerator.of("1");
+        Id id2 = IdGenerator.of("2");
+        cache.update(id1, bytes("value-1"));
+        cache.update(id2, bytes("value-2"));
+        Assert.assertTrue(cache.containsKey(id1));
+
+        cache.invalidate(id1);
+        Assert.assertFalse(cache.containsKey(id1));
+        Assert.assertNull(cache.get(id1));
+        Assert.assertArrayEquals(bytes("value-2"), (byte[]) cache.get(id2));
+
+        cache.clear();
+        Assert.assertNull(cache.get(id2));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictInFifoOrder() {
+        // Each segment can hold 10 values of 100 bytes
+        OffheapCache cache = new OffheapCache(1000, 1);
+        for (int i = 0; i < 10; i++) {
+            cache.update(IdGenerator.of(i), new byte[100]);
+        }
+        Assert.assertEquals(10, cache.size());
+
+        // Wrap around and overwrite the oldest ones
+        cache.update(IdGenerator.of(10), new byte[150]);
+        Assert.assertEquals(9, cache.size());
+        Assert.assertNull(cache.get(IdGenerator.of(0)));
+        Assert.assertNull(cache.get(IdGenerator.of(1)));
+        Assert.assertNotNull(cache.get(IdGenerator.of(2)));
+        Assert.assertEquals(150, ((byte[]) cache.get(IdGenerator.of(10)))
+                                 .length);
+
+        // Overwrite the space of value 2 and 3, not the removed value 9
+        cache.invalidate(IdGenerator.of(9));
+        cache.update(IdGenerator.of(11), new byte[100]);
+        Assert.assertNull(cache.get(IdGenerator.of(2)));
+        Assert.assertNotNull(cache.get(IdGenerator.of(3)));
+        Assert.assertEquals(8, cache.size());
+
+        // Too large to be cached
+        cache.update(IdGenerator.of(12), new byte[1001]);
+        Assert.assertNull(cache.get(IdGenerator.of(12)));
+    }
+
+    @Test
+    public void testExpire() {
+        OffheapCache cache = new OffheapCache(1024 * 1024);
+        cache.update(IdGenerator.of("1"), bytes("value-1"));
+        cache.update(IdGenerator.of("2"), bytes("value-2"));
+        Assert.assertEquals(2, cache.size());
+
+        cache.expire(2);
+        waitTillNext(3);
+        cache.tick();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static final int THREADS_NUM = 8;
+
+    @Test
+    public void testMutiThreadsUpdateAndGet() {
+        OffheapCache cache = new OffheapCache(64 * 1024);
+
+        runWithThreads(THREADS_NUM, () -> {
+            for (int i = 0; i < 10000 * 10; i++) {
+                Id id = IdGenerator.of("id-" + (i % 5000));
+                byte[] value = (byte[]) cache.get(id);
+                if (value == null) {
+                    cache.update(id, bytes("value-" + (i % 5000)));
+                } else {
+                    Assert.assertArrayEquals(bytes("value-" + (i % 5000)),
+                                             value);
+                }
+            }
+        });
+        Assert.assertEquals(THREADS_NUM * 10000 * 10,
+                            cache.hits() + cache.miss());
+    }
+}
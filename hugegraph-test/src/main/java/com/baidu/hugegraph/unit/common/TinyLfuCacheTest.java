@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.common;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.cache.TinyLfuCache;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.google.common.base.Strings;
+
+public class TinyLfuCacheTest extends BaseUnitTest {
+
+    @Before
+    public void setup() {
+        // pass
+    }
+
+    @After
+    public void teardown() throws Exception {
+        // pass
+    }
+
+    @Test
+    public void testUpdateGet() {
+        TinyLfuCache cache = new TinyLfuCache();
+        Id id = IdGenerator.of("1");
+        cache.update(id, "value-1");
+        Assert.assertEquals("value-1", cache.get(id));
+        cache.update(id, "value-2");
+        Assert.assertEquals("value-2", cache.get(id));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testUpdateIfAbsent() {
+        TinyLfuCache cache = new TinyLfuCache();
+        Id id = IdGenerator.of("1");
+        cache.updateIfAbsent(id, "value-1");
+        Assert.assertEquals("value-1", cache.get(id));
+        cache.updateIfAbsent(id, "value-2");
+        Assert.assertEquals("value-1", cache.get(id));
+    }
+
+    @Test
+    public void testInvalidateAndClear() {
+        TinyLfuCache cache = new TinyLfuCache();
+        Id id1 = IdGenerator.of("1");
+        Id id2 = IdGenerator.of("2");
+        cache.update(id1, "value-1");
+        cache.update(id2, "value-2");
+        Assert.assertTrue(cache.containsKey(id1));
+
+        cache.invalidate(id1);
+        Assert.assertFalse(cache.containsKey(id1));
+        Assert.assertEquals(null, cache.get(id1));
+        Assert.assertEquals("value-2", cache.get(id2));
+
+        cache.clear();
+        Assert.assertEquals(null, cache.get(id2));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0L, cache.weight());
+    }
+
+    @Test
+    public void testHitsAndMiss() {
+        TinyLfuCache cache = new TinyLfuCache();
+        Id id = IdGenerator.of("1");
+        Assert.assertEquals("value-1", cache.getOrFetch(id, k -> "value-1"));
+        Assert.assertEquals("value-1", cache.getOrFetch(id, k -> "value-2"));
+        Assert.assertEquals("value-1", cache.get(id));
+
+        Assert.assertEquals(2L, cache.hits());
+        Assert.assertEquals(1L, cache.miss());
+    }
+
+    @Test
+    public void testCapacityInBytes() {
+        TinyLfuCache cache = new TinyLfuCache(16 * 1024, 1);
+        Assert.assertEquals(16 * 1024, cache.capacity());
+
+        for (int i = 0; i < 1000; i++) {
+            cache.update(IdGenerator.of("id-" + i), "value-" + i);
+            Assert.assertTrue(cache.weight() <= cache.capacity());
+        }
+        Assert.assertTrue(cache.size() > 50);
+        Assert.assertTrue(cache.size() < 1000);
+
+        // The entry larger than capacity of segment can't be cached
+        Id id = IdGenerator.of("large");
+        cache.update(id, Strings.repeat("v", 16 * 1024));
+        Assert.assertEquals(null, cache.get(id));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            new TinyLfuCache(0L);
+        });
+    }
+
+    @Test
+    public void testScanResistance() {
+        TinyLfuCache cache = new TinyLfuCache(16 * 1024, 1);
+
+        // Access the hot entries frequently
+        for (int i = 0; i < 50; i++) {
+            cache.update(IdGenerator.of("hot-" + i), "value-" + i);
+        }
+        for (int times = 0; times < 5; times++) {
+            for (int i = 0; i < 50; i++) {
+                Assert.assertNotNull(cache.get(IdGenerator.of("hot-" + i)));
+            }
+        }
+
+        // Scan many entries only once, which should not flush hot entries
+        for (int i = 0; i < 1000; i++) {
+            cache.update(IdGenerator.of("cold-" + i), "value-" + i);
+        }
+        int hits = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(IdGenerator.of("hot-" + i)) != null) {
+                hits++;
+            }
+        }
+        /*
+         * The last hot entry is accessed while it's in the window, so it's
+         * not protected and may be evicted after its frequency is halved
+         */
+        Assert.assertTrue("Expect at least 49 hot entries, but got " + hits,
+                          hits >= 49);
+    }
+
+    @Test
+    public void testExpire() {
+        TinyLfuCache cache = new TinyLfuCache();
+        cache.update(IdGenerator.of("1"), "value-1");
+        cache.update(IdGenerator.of("2"), "value-2");
+        Assert.assertEquals(2, cache.size());
+
+        cache.expire(2);
+        waitTillNext(3);
+        Assert.assertEquals(null, cache.get(IdGenerator.of("1")));
+
+        cache.tick();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0L, cache.weight());
+    }
+
+    private static final int THREADS_NUM = 8;
+
+    @Test
+    public void testMutiThreadsUpdateAndGet() {
+        TinyLfuCache cache = new TinyLfuCache(64 * 1024);
+
+        runWithThreads(THREADS_NUM, () -> {
+            for (int i = 0; i < 10000 * 10; i++) {
+                Id id = IdGenerator.of("id-" + (i % 5000));
+                Object value = cache.get(id);
+                if (value == null) {
+                    cache.update(id, "value-" + (i % 5000));
+                } else {
+                    Assert.assertEquals("value-" + (i % 5000), value);
+                }
+                if (i % 100 == 0) {
+                    cache.invalidate(id);
+                }
+            }
+        });
+        Assert.assertTrue(cache.weight() <= cache.capacity());
+        Assert.assertEquals(THREADS_NUM * 10000 * 10,
+                            cache.hits() + cache.miss());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.serializer.BytesBuffer;
+import com.baidu.hugegraph.schema.PropertyKey;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.define.Cardinality;
+import com.baidu.hugegraph.type.define.DataType;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class BytesBufferTest extends BaseUnitTest {
+
+    @Before
+    public void setup() {
+        // pass
+    }
+
+    @After
+    public void teardown() {
+        // pass
+    }
+
+    @Test
+    public void testVarInt() {
+        int[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1,
+                        Integer.MIN_VALUE};
+        BytesBuffer buffer = BytesBuffer.allocate(0);
+        for (int value : values) {
+            buffer.writeVInt(value);
+        }
+        buffer = BytesBuffer.wrap(buffer.bytes());
+        for (int value : values) {
+            Assert.assertEquals(value, buffer.readVInt());
+        }
+
+        Assert.assertEquals(1, BytesBuffer.allocate(0).writeVInt(127)
+                                          .bytes().length);
+        Assert.assertEquals(2, BytesBuffer.allocate(0).writeVInt(128)
+                                          .bytes().length);
+        Assert.assertEquals(5, BytesBuffer.allocate(0).writeVInt(-1)
+                                          .bytes().length);
+    }
+
+    @Test
+    public void testVarLong() {
+        long[] values = {0L, 1L, 127L, 128L, 1L << 35, Long.MAX_VALUE, -1L,
+                         Long.MIN_VALUE};
+        BytesBuffer buffer = BytesBuffer.allocate(0);
+        for (long value : values) {
+            buffer.writeVLong(value);
+        }
+        buffer = BytesBuffer.wrap(buffer.bytes());
+        for (long value : values) {
+            Assert.assertEquals(value, buffer.readVLong());
+        }
+        Assert.assertEquals(10, BytesBuffer.allocate(0).writeVLong(-1L)
+                                           .bytes().length);
+    }
+
+    @Test
+    public void testProperty() {
+        assertPropertyEquals(true, pkey(DataType.BOOLEAN));
+        assertPropertyEquals((byte) -3, pkey(DataType.BYTE));
+        assertPropertyEquals(-123456, pkey(DataType.INT));
+        assertPropertyEquals(Integer.MIN_VALUE, pkey(DataType.INT));
+        assertPropertyEquals(1234567890123L, pkey(DataType.LONG));
+        assertPropertyEquals(-1.5F, pkey(DataType.FLOAT));
+        assertPropertyEquals(3.14D, pkey(DataType.DOUBLE));
+        assertPropertyEquals("", pkey(DataType.TEXT));
+        assertPropertyEquals("marko 中文", pkey(DataType.TEXT));
+        assertPropertyEquals(new Date(1514736000000L), pkey(DataType.DATE));
+        assertPropertyEquals(UUID.randomUUID(), pkey(DataType.UUID));
+
+        byte[] blob = new byte[]{1, 2, 3, -1};
+        byte[] bytes = BytesBuffer.allocate(0)
+                                  .writeProperty(pkey(DataType.BLOB), blob)
+                                  .bytes();
+        Assert.assertArrayEquals(blob, (byte[]) BytesBuffer.wrap(bytes)
+                                 .readProperty(pkey(DataType.BLOB)));
+
+        // Small int is written as one byte
+        bytes = BytesBuffer.allocate(0).writeProperty(pkey(DataType.INT), 18)
+                           .bytes();
+        Assert.assertEquals(1, bytes.length);
+    }
+
+    @Test
+    public void testPropertyWithCardinality() {
+        PropertyKey set = pkey(DataType.INT);
+        set.cardinality(Cardinality.SET);
+        Set<Integer> values = ImmutableSet.of(3, 1, -2);
+        byte[] bytes = BytesBuffer.allocate(0).writeProperty(set, values)
+                                  .bytes();
+        Object result = BytesBuffer.wrap(bytes).readProperty(set);
+        Assert.assertEquals(LinkedHashSet.class, result.getClass());
+        Assert.assertEquals(ImmutableList.copyOf(values),
+                            ImmutableList.copyOf((Set<?>) result));
+
+        PropertyKey list = pkey(DataType.TEXT);
+        list.cardinality(Cardinality.LIST);
+        List<String> texts = ImmutableList.of("a", "b", "a");
+        bytes = BytesBuffer.allocate(0).writeProperty(list, texts).bytes();
+        Assert.assertEquals(texts, BytesBuffer.wrap(bytes).readProperty(list));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            BytesBuffer.allocate(0).writeProperty(list, "a");
+        });
+    }
+
+    private static PropertyKey pkey(DataType dataType) {
+        PropertyKey pkey = new PropertyKey(null, IdGenerator.of(1), "pkey");
+        pkey.dataType(dataType);
+        return pkey;
+    }
+
+    private static void assertPropertyEquals(Object value, PropertyKey pkey) {
+        byte[] bytes = BytesBuffer.allocate(0).writeProperty(pkey, value)
+                                  .bytes();
+        BytesBuffer buffer = BytesBuffer.wrap(bytes);
+        Assert.assertEquals(value, buffer.readProperty(pkey));
+        Assert.assertEquals(0, buffer.remaining());
+    }
+}
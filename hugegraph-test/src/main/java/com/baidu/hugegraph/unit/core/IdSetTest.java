@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.id.EdgeId;
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.define.Directions;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.baidu.hugegraph.util.collection.IdArena;
+import com.baidu.hugegraph.util.collection.IdSet;
+import com.google.common.collect.ImmutableList;
+
+public class IdSetTest extends BaseUnitTest {
+
+    @Before
+    public void setup() {
+        // pass
+    }
+
+    @After
+    public void teardown() {
+        // pass
+    }
+
+    @Test
+    public void testIdArenaCode() {
+        IdArena arena = new IdArena();
+        Assert.assertEquals(0, arena.code(IdGenerator.of(1L)));
+        Assert.assertEquals(1, arena.code(IdGenerator.of("1")));
+        Assert.assertEquals(2, arena.code(IdGenerator.of(-1L)));
+        Assert.assertEquals(3, arena.code(IdGenerator.of("1:marko")));
+        Assert.assertEquals(0, arena.code(IdGenerator.of(1L)));
+        Assert.assertEquals(3, arena.code(IdGenerator.of("1:marko")));
+        Assert.assertEquals(4, arena.size());
+
+        Assert.assertEquals(1, arena.find(IdGenerator.of("1")));
+        Assert.assertEquals(IdArena.NONE, arena.find(IdGenerator.of(2L)));
+        Assert.assertEquals(IdArena.NONE, arena.find(IdGenerator.of("2")));
+
+        Assert.assertEquals(IdGenerator.of(1L), arena.id(0));
+        Assert.assertEquals(IdGenerator.of("1"), arena.id(1));
+        Assert.assertEquals(IdGenerator.of(-1L), arena.id(2));
+        Assert.assertEquals(IdGenerator.of("1:marko"), arena.id(3));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            arena.id(4);
+        });
+    }
+
+    @Test
+    public void testIdArenaWithOtherIds() {
+        IdArena arena = new IdArena();
+        Id edgeId = new EdgeId(IdGenerator.of("1:marko"), Directions.OUT,
+                               IdGenerator.of(1), "",
+                               IdGenerator.of("1:josh"));
+        Id edgeId2 = new EdgeId(IdGenerator.of("1:marko"), Directions.OUT,
+                                IdGenerator.of(1), "",
+                                IdGenerator.of("1:vadas"));
+        Assert.assertEquals(IdArena.NONE, arena.find(edgeId));
+
+        Assert.assertEquals(0, arena.code(IdGenerator.of(0L)));
+        Assert.assertEquals(1, arena.code(edgeId));
+        Assert.assertEquals(2, arena.code(edgeId2));
+        Assert.assertEquals(1, arena.code(edgeId));
+        Assert.assertEquals(2, arena.find(edgeId2));
+        Assert.assertEquals(0, arena.find(IdGenerator.of(0L)));
+        Assert.assertEquals(3, arena.size());
+
+        Assert.assertEquals(edgeId, arena.id(1));
+        Assert.assertEquals(edgeId2, arena.id(2));
+        Assert.assertEquals(IdGenerator.of(0L), arena.id(0));
+
+        // Rehash with the other ids
+        for (long i = 1; i < 100; i++) {
+            arena.code(IdGenerator.of(i));
+        }
+        Assert.assertEquals(1, arena.find(edgeId));
+        Assert.assertEquals(50, arena.find(IdGenerator.of(48L)));
+    }
+
+    @Test
+    public void testIdSetRemove() {
+        Set<Id> set = new IdSet();
+        set.add(IdGenerator.of(1L));
+        set.add(IdGenerator.of("2"));
+        set.add(IdGenerator.of(3L));
+
+        Assert.assertTrue(set.remove(IdGenerator.of("2")));
+        Assert.assertFalse(set.remove(IdGenerator.of("2")));
+        Assert.assertFalse(set.contains(IdGenerator.of("2")));
+        Assert.assertEquals(2, set.size());
+        Assert.assertEquals(ImmutableList.of(IdGenerator.of(1L),
+                                             IdGenerator.of(3L)),
+                            new ArrayList<>(set));
+
+        // Add again
+        Assert.assertTrue(set.add(IdGenerator.of("2")));
+        Assert.assertTrue(set.contains(IdGenerator.of("2")));
+        Assert.assertEquals(3, set.size());
+
+        set.remove(IdGenerator.of(1L));
+        Assert.assertEquals(ImmutableList.of(IdGenerator.of("2"),
+                                             IdGenerator.of(3L)),
+                            new ArrayList<>(set));
+    }
+
+    @Test
+    public void testIdSetAddAndContains() {
+        Set<Id> set = new IdSet();
+        Assert.assertTrue(set.isEmpty());
+
+        Assert.assertTrue(set.add(IdGenerator.of(1L)));
+        Assert.assertTrue(set.add(IdGenerator.of("1")));
+        Assert.assertFalse(set.add(IdGenerator.of(1L)));
+        Assert.assertFalse(set.add(IdGenerator.of("1")));
+        Assert.assertEquals(2, set.size());
+
+        Assert.assertTrue(set.contains(IdGenerator.of(1L)));
+        Assert.assertTrue(set.contains(IdGenerator.of("1")));
+        Assert.assertFalse(set.contains(IdGenerator.of(2L)));
+        Assert.assertFalse(set.contains("1"));
+    }
+
+    @Test
+    public void testIdSetWithManyIds() {
+        Set<Id> set = new IdSet();
+        Set<Id> expected = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            Id id = i % 2 == 0 ? IdGenerator.of((long) i * 31) :
+                                 IdGenerator.of("2:vertex-" + i);
+            Assert.assertTrue(set.add(id));
+            expected.add(id);
+        }
+        Assert.assertEquals(expected.size(), set.size());
+        Assert.assertEquals(expected, set);
+        for (Id id : expected) {
+            Assert.assertTrue(set.contains(id));
+        }
+        Assert.assertFalse(set.contains(IdGenerator.of(1L)));
+        Assert.assertFalse(set.contains(IdGenerator.of("2:vertex-0")));
+    }
+
+    @Test
+    public void testIdSetIterateInInsertionOrder() {
+        Set<Id> set = new IdSet();
+        List<Id> ids = ImmutableList.of(IdGenerator.of("c"),
+                                        IdGenerator.of(3L),
+                                        IdGenerator.of("a"),
+                                        IdGenerator.of(1L));
+        set.addAll(ids);
+        set.addAll(ids);
+
+        Iterator<Id> iter = set.iterator();
+        for (Id id : ids) {
+            Assert.assertTrue(iter.hasNext());
+            Assert.assertEquals(id, iter.next());
+        }
+        Assert.assertFalse(iter.hasNext());
+    }
+}
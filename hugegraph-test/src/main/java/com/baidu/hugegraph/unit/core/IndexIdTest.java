@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.id.Id;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.serializer.BinarySerializer;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.baidu.hugegraph.util.Bytes;
+
+public class IndexIdTest extends BaseUnitTest {
+
+    private static final Id LABEL = IdGenerator.of(3);
+
+    @Before
+    public void setup() {
+        // pass
+    }
+
+    @After
+    public void teardown() {
+        // pass
+    }
+
+    @Test
+    public void testSecondaryIndexId() {
+        byte[] id1 = secondary("marko");
+        byte[] id2 = secondary("marko");
+        byte[] id3 = secondary("josh");
+        Assert.assertArrayEquals(id1, id2);
+        Assert.assertFalse(Bytes.equals(id1, id3));
+
+        // The shorter value is not a prefix of the longer one
+        Assert.assertFalse(Bytes.prefixWith(secondary("marko1"), id1));
+        Assert.assertTrue(Bytes.compare(id1, secondary("marko1")) < 0);
+        Assert.assertFalse(Bytes.prefixWith(secondary("a\u0000b"),
+                                            secondary("a")));
+        Assert.assertTrue(Bytes.compare(secondary("a"),
+                                        secondary("a\u0000b")) < 0);
+
+        byte[] label = secondary(null);
+        Assert.assertEquals(4, label.length);
+        Assert.assertTrue(Bytes.prefixWith(id1, label));
+        Assert.assertTrue(Bytes.prefixWith(id3, label));
+
+        Id other = BinarySerializer.formatIndexId(HugeType.SECONDARY_INDEX,
+                                                  IdGenerator.of(4), "marko");
+        Assert.assertFalse(Bytes.prefixWith(other.asBytes(), label));
+    }
+
+    @Test
+    public void testRangeIndexIdOrder() {
+        Object[] numbers = {Long.MIN_VALUE, -100L, -1, 0, 1, 2L, 127,
+                            Integer.MAX_VALUE, Long.MAX_VALUE};
+        for (int i = 1; i < numbers.length; i++) {
+            byte[] prev = range(numbers[i - 1]);
+            byte[] next = range(numbers[i]);
+            Assert.assertTrue(String.format("%s < %s", numbers[i - 1],
+                                            numbers[i]),
+                              Bytes.compare(prev, next) < 0);
+        }
+        // Integer and long are encoded in the same way
+        Assert.assertArrayEquals(range(18), range(18L));
+        Assert.assertArrayEquals(range((byte) 18), range(18L));
+
+        Object[] decimals = {-Double.MAX_VALUE, -1.5D, -0.1F, 0D, 0.1F,
+                             1.5D, Double.MAX_VALUE};
+        for (int i = 1; i < decimals.length; i++) {
+            byte[] prev = range(decimals[i - 1]);
+            byte[] next = range(decimals[i]);
+            Assert.assertTrue(String.format("%s < %s", decimals[i - 1],
+                                            decimals[i]),
+                              Bytes.compare(prev, next) < 0);
+        }
+        Assert.assertArrayEquals(range(1.5F), range(1.5D));
+
+        byte[] label = range(null);
+        Assert.assertTrue(Bytes.prefixWith(range(1), label));
+        Assert.assertTrue(Bytes.prefixWith(range(-1.5D), label));
+    }
+
+    @Test
+    public void testRangeIndexIdWithInvalidValue() {
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            range("18");
+        });
+    }
+
+    private static byte[] secondary(Object value) {
+        Id id = BinarySerializer.formatIndexId(HugeType.SECONDARY_INDEX,
+                                               LABEL, value);
+        return id.asBytes();
+    }
+
+    private static byte[] range(Object value) {
+        Id id = BinarySerializer.formatIndexId(HugeType.RANGE_INDEX,
+                                               LABEL, value);
+        return id.asBytes();
+    }
+}
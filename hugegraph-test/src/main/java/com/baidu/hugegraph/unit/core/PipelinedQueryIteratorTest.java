@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.serializer.TextBackendEntry;
+import com.baidu.hugegraph.backend.store.BackendEntry;
+import com.baidu.hugegraph.backend.store.PipelinedQueryIterator;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+import com.google.common.collect.ImmutableList;
+
+public class PipelinedQueryIteratorTest extends BaseUnitTest {
+
+    @Before
+    public void setup() {
+        // pass
+    }
+
+    @After
+    public void teardown() {
+        // pass
+    }
+
+    @Test
+    public void testQueryInOrder() {
+        Query query = new Query(HugeType.VERTEX);
+        query.order(HugeKeys.ID, Query.Order.ASC);
+
+        List<CompletableFuture<List<String>>> futures = futures(3);
+        Iterator<BackendEntry> iter = iterator(query, futures, 3);
+
+        futures.get(2).complete(ImmutableList.of("5"));
+        futures.get(1).complete(ImmutableList.of("3", "4"));
+        futures.get(0).complete(ImmutableList.of("1", "2"));
+
+        Assert.assertEquals(ImmutableList.of("1", "2", "3", "4", "5"),
+                            ids(iter));
+    }
+
+    @Test
+    public void testQueryInArrivalOrder() {
+        Query query = new Query(HugeType.VERTEX);
+
+        List<CompletableFuture<List<String>>> futures = futures(3);
+        Iterator<BackendEntry> iter = iterator(query, futures, 3);
+
+        futures.get(2).complete(ImmutableList.of("5"));
+        futures.get(0).complete(ImmutableList.of("1", "2"));
+        futures.get(1).complete(ImmutableList.of());
+
+        Assert.assertEquals(ImmutableList.of("5", "1", "2"), ids(iter));
+    }
+
+    @Test
+    public void testQueryWithConcurrency() {
+        Query query = new Query(HugeType.VERTEX);
+        query.order(HugeKeys.ID, Query.Order.ASC);
+
+        AtomicInteger submitted = new AtomicInteger(0);
+        List<Supplier<CompletableFuture<List<String>>>> tasks;
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            List<String> ids = ImmutableList.of(String.valueOf(i));
+            tasks.add(() -> {
+                submitted.incrementAndGet();
+                return CompletableFuture.completedFuture(ids);
+            });
+        }
+        Iterator<BackendEntry> iter = new PipelinedQueryIterator<>(
+                                      query, tasks,
+                                      PipelinedQueryIteratorTest::entries,
+                                      2);
+        Assert.assertEquals(2, submitted.get());
+
+        Assert.assertEquals("0", iter.next().id().asString());
+        Assert.assertEquals(3, submitted.get());
+
+        Assert.assertEquals(ImmutableList.of("1", "2", "3", "4"), ids(iter));
+        Assert.assertEquals(5, submitted.get());
+    }
+
+    @Test
+    public void testQueryWithError() {
+        Query query = new Query(HugeType.VERTEX);
+
+        List<CompletableFuture<List<String>>> futures = futures(2);
+        Iterator<BackendEntry> iter = iterator(query, futures, 2);
+        futures.get(0).completeExceptionally(new IllegalStateException());
+        Assert.assertThrows(BackendException.class, () -> {
+            iter.hasNext();
+        });
+
+        futures = futures(2);
+        Iterator<BackendEntry> iter2 = iterator(query, futures, 2);
+        BackendException error = new BackendException("Failed to query");
+        futures.get(1).completeExceptionally(error);
+        try {
+            iter2.hasNext();
+            Assert.fail("Expect error");
+        } catch (BackendException e) {
+            Assert.assertSame(error, e);
+        }
+    }
+
+    @Test
+    public void testCloseWithQueriesInFlight() throws Exception {
+        Query query = new Query(HugeType.VERTEX);
+
+        List<CompletableFuture<List<String>>> futures = futures(3);
+        Iterator<BackendEntry> iter = iterator(query, futures, 2);
+        ((AutoCloseable) iter).close();
+
+        Assert.assertTrue(futures.get(0).isCancelled());
+        Assert.assertTrue(futures.get(1).isCancelled());
+        // Not submitted yet
+        Assert.assertFalse(futures.get(2).isDone());
+    }
+
+    private static List<CompletableFuture<List<String>>> futures(int size) {
+        List<CompletableFuture<List<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            futures.add(new CompletableFuture<>());
+        }
+        return futures;
+    }
+
+    private static Iterator<BackendEntry> iterator(
+                   Query query,
+                   List<CompletableFuture<List<String>>> futures,
+                   int concurrency) {
+        List<Supplier<CompletableFuture<List<String>>>> tasks;
+        tasks = new ArrayList<>();
+        for (CompletableFuture<List<String>> future : futures) {
+            tasks.add(() -> future);
+        }
+        return new PipelinedQueryIterator<>(
+                   query, tasks, PipelinedQueryIteratorTest::entries,
+                   concurrency);
+    }
+
+    private static Iterator<BackendEntry> entries(List<String> ids) {
+        List<BackendEntry> entries = new ArrayList<>();
+        for (String id : ids) {
+            entries.add(new TextBackendEntry(HugeType.VERTEX,
+                                             IdGenerator.of(id)));
+        }
+        return entries.iterator();
+    }
+
+    private static List<String> ids(Iterator<BackendEntry> iter) {
+        List<String> ids = new ArrayList<>();
+        while (iter.hasNext()) {
+            ids.add(iter.next().id().asString());
+        }
+        return ids;
+    }
+}
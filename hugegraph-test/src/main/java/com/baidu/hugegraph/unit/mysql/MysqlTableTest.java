@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.mysql;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.backend.id.EdgeId;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.IdQuery;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.store.mysql.MysqlSerializer;
+import com.baidu.hugegraph.backend.store.mysql.MysqlTable.PreparedSelect;
+import com.baidu.hugegraph.backend.store.mysql.MysqlTables;
+import com.baidu.hugegraph.backend.store.mysql.MysqlUtil;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.define.Directions;
+import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+
+public class MysqlTableTest extends BaseUnitTest {
+
+    private MysqlSerializer serializer;
+
+    @Before
+    public void setup() {
+        this.serializer = new MysqlSerializer();
+    }
+
+    @After
+    public void teardown() {
+        // pass
+    }
+
+    @Test
+    public void testMultiRowInsert() {
+        String template = "REPLACE INTO vertices (ID, LABEL) VALUES (?, ?)";
+        Assert.assertEquals(template, MysqlUtil.multiRowInsert(template, 1));
+        Assert.assertEquals("REPLACE INTO vertices (ID, LABEL) VALUES " +
+                            "(?, ?), (?, ?), (?, ?)",
+                            MysqlUtil.multiRowInsert(template, 3));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            MysqlUtil.multiRowInsert(template, 0);
+        });
+        Assert.assertThrows(IllegalArgumentException.class, () -> {
+            MysqlUtil.multiRowInsert("REPLACE INTO vertices", 2);
+        });
+    }
+
+    @Test
+    public void testPrepareSelectVerticesById() {
+        Vertex vertices = new Vertex();
+
+        Query query = new IdQuery(HugeType.VERTEX,
+                                  IdGenerator.of("1:marko"));
+        Assert.assertEquals(
+               "[SELECT * FROM vertices WHERE ID = ?; [S1:marko]]",
+               vertices.selects(this.serializer.writeQuery(query)).toString());
+
+        IdQuery ids = new IdQuery(HugeType.VERTEX);
+        ids.query(IdGenerator.of("1:marko"));
+        ids.query(IdGenerator.of("1:vadas"));
+        Assert.assertEquals(
+               "[SELECT * FROM vertices WHERE ID IN (?, ?); " +
+               "[S1:marko, S1:vadas]]",
+               vertices.selects(this.serializer.writeQuery(ids)).toString());
+
+        // The ids are padded to the size of power of 2
+        ids.query(IdGenerator.of("1:josh"));
+        Assert.assertEquals(
+               "[SELECT * FROM vertices WHERE ID IN (?, ?, ?, ?); " +
+               "[S1:marko, S1:vadas, S1:josh, S1:josh]]",
+               vertices.selects(this.serializer.writeQuery(ids)).toString());
+    }
+
+    @Test
+    public void testPrepareSelectEdgesByOwnerVertex() {
+        Edge edges = new Edge(Directions.OUT);
+
+        ConditionQuery query = new ConditionQuery(HugeType.EDGE_OUT);
+        query.eq(HugeKeys.OWNER_VERTEX, IdGenerator.of("1:marko"));
+        query.eq(HugeKeys.DIRECTION, Directions.OUT);
+        query.eq(HugeKeys.LABEL, IdGenerator.of(2));
+        query.limit(10);
+        Assert.assertEquals(
+               "[SELECT * FROM edges_out WHERE OWNER_VERTEX = ? AND " +
+               "DIRECTION = ? AND LABEL = ? limit ? offset ?; " +
+               "[S1:marko, 1, 2, 10, 0]]",
+               edges.selects(this.serializer.writeQuery(query)).toString());
+
+        // A select for each edge id
+        IdQuery ids = new IdQuery(HugeType.EDGE_OUT);
+        ids.query(edgeId("1:marko", 2, "1:vadas"));
+        ids.query(edgeId("1:marko", 2, "1:josh"));
+        List<PreparedSelect> selects = edges.selects(ids);
+        Assert.assertEquals(2, selects.size());
+        String sql = "SELECT * FROM edges_out WHERE OWNER_VERTEX = ? AND " +
+                     "DIRECTION = ? AND LABEL = ? AND SORT_VALUES = ? AND " +
+                     "OTHER_VERTEX = ?";
+        Assert.assertEquals(sql, selects.get(0).sql());
+        Assert.assertEquals(sql, selects.get(1).sql());
+        Assert.assertEquals("[S1:marko, 1, 2, , S1:vadas]",
+                            selects.get(0).params().toString());
+        Assert.assertEquals("[S1:marko, 1, 2, , S1:josh]",
+                            selects.get(1).params().toString());
+    }
+
+    @Test
+    public void testPrepareSelectIndexes() {
+        SecondaryIndex indexes = new SecondaryIndex();
+
+        ConditionQuery query = new ConditionQuery(HugeType.SECONDARY_INDEX);
+        query.eq(HugeKeys.INDEX_LABEL_ID, IdGenerator.of(1));
+        query.eq(HugeKeys.FIELD_VALUES, "it's");
+        // The values are bound instead of escaped
+        Assert.assertEquals(
+               "[SELECT * FROM secondary_indexes WHERE INDEX_LABEL_ID = ? " +
+               "AND FIELD_VALUES = ?; [1, it's]]",
+               indexes.selects(query).toString());
+
+        // The paging query is executed by literal selects
+        query.page("");
+        query.limit(10);
+        Assert.assertNull(indexes.selects(query));
+    }
+
+    private static EdgeId edgeId(String owner, long label, String other) {
+        return new EdgeId(IdGenerator.of(owner), Directions.OUT,
+                          IdGenerator.of(label), "", IdGenerator.of(other));
+    }
+
+    private static class Vertex extends MysqlTables.Vertex {
+
+        public List<PreparedSelect> selects(Query query) {
+            return this.query2PreparedSelect(this.table(), query);
+        }
+    }
+
+    private static class Edge extends MysqlTables.Edge {
+
+        public Edge(Directions direction) {
+            super(direction);
+        }
+
+        public List<PreparedSelect> selects(Query query) {
+            return this.query2PreparedSelect(this.table(), query);
+        }
+    }
+
+    private static class SecondaryIndex extends MysqlTables.SecondaryIndex {
+
+        public List<PreparedSelect> selects(Query query) {
+            return this.query2PreparedSelect(this.table(), query);
+        }
+    }
+}
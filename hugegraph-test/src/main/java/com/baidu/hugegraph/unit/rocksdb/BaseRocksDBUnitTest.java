@@ -41,7 +41,8 @@ import com.baidu.hugegraph.unit.BaseUnitTest;
 
 public class BaseRocksDBUnitTest extends BaseUnitTest {
 
-    private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
+    protected static final String TMP_DIR =
+                                  System.getProperty("java.io.tmpdir");
     private static final String DB_PATH = TMP_DIR + "/" + "rocksdb";
 
     protected static final String TABLE = "test-table";
@@ -112,12 +113,15 @@ public class BaseRocksDBUnitTest extends BaseUnitTest {
         return buf.getLong();
     }
 
-    private static RocksDBSessions open(String table) throws RocksDBException {
+    protected static HugeConfig config() {
         Configuration conf = Mockito.mock(PropertiesConfiguration.class);
         Mockito.when(conf.getKeys()).thenReturn(Collections.emptyIterator());
-        HugeConfig config = new HugeConfig(conf);
+        return new HugeConfig(conf);
+    }
+
+    private static RocksDBSessions open(String table) throws RocksDBException {
         final String path = DB_PATH;
-        RocksDBSessions rocks = new RocksDBStdSessions(config, path, path);
+        RocksDBSessions rocks = new RocksDBStdSessions(config(), path, path);
         rocks.createTable(table);
         return rocks;
     }
@@ -75,6 +75,27 @@ public class RocksDBCountersTest extends BaseRocksDBUnitTest {
         }
     }
 
+    @Test
+    public void testCounterAfterReopen() throws RocksDBException {
+        Session session = this.rocks.session();
+        for (int i = 1; i <= 10; i++) {
+            Id id = this.counters.nextId(session, HugeType.PROPERTY_KEY);
+            Assert.assertEquals(i, id.asLong());
+        }
+
+        // Continue from the reserved block of the previous counters
+        RocksDBTables.Counters counters = new RocksDBTables.Counters(DATABASE);
+        Id id = counters.nextId(session, HugeType.PROPERTY_KEY);
+        Assert.assertEquals(1001L, id.asLong());
+        id = counters.nextId(session, HugeType.VERTEX_LABEL);
+        Assert.assertEquals(1L, id.asLong());
+
+        // Allocate from the counter in RocksDB after reset
+        counters.reset();
+        id = counters.nextId(session, HugeType.PROPERTY_KEY);
+        Assert.assertEquals(2001L, id.asLong());
+    }
+
     @Test
     public void testCounterWithMutiThreads() {
         final int TIMES = 1000;
@@ -0,0 +1,382 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.rocksdb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.rocksdb.RocksDBException;
+
+import com.baidu.hugegraph.backend.BackendException;
+import com.baidu.hugegraph.backend.id.EdgeId;
+import com.baidu.hugegraph.backend.id.IdGenerator;
+import com.baidu.hugegraph.backend.query.ConditionQuery;
+import com.baidu.hugegraph.backend.query.IdQuery;
+import com.baidu.hugegraph.backend.query.Query;
+import com.baidu.hugegraph.backend.serializer.BinaryBackendEntry;
+import com.baidu.hugegraph.backend.serializer.BinarySerializer;
+import com.baidu.hugegraph.backend.serializer.BytesBuffer;
+import com.baidu.hugegraph.backend.store.BackendEntry;
+import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBEdgeBlocks;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions.Session;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBTables;
+import com.baidu.hugegraph.iterator.Metadatable;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.type.HugeType;
+import com.baidu.hugegraph.type.define.Directions;
+import com.baidu.hugegraph.type.define.HugeKeys;
+import com.baidu.hugegraph.util.Bytes;
+
+public class RocksDBEdgeBlocksTest extends BaseRocksDBUnitTest {
+
+    private static final String DATABASE = "test-db";
+
+    private RocksDBTables.Edge edges;
+    private BinarySerializer serializer;
+
+    @Override
+    @Before
+    public void setup() throws RocksDBException {
+        super.setup();
+        this.edges = RocksDBTables.Edge.out(DATABASE);
+        this.edges.blocks(true);
+        this.rocks.createTable(this.edges.table());
+        this.edges.checkBlocks(this.rocks.session());
+        this.serializer = new BinarySerializer();
+    }
+
+    @Test
+    public void testInsertAndQueryEdges() throws RocksDBException {
+        this.insert(key(1, 1, "", 5), "v5");
+        this.insert(key(1, 1, "", 3), "v3");
+        this.insert(key(1, 1, "", 9), "v9");
+        this.insert(key(1, 2, "s", 7), "v7");
+        this.insert(key(2, 1, "", 4), "v4");
+        this.commit();
+
+        // The edges without sort values are packed into blocks
+        Session session = this.rocks.session();
+        Assert.assertNull(session.get(this.edges.table(), key(1, 1, "", 3)));
+        Assert.assertNotNull(session.get(this.edges.table(),
+                                         key(1, 2, "s", 7)));
+
+        List<BackendColumn> cols = this.query(edgesOf(1, null));
+        Assert.assertEquals(4, cols.size());
+        // The edges in blocks are in the order of blocks
+        Map<String, String> edges = toMap(cols.subList(0, 3));
+        Assert.assertEquals("v3", edges.get(Bytes.toHex(key(1, 1, "", 3))));
+        Assert.assertEquals("v5", edges.get(Bytes.toHex(key(1, 1, "", 5))));
+        Assert.assertEquals("v9", edges.get(Bytes.toHex(key(1, 1, "", 9))));
+        assertColumn(key(1, 2, "s", 7), "v7", cols.get(3));
+
+        cols = this.query(edgesOf(1, 1L));
+        Assert.assertEquals(3, cols.size());
+
+        cols = this.query(edgeById(1, 1, 9));
+        Assert.assertEquals(1, cols.size());
+        assertColumn(key(1, 1, "", 9), "v9", cols.get(0));
+
+        cols = this.query(edgeById(1, 1, 4));
+        Assert.assertEquals(0, cols.size());
+
+        cols = this.query(edgesOf(2, null));
+        Assert.assertEquals(1, cols.size());
+        assertColumn(key(2, 1, "", 4), "v4", cols.get(0));
+    }
+
+    @Test
+    public void testUpdateAndDeleteEdges() throws RocksDBException {
+        this.insert(key(1, 1, "", 3), "v3");
+        this.insert(key(1, 1, "", 5), "v5");
+        this.commit();
+
+        this.insert(key(1, 1, "", 5), "v5-updated");
+        this.delete(key(1, 1, "", 3));
+        this.commit();
+
+        List<BackendColumn> cols = this.query(edgesOf(1, null));
+        Assert.assertEquals(1, cols.size());
+        assertColumn(key(1, 1, "", 5), "v5-updated", cols.get(0));
+
+        // The blocks are still readable after disabled
+        this.edges.blocks(false);
+        cols = this.query(edgeById(1, 1, 5));
+        Assert.assertEquals(1, cols.size());
+        assertColumn(key(1, 1, "", 5), "v5-updated", cols.get(0));
+    }
+
+    @Test
+    public void testDisableBlocksAfterWritten() throws RocksDBException {
+        this.insert(key(1, 1, "", 3), "v3");
+        this.commit();
+
+        this.edges.blocks(false);
+        Assert.assertThrows(BackendException.class, () -> {
+            this.edges.checkBlocks(this.rocks.session());
+        });
+
+        // It's allowed to disable blocks for the table without blocks
+        RocksDBTables.Edge inEdges = RocksDBTables.Edge.in(DATABASE);
+        this.rocks.createTable(inEdges.table());
+        inEdges.checkBlocks(this.rocks.session());
+    }
+
+    @Test
+    public void testCompactBlocks() throws RocksDBException {
+        byte[] key = key(1, 1, "", 3);
+        byte[] block = RocksDBEdgeBlocks.blockKey(
+                       key, RocksDBEdgeBlocks.labelEnd(key));
+        Session session = this.rocks.session();
+
+        this.insert(key, "v3");
+        this.insert(key, "v3-updated");
+        this.commit();
+        this.delete(key);
+        this.insert(key, "v3-inserted");
+        this.commit();
+
+        // Only the live record is kept
+        int size = session.get(this.edges.table(), block).length;
+        this.edges.compactBlocks(session);
+        Assert.assertTrue(session.get(this.edges.table(), block).length <
+                          size / 2);
+        List<BackendColumn> cols = this.query(edgesOf(1, null));
+        Assert.assertEquals(1, cols.size());
+        assertColumn(key, "v3-inserted", cols.get(0));
+
+        // The block without live records is removed
+        this.delete(key);
+        this.commit();
+        this.edges.compactBlocks(session);
+        Assert.assertNull(session.get(this.edges.table(), block));
+        Assert.assertEquals(0, this.query(edgesOf(1, null)).size());
+    }
+
+    @Test
+    public void testCompactBlocksWhileCommitting() throws Exception {
+        byte[] key = key(1, 1, "", 3);
+        this.insert(key, "v3");
+        this.commit();
+        this.delete(key);
+        this.commit();
+        this.edges.clearWrittenBlocks();
+
+        // The block being committed can't be compacted until committed
+        this.insert(key, "v3-inserted");
+        List<Lock> locks = this.edges.lockWrittenBlocks();
+        Assert.assertEquals(1, locks.size());
+        Thread compactor = new Thread(() -> {
+            this.edges.compactBlocks(this.rocks.session());
+            this.rocks.closeSession();
+        });
+        compactor.start();
+        compactor.join(100L);
+        Assert.assertTrue(compactor.isAlive());
+        try {
+            this.commit();
+        } finally {
+            for (Lock lock : locks) {
+                lock.unlock();
+            }
+        }
+        compactor.join();
+
+        List<BackendColumn> cols = this.query(edgesOf(1, null));
+        Assert.assertEquals(1, cols.size());
+        assertColumn(key, "v3-inserted", cols.get(0));
+    }
+
+    @Test
+    public void testQueryEdgesByIds() throws RocksDBException {
+        this.insert(key(1, 1, "", 3), "v3");
+        this.insert(key(1, 1, "", 5), "v5");
+        this.insert(key(1, 2, "s", 7), "v7");
+        this.commit();
+
+        IdQuery query = new IdQuery(HugeType.EDGE_OUT);
+        query.query(edgeId(1, 1, "", 5));
+        query.query(edgeId(1, 2, "s", 7));
+        query.query(edgeId(1, 1, "", 4));
+        query.query(edgeId(1, 1, "", 3));
+        // The edges in blocks may not be in the order of ids
+        Map<String, String> edges = toMap(this.query(query));
+        Assert.assertEquals(3, edges.size());
+        Assert.assertEquals("v3", edges.get(Bytes.toHex(key(1, 1, "", 3))));
+        Assert.assertEquals("v5", edges.get(Bytes.toHex(key(1, 1, "", 5))));
+        Assert.assertEquals("v7", edges.get(Bytes.toHex(key(1, 2, "s", 7))));
+    }
+
+    @Test
+    public void testQueryEdgesByPage() throws RocksDBException {
+        final int count = 100;
+        for (int i = 0; i < count; i++) {
+            this.insert(key(1, 1, "", i), "v" + i);
+        }
+        this.commit();
+
+        List<BackendColumn> cols = this.queryByPages(30);
+        Assert.assertEquals(count, cols.size());
+        Map<String, String> edges = toMap(cols);
+        Assert.assertEquals(count, edges.size());
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals("v" + i,
+                                edges.get(Bytes.toHex(key(1, 1, "", i))));
+        }
+    }
+
+    @Test
+    public void testQueryEdgesByPageWithEdgesAndBlocks()
+                throws RocksDBException {
+        final int count = 100;
+        // The edges written before enabling blocks are kept as is
+        this.edges.blocks(false);
+        for (int i = 0; i < count; i += 2) {
+            this.insert(key(1, 1, "", i), "v" + i);
+        }
+        this.commit();
+        this.edges.blocks(true);
+        for (int i = 1; i < count; i += 2) {
+            this.insert(key(1, 1, "", i), "v" + i);
+        }
+        this.commit();
+
+        Session session = this.rocks.session();
+        Assert.assertNotNull(session.get(this.edges.table(),
+                                         key(1, 1, "", 0)));
+        Assert.assertNull(session.get(this.edges.table(), key(1, 1, "", 1)));
+
+        for (int limit : new int[]{1, 7, 30, count}) {
+            List<BackendColumn> cols = this.queryByPages(limit);
+            Assert.assertEquals(count, cols.size());
+            Map<String, String> edges = toMap(cols);
+            Assert.assertEquals(count, edges.size());
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals("v" + i,
+                                    edges.get(Bytes.toHex(key(1, 1, "", i))));
+            }
+        }
+    }
+
+    private void insert(byte[] key, String value) {
+        BackendEntry entry = entry(key);
+        entry.columns(column(key, b(value)));
+        this.edges.insert(this.rocks.session(), entry);
+    }
+
+    private void delete(byte[] key) {
+        BackendEntry entry = entry(key);
+        entry.columns(column(key, new byte[0]));
+        this.edges.delete(this.rocks.session(), entry);
+    }
+
+    private List<BackendColumn> queryByPages(int limit) {
+        List<BackendColumn> cols = new ArrayList<>();
+        String page = "";
+        while (page != null) {
+            Query query = new Query(HugeType.EDGE_OUT);
+            query.limit(limit);
+            query.page(page);
+            Iterator<BackendEntry> iter = this.edges.query(
+                                          this.rocks.session(), query);
+            while (iter.hasNext()) {
+                cols.addAll(iter.next().columns());
+            }
+            page = (String) ((Metadatable) iter).metadata("page");
+        }
+        return cols;
+    }
+
+    private List<BackendColumn> query(Query query) {
+        Query serialized = this.serializer.writeQuery(query);
+        Iterator<BackendEntry> iter = this.edges.query(this.rocks.session(),
+                                                       serialized);
+        List<BackendColumn> cols = new ArrayList<>();
+        while (iter.hasNext()) {
+            cols.addAll(iter.next().columns());
+        }
+        return cols;
+    }
+
+    private static Map<String, String> toMap(List<BackendColumn> cols) {
+        Map<String, String> edges = new HashMap<>();
+        for (BackendColumn col : cols) {
+            edges.put(Bytes.toHex(col.name), s(col.value));
+        }
+        return edges;
+    }
+
+    private static void assertColumn(byte[] name, String value,
+                                     BackendColumn col) {
+        Assert.assertArrayEquals(name, col.name);
+        Assert.assertEquals(value, s(col.value));
+    }
+
+    private static BackendColumn column(byte[] name, byte[] value) {
+        BackendColumn col = new BackendColumn();
+        col.name = name;
+        col.value = value;
+        return col;
+    }
+
+    private static BackendEntry entry(byte[] key) {
+        HugeType type = HugeType.EDGE_OUT;
+        return new BinaryBackendEntry(type,
+                                      BinarySerializer.splitIdKey(type, key));
+    }
+
+    private static Query edgesOf(long owner, Long label) {
+        ConditionQuery query = new ConditionQuery(HugeType.EDGE_OUT);
+        query.eq(HugeKeys.OWNER_VERTEX, IdGenerator.of(owner));
+        query.eq(HugeKeys.DIRECTION, Directions.OUT);
+        if (label != null) {
+            query.eq(HugeKeys.LABEL, IdGenerator.of(label));
+        }
+        return query;
+    }
+
+    private static Query edgeById(long owner, long label, long other) {
+        return new IdQuery(HugeType.EDGE_OUT, edgeId(owner, label, "", other));
+    }
+
+    private static EdgeId edgeId(long owner, long label, String sortValues,
+                                 long other) {
+        return new EdgeId(IdGenerator.of(owner), Directions.OUT,
+                          IdGenerator.of(label), sortValues,
+                          IdGenerator.of(other));
+    }
+
+    private static byte[] key(long owner, long label, String sortValues,
+                              long other) {
+        BytesBuffer buffer = BytesBuffer.allocate(64);
+        buffer.writeId(IdGenerator.of(owner));
+        buffer.write(HugeType.EDGE_OUT.code());
+        buffer.writeId(IdGenerator.of(label));
+        buffer.writeString(sortValues);
+        buffer.writeId(IdGenerator.of(other));
+        return buffer.bytes();
+    }
+}
@@ -19,18 +19,31 @@
 
 package com.baidu.hugegraph.unit.rocksdb;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Assume;
 import org.junit.Test;
 import org.rocksdb.RocksDBException;
 
 import com.baidu.hugegraph.backend.store.BackendEntry.BackendColumn;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions;
 import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions.Session;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBStdSessions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.OptionSpace;
 import com.baidu.hugegraph.testutil.Assert;
+import com.google.common.collect.ImmutableList;
 
 public class RocksDBSessionsTest extends BaseRocksDBUnitTest {
 
@@ -136,6 +149,184 @@ public class RocksDBSessionsTest extends BaseRocksDBUnitTest {
         Assert.assertEquals("Lisa", get("person:2gname"));
     }
 
+    @Test
+    public void testGetByKeys() throws RocksDBException {
+        put("person:1gname", "James");
+        put("person:2gname", "Lisa");
+        put("person:3gname", "Hebe");
+
+        List<byte[]> keys = ImmutableList.of(b("person:3gname"),
+                                             b("person:4gname"),
+                                             b("person:1gname"));
+        List<String> results = new ArrayList<>();
+        Session session = this.rocks.session();
+        Iterator<BackendColumn> itor = session.get(TABLE, keys);
+        while (itor.hasNext()) {
+            BackendColumn col = itor.next();
+            results.add(s(col.name) + "=" + s(col.value));
+        }
+
+        // The missing keys are skipped, the others are in order of keys
+        Assert.assertEquals(ImmutableList.of("person:3gname=Hebe",
+                                             "person:1gname=James"),
+                            results);
+    }
+
+    @Test
+    public void testScanByPrefixes() throws RocksDBException {
+        put("person:1gname", "James");
+        put("person:1gage", "19");
+
+        put("person:2gname", "Lisa");
+        put("person:2gage", "20");
+
+        put("person:3gname", "Hebe");
+        put("person:3gage", "21");
+
+        List<byte[]> prefixes = ImmutableList.of(b("person:3"),
+                                                 b("person:4"),
+                                                 b("person:1"));
+        List<String> results = new ArrayList<>();
+        Session session = this.rocks.session();
+        Iterator<BackendColumn> itor = session.scan(TABLE, prefixes);
+        while (itor.hasNext()) {
+            BackendColumn col = itor.next();
+            results.add(s(col.name) + "=" + s(col.value));
+        }
+
+        Assert.assertEquals(ImmutableList.of("person:3gage=21",
+                                             "person:3gname=Hebe",
+                                             "person:1gage=19",
+                                             "person:1gname=James"),
+                            results);
+    }
+
+    @Test
+    public void testGetAndScanWithSnapshot() throws RocksDBException {
+        put("person:1gname", "James");
+
+        Session session = this.rocks.session();
+        session.pinSnapshot();
+        try {
+            put("person:1gname", "James2");
+            put("person:1gage", "19");
+
+            // Read the data of the snapshot
+            Assert.assertEquals("James", get("person:1gname"));
+            Assert.assertEquals(null, get("person:1gage"));
+            Iterator<BackendColumn> itor = session.scan(TABLE,
+                                                        b("person:1"));
+            Assert.assertTrue(itor.hasNext());
+            Assert.assertEquals("James", s(itor.next().value));
+            Assert.assertFalse(itor.hasNext());
+        } finally {
+            session.releaseSnapshot();
+        }
+
+        Assert.assertEquals("James2", get("person:1gname"));
+        Assert.assertEquals("19", get("person:1gage"));
+
+        Assert.assertThrows(IllegalStateException.class, () -> {
+            session.releaseSnapshot();
+        });
+    }
+
+    @Test
+    public void testCreateCheckpoint() throws RocksDBException, IOException {
+        put("person:1gname", "James");
+
+        String path = TMP_DIR + "/rocksdb-checkpoint";
+        FileUtils.deleteQuietly(FileUtils.getFile(path));
+        this.rocks.createCheckpoint(path);
+
+        put("person:2gname", "Lisa");
+
+        RocksDBSessions checkpoint = new RocksDBStdSessions(
+                                     config(), path, path,
+                                     ImmutableList.of(TABLE));
+        try {
+            Session session = checkpoint.session();
+            Assert.assertEquals("James",
+                                s(session.get(TABLE, b("person:1gname"))));
+            Assert.assertEquals(null,
+                                s(session.get(TABLE, b("person:2gname"))));
+        } finally {
+            checkpoint.close();
+            FileUtils.forceDelete(FileUtils.getFile(path));
+        }
+        Assert.assertEquals("Lisa", get("person:2gname"));
+    }
+
+    @Test
+    public void testCommitWithSyncMode() throws Exception {
+        String path = TMP_DIR + "/rocksdb-sync";
+        HugeConfig config = config();
+        OptionSpace.register("rocksdb", RocksDBOptions.instance());
+        config.addProperty(RocksDBOptions.WRITE_MODE.name(), "sync");
+
+        RocksDBSessions rocks = new RocksDBStdSessions(config, path, path);
+        rocks.createTable(TABLE);
+        final int threads = 4;
+        final int count = 100;
+        try {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final int thread = i;
+                futures.add(executor.submit(() -> {
+                    Session session = rocks.session();
+                    for (int j = 0; j < count; j++) {
+                        session.put(TABLE, b("key-" + thread + "-" + j),
+                                    b("value-" + j));
+                        Assert.assertEquals(1, session.commit());
+                    }
+                    // The sessions are thread local
+                    rocks.closeSession();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            Session session = rocks.session();
+            for (int i = 0; i < threads; i++) {
+                for (int j = 0; j < count; j++) {
+                    byte[] value = session.get(TABLE, b("key-" + i + "-" + j));
+                    Assert.assertEquals("value-" + j, s(value));
+                }
+            }
+        } finally {
+            rocks.close();
+            FileUtils.forceDelete(FileUtils.getFile(path));
+        }
+    }
+
+    @Test
+    public void testWriteWithNoWalMode() throws RocksDBException, IOException {
+        String path = TMP_DIR + "/rocksdb-no-wal";
+        HugeConfig config = config();
+        OptionSpace.register("rocksdb", RocksDBOptions.instance());
+        config.addProperty(RocksDBOptions.WRITE_MODE.name(), "no_wal");
+
+        RocksDBSessions rocks = new RocksDBStdSessions(config, path, path);
+        rocks.createTable(TABLE);
+        try {
+            rocks.session().put(TABLE, b("person:1gname"), b("James"));
+            rocks.session().commit();
+            // The memtables are flushed when closing
+            rocks.close();
+
+            rocks = new RocksDBStdSessions(config(), path, path,
+                                           ImmutableList.of(TABLE));
+            Assert.assertEquals("James", s(rocks.session().get(
+                                           TABLE, b("person:1gname"))));
+        } finally {
+            rocks.close();
+            FileUtils.forceDelete(FileUtils.getFile(path));
+        }
+    }
+
     @Test
     public void testScanByRange() throws RocksDBException {
         put("person:1gname", "James");
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.baidu.hugegraph.unit.rocksdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.rocksdb.RocksDBException;
+
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBOptions;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBSessions;
+import com.baidu.hugegraph.backend.store.rocksdb.RocksDBStdSessions;
+import com.baidu.hugegraph.backend.store.rocksdbsst.RocksDBSstSessions;
+import com.baidu.hugegraph.config.HugeConfig;
+import com.baidu.hugegraph.config.OptionSpace;
+import com.baidu.hugegraph.testutil.Assert;
+import com.baidu.hugegraph.unit.BaseUnitTest;
+
+public class RocksDBSstSessionsTest extends BaseUnitTest {
+
+    private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
+    private static final String SST_PATH = TMP_DIR + "/" + "rocksdb-sst";
+    private static final String DB_PATH = TMP_DIR + "/" + "rocksdb-sst-db";
+
+    private static final String TABLE = "test-table";
+
+    @Before
+    public void setup() throws IOException {
+        OptionSpace.register("rocksdb", RocksDBOptions.instance());
+        this.deleteDirs();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.deleteDirs();
+    }
+
+    private void deleteDirs() throws IOException {
+        FileUtils.deleteDirectory(new File(SST_PATH));
+        FileUtils.deleteDirectory(new File(DB_PATH));
+    }
+
+    @Test
+    public void testWriteUnsortedRecordsAndIngest() throws RocksDBException {
+        Configuration conf = Mockito.mock(PropertiesConfiguration.class);
+        Mockito.when(conf.getKeys()).thenReturn(Collections.emptyIterator());
+        HugeConfig config = new HugeConfig(conf);
+        config.addProperty(RocksDBOptions.SST_WRITERS.name(), "4");
+        config.addProperty(RocksDBOptions.SST_SORT_BUFFER_SIZE.name(),
+                           String.valueOf(1024 * 1024));
+        config.addProperty(RocksDBOptions.SST_PATH.name(), SST_PATH);
+
+        // Put records in random order to spill several runs
+        final int count = 50000;
+        List<Integer> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+
+        RocksDBSessions sst = new RocksDBSstSessions(
+                              config, SST_PATH,
+                              Collections.singletonList(TABLE));
+        for (int i = 0; i < count; i++) {
+            int n = numbers.get(i);
+            sst.session().put(TABLE, key(n), value(n, 1));
+            if (i % 1000 == 0) {
+                sst.session().commit();
+            }
+        }
+        sst.session().commit();
+        // Override some records, the latest ones should be kept
+        for (int n = 0; n < count; n += 10) {
+            sst.session().put(TABLE, key(n), value(n, 2));
+        }
+        sst.session().commit();
+        sst.close();
+
+        // Written into multiple SST files without overlapping
+        File[] files = new File(SST_PATH, TABLE).listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertTrue(files.length > 1);
+        Assert.assertFalse(new File(SST_PATH, TABLE + ".sorting").exists());
+
+        // Ingest the SST files when creating the table
+        RocksDBSessions rocks = new RocksDBStdSessions(config, DB_PATH,
+                                                       DB_PATH);
+        try {
+            rocks.createTable(TABLE);
+            for (int n = 0; n < count; n++) {
+                byte[] value = rocks.session().get(TABLE, key(n));
+                Assert.assertNotNull("Key not found: " + n, value);
+                Assert.assertEquals(new String(value(n, n % 10 == 0 ? 2 : 1)),
+                                    new String(value));
+            }
+        } finally {
+            rocks.close();
+        }
+    }
+
+    private static byte[] key(int n) {
+        return String.format("key-%08d", n).getBytes();
+    }
+
+    private static byte[] value(int n, int version) {
+        return String.format("value-%08d-v%d", n, version).getBytes();
+    }
+}